@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.functions;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Compares the generic distance function, which resolves the metric and converts the target for every row, with the
+ * kernel chosen when the code is generated for a literal metric, which gets the target as primitive vector.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceBenchmark {
+
+    @Param({ "16", "128", "1024" })
+    private int dimension;
+
+    @Param({ "L2", "COSINE" })
+    private String metric;
+
+    private List<Double> value;
+    private List<Double> target;
+    private double[] targetVector;
+    private boolean l2;
+
+
+    @Setup
+    public void setup() {
+        final Random random = new Random( 42 );
+        value = new ArrayList<>( dimension );
+        target = new ArrayList<>( dimension );
+        for ( int i = 0; i < dimension; i++ ) {
+            value.add( random.nextDouble() );
+            target.add( random.nextDouble() );
+        }
+        targetVector = Functions.toVector( target );
+        l2 = "L2".equals( metric );
+    }
+
+
+    @Benchmark
+    public double generic() {
+        return Functions.distance( value, target, metric );
+    }
+
+
+    @Benchmark
+    public double kernel() {
+        return l2
+                ? Functions.distanceL2( value, targetVector )
+                : Functions.distanceCosine( value, targetVector );
+    }
+
+}
@@ -197,6 +197,9 @@ public List<List<Object>> getRows( Statement statement, int size, boolean isTime
         Iterator<Object> iterator = null;
         StopWatch stopWatch = null;
         try {
+            if ( size > 0 ) {
+                statement.getDataContext().addAll( Map.of( DataContext.Variable.FETCH_SIZE.camelName, size ) );
+            }
             iterator = createIterator( getBindable(), statement, isAnalyzed );
             List<List<Object>> res;
 
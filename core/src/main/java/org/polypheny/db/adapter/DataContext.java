@@ -157,6 +157,12 @@ enum Variable {
          */
         TIMEOUT( "timeout", Long.class ),
 
+        /**
+         * Number of rows the consumer of the result retrieves at once, e.g. the size of a frame requested by a client.
+         * Adapters may use it to size their fetches. When not present, the whole result is expected to be consumed.
+         */
+        FETCH_SIZE( "fetchSize", Integer.class ),
+
         /**
          * Advisor that suggests completion hints for SQL statements.
          */
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter;
+
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+
+/**
+ * Columnar storage of the parameter values bound to a statement. Each parameter index maps to one array holding the
+ * values of all rows of the batch; binding a batch of N rows therefore only allocates one array per parameter.
+ *
+ * For existing consumers, the batch is exposed as a list with one {@code ParameterIndex -> Value} map per row.
+ * The rows are views on the column arrays and are not materialized.
+ */
+public class ParameterBatch extends AbstractList<Map<Long, Object>> implements RandomAccess {
+
+    private final Map<Long, Object[]> columns = new LinkedHashMap<>();
+    private int rowCount = -1;
+
+
+    /**
+     * Creates a batch holding the same values as the given row-wise parameter values.
+     */
+    public static ParameterBatch of( List<Map<Long, Object>> rows ) {
+        if ( rows instanceof ParameterBatch ) {
+            return (ParameterBatch) rows;
+        }
+        final ParameterBatch batch = new ParameterBatch();
+        if ( rows.isEmpty() ) {
+            return batch;
+        }
+        batch.rowCount = rows.size();
+        for ( Long index : rows.get( 0 ).keySet() ) {
+            final Object[] column = new Object[rows.size()];
+            int i = 0;
+            for ( Map<Long, Object> row : rows ) {
+                column[i++] = row.get( index );
+            }
+            batch.columns.put( index, column );
+        }
+        return batch;
+    }
+
+
+    /**
+     * Adds the values of the parameter with the given index; one value per row.
+     */
+    public void addColumn( long index, List<Object> values ) {
+        if ( columns.containsKey( index ) ) {
+            throw new RuntimeException( "There are already values assigned to this index" );
+        }
+        if ( rowCount >= 0 && rowCount != values.size() ) {
+            throw new RuntimeException( "Expecting " + rowCount + " rows but " + values.size() + " values specified!" );
+        }
+        rowCount = values.size();
+        columns.put( index, values.toArray() );
+    }
+
+
+    /**
+     * Returns the values of the parameter with the given index, or {@code null} if there are none.
+     */
+    public Object[] getColumn( long index ) {
+        return columns.get( index );
+    }
+
+
+    public Set<Long> getIndexes() {
+        return Collections.unmodifiableSet( columns.keySet() );
+    }
+
+
+    public Object getValue( int row, long index ) {
+        final Object[] column = columns.get( index );
+        return column == null ? null : column[row];
+    }
+
+
+    @Override
+    public Map<Long, Object> get( int row ) {
+        if ( row < 0 || row >= size() ) {
+            throw new IndexOutOfBoundsException( "Row " + row + " of " + size() );
+        }
+        return new RowView( row );
+    }
+
+
+    @Override
+    public int size() {
+        return Math.max( rowCount, 0 );
+    }
+
+
+    /**
+     * Removes one row from all columns; the row is returned as a detached map.
+     */
+    @Override
+    public Map<Long, Object> remove( int row ) {
+        if ( row < 0 || row >= size() ) {
+            throw new IndexOutOfBoundsException( "Row " + row + " of " + size() );
+        }
+        final Map<Long, Object> removed = new LinkedHashMap<>();
+        for ( Map.Entry<Long, Object[]> entry : columns.entrySet() ) {
+            final Object[] column = entry.getValue();
+            removed.put( entry.getKey(), column[row] );
+            final Object[] remaining = new Object[column.length - 1];
+            System.arraycopy( column, 0, remaining, 0, row );
+            System.arraycopy( column, row + 1, remaining, row, column.length - row - 1 );
+            entry.setValue( remaining );
+        }
+        rowCount--;
+        modCount++;
+        return removed;
+    }
+
+
+    /**
+     * Removes all columns, the batch can afterwards be filled with columns of any size.
+     */
+    @Override
+    public void clear() {
+        columns.clear();
+        rowCount = -1;
+        modCount++;
+    }
+
+
+    /**
+     * Map view on one row of the batch.
+     */
+    private class RowView extends AbstractMap<Long, Object> {
+
+        private final int row;
+
+
+        RowView( int row ) {
+            this.row = row;
+        }
+
+
+        @Override
+        public Object get( Object key ) {
+            final Object[] column = columns.get( key );
+            return column == null ? null : column[row];
+        }
+
+
+        @Override
+        public boolean containsKey( Object key ) {
+            return columns.containsKey( key );
+        }
+
+
+        @Override
+        public Object put( Long key, Object value ) {
+            final Object[] column = columns.get( key );
+            if ( column == null ) {
+                throw new UnsupportedOperationException( "Parameter " + key + " is not part of the batch" );
+            }
+            final Object old = column[row];
+            column[row] = value;
+            return old;
+        }
+
+
+        @Override
+        public int size() {
+            return columns.size();
+        }
+
+
+        @Override
+        public Set<Long> keySet() {
+            return getIndexes();
+        }
+
+
+        @Override
+        public Set<Entry<Long, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Long, Object>> iterator() {
+                    final Iterator<Entry<Long, Object[]>> iterator = columns.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+
+                        @Override
+                        public Entry<Long, Object> next() {
+                            final Entry<Long, Object[]> column = iterator.next();
+                            return new SimpleEntry<>( column.getKey(), column.getValue()[row] );
+                        }
+                    };
+                }
+
+
+                @Override
+                public int size() {
+                    return columns.size();
+                }
+            };
+        }
+
+    }
+
+}
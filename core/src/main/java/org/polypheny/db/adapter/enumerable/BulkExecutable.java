@@ -0,0 +1,33 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+/**
+ * Implemented by enumerable operators which consume all rows of the parameter batch bound to the
+ * {@link org.polypheny.db.adapter.DataContext} in a single execution (e.g. using JDBC {@code addBatch} or
+ * Mongo {@code insertMany}). Plans consisting only of such operators are not re-executed for every parameter row
+ * by {@link EnumerableBatchIterator}.
+ */
+public interface BulkExecutable {
+
+    /**
+     * Returns whether this operator can be executed once for the whole parameter batch.
+     */
+    boolean supportsBulkExecution();
+
+}
@@ -78,10 +78,14 @@
 import org.apache.calcite.linq4j.tree.VisitorImpl;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.constant.ConformanceEnum;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.algebra.type.AlgDataTypeField;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgImplementor;
 import org.polypheny.db.prepare.JavaTypeFactoryImpl.SyntheticRecordType;
 import org.polypheny.db.rex.RexBuilder;
 import org.polypheny.db.runtime.Bindable;
+import org.polypheny.db.type.PolyType;
 import org.polypheny.db.util.BuiltInMethod;
 import org.polypheny.db.util.Conformance;
 
@@ -116,6 +120,52 @@ public EnumerableAlg.Result visitChild( EnumerableAlg parent, int ordinal, Enume
     }
 
 
+    /**
+     * Implements the given child so that it returns an {@code Enumerable<ColumnBatch>}. Children which do not
+     * {@link EnumerableBatchAlg produce batches} are implemented row-based and their rows are grouped into batches.
+     */
+    public EnumerableAlg.Result visitBatchChild( EnumerableAlg parent, int ordinal, EnumerableAlg child ) {
+        assert child == parent.getInputs().get( ordinal );
+        if ( child instanceof EnumerableBatchAlg && ((EnumerableBatchAlg) child).producesBatches() ) {
+            return ((EnumerableBatchAlg) child).implementBatches( this );
+        }
+        final BlockBuilder builder = new BlockBuilder();
+        final EnumerableAlg.Result result = child.implement( this, EnumerableAlg.Prefer.ARRAY );
+        // the batches are built from arrays, also for single field rows
+        final PhysType physType = PhysTypeImpl.of( getTypeFactory(), child.getRowType(), JavaRowFormat.ARRAY, false );
+        final Expression rows = result.physType.convertTo( builder.append( "child", result.block ), physType );
+        builder.add(
+                Expressions.call(
+                        BuiltInMethod.TO_COLUMN_BATCHES.method,
+                        rows,
+                        columnTypes( child.getRowType() ),
+                        Expressions.constant( RuntimeConfig.COLUMNAR_BATCH_SIZE.getInteger() ) ) );
+        return result( physType, builder.toBlock() );
+    }
+
+
+    /**
+     * Flattens the result of {@link EnumerableBatchAlg#implementBatches} into rows in the array format.
+     */
+    public EnumerableAlg.Result flattenBatches( EnumerableAlg.Result batches ) {
+        final BlockBuilder builder = new BlockBuilder();
+        builder.add( Expressions.call( BuiltInMethod.FROM_COLUMN_BATCHES.method, builder.append( "batches", batches.block ) ) );
+        return result( batches.physType, builder.toBlock() );
+    }
+
+
+    /**
+     * Returns an expression for the list of the types of the given row type, as required to create column batches.
+     */
+    public Expression columnTypes( AlgDataType rowType ) {
+        final List<Expression> types = new ArrayList<>();
+        for ( AlgDataTypeField field : rowType.getFieldList() ) {
+            types.add( Expressions.constant( field.getType().getPolyType() ) );
+        }
+        return Expressions.call( BuiltInMethod.ARRAYS_AS_LIST.method, Expressions.newArrayInit( PolyType.class, types ) );
+    }
+
+
     public int increaseContext() {
         return ++contextCounter;
     }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import org.polypheny.db.runtime.vector.ColumnBatch;
+
+
+/**
+ * An {@link EnumerableAlg} which is able to produce its output as {@link ColumnBatch columnar batches}.
+ *
+ * Operators which consume batches obtain their inputs via {@link EnumerableAlgImplementor#visitBatchChild}, so that
+ * consecutive batch operators exchange column vectors instead of boxed rows. Inputs which do not produce batches
+ * are converted at the boundary.
+ */
+public interface EnumerableBatchAlg extends EnumerableAlg {
+
+    /**
+     * Whether the output of this expression can be produced as batches.
+     */
+    boolean producesBatches();
+
+    /**
+     * Creates a plan for this expression which returns an {@code Enumerable<ColumnBatch>}.
+     * The physical type of the result describes the rows of the batches in the {@link JavaRowFormat#ARRAY array format}.
+     *
+     * @param implementor Implementor
+     * @return Plan for this expression
+     */
+    Result implementBatches( EnumerableAlgImplementor implementor );
+
+}
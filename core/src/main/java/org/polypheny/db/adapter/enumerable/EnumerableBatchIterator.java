@@ -26,7 +26,9 @@
 import org.apache.calcite.linq4j.tree.ParameterExpression;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.ModifyCollect;
 import org.polypheny.db.algebra.core.common.BatchIterator;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.util.BuiltInMethod;
@@ -62,6 +64,11 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         final BlockBuilder builder = new BlockBuilder();
         Result result = implementor.visitChild( this, 0, (EnumerableAlg) getInput(), pref );
 
+        if ( RuntimeConfig.BULK_BATCH_EXECUTION.getBoolean() && supportsBulkExecution( getInput() ) ) {
+            // the adapters bind the whole parameter batch themselves, the plan is only executed once
+            return result;
+        }
+
         final ParameterExpression _baz = Expressions.parameter( Enumerable.class, "_baz" );
 
         builder.add( Expressions.declare( 0, _baz, Expressions.new_(
@@ -77,4 +84,14 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         return implementor.result( result.physType, builder.toBlock() );
     }
 
+
+    private static boolean supportsBulkExecution( AlgNode node ) {
+        if ( node instanceof BulkExecutable ) {
+            return ((BulkExecutable) node).supportsBulkExecution();
+        } else if ( node instanceof ModifyCollect ) {
+            return node.getInputs().stream().allMatch( EnumerableBatchIterator::supportsBulkExecution );
+        }
+        return false;
+    }
+
 }
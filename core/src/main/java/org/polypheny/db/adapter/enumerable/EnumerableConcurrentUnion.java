@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.function.Function0;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Union;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+/**
+ * Implementation of {@link org.polypheny.db.algebra.logical.relational.LogicalConcurrentUnion} in
+ * {@link EnumerableConvention enumerable calling convention}. All inputs are started at once and their rows are
+ * handed over through bounded prefetch queues, so the latency is bound by the slowest input instead of the sum of all.
+ * The inputs are fetched by the worker pool of {@link org.polypheny.db.runtime.ParallelEnumerables}.
+ */
+public class EnumerableConcurrentUnion extends Union implements EnumerableAlg {
+
+    public EnumerableConcurrentUnion( AlgOptCluster cluster, AlgTraitSet traitSet, List<AlgNode> inputs ) {
+        super( cluster, traitSet, inputs, true );
+    }
+
+
+    @Override
+    public EnumerableConcurrentUnion copy( AlgTraitSet traitSet, List<AlgNode> inputs, boolean all ) {
+        assert all;
+        return new EnumerableConcurrentUnion( getCluster(), traitSet, inputs );
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final List<Expression> branches = new ArrayList<>();
+        for ( int i = 0; i < inputs.size(); i++ ) {
+            final Result result = implementor.visitChild( this, i, (EnumerableAlg) inputs.get( i ), pref );
+            branches.add( Expressions.lambda( result.block ) );
+        }
+
+        builder.add(
+                Expressions.call(
+                        BuiltInMethod.PREFETCH.method,
+                        Expressions.call( BuiltInMethod.ARRAYS_AS_LIST.method, Expressions.newArrayInit( Function0.class, branches ) ),
+                        Expressions.constant( RuntimeConfig.UNION_PREFETCH_SIZE.getInteger() ) ) );
+        final PhysType physType =
+                PhysTypeImpl.of(
+                        implementor.getTypeFactory(),
+                        getRowType(),
+                        pref.prefer( JavaRowFormat.CUSTOM ) );
+        return implementor.result( physType, builder.toBlock() );
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.logical.relational.LogicalConcurrentUnion;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.plan.Convention;
+
+
+/**
+ * Rule to convert a {@link LogicalConcurrentUnion} to an {@link EnumerableConcurrentUnion}.
+ */
+public class EnumerableConcurrentUnionRule extends ConverterRule {
+
+    public EnumerableConcurrentUnionRule() {
+        super( LogicalConcurrentUnion.class, Convention.NONE, EnumerableConvention.INSTANCE, "EnumerableConcurrentUnionRule" );
+    }
+
+
+    @Override
+    public AlgNode convert( AlgNode alg ) {
+        final LogicalConcurrentUnion union = (LogicalConcurrentUnion) alg;
+        final EnumerableConvention out = EnumerableConvention.INSTANCE;
+        final AlgTraitSet traitSet = union.getTraitSet().replace( out );
+        return new EnumerableConcurrentUnion( alg.getCluster(), traitSet, convertList( union.getInputs(), out ) );
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.function.Function0;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Union;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.runtime.ParallelEnumerables;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+/**
+ * Exchange operator which gathers the results of its inputs, which are evaluated concurrently on a worker pool.
+ * It is semantically equivalent to a {@code UNION ALL} of its inputs and returns the rows in input order.
+ * The inputs share the data context of the statement, they are therefore only gathered if they are
+ * placed on distinct adapters (see {@link EnumerableGatherRule}) and do not share a connection.
+ */
+public class EnumerableGather extends Union implements EnumerableAlg {
+
+    public EnumerableGather( AlgOptCluster cluster, AlgTraitSet traitSet, List<AlgNode> inputs ) {
+        super( cluster, traitSet, inputs, true );
+    }
+
+
+    @Override
+    public EnumerableGather copy( AlgTraitSet traitSet, List<AlgNode> inputs, boolean all ) {
+        assert all;
+        return new EnumerableGather( getCluster(), traitSet, inputs );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        // the inputs are evaluated concurrently, which is cheaper than evaluating them one after another
+        double rowCount = mq.getRowCount( this );
+        int parallelism = Math.min( inputs.size(), ParallelEnumerables.getParallelism() );
+        return planner.getCostFactory().makeCost( rowCount / parallelism, rowCount, 0 );
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final List<Expression> branches = new ArrayList<>();
+        for ( int i = 0; i < inputs.size(); i++ ) {
+            final Result result = implementor.visitChild( this, i, (EnumerableAlg) inputs.get( i ), pref );
+            branches.add( Expressions.lambda( result.block ) );
+        }
+
+        builder.add(
+                Expressions.call(
+                        BuiltInMethod.GATHER.method,
+                        Expressions.constant( ParallelEnumerables.getParallelism() ),
+                        Expressions.call( BuiltInMethod.ARRAYS_AS_LIST.method, Expressions.newArrayInit( Function0.class, branches ) ),
+                        Expressions.constant( RuntimeConfig.UNION_PREFETCH_SIZE.getInteger() ) ) );
+        final PhysType physType =
+                PhysTypeImpl.of(
+                        implementor.getTypeFactory(),
+                        getRowType(),
+                        pref.prefer( JavaRowFormat.CUSTOM ) );
+        return implementor.result( physType, builder.toBlock() );
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.algebra.core.Values;
+import org.polypheny.db.algebra.logical.relational.LogicalUnion;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.entity.CatalogAdapter;
+import org.polypheny.db.plan.AlgOptTable;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.plan.Convention;
+import org.polypheny.db.plan.volcano.AlgSubset;
+
+
+/**
+ * Rule to convert a {@link LogicalUnion} with {@code ALL} semantics and more than one input to an {@link EnumerableGather}.
+ * The rule is only registered if intra-query parallelism is enabled.
+ *
+ * Branches on the same adapter would share its connection (and its transaction) across threads, the rule therefore
+ * only matches if every adapter is scanned by at most one branch.
+ */
+public class EnumerableGatherRule extends ConverterRule {
+
+    public EnumerableGatherRule() {
+        super( LogicalUnion.class,
+                union -> union.all && union.getInputs().size() > 1 && onDistinctAdapters( union.getInputs() ),
+                Convention.NONE, EnumerableConvention.INSTANCE,
+                AlgFactories.LOGICAL_BUILDER, "EnumerableGatherRule" );
+    }
+
+
+    @Override
+    public AlgNode convert( AlgNode alg ) {
+        final LogicalUnion union = (LogicalUnion) alg;
+        final EnumerableConvention out = EnumerableConvention.INSTANCE;
+        final AlgTraitSet traitSet = union.getTraitSet().replace( out );
+        return new EnumerableGather( alg.getCluster(), traitSet, convertList( union.getInputs(), out ) );
+    }
+
+
+    /**
+     * Checks whether no two of the given branches scan the same adapter.
+     */
+    static boolean onDistinctAdapters( List<AlgNode> branches ) {
+        final List<CatalogAdapter> adapters = Catalog.getInstance().getAdapters();
+        final Set<Integer> used = new HashSet<>();
+        for ( AlgNode branch : branches ) {
+            final Set<Integer> branchAdapters = new HashSet<>();
+            if ( !collectAdapters( branch, adapters, branchAdapters, new HashSet<>() ) ) {
+                return false;
+            }
+            for ( Integer adapterId : branchAdapters ) {
+                if ( !used.add( adapterId ) ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Collects the ids of the adapters scanned by the given plan. Returns false if the adapter of a scan is unknown.
+     */
+    private static boolean collectAdapters( AlgNode node, List<CatalogAdapter> adapters, Set<Integer> adapterIds, Set<AlgNode> visited ) {
+        if ( node instanceof AlgSubset ) {
+            node = ((AlgSubset) node).getOriginal();
+        }
+        if ( node == null || !visited.add( node ) ) {
+            return node != null;
+        }
+        final AlgOptTable table = node.getTable();
+        if ( table != null ) {
+            final CatalogAdapter adapter = adapterOf( table, adapters );
+            if ( adapter == null ) {
+                return false;
+            }
+            adapterIds.add( adapter.id );
+        } else if ( node.getInputs().isEmpty() && !(node instanceof Values) ) {
+            // a leaf which is neither a scan nor constant, e.g. a table function
+            return false;
+        }
+        for ( AlgNode input : node.getInputs() ) {
+            if ( !collectAdapters( input, adapters, adapterIds, visited ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Returns the adapter of a routed scan. The physical tables are registered in a schema whose name is prefixed with
+     * the unique name of the adapter (see {@code PolySchemaBuilder#buildAdapterSchemaName}).
+     */
+    private static CatalogAdapter adapterOf( AlgOptTable table, List<CatalogAdapter> adapters ) {
+        final String schemaName = table.getQualifiedName().get( 0 );
+        CatalogAdapter match = null;
+        for ( CatalogAdapter adapter : adapters ) {
+            if ( schemaName.startsWith( adapter.uniqueName + "_" ) && (match == null || adapter.uniqueName.length() > match.uniqueName.length()) ) {
+                match = adapter;
+            }
+        }
+        return match;
+    }
+
+}
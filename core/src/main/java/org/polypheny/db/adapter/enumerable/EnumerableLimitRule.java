@@ -43,6 +43,7 @@
 
 /**
  * Rule to convert an {@link Sort} that has {@code offset} or {@code fetch} set to an {@link EnumerableLimit} on top of a "pure" {@code Sort} that has no offset or fetch.
+ * A {@code Sort} with a sort key and a {@code fetch} is additionally converted to an {@link EnumerableLimitSort}, which only keeps the fetched rows.
  */
 class EnumerableLimitRule extends AlgOptRule {
 
@@ -54,11 +55,16 @@ class EnumerableLimitRule extends AlgOptRule {
     @Override
     public void onMatch( AlgOptRuleCall call ) {
         final Sort sort = call.alg( 0 );
-        if ( sort.offset == null && sort.fetch == null ) {
+        if ( (sort.offset == null && sort.fetch == null) || sort instanceof EnumerableLimitSort ) {
             return;
         }
         final AlgTraitSet traitSet = sort.getTraitSet().replace( EnumerableConvention.INSTANCE );
         AlgNode input = sort.getInput();
+        if ( !sort.getCollation().getFieldCollations().isEmpty() && sort.fetch != null ) {
+            // Top-k, cheaper than sorting all rows unless the input is already sorted and the sort can be removed
+            AlgNode x = convert( input, input.getTraitSet().replace( EnumerableConvention.INSTANCE ) );
+            call.transformTo( EnumerableLimitSort.create( x, sort.getCollation(), sort.offset, sort.fetch ) );
+        }
         if ( !sort.getCollation().getFieldCollations().isEmpty() ) {
             // Create a sort with the same sort key, but no offset or fetch.
             input = sort.copy( sort.getTraitSet(), input, sort.getCollation(), null, null );
@@ -95,6 +95,16 @@ private EnumerableRules() {
 
     public static final EnumerableUnionRule ENUMERABLE_UNION_RULE = new EnumerableUnionRule();
 
+    public static final EnumerableGatherRule ENUMERABLE_GATHER_RULE = new EnumerableGatherRule();
+
+    public static final EnumerableVectorFilterRule ENUMERABLE_VECTOR_FILTER_RULE = new EnumerableVectorFilterRule();
+
+    public static final EnumerableVectorCalcRule ENUMERABLE_VECTOR_CALC_RULE = new EnumerableVectorCalcRule();
+
+    public static final EnumerableVectorAggregateRule ENUMERABLE_VECTOR_AGGREGATE_RULE = new EnumerableVectorAggregateRule();
+
+    public static final EnumerableConcurrentUnionRule ENUMERABLE_CONCURRENT_UNION_RULE = new EnumerableConcurrentUnionRule();
+
     public static final EnumerableModifyCollectRule ENUMERABLE_MODIFY_COLLECT_RULE = new EnumerableModifyCollectRule();
 
     public static final EnumerableIntersectRule ENUMERABLE_INTERSECT_RULE = new EnumerableIntersectRule();
@@ -18,7 +18,9 @@
 
 
 import java.lang.reflect.Modifier;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.function.Function;
@@ -32,8 +34,11 @@
 import org.apache.calcite.linq4j.tree.Types;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Modify;
+import org.polypheny.db.algebra.core.Scan;
 import org.polypheny.db.algebra.core.common.Streamer;
 import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgOptCost;
 import org.polypheny.db.plan.AlgOptPlanner;
@@ -91,7 +96,8 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                 Expressions.constant( DataContext.ROOT ),
                 builder.append( builder.newName( "query" + System.nanoTime() ), query.block ),
                 exp,
-                Expressions.constant( getLeft().getRowType().getFieldList().stream().map( f -> f.getType().getPolyType() ).collect( Collectors.toList() ) ) );
+                Expressions.constant( getLeft().getRowType().getFieldList().stream().map( f -> f.getType().getPolyType() ).collect( Collectors.toList() ) ),
+                Expressions.constant( getBatchSize() ) );
 
         builder.add( Expressions.return_( null, builder.append( "test", transformContext ) ) );
 
@@ -99,6 +105,41 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
     }
 
 
+    /**
+     * Returns the number of rows which are streamed to the collector at once. If the collector modifies a table which is
+     * read by the provider, chunks could observe the changes of previous chunks; the provided rows are then materialized.
+     */
+    private int getBatchSize() {
+        final Set<Long> read = new HashSet<>();
+        final Set<Long> modified = new HashSet<>();
+        if ( !collectTableIds( getLeft(), read, modified ) || !collectTableIds( getRight(), read, modified ) ) {
+            return 0;
+        }
+        read.retainAll( modified );
+        return read.isEmpty() ? RuntimeConfig.STREAMER_BATCH_SIZE.getInteger() : 0;
+    }
+
+
+    /**
+     * Collects the ids of the scanned and modified tables, returns {@code false} if a table id is unknown.
+     */
+    private static boolean collectTableIds( AlgNode node, Set<Long> read, Set<Long> modified ) {
+        if ( node instanceof Scan || node instanceof Modify ) {
+            final Long id = node.getTable() == null ? null : node.getTable().getTable().getTableId();
+            if ( id == null ) {
+                return false;
+            }
+            (node instanceof Scan ? read : modified).add( id );
+        }
+        for ( AlgNode input : node.getInputs() ) {
+            if ( !collectTableIds( input, read, modified ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
     @Override
     public AlgNode copy( AlgTraitSet traitSet, List<AlgNode> inputs ) {
         return new EnumerableStreamer( inputs.get( 0 ).getCluster(), traitSet, inputs.get( 0 ), inputs.get( 1 ) );
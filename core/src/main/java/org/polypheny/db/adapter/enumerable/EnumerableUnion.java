@@ -41,15 +41,17 @@
 import org.apache.calcite.linq4j.tree.Expressions;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.core.Union;
+import org.polypheny.db.algebra.type.AlgDataTypeField;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.util.BuiltInMethod;
+import org.polypheny.db.util.Pair;
 
 
 /**
  * Implementation of {@link org.polypheny.db.algebra.core.Union} in {@link org.polypheny.db.adapter.enumerable.EnumerableConvention enumerable calling convention}.
  */
-public class EnumerableUnion extends Union implements EnumerableAlg {
+public class EnumerableUnion extends Union implements EnumerableBatchAlg {
 
     public EnumerableUnion( AlgOptCluster cluster, AlgTraitSet traitSet, List<AlgNode> inputs, boolean all ) {
         super( cluster, traitSet, inputs, all );
@@ -89,5 +91,41 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         return implementor.result( physType, builder.toBlock() );
     }
 
+
+    /**
+     * A union of all rows is able to concatenate the batches of its inputs, as long as their vectors are of the same types.
+     */
+    @Override
+    public boolean producesBatches() {
+        if ( !all ) {
+            return false;
+        }
+        for ( AlgNode input : inputs ) {
+            for ( Pair<AlgDataTypeField, AlgDataTypeField> fields : Pair.zip( input.getRowType().getFieldList(), getRowType().getFieldList() ) ) {
+                if ( fields.left.getType().getPolyType() != fields.right.getType().getPolyType() ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public Result implementBatches( EnumerableAlgImplementor implementor ) {
+        final BlockBuilder builder = new BlockBuilder();
+        Expression unionExp = null;
+        for ( Ord<AlgNode> ord : Ord.zip( inputs ) ) {
+            final Result result = implementor.visitBatchChild( this, ord.i, (EnumerableAlg) ord.e );
+            final Expression childExp = builder.append( "child" + ord.i, result.block );
+            unionExp = unionExp == null
+                    ? childExp
+                    : Expressions.call( unionExp, BuiltInMethod.CONCAT.method, childExp );
+        }
+        builder.add( unionExp );
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), JavaRowFormat.ARRAY, false );
+        return implementor.result( physType, builder.toBlock() );
+    }
+
 }
 
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.core.Aggregate;
+import org.polypheny.db.algebra.core.AggregateCall;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.BuiltInMethod;
+import org.polypheny.db.util.ImmutableBitSet;
+
+
+/**
+ * Implementation of {@link Aggregate} in {@link EnumerableConvention enumerable calling convention} which computes
+ * its aggregates on {@link org.polypheny.db.runtime.vector.ColumnBatch columnar batches} of its input.
+ *
+ * Only aggregates without grouping whose calls are {@code COUNT}, {@code SUM}, {@code $SUM0}, {@code MIN} or
+ * {@code MAX} over numeric fields are supported, see {@link #isVectorizable(Aggregate)}.
+ */
+public class EnumerableVectorAggregate extends Aggregate implements EnumerableAlg {
+
+    private static final Set<Kind> AGGREGATES = EnumSet.of( Kind.COUNT, Kind.SUM, Kind.SUM0, Kind.MIN, Kind.MAX );
+
+    private static final Set<PolyType> NUMERIC_TYPES = EnumSet.of(
+            PolyType.TINYINT,
+            PolyType.SMALLINT,
+            PolyType.INTEGER,
+            PolyType.BIGINT,
+            PolyType.FLOAT,
+            PolyType.REAL,
+            PolyType.DOUBLE );
+
+
+    public EnumerableVectorAggregate( AlgOptCluster cluster, AlgTraitSet traitSet, AlgNode input, ImmutableBitSet groupSet, List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls ) {
+        super( cluster, traitSet, input, false, groupSet, groupSets, aggCalls );
+        assert getConvention() instanceof EnumerableConvention;
+        assert isVectorizable( this );
+    }
+
+
+    /**
+     * Whether the given aggregate can be computed by this operator.
+     */
+    public static boolean isVectorizable( Aggregate aggregate ) {
+        if ( aggregate.indicator || !aggregate.getGroupSet().isEmpty() || aggregate.getGroupType() != Group.SIMPLE ) {
+            return false;
+        }
+        final AlgDataType inputRowType = aggregate.getInput().getRowType();
+        for ( AggregateCall aggCall : aggregate.getAggCallList() ) {
+            final Kind kind = aggCall.getAggregation().getKind();
+            if ( !AGGREGATES.contains( kind ) || aggCall.isDistinct() || aggCall.hasFilter() || !aggCall.getCollation().getFieldCollations().isEmpty() ) {
+                return false;
+            }
+            if ( kind == Kind.COUNT && aggCall.getArgList().isEmpty() ) {
+                continue;
+            }
+            if ( aggCall.getArgList().size() != 1
+                    || !NUMERIC_TYPES.contains( inputRowType.getFieldList().get( aggCall.getArgList().get( 0 ) ).getType().getPolyType() ) ) {
+                return false;
+            }
+            if ( kind != Kind.COUNT && !NUMERIC_TYPES.contains( aggCall.getType().getPolyType() ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public EnumerableVectorAggregate copy( AlgTraitSet traitSet, AlgNode input, boolean indicator, ImmutableBitSet groupSet, List<ImmutableBitSet> groupSets, List<AggregateCall> aggCalls ) {
+        return new EnumerableVectorAggregate( getCluster(), traitSet, input, groupSet, groupSets, aggCalls );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        // the aggregates are computed in tight loops over primitive arrays instead of per boxed row
+        return super.computeSelfCost( planner, mq ).multiplyBy( 0.5 );
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final Result child = implementor.visitBatchChild( this, 0, (EnumerableAlg) getInput() );
+        final Expression batches = builder.append( "batches", child.block );
+
+        final List<Expression> kinds = new ArrayList<>();
+        final List<Expression> columns = new ArrayList<>();
+        final List<Expression> types = new ArrayList<>();
+        for ( AggregateCall aggCall : aggCalls ) {
+            kinds.add( Expressions.constant( aggCall.getAggregation().getKind() ) );
+            columns.add( Expressions.constant( aggCall.getArgList().isEmpty() ? -1 : aggCall.getArgList().get( 0 ) ) );
+            types.add( Expressions.constant( aggCall.getType().getPolyType() ) );
+        }
+        builder.add(
+                Expressions.call(
+                        BuiltInMethod.AGGREGATE_COLUMN_BATCHES.method,
+                        batches,
+                        Expressions.newArrayInit( Kind.class, kinds ),
+                        Expressions.newArrayInit( int.class, columns ),
+                        Expressions.newArrayInit( PolyType.class, types ) ) );
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), JavaRowFormat.ARRAY, false );
+        return implementor.result( physType, builder.toBlock() );
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.util.function.Predicate;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.convert.ConverterRule;
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.algebra.logical.relational.LogicalAggregate;
+import org.polypheny.db.plan.Convention;
+
+
+/**
+ * Rule to convert a {@link LogicalAggregate} which can be computed on columnar batches to an
+ * {@link EnumerableVectorAggregate}. The rule is only registered if columnar execution is enabled.
+ */
+public class EnumerableVectorAggregateRule extends ConverterRule {
+
+    public EnumerableVectorAggregateRule() {
+        super( LogicalAggregate.class,
+                (Predicate<LogicalAggregate>) EnumerableVectorAggregate::isVectorizable,
+                Convention.NONE, EnumerableConvention.INSTANCE,
+                AlgFactories.LOGICAL_BUILDER, "EnumerableVectorAggregateRule" );
+    }
+
+
+    @Override
+    public AlgNode convert( AlgNode alg ) {
+        final LogicalAggregate agg = (LogicalAggregate) alg;
+        return new EnumerableVectorAggregate(
+                alg.getCluster(),
+                alg.getTraitSet().replace( EnumerableConvention.INSTANCE ),
+                convert( agg.getInput(), EnumerableConvention.INSTANCE ),
+                agg.getGroupSet(),
+                agg.getGroupSets(),
+                agg.getAggCallList() );
+    }
+
+}
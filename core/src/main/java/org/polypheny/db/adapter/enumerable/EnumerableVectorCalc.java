@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.util.List;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Calc;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexInputRef;
+import org.polypheny.db.rex.RexLocalRef;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.rex.RexProgram;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+/**
+ * Implementation of {@link Calc} in {@link EnumerableConvention enumerable calling convention} which works on
+ * {@link org.polypheny.db.runtime.vector.ColumnBatch columnar batches}.
+ *
+ * Only programs which project input fields and whose condition is supported by {@link EnumerableVectorFilter}
+ * are supported. The projection shares the column vectors of the input, it does not copy them.
+ */
+public class EnumerableVectorCalc extends Calc implements EnumerableBatchAlg {
+
+    public EnumerableVectorCalc( AlgOptCluster cluster, AlgTraitSet traitSet, AlgNode input, RexProgram program ) {
+        super( cluster, traitSet, input, program );
+        assert getConvention() instanceof EnumerableConvention;
+        assert isVectorizable( program );
+    }
+
+
+    /**
+     * Whether the given program can be evaluated by this operator.
+     */
+    public static boolean isVectorizable( RexProgram program ) {
+        if ( program.containsAggs() ) {
+            return false;
+        }
+        for ( RexLocalRef project : program.getProjectList() ) {
+            if ( !(program.expandLocalRef( project ) instanceof RexInputRef) ) {
+                return false;
+            }
+        }
+        return program.getCondition() == null
+                || EnumerableVectorFilter.isVectorizable( program.getInputRowType(), program.expandLocalRef( program.getCondition() ) );
+    }
+
+
+    @Override
+    public EnumerableVectorCalc copy( AlgTraitSet traitSet, AlgNode child, RexProgram program ) {
+        return new EnumerableVectorCalc( getCluster(), traitSet, child, program );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        // neither the condition nor the projection touch single rows
+        return super.computeSelfCost( planner, mq ).multiplyBy( 0.5 );
+    }
+
+
+    @Override
+    public boolean producesBatches() {
+        return true;
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        return implementor.flattenBatches( implementBatches( implementor ) );
+    }
+
+
+    @Override
+    public Result implementBatches( EnumerableAlgImplementor implementor ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final Result child = implementor.visitBatchChild( this, 0, (EnumerableAlg) getInput() );
+        Expression batches = builder.append( "batches", child.block );
+        if ( program.getCondition() != null ) {
+            final RexNode condition = program.expandLocalRef( program.getCondition() );
+            batches = builder.append( "filtered", VectorComparisons.of( program.getInputRowType(), condition ).filter( implementor, batches ) );
+        }
+        if ( program.projectsOnlyIdentity() ) {
+            builder.add( batches );
+        } else {
+            final List<RexLocalRef> projects = program.getProjectList();
+            final Expression[] fields = new Expression[projects.size()];
+            for ( int i = 0; i < fields.length; i++ ) {
+                fields[i] = Expressions.constant( ((RexInputRef) program.expandLocalRef( projects.get( i ) )).getIndex() );
+            }
+            builder.add( Expressions.call( BuiltInMethod.PROJECT_COLUMN_BATCHES.method, batches, Expressions.newArrayInit( int.class, fields ) ) );
+        }
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), JavaRowFormat.ARRAY, false );
+        return implementor.result( physType, builder.toBlock() );
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import org.polypheny.db.algebra.core.AlgFactories;
+import org.polypheny.db.plan.AlgOptRule;
+import org.polypheny.db.plan.AlgOptRuleCall;
+
+
+/**
+ * Rule to convert an {@link EnumerableCalc} whose program can be evaluated on columnar batches to an
+ * {@link EnumerableVectorCalc}. The rule is only registered if columnar execution is enabled.
+ */
+public class EnumerableVectorCalcRule extends AlgOptRule {
+
+    public EnumerableVectorCalcRule() {
+        super( operand( EnumerableCalc.class, any() ), AlgFactories.LOGICAL_BUILDER, "EnumerableVectorCalcRule" );
+    }
+
+
+    @Override
+    public boolean matches( AlgOptRuleCall call ) {
+        final EnumerableCalc calc = call.alg( 0 );
+        return EnumerableVectorCalc.isVectorizable( calc.getProgram() );
+    }
+
+
+    @Override
+    public void onMatch( AlgOptRuleCall call ) {
+        final EnumerableCalc calc = call.alg( 0 );
+        call.transformTo( new EnumerableVectorCalc( calc.getCluster(), calc.getTraitSet(), calc.getInput(), calc.getProgram() ) );
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.Filter;
+import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptPlanner;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.rex.RexNode;
+
+
+/**
+ * Implementation of {@link Filter} in {@link EnumerableConvention enumerable calling convention} which evaluates
+ * its condition on {@link org.polypheny.db.runtime.vector.ColumnBatch columnar batches} of its input.
+ *
+ * Only conditions which are a conjunction of comparisons between a numeric input field and a numeric literal or
+ * dynamic parameter are supported, see {@link #isVectorizable(AlgDataType, RexNode)}.
+ */
+public class EnumerableVectorFilter extends Filter implements EnumerableBatchAlg {
+
+    public EnumerableVectorFilter( AlgOptCluster cluster, AlgTraitSet traitSet, AlgNode input, RexNode condition ) {
+        super( cluster, traitSet, input, condition );
+        assert getConvention() instanceof EnumerableConvention;
+        assert isVectorizable( input.getRowType(), condition );
+    }
+
+
+    /**
+     * Whether the given condition on rows of the given type can be evaluated by this operator.
+     */
+    public static boolean isVectorizable( AlgDataType rowType, RexNode condition ) {
+        return VectorComparisons.of( rowType, condition ) != null;
+    }
+
+
+    @Override
+    public EnumerableVectorFilter copy( AlgTraitSet traitSet, AlgNode input, RexNode condition ) {
+        return new EnumerableVectorFilter( getCluster(), traitSet, input, condition );
+    }
+
+
+    @Override
+    public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq ) {
+        // the comparisons run in tight loops over primitive arrays instead of per boxed row
+        return super.computeSelfCost( planner, mq ).multiplyBy( 0.5 );
+    }
+
+
+    @Override
+    public boolean producesBatches() {
+        return true;
+    }
+
+
+    @Override
+    public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
+        return implementor.flattenBatches( implementBatches( implementor ) );
+    }
+
+
+    @Override
+    public Result implementBatches( EnumerableAlgImplementor implementor ) {
+        final BlockBuilder builder = new BlockBuilder();
+        final Result child = implementor.visitBatchChild( this, 0, (EnumerableAlg) getInput() );
+        final Expression batches = builder.append( "batches", child.block );
+        builder.add( VectorComparisons.of( getInput().getRowType(), condition ).filter( implementor, batches ) );
+        return implementor.result( child.physType, builder.toBlock() );
+    }
+
+}
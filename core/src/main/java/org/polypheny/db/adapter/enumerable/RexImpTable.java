@@ -51,6 +51,7 @@
 import static org.apache.calcite.linq4j.tree.ExpressionType.UnaryPlus;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -99,6 +100,7 @@
 import org.polypheny.db.rex.RexCall;
 import org.polypheny.db.rex.RexLiteral;
 import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.runtime.PatternMatchers;
 import org.polypheny.db.runtime.functions.Functions;
 import org.polypheny.db.schema.Function;
 import org.polypheny.db.schema.ImplementableAggFunction;
@@ -214,7 +216,7 @@ public Expression implement( RexToLixTranslator translator, RexCall call, List<E
         defineMethod( OperatorRegistry.get( OperatorName.SIN ), "sin", NullPolicy.STRICT );
         defineMethod( OperatorRegistry.get( OperatorName.TAN ), "tan", NullPolicy.STRICT );
         defineMethod( OperatorRegistry.get( OperatorName.TRUNCATE ), "struncate", NullPolicy.STRICT );
-        defineMethod( OperatorRegistry.get( OperatorName.DISTANCE ), "distance", NullPolicy.ANY );
+        defineImplementor( OperatorRegistry.get( OperatorName.DISTANCE ), NullPolicy.ANY, new DistanceImplementor(), false );
         defineMethod( OperatorRegistry.get( OperatorName.META ), "meta", NullPolicy.ANY );
 
         map.put( OperatorRegistry.get( OperatorName.PI ), ( translator, call, nullAs ) -> Expressions.constant( Math.PI ) );
@@ -244,7 +246,7 @@ public Expression implement( RexToLixTranslator translator, RexCall call, List<E
         map.put( OperatorRegistry.get( OperatorName.IS_NOT_FALSE ), new IsXxxImplementor( false, true ) );
 
         // LIKE and SIMILAR
-        final MethodImplementor likeImplementor = new MethodImplementor( BuiltInMethod.LIKE.method );
+        final NotNullImplementor likeImplementor = new LikeImplementor();
         defineImplementor( OperatorRegistry.get( OperatorName.LIKE ), NullPolicy.STRICT, likeImplementor, false );
         defineImplementor( OperatorRegistry.get( OperatorName.NOT_LIKE ), NullPolicy.STRICT, NotImplementor.of( likeImplementor ), false );
         final MethodImplementor similarImplementor = new MethodImplementor( BuiltInMethod.SIMILAR.method );
@@ -380,6 +382,8 @@ private void defineCypherMethods() {
         map.put( OperatorRegistry.get( QueryLanguage.from( "cypher" ), OperatorName.CYPHER_SINGLE_MATCH ), implementor );
         map.put( OperatorRegistry.get( QueryLanguage.from( "cypher" ), OperatorName.CYPHER_NONE_MATCH ), implementor );
         defineMethod( OperatorRegistry.get( QueryLanguage.from( "cypher" ), OperatorName.CYPHER_PATH_MATCH ), BuiltInMethod.GRAPH_PATH_MATCH.method, NullPolicy.NONE );
+        defineMethod( OperatorRegistry.get( QueryLanguage.from( "cypher" ), OperatorName.CYPHER_SHORTEST_PATH_MATCH ), BuiltInMethod.GRAPH_SHORTEST_PATH_MATCH.method, NullPolicy.NONE );
+        defineMethod( OperatorRegistry.get( QueryLanguage.from( "cypher" ), OperatorName.CYPHER_ALL_SHORTEST_PATHS_MATCH ), BuiltInMethod.GRAPH_ALL_SHORTEST_PATHS_MATCH.method, NullPolicy.NONE );
         defineMethod( OperatorRegistry.get( QueryLanguage.from( "cypher" ), OperatorName.CYPHER_NODE_EXTRACT ), BuiltInMethod.GRAPH_NODE_EXTRACT.method, NullPolicy.NONE );
         defineMethod( OperatorRegistry.get( QueryLanguage.from( "cypher" ), OperatorName.CYPHER_EXTRACT_FROM_PATH ), BuiltInMethod.GRAPH_EXTRACT_FROM_PATH.method, NullPolicy.NONE );
         defineMethod( OperatorRegistry.get( QueryLanguage.from( "cypher" ), OperatorName.CYPHER_NODE_MATCH ), BuiltInMethod.GRAPH_NODE_MATCH.method, NullPolicy.NONE );
@@ -1973,6 +1977,27 @@ public Expression implement( RexToLixTranslator translator, RexCall call, List<E
     }
 
 
+    /**
+     * Implementor for the {@code LIKE} operator. It generates {@code PatternMatchers.like(pattern, escape).test(s)}; for
+     * a literal pattern the matcher is created by a deterministic call with constant arguments, which is hoisted out of
+     * the per-row code. A parameterized pattern is looked up in the cache of {@link PatternMatchers}.
+     */
+    private static class LikeImplementor implements NotNullImplementor {
+
+        @Override
+        public Expression implement( RexToLixTranslator translator, RexCall call, List<Expression> translatedOperands ) {
+            final Expression escape = translatedOperands.size() > 2
+                    ? translatedOperands.get( 2 )
+                    : Expressions.constant( null, String.class );
+            return Expressions.call(
+                    Expressions.call( BuiltInMethod.LIKE_MATCHER.method, translatedOperands.get( 1 ), escape ),
+                    BuiltInMethod.PREDICATE_TEST.method,
+                    translatedOperands.get( 0 ) );
+        }
+
+    }
+
+
     /**
      * Implementor for SQL functions that generates calls to a given method name.
      *
@@ -1996,6 +2021,40 @@ public Expression implement( RexToLixTranslator translator, RexCall call, List<E
     }
 
 
+    /**
+     * Implementor for the {@code DISTANCE} function. If the metric is a literal, the kernel of the metric is chosen when
+     * the code is generated instead of comparing the name of the metric for every row. The target vector and the weights
+     * are converted to primitive vectors, which is only done once if they are literals.
+     */
+    private static class DistanceImplementor implements NotNullImplementor {
+
+        private static final Map<String, String> KERNELS = ImmutableMap.of(
+                "L1", "distanceL1",
+                "L2", "distanceL2",
+                "L2SQUARED", "distanceL2Squared",
+                "CHISQUARED", "distanceChiSquared",
+                "COSINE", "distanceCosine" );
+
+
+        @Override
+        public Expression implement( RexToLixTranslator translator, RexCall call, List<Expression> translatedOperands ) {
+            final RexNode metric = call.getOperands().get( 2 );
+            final String kernel = metric instanceof RexLiteral ? KERNELS.get( RexLiteral.stringValue( metric ) ) : null;
+            if ( kernel == null ) {
+                return Expressions.call( Functions.class, "distance", translatedOperands );
+            }
+            final List<Expression> operands = new ArrayList<>();
+            operands.add( translatedOperands.get( 0 ) );
+            operands.add( Expressions.call( Functions.class, "toVector", translatedOperands.get( 1 ) ) );
+            if ( translatedOperands.size() == 4 ) {
+                operands.add( Expressions.call( Functions.class, "toVector", translatedOperands.get( 3 ) ) );
+            }
+            return Expressions.call( Functions.class, kernel, operands );
+        }
+
+    }
+
+
     /**
      * Implementor for binary operators.
      */
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.enumerable;
+
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.calcite.linq4j.function.Function0;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.plan.AlgOptUtil;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexDynamicParam;
+import org.polypheny.db.rex.RexInputRef;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.type.PolyType;
+import org.polypheny.db.util.BuiltInMethod;
+
+
+/**
+ * Conditions which can be evaluated on {@link org.polypheny.db.runtime.vector.ColumnBatch columnar batches}: a
+ * conjunction of comparisons between a numeric input field and a numeric literal or dynamic parameter.
+ */
+final class VectorComparisons {
+
+    private static final Set<Kind> COMPARISONS = EnumSet.of(
+            Kind.EQUALS,
+            Kind.NOT_EQUALS,
+            Kind.LESS_THAN,
+            Kind.LESS_THAN_OR_EQUAL,
+            Kind.GREATER_THAN,
+            Kind.GREATER_THAN_OR_EQUAL );
+
+    private static final Set<PolyType> APPROXIMATE_TYPES = EnumSet.of( PolyType.FLOAT, PolyType.REAL, PolyType.DOUBLE );
+
+    private final List<Comparison> comparisons;
+
+
+    private VectorComparisons( List<Comparison> comparisons ) {
+        this.comparisons = comparisons;
+    }
+
+
+    /**
+     * Splits the condition into {@code field op value} comparisons, or returns {@code null} if one of its
+     * conjunctions is not supported.
+     *
+     * @param rowType Type of the rows the condition is evaluated on
+     * @param condition Condition, must not contain local references
+     */
+    static VectorComparisons of( AlgDataType rowType, RexNode condition ) {
+        final List<Comparison> comparisons = new ArrayList<>();
+        for ( RexNode conjunction : AlgOptUtil.conjunctions( condition ) ) {
+            if ( !(conjunction instanceof RexCall) || !COMPARISONS.contains( conjunction.getKind() ) ) {
+                return null;
+            }
+            final RexCall call = (RexCall) conjunction;
+            RexNode left = call.getOperands().get( 0 );
+            RexNode right = call.getOperands().get( 1 );
+            Kind op = call.getKind();
+            if ( !(left instanceof RexInputRef) && right instanceof RexInputRef ) {
+                final RexNode tmp = left;
+                left = right;
+                right = tmp;
+                op = op.reverse();
+            }
+            if ( !(left instanceof RexInputRef) ) {
+                return null;
+            }
+            final int column = ((RexInputRef) left).getIndex();
+            final PolyType type = rowType.getFieldList().get( column ).getType().getPolyType();
+            final boolean integral = PolyType.INT_TYPES.contains( type );
+            if ( !integral && !APPROXIMATE_TYPES.contains( type ) ) {
+                return null;
+            }
+            final Comparison comparison;
+            if ( right instanceof RexLiteral && ((RexLiteral) right).getValue() instanceof BigDecimal ) {
+                final BigDecimal value = (BigDecimal) ((RexLiteral) right).getValue();
+                if ( integral ) {
+                    // integral columns are only compared to integral values, otherwise the comparison would truncate
+                    try {
+                        comparison = new Comparison( column, op, value.longValueExact(), -1 );
+                    } catch ( ArithmeticException e ) {
+                        return null;
+                    }
+                } else {
+                    comparison = new Comparison( column, op, value.doubleValue(), -1 );
+                }
+            } else if ( right instanceof RexDynamicParam ) {
+                final PolyType paramType = right.getType().getPolyType();
+                if ( !PolyType.INT_TYPES.contains( paramType ) && (integral || !isApproximateComparable( paramType )) ) {
+                    return null;
+                }
+                comparison = new Comparison( column, op, null, ((RexDynamicParam) right).getIndex() );
+            } else {
+                return null;
+            }
+            comparisons.add( comparison );
+        }
+        return new VectorComparisons( comparisons );
+    }
+
+
+    private static boolean isApproximateComparable( PolyType type ) {
+        return type == PolyType.DECIMAL || APPROXIMATE_TYPES.contains( type );
+    }
+
+
+    /**
+     * Generates the call which applies the comparisons to the given batches. The values of dynamic parameters are
+     * read from the data context whenever the batches are enumerated.
+     */
+    Expression filter( EnumerableAlgImplementor implementor, Expression batches ) {
+        final List<Expression> columns = new ArrayList<>();
+        final List<Expression> ops = new ArrayList<>();
+        final List<Expression> values = new ArrayList<>();
+        for ( Comparison comparison : comparisons ) {
+            columns.add( Expressions.constant( comparison.column ) );
+            ops.add( Expressions.constant( comparison.op ) );
+            if ( comparison.parameter >= 0 ) {
+                values.add(
+                        Expressions.call(
+                                implementor.getRootExpression(),
+                                BuiltInMethod.DATA_CONTEXT_GET_PARAMETER_VALUE.method,
+                                Expressions.constant( (long) comparison.parameter ) ) );
+            } else {
+                values.add( Expressions.constant( comparison.value ) );
+            }
+        }
+        return Expressions.call(
+                BuiltInMethod.FILTER_COLUMN_BATCHES.method,
+                batches,
+                Expressions.newArrayInit( int.class, columns ),
+                Expressions.newArrayInit( Kind.class, ops ),
+                Expressions.lambda( Function0.class, Expressions.newArrayInit( Object.class, values ) ) );
+    }
+
+
+    private static class Comparison {
+
+        private final int column;
+        private final Kind op;
+        private final Number value;
+        private final int parameter;
+
+
+        private Comparison( int column, Kind op, Number value, int parameter ) {
+            this.column = column;
+            this.op = op;
+            this.value = value;
+            this.parameter = parameter;
+        }
+
+    }
+
+}
@@ -95,6 +95,12 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                 case CYPHER_PATH_MATCH:
                     method = BuiltInMethod.GRAPH_PATH_MATCH.method;
                     break;
+                case CYPHER_SHORTEST_PATH_MATCH:
+                    method = BuiltInMethod.GRAPH_SHORTEST_PATH_MATCH.method;
+                    break;
+                case CYPHER_ALL_SHORTEST_PATHS_MATCH:
+                    method = BuiltInMethod.GRAPH_ALL_SHORTEST_PATHS_MATCH.method;
+                    break;
                 default:
                     throw new RuntimeException( "could not translate graph match" );
             }
@@ -0,0 +1,481 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.index;
+
+
+import com.google.common.collect.ImmutableList;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import lombok.Getter;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.polypheny.db.PolyImplementation;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.algebra.core.Values;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.entity.CatalogSchema;
+import org.polypheny.db.catalog.entity.CatalogTable;
+import org.polypheny.db.runtime.functions.MqlFunctions;
+import org.polypheny.db.tools.AlgBuilder;
+import org.polypheny.db.transaction.PolyXid;
+import org.polypheny.db.transaction.Statement;
+import org.polypheny.db.transaction.Transaction;
+import org.polypheny.db.util.NlsString;
+
+
+/**
+ * Index over the value at a path of the documents of a collection, e.g. <code>customer.id</code>.
+ *
+ * The keys passed to this index are the values of the indexed column, i.e. the document, and the primary keys are the
+ * pairs of document id and document. The index derives the value at its path itself and resolves it to the documents,
+ * which allows replacing the scan of a filtered collection. The keys are sorted, so ranges can be looked up as well.
+ *
+ * Values which are not ordered, like arrays or nested documents, are kept under a common key. They are returned for
+ * every lookup, as the filter may still match them, e.g. an element of an array.
+ */
+public class CowDocumentIndex extends Index {
+
+    public static final String METHOD = "path";
+
+    // Key of all values, which cannot be compared, like arrays or nested documents
+    private static final Object UNORDERED = new Object();
+
+    @Getter
+    private final List<String> path;
+
+    private final NavigableMap<Object, Map<String, BsonDocument>> index = new TreeMap<>( CowDocumentIndex::compareKeys );
+    private boolean initialized = false;
+
+    private final Map<PolyXid, NavigableMap<Object, Map<String, BsonDocument>>> cowIndex = new HashMap<>();
+    private final Map<PolyXid, List<Change>> cowOpLog = new HashMap<>();
+    private final Map<PolyXid, List<Change>> barrierIndex = new HashMap<>();
+
+
+    public CowDocumentIndex( long id, String name, CatalogSchema schema, CatalogTable table, List<String> columns, List<String> targetColumns, List<String> path ) {
+        this.id = id;
+        this.name = name;
+        this.schema = schema;
+        this.table = table;
+        this.columns = ImmutableList.copyOf( columns );
+        this.targetColumns = ImmutableList.copyOf( targetColumns );
+        this.path = ImmutableList.copyOf( path );
+    }
+
+
+    @Override
+    public String getMethod() {
+        return METHOD;
+    }
+
+
+    @Override
+    public boolean isUnique() {
+        return false;
+    }
+
+
+    @Override
+    public boolean isPersistent() {
+        return false;
+    }
+
+
+    @Override
+    public boolean providesValues() {
+        // The indexed column holds the whole documents, which are only resolved by lookups
+        return false;
+    }
+
+
+    /**
+     * Rebuilds the index from a scan of the collection.
+     */
+    @Override
+    public void rebuild( final Transaction transaction ) {
+        final Statement statement = transaction.createStatement();
+        final AlgBuilder builder = AlgBuilder.create( statement );
+        final AlgNode scan = builder
+                .documentScan( transaction.getCatalogReader().getCollection( ImmutableList.of( table.getNamespaceName(), table.name ) ) )
+                .build();
+        final PolyImplementation result = statement.getQueryProcessor().prepareQuery( AlgRoot.of( scan, Kind.SELECT ), false );
+        final List<List<Object>> rows = result.getRows( statement, -1 );
+
+        this.clear();
+        for ( final List<Object> row : rows ) {
+            final BsonDocument document = toDocument( row.get( 0 ) );
+            this.insert( ImmutableList.of( document ), ImmutableList.of( getId( document ), document ) );
+        }
+        this.initialize();
+    }
+
+
+    @Override
+    void commit( PolyXid xid ) {
+        begin( xid );
+        for ( final Change change : cowOpLog.get( xid ) ) {
+            change.apply( index, null );
+        }
+        rollback( xid );
+    }
+
+
+    @Override
+    public void barrier( PolyXid xid ) {
+        begin( xid );
+        for ( final Change change : barrierIndex.get( xid ) ) {
+            change.apply( cowIndex.get( xid ), index );
+        }
+        barrierIndex.get( xid ).clear();
+    }
+
+
+    @Override
+    void rollback( PolyXid xid ) {
+        cowIndex.remove( xid );
+        cowOpLog.remove( xid );
+        barrierIndex.remove( xid );
+    }
+
+
+    @Override
+    protected void clear() {
+        index.clear();
+        cowIndex.clear();
+        cowOpLog.clear();
+        barrierIndex.clear();
+    }
+
+
+    @Override
+    void initialize() {
+        initialized = true;
+    }
+
+
+    @Override
+    boolean isInitialized() {
+        return initialized;
+    }
+
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+
+    protected void begin( PolyXid xid ) {
+        if ( !cowIndex.containsKey( xid ) ) {
+            IndexManager.getInstance().begin( xid, this );
+            cowIndex.put( xid, new TreeMap<>( CowDocumentIndex::compareKeys ) );
+            cowOpLog.put( xid, new ArrayList<>() );
+            barrierIndex.put( xid, new ArrayList<>() );
+        }
+    }
+
+
+    private void log( PolyXid xid, Change change ) {
+        begin( xid );
+        barrierIndex.get( xid ).add( change );
+        cowOpLog.get( xid ).add( change );
+    }
+
+
+    @Override
+    public void insert( PolyXid xid, List<Object> key, List<Object> primary ) {
+        log( xid, new Change( keyOf( key ), primary.get( 0 ).toString(), toDocument( primary.get( 1 ) ) ) );
+    }
+
+
+    @Override
+    void insert( List<Object> key, List<Object> primary ) {
+        new Change( keyOf( key ), primary.get( 0 ).toString(), toDocument( primary.get( 1 ) ) ).apply( index, null );
+    }
+
+
+    @Override
+    public void delete( PolyXid xid, List<Object> values ) {
+        log( xid, new Change( keyOf( values ), null, null ) );
+    }
+
+
+    @Override
+    void deletePrimary( PolyXid xid, List<Object> key, List<Object> primary ) {
+        log( xid, new Change( keyOf( key ), primary.get( 0 ).toString(), null ) );
+    }
+
+
+    @Override
+    void delete( List<Object> values ) {
+        new Change( keyOf( values ), null, null ).apply( index, null );
+    }
+
+
+    @Override
+    void deletePrimary( List<Object> key, List<Object> primary ) {
+        new Change( keyOf( key ), primary.get( 0 ).toString(), null ).apply( index, null );
+    }
+
+
+    @Override
+    public boolean contains( PolyXid xid, List<Object> value ) {
+        final Object key = keyOf( value );
+        final NavigableMap<Object, Map<String, BsonDocument>> ci = cowIndex.get( xid );
+        final Map<String, BsonDocument> documents = ci != null && ci.containsKey( key ) ? ci.get( key ) : index.get( key );
+        return documents != null && !documents.isEmpty();
+    }
+
+
+    @Override
+    public boolean containsAny( PolyXid xid, Iterable<List<Object>> values ) {
+        for ( final List<Object> value : values ) {
+            if ( contains( xid, value ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    @Override
+    public boolean containsAll( PolyXid xid, Iterable<List<Object>> values ) {
+        for ( final List<Object> value : values ) {
+            if ( !contains( xid, value ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Retrieves the documents, which might have the given value at the path of this index.
+     */
+    public List<BsonValue> lookup( PolyXid xid, Object value ) {
+        final Object key = normalize( value );
+        final List<BsonValue> documents = new ArrayList<>();
+        if ( key != UNORDERED ) {
+            collect( xid, map -> map.subMap( key, true, key, true ), documents );
+        }
+        collect( xid, map -> map.subMap( UNORDERED, true, UNORDERED, true ), documents );
+        return documents;
+    }
+
+
+    /**
+     * Retrieves the documents, which might have a number in the given range at the path of this index. Like the
+     * comparison of documents, only numbers are considered for ranges. Values without order are returned as well, as
+     * the filter may still match them, e.g. an element of an array.
+     *
+     * @param lower the lower bound or {@code null} if there is none
+     * @param upper the upper bound or {@code null} if there is none
+     * @return the candidate documents or {@code null} if a bound is not a number and the range cannot be looked up
+     */
+    public List<BsonValue> lookup( PolyXid xid, Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive ) {
+        final Object lowerKey = normalize( lower );
+        final Object upperKey = normalize( upper );
+        if ( (lower != null && !(lowerKey instanceof BigDecimal)) || (upper != null && !(upperKey instanceof BigDecimal)) ) {
+            return null;
+        }
+        final List<BsonValue> documents = new ArrayList<>();
+        if ( lower == null || upper == null || compareKeys( lowerKey, upperKey ) <= 0 ) {
+            // null precedes all numbers and the empty string follows all of them
+            collect( xid, map -> map.subMap(
+                    lower == null ? null : lowerKey,
+                    lower != null && lowerInclusive,
+                    upper == null ? "" : upperKey,
+                    upper != null && upperInclusive ), documents );
+        }
+        collect( xid, map -> map.subMap( UNORDERED, true, UNORDERED, true ), documents );
+        return documents;
+    }
+
+
+    private void collect( PolyXid xid, Function<NavigableMap<Object, Map<String, BsonDocument>>, Map<Object, Map<String, BsonDocument>>> range, List<BsonValue> documents ) {
+        final NavigableMap<Object, Map<String, BsonDocument>> ci = cowIndex.get( xid );
+        for ( Map.Entry<Object, Map<String, BsonDocument>> entry : range.apply( index ).entrySet() ) {
+            if ( ci != null && ci.containsKey( entry.getKey() ) ) {
+                // Entry was modified in CoW index
+                continue;
+            }
+            documents.addAll( entry.getValue().values() );
+        }
+        if ( ci != null ) {
+            for ( Map<String, BsonDocument> entry : range.apply( ci ).values() ) {
+                documents.addAll( entry.values() );
+            }
+        }
+    }
+
+
+    /**
+     * Not supported, as this index does not provide values, see {@link #providesValues()}.
+     */
+    @Override
+    public Values getAsValues( PolyXid xid, AlgBuilder builder, AlgDataType rowType ) {
+        throw new UnsupportedOperationException( "The document index " + name + " does not provide values, only lookups." );
+    }
+
+
+    /**
+     * Not supported, as this index does not provide values, see {@link #providesValues()}.
+     */
+    @Override
+    public Values getAsValues( PolyXid xid, AlgBuilder builder, AlgDataType rowType, List<Object> key ) {
+        throw new UnsupportedOperationException( "The document index " + name + " does not provide values, only lookups." );
+    }
+
+
+    @Override
+    NavigableMap<Object, Map<String, BsonDocument>> getRaw() {
+        return index;
+    }
+
+
+    private Object keyOf( List<Object> columnValues ) {
+        return normalize( MqlFunctions.docQueryValue( columnValues.get( 0 ), path ) );
+    }
+
+
+    /**
+     * Normalizes a value of a document or a literal of a filter to a key of this index. Numbers are compared by their
+     * value regardless of their representation.
+     */
+    static Object normalize( Object value ) {
+        if ( value == null || value instanceof BigDecimal || value instanceof String || value instanceof Boolean ) {
+            return value;
+        } else if ( value instanceof Double || value instanceof Float ) {
+            final double number = ((Number) value).doubleValue();
+            return Double.isFinite( number ) ? BigDecimal.valueOf( number ) : UNORDERED;
+        } else if ( value instanceof Number ) {
+            return new BigDecimal( value.toString() );
+        } else if ( value instanceof NlsString ) {
+            return ((NlsString) value).getValue();
+        } else if ( value instanceof Character ) {
+            return value.toString();
+        }
+        return UNORDERED;
+    }
+
+
+    /**
+     * Orders the keys by their type first: null, numbers, strings, booleans and values without order.
+     */
+    static int compareKeys( Object a, Object b ) {
+        final int order = Integer.compare( rank( a ), rank( b ) );
+        if ( order != 0 ) {
+            return order;
+        }
+        if ( a instanceof BigDecimal ) {
+            return ((BigDecimal) a).compareTo( (BigDecimal) b );
+        } else if ( a instanceof String ) {
+            return ((String) a).compareTo( (String) b );
+        } else if ( a instanceof Boolean ) {
+            return ((Boolean) a).compareTo( (Boolean) b );
+        }
+        return 0;
+    }
+
+
+    private static int rank( Object key ) {
+        if ( key == null ) {
+            return 0;
+        } else if ( key instanceof BigDecimal ) {
+            return 1;
+        } else if ( key instanceof String ) {
+            return 2;
+        } else if ( key instanceof Boolean ) {
+            return 3;
+        }
+        return 4;
+    }
+
+
+    /**
+     * Returns the given document, which is retrieved from a collection, as BSON.
+     */
+    public static BsonDocument toDocument( Object document ) {
+        if ( document instanceof BsonValue ) {
+            return ((BsonValue) document).asDocument();
+        } else if ( document instanceof String ) {
+            return BsonDocument.parse( (String) document );
+        }
+        return BsonDocument.parse( MqlFunctions.GSON.toJson( document ) );
+    }
+
+
+    public static String getId( BsonDocument document ) {
+        final BsonValue id = document.get( "_id" );
+        if ( id == null ) {
+            throw new RuntimeException( "The document has no id." );
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toString() : id.asString().getValue();
+    }
+
+
+    /**
+     * A modification of the index, which is either the insertion of a document, the deletion of a document or the
+     * deletion of all documents of a key.
+     */
+    private static class Change {
+
+        private final Object key;
+        private final String id;
+        private final BsonDocument document;
+
+
+        private Change( Object key, String id, BsonDocument document ) {
+            this.key = key;
+            this.id = id;
+            this.document = document;
+        }
+
+
+        /**
+         * Applies this change to the given index.
+         *
+         * @param base the index, which is copied on write, or {@code null} if the target is modified in place
+         */
+        private void apply( NavigableMap<Object, Map<String, BsonDocument>> target, NavigableMap<Object, Map<String, BsonDocument>> base ) {
+            Map<String, BsonDocument> documents = target.get( key );
+            if ( documents == null && !target.containsKey( key ) ) {
+                documents = base != null && base.containsKey( key ) ? new HashMap<>( base.get( key ) ) : new HashMap<>();
+                target.put( key, documents );
+            }
+            if ( document != null ) {
+                documents.put( id, document );
+            } else if ( id != null ) {
+                documents.remove( id );
+            } else {
+                documents.clear();
+            }
+            if ( base == null && documents.isEmpty() ) {
+                target.remove( key );
+            }
+        }
+
+    }
+
+}
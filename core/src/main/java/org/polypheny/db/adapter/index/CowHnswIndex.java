@@ -0,0 +1,496 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.index;
+
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleBiFunction;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.polypheny.db.adapter.index.HnswGraph.Neighbour;
+import org.polypheny.db.algebra.core.Values;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.catalog.entity.CatalogSchema;
+import org.polypheny.db.catalog.entity.CatalogTable;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.runtime.functions.DistanceFunctions;
+import org.polypheny.db.tools.AlgBuilder;
+import org.polypheny.db.transaction.PolyXid;
+
+
+/**
+ * Approximate nearest-neighbour index over a column of vectors, i.e. arrays of numbers, based on a hierarchical navigable
+ * small world graph ({@link HnswGraph}). The index resolves a vector to the primary keys of the rows with the nearest
+ * vectors and is used for queries, which are ordered by the distance to a vector and fetch the first rows.
+ *
+ * The graph only contains committed vectors. The vectors inserted by a transaction are compared with the searched vector
+ * one by one and the rows deleted by a transaction are removed from the results of the graph. Rows without a vector are
+ * not part of the index.
+ */
+public class CowHnswIndex extends Index {
+
+    public static final String METHOD_L2 = "hnsw";
+    public static final String METHOD_L1 = "hnsw_l1";
+    public static final String METHOD_COSINE = "hnsw_cosine";
+
+    // The metric of the distance function, which the index can answer
+    @Getter
+    private final String metric;
+
+    private final HnswGraph graph;
+    private boolean initialized = false;
+
+    private final Map<PolyXid, Overlay> cowIndex = new HashMap<>();
+    private final Map<PolyXid, List<Change>> cowOpLog = new HashMap<>();
+    private final Map<PolyXid, List<Change>> barrierIndex = new HashMap<>();
+
+
+    public CowHnswIndex( long id, String name, String method, CatalogSchema schema, CatalogTable table, List<String> columns, List<String> targetColumns ) {
+        this.id = id;
+        this.name = name;
+        this.schema = schema;
+        this.table = table;
+        this.columns = ImmutableList.copyOf( columns );
+        this.targetColumns = ImmutableList.copyOf( targetColumns );
+        final ToDoubleBiFunction<float[], float[]> distance;
+        switch ( method ) {
+            case METHOD_L2:
+                // Same order as the euclidean distance
+                this.metric = "L2";
+                distance = DistanceFunctions::l2SquaredMetric;
+                break;
+            case METHOD_L1:
+                this.metric = "L1";
+                distance = DistanceFunctions::l1Metric;
+                break;
+            case METHOD_COSINE:
+                this.metric = "COSINE";
+                distance = DistanceFunctions::cosineMetric;
+                break;
+            default:
+                throw new IllegalArgumentException( "Unknown HNSW index method: " + method );
+        }
+        this.graph = new HnswGraph(
+                distance,
+                RuntimeConfig.POLYSTORE_INDEXES_HNSW_M.getInteger(),
+                RuntimeConfig.POLYSTORE_INDEXES_HNSW_EF_CONSTRUCTION.getInteger(),
+                id );
+    }
+
+
+    /**
+     * Tests if the index can answer a distance with the given metric.
+     */
+    public boolean supports( String distanceMetric ) {
+        return metric.equals( distanceMetric ) || (metric.equals( "L2" ) && "L2SQUARED".equals( distanceMetric ));
+    }
+
+
+    @Override
+    public String getMethod() {
+        switch ( metric ) {
+            case "L1":
+                return METHOD_L1;
+            case "COSINE":
+                return METHOD_COSINE;
+            default:
+                return METHOD_L2;
+        }
+    }
+
+
+    @Override
+    public boolean isUnique() {
+        return false;
+    }
+
+
+    @Override
+    public boolean isPersistent() {
+        return false;
+    }
+
+
+    @Override
+    public boolean providesValues() {
+        // The graph resolves vectors to the nearest rows, it does not return the indexed vectors
+        return false;
+    }
+
+
+    @Override
+    void commit( PolyXid xid ) {
+        begin( xid );
+        for ( final Change change : cowOpLog.get( xid ) ) {
+            change.apply( graph );
+        }
+        rollback( xid );
+    }
+
+
+    @Override
+    public void barrier( PolyXid xid ) {
+        begin( xid );
+        for ( final Change change : barrierIndex.get( xid ) ) {
+            change.apply( cowIndex.get( xid ), graph );
+        }
+        barrierIndex.get( xid ).clear();
+    }
+
+
+    @Override
+    void rollback( PolyXid xid ) {
+        cowIndex.remove( xid );
+        cowOpLog.remove( xid );
+        barrierIndex.remove( xid );
+    }
+
+
+    @Override
+    protected void clear() {
+        graph.clear();
+        cowIndex.clear();
+        cowOpLog.clear();
+        barrierIndex.clear();
+    }
+
+
+    @Override
+    void initialize() {
+        initialized = true;
+    }
+
+
+    @Override
+    boolean isInitialized() {
+        return initialized;
+    }
+
+
+    @Override
+    public int size() {
+        return graph.size();
+    }
+
+
+    protected void begin( PolyXid xid ) {
+        if ( !cowIndex.containsKey( xid ) ) {
+            IndexManager.getInstance().begin( xid, this );
+            cowIndex.put( xid, new Overlay() );
+            cowOpLog.put( xid, new ArrayList<>() );
+            barrierIndex.put( xid, new ArrayList<>() );
+        }
+    }
+
+
+    private void log( PolyXid xid, Change change ) {
+        begin( xid );
+        barrierIndex.get( xid ).add( change );
+        cowOpLog.get( xid ).add( change );
+    }
+
+
+    @Override
+    public void insert( PolyXid xid, List<Object> key, List<Object> primary ) {
+        final float[] vector = toVector( key.get( 0 ) );
+        if ( vector == null ) {
+            return;
+        }
+        final int dimension = graph.getDimension();
+        if ( dimension >= 0 && dimension != vector.length ) {
+            throw new RuntimeException( "The index " + name + " only supports vectors with " + dimension + " dimensions." );
+        }
+        log( xid, new Change( vector, primary, true ) );
+    }
+
+
+    @Override
+    void insert( List<Object> key, List<Object> primary ) {
+        final float[] vector = toVector( key.get( 0 ) );
+        if ( vector != null ) {
+            graph.insert( primary, vector );
+        }
+    }
+
+
+    @Override
+    public void delete( PolyXid xid, List<Object> values ) {
+        final float[] vector = toVector( values.get( 0 ) );
+        if ( vector != null ) {
+            log( xid, new Change( vector, null, false ) );
+        }
+    }
+
+
+    @Override
+    void deletePrimary( PolyXid xid, List<Object> key, List<Object> primary ) {
+        log( xid, new Change( null, primary, false ) );
+    }
+
+
+    @Override
+    void delete( List<Object> values ) {
+        final float[] vector = toVector( values.get( 0 ) );
+        if ( vector != null ) {
+            new Change( vector, null, false ).apply( graph );
+        }
+    }
+
+
+    @Override
+    void deletePrimary( List<Object> key, List<Object> primary ) {
+        graph.delete( primary );
+    }
+
+
+    @Override
+    public boolean contains( PolyXid xid, List<Object> value ) {
+        final float[] vector = toVector( value.get( 0 ) );
+        if ( vector == null ) {
+            return false;
+        }
+        final Overlay overlay = cowIndex.get( xid );
+        if ( overlay == null ) {
+            return !graph.getPrimaries( vector ).isEmpty();
+        }
+        return overlay.inserted.values().stream().anyMatch( v -> Arrays.equals( v, vector ) )
+                || graph.getPrimaries( vector ).stream().anyMatch( p -> !overlay.deleted.contains( p ) );
+    }
+
+
+    @Override
+    public boolean containsAny( PolyXid xid, Iterable<List<Object>> values ) {
+        for ( final List<Object> value : values ) {
+            if ( contains( xid, value ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    @Override
+    public boolean containsAll( PolyXid xid, Iterable<List<Object>> values ) {
+        for ( final List<Object> value : values ) {
+            if ( !contains( xid, value ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Retrieves the primary keys of the rows with the approximately nearest vectors to the given vector.
+     *
+     * @param k the number of rows
+     * @param ef the number of candidates explored in the graph, higher values increase the recall
+     * @return the primary keys of up to {@code k} rows, nearest first
+     */
+    public List<List<Object>> lookup( PolyXid xid, List<?> target, int k, int ef ) {
+        final float[] vector = toVector( target );
+        if ( vector == null ) {
+            return List.of();
+        }
+        final Overlay overlay = cowIndex.get( xid );
+        if ( overlay == null ) {
+            return graph.search( vector, k, ef ).stream().map( Neighbour::getPrimary ).collect( Collectors.toList() );
+        }
+        // Search enough neighbours to find k of them, which are not deleted by the transaction
+        final int hidden = overlay.deleted.size();
+        final List<Candidate> candidates = new ArrayList<>();
+        for ( final Neighbour neighbour : graph.search( vector, k + hidden, ef + hidden ) ) {
+            if ( !overlay.deleted.contains( neighbour.getPrimary() ) ) {
+                candidates.add( new Candidate( neighbour.getPrimary(), neighbour.distance ) );
+            }
+        }
+        for ( final Map.Entry<List<Object>, float[]> entry : overlay.inserted.entrySet() ) {
+            if ( entry.getValue().length == vector.length ) {
+                candidates.add( new Candidate( entry.getKey(), graph.distance( vector, entry.getValue() ) ) );
+            }
+        }
+        return candidates.stream()
+                .sorted( Comparator.comparingDouble( c -> c.distance ) )
+                .limit( k )
+                .map( c -> c.primary )
+                .collect( Collectors.toList() );
+    }
+
+
+    /**
+     * Not supported, as this index does not provide values, see {@link #providesValues()}.
+     */
+    @Override
+    public Values getAsValues( PolyXid xid, AlgBuilder builder, AlgDataType rowType ) {
+        throw new UnsupportedOperationException( "The HNSW index " + name + " does not provide values, only nearest-neighbour lookups." );
+    }
+
+
+    /**
+     * Not supported, as this index does not provide values, see {@link #providesValues()}.
+     */
+    @Override
+    public Values getAsValues( PolyXid xid, AlgBuilder builder, AlgDataType rowType, List<Object> key ) {
+        throw new UnsupportedOperationException( "The HNSW index " + name + " does not provide values, only nearest-neighbour lookups." );
+    }
+
+
+    @Override
+    HnswGraph getRaw() {
+        return graph;
+    }
+
+
+    /**
+     * Converts an array of numbers to a vector.
+     *
+     * @return the vector or {@code null} if the value is not an array of numbers
+     */
+    static float[] toVector( Object value ) {
+        if ( !(value instanceof List) ) {
+            return null;
+        }
+        final List<?> list = (List<?>) value;
+        final float[] vector = new float[list.size()];
+        for ( int i = 0; i < vector.length; i++ ) {
+            if ( !(list.get( i ) instanceof Number) ) {
+                return null;
+            }
+            vector[i] = ((Number) list.get( i )).floatValue();
+        }
+        return vector;
+    }
+
+
+    /**
+     * Changes of a transaction, which are not yet part of the graph.
+     */
+    private static class Overlay {
+
+        // Replaces the committed vector of the row, if there is one
+        private final Map<List<Object>, float[]> inserted = new LinkedHashMap<>();
+        private final Set<List<Object>> deleted = new HashSet<>();
+
+    }
+
+
+    /**
+     * A modification of the index, which is either the insertion of the vector of a row, the deletion of a row or the
+     * deletion of all rows with a vector.
+     */
+    private static class Change {
+
+        private final float[] vector;
+        private final List<Object> primary;
+        private final boolean insert;
+
+
+        private Change( float[] vector, List<Object> primary, boolean insert ) {
+            this.vector = vector;
+            this.primary = primary;
+            this.insert = insert;
+        }
+
+
+        /**
+         * Applies this change to the changes of a transaction.
+         */
+        private void apply( Overlay overlay, HnswGraph graph ) {
+            if ( primary == null ) {
+                overlay.deleted.addAll( graph.getPrimaries( vector ) );
+                overlay.inserted.values().removeIf( v -> Arrays.equals( v, vector ) );
+                return;
+            }
+            // The committed vector of the row is hidden in any case
+            overlay.deleted.add( primary );
+            if ( insert ) {
+                overlay.inserted.put( primary, vector );
+            } else {
+                overlay.inserted.remove( primary );
+            }
+        }
+
+
+        /**
+         * Applies this change to the graph of committed vectors.
+         */
+        private void apply( HnswGraph graph ) {
+            if ( primary == null ) {
+                graph.getPrimaries( vector ).forEach( graph::delete );
+            } else if ( insert ) {
+                graph.insert( primary, vector );
+            } else {
+                graph.delete( primary );
+            }
+        }
+
+    }
+
+
+    /**
+     * A row found by a lookup and the distance of its vector.
+     */
+    private static class Candidate {
+
+        private final List<Object> primary;
+        private final double distance;
+
+
+        private Candidate( List<Object> primary, double distance ) {
+            this.primary = primary;
+            this.distance = distance;
+        }
+
+    }
+
+
+    static class Factory implements IndexFactory {
+
+        @Override
+        public boolean canProvide( String method, Boolean unique, Boolean persistent ) {
+            return (METHOD_L2.equals( method ) || METHOD_L1.equals( method ) || METHOD_COSINE.equals( method ))
+                    && (unique == null || !unique)
+                    && (persistent == null || !persistent);
+        }
+
+
+        @Override
+        public Index create(
+                long id,
+                String name,
+                String method,
+                Boolean unique,
+                Boolean persistent,
+                CatalogSchema schema,
+                CatalogTable table,
+                List<String> columns,
+                List<String> targetColumns ) {
+            return new CowHnswIndex( id, name, method, schema, table, columns, targetColumns );
+        }
+
+    }
+
+}
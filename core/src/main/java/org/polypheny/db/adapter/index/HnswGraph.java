@@ -0,0 +1,331 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.index;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.ToDoubleBiFunction;
+import java.util.stream.Collectors;
+
+
+/**
+ * Hierarchical navigable small world graph as described by Malkov and Yashunin, "Efficient and robust approximate
+ * nearest neighbor search using Hierarchical Navigable Small World graphs".
+ *
+ * Every vector is a node on the bottom layer and, with exponentially decreasing probability, on the layers above it.
+ * A search starts at the single node of the top layer, greedily descends to the bottom layer and explores the
+ * {@code ef} nearest nodes found there. Deleted nodes are only marked, as they are still required to navigate the
+ * graph, and the graph is rebuilt once the majority of its nodes is deleted.
+ */
+final class HnswGraph {
+
+    private static final Comparator<Neighbour> NEAREST_FIRST = Comparator.comparingDouble( n -> n.distance );
+    private static final Comparator<Neighbour> FURTHEST_FIRST = NEAREST_FIRST.reversed();
+
+    private final ToDoubleBiFunction<float[], float[]> metric;
+    private final int m;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random;
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<List<Object>, Node> byPrimary = new HashMap<>();
+    private Node entryPoint = null;
+    private int deleted = 0;
+
+
+    /**
+     * @param metric the distance of two vectors, the graph only depends on the order of the distances
+     * @param m the number of neighbours of a node on the upper layers, nodes on the bottom layer have twice as many
+     * @param efConstruction the number of candidates considered as neighbours of an inserted node
+     */
+    HnswGraph( ToDoubleBiFunction<float[], float[]> metric, int m, int efConstruction, long seed ) {
+        this.metric = metric;
+        this.m = Math.max( 2, m );
+        this.efConstruction = Math.max( this.m, efConstruction );
+        this.levelMultiplier = 1 / Math.log( this.m );
+        this.random = new Random( seed );
+    }
+
+
+    synchronized int size() {
+        return byPrimary.size();
+    }
+
+
+    /**
+     * Returns the number of dimensions of the vectors or -1 if the graph is empty.
+     */
+    synchronized int getDimension() {
+        return entryPoint == null ? -1 : entryPoint.vector.length;
+    }
+
+
+    double distance( float[] a, float[] b ) {
+        return metric.applyAsDouble( a, b );
+    }
+
+
+    synchronized void clear() {
+        nodes.clear();
+        byPrimary.clear();
+        entryPoint = null;
+        deleted = 0;
+    }
+
+
+    /**
+     * Adds a vector, replacing the vector of the same row if there is one.
+     */
+    synchronized void insert( List<Object> primary, float[] vector ) {
+        final int dimension = getDimension();
+        if ( dimension >= 0 && dimension != vector.length ) {
+            throw new IllegalArgumentException( "The vector has " + vector.length + " dimensions instead of " + dimension + "." );
+        }
+        delete( primary );
+        final int level = (int) (-Math.log( 1 - random.nextDouble() ) * levelMultiplier);
+        final Node node = new Node( nodes.size(), primary, vector, level, m );
+        nodes.add( node );
+        byPrimary.put( primary, node );
+        if ( entryPoint == null ) {
+            entryPoint = node;
+            return;
+        }
+
+        Neighbour nearest = new Neighbour( entryPoint, distance( vector, entryPoint.vector ) );
+        for ( int layer = entryPoint.level; layer > level; layer-- ) {
+            nearest = searchLayer( vector, List.of( nearest ), 1, layer ).peek();
+        }
+        List<Neighbour> entries = List.of( nearest );
+        for ( int layer = Math.min( level, entryPoint.level ); layer >= 0; layer-- ) {
+            final List<Neighbour> candidates = sorted( searchLayer( vector, entries, efConstruction, layer ) );
+            for ( final Neighbour candidate : candidates.subList( 0, Math.min( m, candidates.size() ) ) ) {
+                connect( node, candidate.node, layer );
+                connect( candidate.node, node, layer );
+            }
+            entries = candidates;
+        }
+        if ( level > entryPoint.level ) {
+            entryPoint = node;
+        }
+    }
+
+
+    /**
+     * Removes the vector of the given row.
+     */
+    synchronized void delete( List<Object> primary ) {
+        final Node node = byPrimary.remove( primary );
+        if ( node == null ) {
+            return;
+        }
+        node.deleted = true;
+        deleted++;
+        if ( deleted > byPrimary.size() ) {
+            rebuild();
+        }
+    }
+
+
+    /**
+     * Returns the rows with exactly the given vector.
+     */
+    synchronized List<List<Object>> getPrimaries( float[] vector ) {
+        return byPrimary.values().stream()
+                .filter( node -> Arrays.equals( node.vector, vector ) )
+                .map( node -> node.primary )
+                .collect( Collectors.toList() );
+    }
+
+
+    /**
+     * Searches the approximately nearest neighbours of the given vector.
+     *
+     * @param k the number of neighbours
+     * @param ef the number of candidates explored on the bottom layer, higher values increase the recall
+     * @return the up to {@code k} nearest neighbours, nearest first
+     */
+    synchronized List<Neighbour> search( float[] vector, int k, int ef ) {
+        if ( entryPoint == null || k <= 0 || entryPoint.vector.length != vector.length ) {
+            return List.of();
+        }
+        Neighbour nearest = new Neighbour( entryPoint, distance( vector, entryPoint.vector ) );
+        for ( int layer = entryPoint.level; layer > 0; layer-- ) {
+            nearest = searchLayer( vector, List.of( nearest ), 1, layer ).peek();
+        }
+        final List<Neighbour> result = new ArrayList<>( k );
+        for ( final Neighbour neighbour : sorted( searchLayer( vector, List.of( nearest ), Math.max( ef, k ), 0 ) ) ) {
+            if ( !neighbour.node.deleted ) {
+                result.add( neighbour );
+                if ( result.size() == k ) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Explores the nodes of a layer starting at the given entry points.
+     *
+     * @return the {@code ef} nearest nodes found, the furthest of them at the head
+     */
+    private PriorityQueue<Neighbour> searchLayer( float[] vector, List<Neighbour> entries, int ef, int layer ) {
+        final BitSet visited = new BitSet( nodes.size() );
+        final PriorityQueue<Neighbour> candidates = new PriorityQueue<>( NEAREST_FIRST );
+        final PriorityQueue<Neighbour> nearest = new PriorityQueue<>( FURTHEST_FIRST );
+        for ( final Neighbour entry : entries ) {
+            visited.set( entry.node.id );
+            candidates.add( entry );
+            nearest.add( entry );
+            if ( nearest.size() > ef ) {
+                nearest.poll();
+            }
+        }
+        while ( !candidates.isEmpty() ) {
+            final Neighbour candidate = candidates.poll();
+            if ( nearest.size() >= ef && candidate.distance > nearest.peek().distance ) {
+                // All remaining candidates are further away than the found nodes
+                break;
+            }
+            final int[] neighbours = candidate.node.neighbours[layer];
+            for ( int i = 0; i < candidate.node.degrees[layer]; i++ ) {
+                final Node node = nodes.get( neighbours[i] );
+                if ( visited.get( node.id ) ) {
+                    continue;
+                }
+                visited.set( node.id );
+                final double distance = distance( vector, node.vector );
+                if ( nearest.size() < ef || distance < nearest.peek().distance ) {
+                    final Neighbour neighbour = new Neighbour( node, distance );
+                    candidates.add( neighbour );
+                    nearest.add( neighbour );
+                    if ( nearest.size() > ef ) {
+                        nearest.poll();
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+
+    /**
+     * Adds an edge to the neighbours of a node. If the node already has the maximum number of neighbours, only the
+     * nearest of them are kept.
+     */
+    private void connect( Node node, Node neighbour, int layer ) {
+        final int[] neighbours = node.neighbours[layer];
+        final int degree = node.degrees[layer];
+        if ( degree < neighbours.length ) {
+            neighbours[degree] = neighbour.id;
+            node.degrees[layer]++;
+            return;
+        }
+        final List<Neighbour> candidates = new ArrayList<>( degree + 1 );
+        for ( int i = 0; i < degree; i++ ) {
+            final Node other = nodes.get( neighbours[i] );
+            candidates.add( new Neighbour( other, distance( node.vector, other.vector ) ) );
+        }
+        candidates.add( new Neighbour( neighbour, distance( node.vector, neighbour.vector ) ) );
+        candidates.sort( NEAREST_FIRST );
+        for ( int i = 0; i < neighbours.length; i++ ) {
+            neighbours[i] = candidates.get( i ).node.id;
+        }
+    }
+
+
+    /**
+     * Rebuilds the graph from the nodes which are not deleted.
+     */
+    private void rebuild() {
+        final List<Node> live = nodes.stream().filter( node -> !node.deleted ).collect( Collectors.toList() );
+        clear();
+        for ( final Node node : live ) {
+            insert( node.primary, node.vector );
+        }
+    }
+
+
+    private static List<Neighbour> sorted( PriorityQueue<Neighbour> queue ) {
+        final List<Neighbour> list = new ArrayList<>( queue );
+        list.sort( NEAREST_FIRST );
+        return list;
+    }
+
+
+    /**
+     * A vector of the graph.
+     */
+    private static final class Node {
+
+        private final int id;
+        private final List<Object> primary;
+        private final float[] vector;
+        private final int level;
+        // The neighbours and their number per layer
+        private final int[][] neighbours;
+        private final int[] degrees;
+        private boolean deleted = false;
+
+
+        private Node( int id, List<Object> primary, float[] vector, int level, int m ) {
+            this.id = id;
+            this.primary = primary;
+            this.vector = vector;
+            this.level = level;
+            this.neighbours = new int[level + 1][];
+            for ( int layer = 0; layer <= level; layer++ ) {
+                this.neighbours[layer] = new int[layer == 0 ? 2 * m : m];
+            }
+            this.degrees = new int[level + 1];
+        }
+
+    }
+
+
+    /**
+     * A node found by a search and its distance to the searched vector.
+     */
+    static final class Neighbour {
+
+        private final Node node;
+        final double distance;
+
+
+        private Neighbour( Node node, double distance ) {
+            this.node = node;
+            this.distance = distance;
+        }
+
+
+        List<Object> getPrimary() {
+            return node.primary;
+        }
+
+    }
+
+}
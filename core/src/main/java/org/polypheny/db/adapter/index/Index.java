@@ -70,6 +70,15 @@ public abstract class Index {
     public abstract boolean isPersistent();
 
 
+    /**
+     * Tests if the index can return the values of its columns, i.e. if {@link #getAsValues} is supported and the index
+     * can replace a scan of the columns. Indexes, which only support their own lookups, are not used for that.
+     */
+    public boolean providesValues() {
+        return true;
+    }
+
+
     public List<String> getColumns() {
         return ImmutableList.copyOf( this.columns );
     }
@@ -100,7 +109,7 @@ public void rebuild( final Transaction transaction ) {
         final PolyImplementation result = processor.prepareQuery( AlgRoot.of( scan, Kind.SELECT ), false );
         // Execute query
 
-        final List<List<Object>> rows = result.getRows( statement, 1, false, false, result.getStatement().getMonitoringEvent(), true );
+        final List<List<Object>> rows = result.getRows( statement, -1, false, false, result.getStatement().getMonitoringEvent(), true );
         final List<Pair<List<Object>, List<Object>>> kv = new ArrayList<>( rows.size() );
         for ( final List<Object> row : rows ) {
             if ( row.size() > columns.size() ) {
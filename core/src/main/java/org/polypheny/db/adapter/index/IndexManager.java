@@ -69,7 +69,8 @@ public class IndexManager {
 
     private static final List<IndexFactory> INDEX_FACTORIES = Arrays.asList(
             new CoWHashIndex.Factory(),
-            new CowMultiHashIndex.Factory()
+            new CowMultiHashIndex.Factory(),
+            new CowHnswIndex.Factory()
     );
 
     private final Map<Long, Index> indexById = new HashMap<>();
@@ -90,7 +91,10 @@ private IndexManager() {
 
     public static List<AvailableIndexMethod> getAvailableIndexMethods() {
         return ImmutableList.of(
-                new AvailableIndexMethod( "hash", "HASH" )
+                new AvailableIndexMethod( "hash", "HASH" ),
+                new AvailableIndexMethod( CowHnswIndex.METHOD_L2, "HNSW (L2)" ),
+                new AvailableIndexMethod( CowHnswIndex.METHOD_L1, "HNSW (L1)" ),
+                new AvailableIndexMethod( CowHnswIndex.METHOD_COSINE, "HNSW (Cosine)" )
         );
     }
 
@@ -164,6 +168,11 @@ public void addIndex( final CatalogIndex index ) throws UnknownSchemaException,
 
 
     public void addIndex( final CatalogIndex index, final Statement statement ) throws UnknownSchemaException, GenericCatalogException, UnknownTableException, UnknownKeyException, UnknownUserException, UnknownDatabaseException, TransactionException {
+        if ( CowDocumentIndex.METHOD.equals( index.method ) ) {
+            // The physical name of a document index holds the indexed path, as there is no physical counterpart
+            addDocumentIndex( index.id, index.name, index.key, Arrays.asList( index.physicalName.split( "\\." ) ), statement );
+            return;
+        }
         // TODO(s3lph): persistent
         addIndex( index.id, index.name, index.key, index.method, index.unique, null, statement );
     }
@@ -186,8 +195,34 @@ protected void addIndex( final long id, final String name, final CatalogKey key,
                 table,
                 key.getColumnNames(),
                 pk.getColumnNames() );
-        indexById.put( id, index );
-        indexByName.put( name, index );
+        register( index, statement );
+    }
+
+
+    /**
+     * Adds an index over the values at the given path of the documents of a collection.
+     *
+     * @param key the key over the column, which holds the documents of the collection
+     * @param path the path in the form key1.key2.key3 {@code ->} [key1, key2, key3]
+     */
+    protected void addDocumentIndex( final long id, final String name, final CatalogKey key, final List<String> path, final Statement statement ) throws UnknownSchemaException, GenericCatalogException, UnknownDatabaseException, UnknownUserException, TransactionException {
+        final CatalogTable table = Catalog.getInstance().getTable( key.tableId );
+        final CatalogPrimaryKey pk = Catalog.getInstance().getPrimaryKey( table.primaryKey );
+        final Index index = new CowDocumentIndex(
+                id,
+                name,
+                Catalog.getInstance().getSchema( key.schemaId ),
+                table,
+                key.getColumnNames(),
+                pk.getColumnNames(),
+                path );
+        register( index, statement );
+    }
+
+
+    private void register( final Index index, final Statement statement ) throws UnknownSchemaException, GenericCatalogException, UnknownDatabaseException, UnknownUserException, TransactionException {
+        indexById.put( index.id, index );
+        indexByName.put( index.name, index );
         final Transaction tx = statement != null
                 ? statement.getTransaction()
                 : transactionManager.startTransaction( Catalog.defaultUserId, Catalog.defaultDatabaseId, false, "Index Manager" );
@@ -219,16 +254,48 @@ public Index getIndex( CatalogSchema schema, CatalogTable table, List<String> co
                 index.schema.equals( schema )
                         && index.table.equals( table )
                         && index.columns.equals( columns )
+                        && index.providesValues()
                         && index.isInitialized()
         ).findFirst().orElse( null );
     }
 
 
+    public CowDocumentIndex getDocumentIndex( CatalogSchema schema, CatalogTable table, List<String> path ) {
+        return this.indexById.values().stream()
+                .filter( index -> index instanceof CowDocumentIndex )
+                .map( index -> (CowDocumentIndex) index )
+                .filter( index ->
+                        index.schema.equals( schema )
+                                && index.table.equals( table )
+                                && index.getPath().equals( path )
+                                && index.isInitialized() )
+                .findFirst().orElse( null );
+    }
+
+
+    /**
+     * Returns an index, which resolves a vector to the rows with the nearest vectors in the given column by the given metric.
+     */
+    public CowHnswIndex getNearestNeighbourIndex( CatalogSchema schema, CatalogTable table, String column, String metric ) {
+        return this.indexById.values().stream()
+                .filter( index -> index instanceof CowHnswIndex )
+                .map( index -> (CowHnswIndex) index )
+                .filter( index ->
+                        index.schema.equals( schema )
+                                && index.table.equals( table )
+                                && index.columns.equals( List.of( column ) )
+                                && index.supports( metric )
+                                && index.isInitialized() )
+                .findFirst().orElse( null );
+    }
+
+
     public Index getIndex( CatalogSchema schema, CatalogTable table, List<String> columns, String method, Boolean unique, Boolean persistent ) {
         return this.indexById.values().stream().filter( index ->
                 index.schema.equals( schema )
                         && index.table.equals( table )
                         && index.columns.equals( columns )
+                        && index.providesValues()
                         && (method == null || (index.getMethod().equals( method )))
                         && (unique == null || (index.isUnique() == unique))
                         && (persistent == null || (index.isPersistent() == persistent))
@@ -248,6 +315,11 @@ public void incrementHit() {
     }
 
 
+    public long getHitCount() {
+        return indexLookupHitsCounter.get();
+    }
+
+
     public void incrementNoIndex() {
         indexLookupNoIndexCounter.incrementAndGet();
     }
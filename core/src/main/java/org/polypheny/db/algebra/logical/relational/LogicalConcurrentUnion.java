@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.algebra.logical.relational;
+
+
+import java.util.List;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.AlgShuttle;
+import org.polypheny.db.algebra.core.Union;
+import org.polypheny.db.plan.AlgOptCluster;
+import org.polypheny.db.plan.AlgTraitSet;
+import org.polypheny.db.plan.Convention;
+
+
+/**
+ * {@code UNION ALL} whose inputs are independent sub-queries on different adapters (e.g. the partitions of a
+ * horizontally partitioned table), which can therefore be fetched concurrently.
+ */
+public final class LogicalConcurrentUnion extends Union {
+
+    public LogicalConcurrentUnion( AlgOptCluster cluster, AlgTraitSet traitSet, List<AlgNode> inputs ) {
+        super( cluster, traitSet, inputs, true );
+    }
+
+
+    /**
+     * Creates a LogicalConcurrentUnion.
+     */
+    public static LogicalConcurrentUnion create( List<AlgNode> inputs ) {
+        final AlgOptCluster cluster = inputs.get( 0 ).getCluster();
+        final AlgTraitSet traitSet = cluster.traitSetOf( Convention.NONE );
+        return new LogicalConcurrentUnion( cluster, traitSet, inputs );
+    }
+
+
+    @Override
+    public LogicalConcurrentUnion copy( AlgTraitSet traitSet, List<AlgNode> inputs, boolean all ) {
+        assert traitSet.containsIfApplicable( Convention.NONE );
+        assert all;
+        return new LogicalConcurrentUnion( getCluster(), traitSet, inputs );
+    }
+
+
+    @Override
+    public AlgNode accept( AlgShuttle shuttle ) {
+        return shuttle.visit( this );
+    }
+
+}
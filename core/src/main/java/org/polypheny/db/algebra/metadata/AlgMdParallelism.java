@@ -34,6 +34,7 @@
 package org.polypheny.db.algebra.metadata;
 
 
+import org.polypheny.db.adapter.enumerable.EnumerableGather;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.core.Exchange;
 import org.polypheny.db.algebra.core.Scan;
@@ -95,6 +96,11 @@ public Boolean isPhaseTransition( Exchange alg, AlgMetadataQuery mq ) {
     }
 
 
+    public Boolean isPhaseTransition( EnumerableGather alg, AlgMetadataQuery mq ) {
+        return true;
+    }
+
+
     /**
      * Catch-all implementation for {@link BuiltInMetadata.Parallelism#splitCount()}, invoked using reflection.
      *
@@ -104,5 +110,10 @@ public Integer splitCount( AlgNode alg, AlgMetadataQuery mq ) {
         return 1;
     }
 
+
+    public Integer splitCount( EnumerableGather alg, AlgMetadataQuery mq ) {
+        return alg.getInputs().size();
+    }
+
 }
 
@@ -1370,6 +1370,10 @@ public enum OperatorName {
 
     CYPHER_PATH_MATCH( LangFunctionOperator.class ),
 
+    CYPHER_SHORTEST_PATH_MATCH( LangFunctionOperator.class ),
+
+    CYPHER_ALL_SHORTEST_PATHS_MATCH( LangFunctionOperator.class ),
+
     CYPHER_ALL_MATCH( LangFunctionOperator.class ),
 
     CYPHER_ANY_MATCH( LangFunctionOperator.class ),
@@ -156,6 +156,27 @@ public enum RuntimeConfig {
             ConfigType.BOOLEAN ),
     // "processingExecutionGroup" ),
 
+    CATALOG_GROUP_COMMIT_DELAY(
+            "runtime/catalogGroupCommitDelay",
+            "Time in milliseconds a commit of the catalog waits to combine changes of concurrent transactions into one commit. Zero commits immediately.",
+            2,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    GRAPH_PATTERN_PUSHDOWN(
+            "runtime/graphPatternPushdown",
+            "Only read the nodes and edges which can match the patterns of a MATCH from graphs placed on relational stores, instead of the whole graph.",
+            true,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    TWO_PC_TIMEOUT(
+            "runtime/twoPcTimeout",
+            "Maximum time in milliseconds to wait for all involved adapters to prepare respectively commit a transaction.",
+            60000,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
     DYNAMIC_QUERYING(
             "statistics/useDynamicQuerying",
             "Use statistics for query assistance.",
@@ -394,6 +415,27 @@ public enum RuntimeConfig {
             ConfigType.BOOLEAN,
             "polystoreIndexGroup" ),
 
+    POLYSTORE_INDEXES_HNSW_M(
+            "runtime/polystoreIndexesHnswM",
+            "Number of neighbours of every vector in the graph of HNSW indexes. Only applies to indexes created or rebuilt afterwards.",
+            16,
+            ConfigType.INTEGER,
+            "polystoreIndexGroup" ),
+
+    POLYSTORE_INDEXES_HNSW_EF_CONSTRUCTION(
+            "runtime/polystoreIndexesHnswEfConstruction",
+            "Number of candidates considered when inserting a vector into the graph of HNSW indexes.",
+            100,
+            ConfigType.INTEGER,
+            "polystoreIndexGroup" ),
+
+    POLYSTORE_INDEXES_HNSW_EF_SEARCH(
+            "runtime/polystoreIndexesHnswEfSearch",
+            "Number of candidates considered when searching the nearest neighbours in HNSW indexes. Higher values increase the recall at the cost of speed.",
+            64,
+            ConfigType.INTEGER,
+            "polystoreIndexGroup" ),
+
     DOCKER_INSTANCES(
             "runtime/dockerInstances",
             "Configure different docker instances, which can be used to place adapters on.",
@@ -415,6 +457,83 @@ public enum RuntimeConfig {
             ConfigType.INTEGER,
             "processingExecutionGroup" ),
 
+    COLUMNAR_EXECUTION(
+            "runtime/columnarExecution",
+            "Evaluate filters and projections on numeric columns as well as ungrouped aggregates over them on columnar batches instead of row by row.",
+            false,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    COLUMNAR_BATCH_SIZE(
+            "runtime/columnarBatchSize",
+            "Number of rows per column vector when operators exchange data in columnar batches.",
+            1024,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    INTRA_QUERY_PARALLELISM(
+            "runtime/intraQueryParallelism",
+            "Number of plan branches (e.g. the inputs of a union over partitions on different stores) which are evaluated concurrently within one query. The setting applies to all statements. A value of 1 disables intra-query parallelism.",
+            1,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    CONCURRENT_PARTITION_SCANS(
+            "runtime/concurrentPartitionScans",
+            "Fetch the partitions of a horizontally partitioned table concurrently if they are placed on different adapters. The partitions are fetched by a bounded pool of worker threads shared by all statements.",
+            false,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    UNION_PREFETCH_SIZE(
+            "runtime/unionPrefetchSize",
+            "Maximum number of rows which are prefetched per input when the inputs of a union are fetched concurrently.",
+            1000,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    BULK_BATCH_EXECUTION(
+            "runtime/bulkBatchExecution",
+            "Execute prepared DML statements with a batch of parameters once for the whole batch if all involved adapters support it.",
+            true,
+            ConfigType.BOOLEAN,
+            "processingExecutionGroup" ),
+
+    STREAMER_BATCH_SIZE(
+            "runtime/streamerBatchSize",
+            "Number of rows which are bound at once when the result of a query is streamed into a DML statement (e.g. INSERT ... SELECT). Zero materializes the whole result.",
+            10000,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    JDBC_POOL_ACQUIRE_TIMEOUT(
+            "runtime/jdbcPoolAcquireTimeout",
+            "Maximal time in milliseconds a statement waits for a free connection of a JDBC adapter before it fails.",
+            30000,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    JDBC_POOL_IDLE_TIMEOUT(
+            "runtime/jdbcPoolIdleTimeout",
+            "Time in milliseconds after which idle connections of a JDBC adapter are closed. Zero keeps idle connections open.",
+            600000,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    JDBC_STATEMENT_CACHE_SIZE(
+            "runtime/jdbcStatementCacheSize",
+            "Number of prepared statements which are cached per connection of a JDBC adapter. Zero disables the cache.",
+            64,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
+    JDBC_FETCH_SIZE(
+            "runtime/jdbcFetchSize",
+            "Maximum number of rows fetched per round trip when reading results of a JDBC adapter. Zero lets the driver decide, which for some drivers means reading the whole result into memory.",
+            1000,
+            ConfigType.INTEGER,
+            "processingExecutionGroup" ),
+
     MONITORING_QUEUE_ACTIVE(
             "runtime/monitoringQueueActive",
             "Enables automatic monitoring of executed events in workload monitoring. If disabled no events are captured, hence the queue remains empty. This also effects routing!",
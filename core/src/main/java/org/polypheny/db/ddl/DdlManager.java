@@ -220,6 +220,16 @@ public static DdlManager getInstance() {
      */
     public abstract void addPolyphenyIndex( CatalogTable catalogTable, String indexMethodName, List<String> columnNames, String indexName, boolean isUnique, Statement statement ) throws UnknownColumnException, UnknownIndexMethodException, GenericCatalogException, UnknownTableException, UnknownUserException, UnknownSchemaException, UnknownKeyException, UnknownDatabaseException, TransactionException, AlterSourceException, IndexExistsException, MissingColumnPlacementException;
 
+    /**
+     * Adds an index located in Polypheny over the values at a path of the documents of a collection
+     *
+     * @param catalogCollection the collection to which an index should be added
+     * @param path the path of the indexed values in the form key1.key2.key3
+     * @param indexName name of the index
+     * @param statement the initial query statement
+     */
+    public abstract void addDocumentIndex( CatalogCollection catalogCollection, String path, String indexName, Statement statement ) throws GenericCatalogException, UnknownUserException, UnknownSchemaException, UnknownKeyException, UnknownDatabaseException, UnknownTableException, TransactionException, IndexExistsException;
+
     /**
      * Adds new column placements to a table
      *
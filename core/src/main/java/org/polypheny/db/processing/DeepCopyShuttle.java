@@ -24,6 +24,7 @@
 import org.polypheny.db.algebra.core.TableFunctionScan;
 import org.polypheny.db.algebra.core.Values;
 import org.polypheny.db.algebra.logical.common.LogicalConditionalExecute;
+import org.polypheny.db.algebra.logical.document.LogicalDocumentScan;
 import org.polypheny.db.algebra.logical.relational.LogicalAggregate;
 import org.polypheny.db.algebra.logical.relational.LogicalCorrelate;
 import org.polypheny.db.algebra.logical.relational.LogicalExchange;
@@ -186,6 +187,12 @@ public AlgNode visit( LogicalConditionalExecute lce ) {
     }
 
 
+    @Override
+    public AlgNode visit( LogicalDocumentScan scan ) {
+        return new LogicalDocumentScan( scan.getCluster(), copy( scan.getTraitSet() ), scan.getCollection() );
+    }
+
+
     @Override
     public AlgNode visit( AlgNode other ) {
         final AlgNode node = super.visit( other );
@@ -34,8 +34,15 @@
 package org.polypheny.db.runtime;
 
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.function.Supplier;
+import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
 import org.apache.calcite.linq4j.function.Function1;
 import org.polypheny.db.interpreter.Row;
 
@@ -74,5 +81,78 @@ public static Supplier<Enumerable<Row>> toRow( final Supplier<Enumerable<Object[
         return () -> toRow( supplier.get() );
     }
 
-}
 
+    /**
+     * Sorts the input and returns the rows {@code offset} to {@code offset + fetch} without sorting all rows. The best
+     * {@code offset + fetch} rows are kept in a bounded heap, which requires {@code O(n log(k))} comparisons instead of
+     * {@code O(n log(n))} and only keeps {@code k} rows in memory. Rows with equal keys keep their input order, the
+     * result is therefore the same as the one of {@code orderBy(...).skip( offset ).take( fetch )}.
+     *
+     * @param comparator the comparator of the keys or {@code null} if the keys are {@link Comparable}
+     */
+    @SuppressWarnings("unchecked")
+    public static <TSource, TKey> Enumerable<TSource> orderByLimit(
+            final Enumerable<TSource> source,
+            final Function1<TSource, TKey> keySelector,
+            final Comparator<TKey> comparator,
+            final int offset,
+            final int fetch ) {
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<TSource> enumerator() {
+                final long limit = (long) offset + fetch;
+                if ( fetch <= 0 ) {
+                    return Linq4j.emptyEnumerator();
+                } else if ( limit >= Integer.MAX_VALUE ) {
+                    return source.orderBy( keySelector, comparator ).skip( offset ).take( fetch ).enumerator();
+                }
+                final Comparator<TKey> keys = comparator != null ? comparator : (Comparator<TKey>) Comparator.naturalOrder();
+                final Comparator<TopEntry<TSource, TKey>> order = Comparator.<TopEntry<TSource, TKey>, TKey>comparing( e -> e.key, keys ).thenComparingLong( e -> e.seq );
+                // The head of the heap is the worst of the kept rows
+                final PriorityQueue<TopEntry<TSource, TKey>> heap = new PriorityQueue<>( (int) Math.min( limit, 1024 ), order.reversed() );
+                long seq = 0;
+                try ( Enumerator<TSource> enumerator = source.enumerator() ) {
+                    while ( enumerator.moveNext() ) {
+                        final TSource row = enumerator.current();
+                        final TKey key = keySelector.apply( row );
+                        if ( heap.size() < limit ) {
+                            heap.add( new TopEntry<>( key, seq, row ) );
+                        } else if ( keys.compare( key, heap.peek().key ) < 0 ) {
+                            // rows with an equal key came later and are therefore worse
+                            heap.poll();
+                            heap.add( new TopEntry<>( key, seq, row ) );
+                        }
+                        seq++;
+                    }
+                }
+                final List<TopEntry<TSource, TKey>> entries = new ArrayList<>( heap );
+                entries.sort( order );
+                final List<TSource> rows = new ArrayList<>( Math.max( entries.size() - offset, 0 ) );
+                for ( int i = offset; i < entries.size(); i++ ) {
+                    rows.add( entries.get( i ).row );
+                }
+                return Linq4j.enumerator( rows );
+            }
+        };
+    }
+
+
+    /**
+     * Row kept by {@link #orderByLimit}, the sequence number keeps the input order of equal keys.
+     */
+    private static final class TopEntry<TSource, TKey> {
+
+        private final TKey key;
+        private final long seq;
+        private final TSource row;
+
+
+        private TopEntry( TKey key, long seq, TSource row ) {
+            this.key = key;
+            this.seq = seq;
+            this.row = row;
+        }
+
+    }
+
+}
@@ -114,6 +114,11 @@ public enum Hook {
      */
     PROGRAM,
 
+    /**
+     * Called with the {@link org.polypheny.db.algebra.AlgRoot} of the optimized plan, before it is implemented.
+     */
+    PLAN_BEFORE_IMPLEMENTATION,
+
     /**
      * Called with a query that has been generated to send to a back-end system.
      * The query might be a SQL string (for the JDBC adapter), a list of Mongo pipeline expressions (for the MongoDB adapter), et cetera.
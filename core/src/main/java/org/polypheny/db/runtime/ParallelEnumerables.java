@@ -0,0 +1,420 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.runtime;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.Function0;
+import org.polypheny.db.config.RuntimeConfig;
+
+
+/**
+ * Utilities to evaluate independent branches of an enumerable plan (e.g. the inputs of a union) concurrently.
+ *
+ * Every started branch is fetched by a worker which hands its rows over to the consumer through a bounded queue,
+ * so slow consumers block the workers instead of buffering whole results. The workers run on a pool shared by all
+ * statements whose size is bounded; if no worker is available, the consumer evaluates the branch itself.
+ * Workers are never interrupted, as this would abort blocking reads of the adapters: closing an enumerator only
+ * asks the workers to stop and waits until they have closed the enumerators of their branches.
+ */
+@Slf4j
+public final class ParallelEnumerables {
+
+    /**
+     * Maximum number of workers; as most workers wait for adapters, it exceeds the number of processors.
+     */
+    public static final int MAX_WORKERS = Math.max( 4, 2 * Runtime.getRuntime().availableProcessors() );
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            0,
+            MAX_WORKERS,
+            60L,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            new ThreadFactoryImpl() );
+
+    /**
+     * Marks a null row in the queues, as blocking queues do not accept null elements.
+     */
+    private static final Object NULL_ROW = new Object();
+
+    /**
+     * Signals that a branch has no further rows.
+     */
+    private static final Object END_OF_BRANCH = new Object();
+
+
+    private ParallelEnumerables() {
+        // empty on purpose
+    }
+
+
+    /**
+     * Returns the configured degree of intra-query parallelism. It is a global setting which applies to all statements.
+     */
+    public static int getParallelism() {
+        return Math.max( 1, RuntimeConfig.INTRA_QUERY_PARALLELISM.getInteger() );
+    }
+
+
+    /**
+     * Returns the concatenation of the results of the given branches in branch order. Up to {@code parallelism}
+     * branches are fetched ahead of the consumer, each of them into a queue which holds at most {@code prefetchSize} rows.
+     */
+    @SuppressWarnings("unused")
+    public static Enumerable<Object> gather( final int parallelism, final List<Function0<Enumerable<Object>>> branches, final int prefetchSize ) {
+        if ( parallelism <= 1 || branches.size() <= 1 ) {
+            Enumerable<Object> result = Linq4j.emptyEnumerable();
+            for ( Function0<Enumerable<Object>> branch : branches ) {
+                result = result.concat( branch.apply() );
+            }
+            return result;
+        }
+
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<Object> enumerator() {
+                return new ConcurrentEnumerator( branches, parallelism, Math.max( 1, prefetchSize ), true );
+            }
+        };
+    }
+
+
+    /**
+     * Starts all given branches at once and returns their rows as they arrive, in no particular order.
+     * Every branch is fetched into a queue which holds at most {@code prefetchSize} rows.
+     */
+    @SuppressWarnings("unused")
+    public static Enumerable<Object> prefetch( final List<Function0<Enumerable<Object>>> branches, final int prefetchSize ) {
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<Object> enumerator() {
+                return new ConcurrentEnumerator( branches, branches.size(), Math.max( 1, prefetchSize ), false );
+            }
+        };
+    }
+
+
+    /**
+     * Enumerator which consumes the rows of concurrently fetched branches, either in branch order or as they arrive.
+     */
+    private static class ConcurrentEnumerator implements Enumerator<Object> {
+
+        private final List<Function0<Enumerable<Object>>> functions;
+        private final int window;
+        private final int prefetchSize;
+        private final boolean ordered;
+
+        /**
+         * Number of rows which are queued in any branch, only maintained if the rows are not consumed in branch order.
+         */
+        private Semaphore available;
+        private List<Branch> branches;
+        private int started;
+        private int finished;
+        private Object current;
+
+
+        ConcurrentEnumerator( List<Function0<Enumerable<Object>>> functions, int window, int prefetchSize, boolean ordered ) {
+            this.functions = functions;
+            this.window = window;
+            this.prefetchSize = prefetchSize;
+            this.ordered = ordered;
+            start();
+        }
+
+
+        private void start() {
+            available = ordered ? null : new Semaphore( 0 );
+            branches = new ArrayList<>( functions.size() );
+            started = 0;
+            finished = 0;
+            current = null;
+            startNext();
+        }
+
+
+        private void startNext() {
+            while ( started < functions.size() && started - finished < window ) {
+                final Branch branch = new Branch( functions.get( started++ ), prefetchSize, available );
+                branches.add( branch );
+                try {
+                    branch.producer = EXECUTOR.submit( branch::produce );
+                } catch ( RejectedExecutionException e ) {
+                    // all workers are busy, the branch is evaluated by the consumer when its rows are needed
+                    branch.inline = branch.function.apply().enumerator();
+                }
+            }
+        }
+
+
+        @Override
+        public Object current() {
+            return current;
+        }
+
+
+        @Override
+        public boolean moveNext() {
+            while ( finished < functions.size() ) {
+                final Object element = ordered ? takeOrdered() : takeAny();
+                if ( element == END_OF_BRANCH ) {
+                    finished++;
+                    startNext();
+                } else if ( element instanceof BranchFailure ) {
+                    close();
+                    Throwable cause = ((BranchFailure) element).cause;
+                    if ( cause instanceof RuntimeException ) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new RuntimeException( cause );
+                } else {
+                    current = element == NULL_ROW ? null : element;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+
+        /**
+         * Takes the next element of the first unfinished branch.
+         */
+        private Object takeOrdered() {
+            final Branch branch = branches.get( finished );
+            return branch.inline != null ? branch.next() : branch.take();
+        }
+
+
+        /**
+         * Takes the next element of any branch. Branches which are evaluated by the consumer are only advanced
+         * if no queued element is available.
+         */
+        private Object takeAny() {
+            if ( available.tryAcquire() ) {
+                return pollAny();
+            }
+            for ( Branch branch : branches ) {
+                if ( branch.inline != null && !branch.done ) {
+                    return branch.next();
+                }
+            }
+            try {
+                available.acquire();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( "Interrupted while waiting for the results of a union branch", e );
+            }
+            return pollAny();
+        }
+
+
+        private Object pollAny() {
+            for ( Branch branch : branches ) {
+                final Object element = branch.queue.poll();
+                if ( element != null ) {
+                    return element;
+                }
+            }
+            throw new IllegalStateException( "No queued element although one has been announced" );
+        }
+
+
+        @Override
+        public void reset() {
+            close();
+            start();
+        }
+
+
+        @Override
+        public void close() {
+            for ( Branch branch : branches ) {
+                branch.close();
+            }
+            for ( Branch branch : branches ) {
+                branch.await();
+            }
+            finished = functions.size();
+        }
+
+    }
+
+
+    /**
+     * A branch of a {@link ConcurrentEnumerator}, which is either fetched by a worker into its queue or, if no
+     * worker has been available, evaluated by the consumer using its {@link #inline} enumerator.
+     */
+    private static class Branch {
+
+        private final Function0<Enumerable<Object>> function;
+        private final BlockingQueue<Object> queue;
+        private final Semaphore available;
+
+        private volatile boolean closed = false;
+        private Future<?> producer;
+        private Enumerator<Object> inline;
+        private boolean done = false;
+
+
+        Branch( Function0<Enumerable<Object>> function, int prefetchSize, Semaphore available ) {
+            this.function = function;
+            this.queue = new ArrayBlockingQueue<>( prefetchSize + 1 );
+            this.available = available;
+        }
+
+
+        /**
+         * Fetches all rows of the branch into the queue, executed by a worker.
+         */
+        private void produce() {
+            try ( Enumerator<Object> enumerator = function.apply().enumerator() ) {
+                while ( !closed && enumerator.moveNext() ) {
+                    final Object row = enumerator.current();
+                    put( row == null ? NULL_ROW : row );
+                }
+            } catch ( Throwable t ) {
+                put( new BranchFailure( t ) );
+                return;
+            }
+            put( END_OF_BRANCH );
+        }
+
+
+        private void put( Object element ) {
+            try {
+                while ( !closed ) {
+                    // the timeout allows to notice that the consumer has been closed
+                    if ( queue.offer( element, 100, TimeUnit.MILLISECONDS ) ) {
+                        if ( available != null ) {
+                            available.release();
+                        }
+                        return;
+                    }
+                }
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+
+        private Object take() {
+            try {
+                return queue.take();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( "Interrupted while waiting for the results of a union branch", e );
+            }
+        }
+
+
+        /**
+         * Returns the next element of a branch which is evaluated by the consumer.
+         */
+        private Object next() {
+            try {
+                if ( inline.moveNext() ) {
+                    final Object row = inline.current();
+                    return row == null ? NULL_ROW : row;
+                }
+            } catch ( Throwable t ) {
+                done = true;
+                return new BranchFailure( t );
+            }
+            done = true;
+            inline.close();
+            return END_OF_BRANCH;
+        }
+
+
+        /**
+         * Asks the worker to stop; the worker closes the enumerator of the branch itself.
+         */
+        private void close() {
+            closed = true;
+            queue.clear();
+            if ( inline != null && !done ) {
+                done = true;
+                inline.close();
+            }
+        }
+
+
+        /**
+         * Waits until the worker has stopped. The worker is not interrupted, it stops after its current row.
+         */
+        private void await() {
+            if ( producer == null ) {
+                return;
+            }
+            try {
+                producer.get();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            } catch ( ExecutionException e ) {
+                log.warn( "Worker of a concurrent union branch failed", e.getCause() );
+            }
+        }
+
+    }
+
+
+    private static class BranchFailure {
+
+        private final Throwable cause;
+
+
+        BranchFailure( Throwable cause ) {
+            this.cause = cause;
+        }
+
+    }
+
+
+    private static class ThreadFactoryImpl implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+
+        @Override
+        public Thread newThread( Runnable runnable ) {
+            Thread thread = new Thread( runnable, "parallel-enumerable-" + counter.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+
+    }
+
+}
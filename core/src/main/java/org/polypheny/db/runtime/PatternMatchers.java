@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime;
+
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.apache.calcite.linq4j.function.Deterministic;
+
+
+/**
+ * Compiled matchers for {@code LIKE}, {@code SIMILAR TO} and regular expression patterns.
+ *
+ * Compiling a pattern is much more expensive than matching it, matchers are therefore cached in bounded LRU caches.
+ * {@code LIKE} patterns which only consist of a literal prefix, suffix or infix are matched without regular expression.
+ * The generated code calls {@link #like(String, String)} for constant patterns with constant arguments, it is therefore
+ * marked deterministic and the matcher is created once per generated class.
+ */
+public final class PatternMatchers {
+
+    private static final int CACHE_SIZE = 1000;
+
+    private static final Cache<List<String>, Predicate<String>> LIKE_CACHE = CacheBuilder.newBuilder().maximumSize( CACHE_SIZE ).build();
+    private static final Cache<List<String>, Predicate<String>> SIMILAR_CACHE = CacheBuilder.newBuilder().maximumSize( CACHE_SIZE ).build();
+    private static final Cache<List<Object>, Pattern> REGEX_CACHE = CacheBuilder.newBuilder().maximumSize( CACHE_SIZE ).build();
+
+
+    private PatternMatchers() {
+        // empty on purpose
+    }
+
+
+    /**
+     * Returns a matcher for the given SQL {@code LIKE} pattern with optional escape string.
+     */
+    @Deterministic
+    public static Predicate<String> like( String pattern, String escape ) {
+        return get( LIKE_CACHE, Arrays.asList( pattern, escape ), () -> createLike( pattern, escape ) );
+    }
+
+
+    /**
+     * Returns a matcher for the given SQL {@code SIMILAR TO} pattern with optional escape string.
+     */
+    public static Predicate<String> similar( String pattern, String escape ) {
+        return get( SIMILAR_CACHE, Arrays.asList( pattern, escape ), () -> {
+            final Pattern compiled = Pattern.compile( Like.sqlToRegexSimilar( pattern, escape ) );
+            return s -> compiled.matcher( s ).matches();
+        } );
+    }
+
+
+    /**
+     * Returns the compiled version of the given regular expression.
+     */
+    public static Pattern regex( String regex, int flags ) {
+        return get( REGEX_CACHE, Arrays.asList( regex, flags ), () -> Pattern.compile( regex, flags ) );
+    }
+
+
+    private static <K, V> V get( Cache<K, V> cache, K key, Callable<V> loader ) {
+        try {
+            return cache.get( key, loader );
+        } catch ( ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException( e.getCause() );
+        }
+    }
+
+
+    private static Predicate<String> createLike( String pattern, String escape ) {
+        final LiteralPattern literal = LiteralPattern.of( pattern, escape );
+        if ( literal != null ) {
+            return literal.toMatcher();
+        }
+        final Pattern compiled = Pattern.compile( Like.sqlToRegexLike( pattern, escape ) );
+        return s -> compiled.matcher( s ).matches();
+    }
+
+
+    /**
+     * A {@code LIKE} pattern which does not need a regular expression, i.e. a literal with an optional
+     * {@code %} at the start and/or the end and no other wildcard.
+     */
+    public static final class LiteralPattern {
+
+        public enum Kind {
+            EQUALS, PREFIX, SUFFIX, CONTAINS, ANY
+        }
+
+
+        public final Kind kind;
+        public final String literal;
+
+
+        private LiteralPattern( Kind kind, String literal ) {
+            this.kind = kind;
+            this.literal = literal;
+        }
+
+
+        /**
+         * Analyzes the given pattern, returns {@code null} if it needs a regular expression.
+         */
+        public static LiteralPattern of( String pattern, String escape ) {
+            if ( escape != null ) {
+                // escaped wildcards are rare, they are left to the regular expression
+                return null;
+            }
+            final boolean leading = pattern.startsWith( "%" );
+            final boolean trailing = pattern.length() > (leading ? 1 : 0) && pattern.endsWith( "%" );
+            final String literal = pattern.substring( leading ? 1 : 0, pattern.length() - (trailing ? 1 : 0) );
+            if ( literal.indexOf( '%' ) >= 0 || literal.indexOf( '_' ) >= 0 ) {
+                return null;
+            }
+            if ( leading && trailing ) {
+                return new LiteralPattern( literal.isEmpty() ? Kind.ANY : Kind.CONTAINS, literal );
+            } else if ( leading ) {
+                return new LiteralPattern( literal.isEmpty() ? Kind.ANY : Kind.SUFFIX, literal );
+            } else if ( trailing ) {
+                return new LiteralPattern( Kind.PREFIX, literal );
+            }
+            return new LiteralPattern( Kind.EQUALS, literal );
+        }
+
+
+        public Predicate<String> toMatcher() {
+            switch ( kind ) {
+                case EQUALS:
+                    return literal::equals;
+                case PREFIX:
+                    return s -> s.startsWith( literal );
+                case SUFFIX:
+                    return s -> s.endsWith( literal );
+                case CONTAINS:
+                    return s -> s.contains( literal );
+                default:
+                    return s -> true;
+            }
+        }
+
+    }
+
+}
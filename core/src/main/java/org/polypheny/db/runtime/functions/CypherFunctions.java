@@ -54,7 +54,33 @@ private CypherFunctions() {
      */
     @SuppressWarnings("unused")
     public static Enumerable<PolyPath> pathMatch( PolyGraph graph, PolyPath comp ) {
-        return Linq4j.asEnumerable( graph.extract( comp ) );
+        return Linq4j.asEnumerable( graph.getIndex().match( comp ) );
+    }
+
+
+    /**
+     * Matches one shortest path for every pair of start and end node of the given path, which consists of a single
+     * relationship.
+     *
+     * @param graph the full graph
+     * @param comp the reference path, which is matched
+     */
+    @SuppressWarnings("unused")
+    public static Enumerable<PolyPath> shortestPathMatch( PolyGraph graph, PolyPath comp ) {
+        return Linq4j.asEnumerable( graph.getIndex().matchShortest( comp, false ) );
+    }
+
+
+    /**
+     * Matches all shortest paths for every pair of start and end node of the given path, which consists of a single
+     * relationship.
+     *
+     * @param graph the full graph
+     * @param comp the reference path, which is matched
+     */
+    @SuppressWarnings("unused")
+    public static Enumerable<PolyPath> allShortestPathsMatch( PolyGraph graph, PolyPath comp ) {
+        return Linq4j.asEnumerable( graph.getIndex().matchShortest( comp, true ) );
     }
 
 
@@ -18,129 +18,249 @@
 
 
 import java.util.List;
-import java.util.stream.Collectors;
-import org.polypheny.db.util.Pair;
 
 
+/**
+ * Kernels of the distance metrics on primitive vectors.
+ *
+ * The arrays of a row are lists of boxed numbers. They are copied into a primitive vector, which is reused by every row
+ * of a thread ({@link #rowVector(List, int)}), while constant vectors like the target and the weights of a query are
+ * converted once ({@link #toVector(List)}). The kernels therefore do not allocate anything per row.
+ */
 public class DistanceFunctions {
 
+    private static final ThreadLocal<Vectors> VECTORS = ThreadLocal.withInitial( Vectors::new );
+
+
     private DistanceFunctions() {
         // empty on purpose
     }
 
 
-    protected static double l1Metric( List<Number> value, List<Number> target ) {
+    /**
+     * Converts the given list of numbers to a vector. The last lists converted by the calling thread are cached by their
+     * identity, so a target vector, which is passed as the same list for every row, is only converted once. The
+     * returned vector must therefore not be modified.
+     */
+    public static double[] toVector( List<?> list ) {
+        return VECTORS.get().convert( list );
+    }
+
+
+    /**
+     * Copies the given list of numbers into a vector of the calling thread, which is overwritten by the next call.
+     *
+     * @param size the expected size of the vector
+     */
+    public static double[] rowVector( List<?> list, int size ) {
+        if ( list.size() != size ) {
+            throw new RuntimeException( "Sizes of inputs do not match." );
+        }
+        return fill( list, VECTORS.get().row( size ) );
+    }
+
+
+    protected static void verifyWeights( double[] target, double[] weights ) {
+        if ( target.length != weights.length ) {
+            throw new RuntimeException( "Sizes of inputs do not match." );
+        }
+    }
+
+
+    private static double[] fill( List<?> list, double[] vector ) {
+        for ( int i = 0; i < vector.length; i++ ) {
+            final Object value = list.get( i );
+            if ( !(value instanceof Number) ) {
+                throw new RuntimeException( "Inputs are not Numbers." );
+            }
+            vector[i] = ((Number) value).doubleValue();
+        }
+        return vector;
+    }
+
+
+    public static double l1Metric( double[] value, double[] target ) {
         double result = 0;
-        for ( int i = 0; i < value.size(); i++ ) {
-            result += Math.abs( value.get( i ).doubleValue() - target.get( i ).doubleValue() );
+        for ( int i = 0; i < value.length; i++ ) {
+            result += Math.abs( value[i] - target[i] );
         }
         return result;
-        // Apparently java for loops are faster than the stream api. It also looks easier to maintain, even though I love streams :/
     }
 
 
-    protected static double l1MetricWeighted( List<Number> value, List<Number> target, List<Number> weights ) {
+    public static double l1MetricWeighted( double[] value, double[] target, double[] weights ) {
         double result = 0;
-        for ( int i = 0; i < value.size(); i++ ) {
-            result += Math.abs( value.get( i ).doubleValue() - target.get( i ).doubleValue() ) * weights.get( i ).doubleValue();
+        for ( int i = 0; i < value.length; i++ ) {
+            result += Math.abs( value[i] - target[i] ) * weights[i];
         }
         return result;
     }
 
 
-    protected static double l2SquaredMetric( List<Number> value, List<Number> target ) {
+    public static double l2SquaredMetric( double[] value, double[] target ) {
         double result = 0;
-        for ( int i = 0; i < value.size(); i++ ) {
-            result += Math.pow( value.get( i ).doubleValue() - target.get( i ).doubleValue(), 2.0 );
+        for ( int i = 0; i < value.length; i++ ) {
+            final double diff = value[i] - target[i];
+            result += diff * diff;
         }
         return result;
     }
 
 
-    protected static double l2SquaredMetricWeighted( List<Number> value, List<Number> target, List<Number> weights ) {
+    public static double l2SquaredMetricWeighted( double[] value, double[] target, double[] weights ) {
         double result = 0;
-        for ( int i = 0; i < value.size(); i++ ) {
-            result += Math.pow( value.get( i ).doubleValue() - target.get( i ).doubleValue(), 2.0 ) * weights.get( i ).doubleValue();
+        for ( int i = 0; i < value.length; i++ ) {
+            final double diff = value[i] - target[i];
+            result += diff * diff * weights[i];
         }
         return result;
     }
 
 
-    protected static double l2Metric( List<Number> value, List<Number> target ) {
+    public static double l2Metric( double[] value, double[] target ) {
         return Math.sqrt( l2SquaredMetric( value, target ) );
     }
 
 
-    protected static double l2MetricWeighted( List<Number> value, List<Number> target, List<Number> weights ) {
+    public static double l2MetricWeighted( double[] value, double[] target, double[] weights ) {
         return Math.sqrt( l2SquaredMetricWeighted( value, target, weights ) );
     }
 
 
-    protected static double chiSquaredMetric( List<Number> value, List<Number> target ) {
+    public static double chiSquaredMetric( double[] value, double[] target ) {
         double result = 0;
-        for ( int i = 0; i < value.size(); i++ ) {
-            double a = value.get( i ).doubleValue();
-            double b = target.get( i ).doubleValue();
-            result += Math.pow( a - b, 2.0 ) / (b + a);
+        for ( int i = 0; i < value.length; i++ ) {
+            final double diff = value[i] - target[i];
+            result += diff * diff / (target[i] + value[i]);
         }
         return result;
     }
 
 
-    protected static double chiSquaredMetricWeighted( List<Number> value, List<Number> target, List<Number> weights ) {
+    public static double chiSquaredMetricWeighted( double[] value, double[] target, double[] weights ) {
         double result = 0;
-        for ( int i = 0; i < value.size(); i++ ) {
-            double a = value.get( i ).doubleValue();
-            double b = target.get( i ).doubleValue();
-            double weight = weights.get( i ).doubleValue();
-            result += Math.pow( a - b, 2.0 ) / (b + a) * weight;
+        for ( int i = 0; i < value.length; i++ ) {
+            final double diff = value[i] - target[i];
+            result += diff * diff / (target[i] + value[i]) * weights[i];
         }
         return result;
     }
 
 
-    protected static double cosineMetric( List<Number> value, List<Number> target ) {
-        return 1 - dot( value, target ) / (norm2( value ) * norm2( target ));
+    public static double cosineMetric( double[] value, double[] target ) {
+        double dot = 0;
+        double valueNorm = 0;
+        double targetNorm = 0;
+        for ( int i = 0; i < value.length; i++ ) {
+            dot += value[i] * target[i];
+            valueNorm += value[i] * value[i];
+            targetNorm += target[i] * target[i];
+        }
+        return 1 - dot / (Math.sqrt( valueNorm ) * Math.sqrt( targetNorm ));
     }
 
 
-    protected static double cosineMetricWeighted( List<Number> value, List<Number> target, List<Number> weights ) {
-        List<Number> valueWeighted = Pair.zip( value, weights ).stream().map( p -> p.left.doubleValue() * p.right.doubleValue() ).collect( Collectors.toList() );
-        List<Number> targetWeighted = Pair.zip( target, weights ).stream().map( p -> p.left.doubleValue() * p.right.doubleValue() ).collect( Collectors.toList() );
-        return cosineMetric( valueWeighted, targetWeighted );
+    /**
+     * Cosine distance of the vectors multiplied element-wise with the weights.
+     */
+    public static double cosineMetricWeighted( double[] value, double[] target, double[] weights ) {
+        double dot = 0;
+        double valueNorm = 0;
+        double targetNorm = 0;
+        for ( int i = 0; i < value.length; i++ ) {
+            final double a = value[i] * weights[i];
+            final double b = target[i] * weights[i];
+            dot += a * b;
+            valueNorm += a * a;
+            targetNorm += b * b;
+        }
+        return 1 - dot / (Math.sqrt( valueNorm ) * Math.sqrt( targetNorm ));
     }
 
 
-    private static double dot( List<Number> a, List<Number> b ) {
+    public static double l1Metric( float[] value, float[] target ) {
         double result = 0;
-        for ( int i = 0; i < a.size(); i++ ) {
-            result += a.get( i ).doubleValue() * b.get( i ).doubleValue();
+        for ( int i = 0; i < value.length; i++ ) {
+            result += Math.abs( (double) value[i] - target[i] );
         }
         return result;
     }
 
 
-    private static double norm2( List<Number> list ) {
-        return Math.sqrt( list.stream().mapToDouble( a -> Math.pow( a.doubleValue(), 2.0 ) ).sum() );
+    public static double l2SquaredMetric( float[] value, float[] target ) {
+        double result = 0;
+        for ( int i = 0; i < value.length; i++ ) {
+            final double diff = (double) value[i] - target[i];
+            result += diff * diff;
+        }
+        return result;
+    }
+
+
+    public static double l2Metric( float[] value, float[] target ) {
+        return Math.sqrt( l2SquaredMetric( value, target ) );
     }
 
 
-    protected static void verifyInputs( List a, List b, List w ) {
-        if ( a.isEmpty() && b.isEmpty() && (w == null || w.isEmpty()) ) {
-            return;
+    public static double chiSquaredMetric( float[] value, float[] target ) {
+        double result = 0;
+        for ( int i = 0; i < value.length; i++ ) {
+            final double diff = (double) value[i] - target[i];
+            result += diff * diff / ((double) target[i] + value[i]);
         }
+        return result;
+    }
 
-        if ( (a.size() != b.size()) || (w != null && a.size() != w.size()) ) {
-            throw new RuntimeException( "Sizes of inputs do not match." );
+
+    public static double cosineMetric( float[] value, float[] target ) {
+        double dot = 0;
+        double valueNorm = 0;
+        double targetNorm = 0;
+        for ( int i = 0; i < value.length; i++ ) {
+            final double a = value[i];
+            final double b = target[i];
+            dot += a * b;
+            valueNorm += a * a;
+            targetNorm += b * b;
         }
+        return 1 - dot / (Math.sqrt( valueNorm ) * Math.sqrt( targetNorm ));
+    }
 
-        if ( !a.get( 0 ).getClass().isArray() || !b.get( 0 ).getClass().isArray() || (w != null && !w.get( 0 ).getClass().isArray()) ) {
-            if ( !(a.get( 0 ) instanceof Number) || !(b.get( 0 ) instanceof Number) || (w != null && !(w.get( 0 ) instanceof Number)) ) {
-                throw new RuntimeException( "Inputs are not Numbers." );
+
+    /**
+     * Vectors of a thread, i.e. the reused vector of the rows and the last converted constant vectors.
+     */
+    private static final class Vectors {
+
+        private static final int CACHED = 4;
+
+        private final List<?>[] lists = new List<?>[CACHED];
+        private final double[][] vectors = new double[CACHED][];
+        private int next = 0;
+        private double[] row = new double[0];
+
+
+        double[] convert( List<?> list ) {
+            for ( int i = 0; i < CACHED; i++ ) {
+                if ( lists[i] == list ) {
+                    return vectors[i];
+                }
+            }
+            final double[] vector = fill( list, new double[list.size()] );
+            lists[next] = list;
+            vectors[next] = vector;
+            next = (next + 1) % CACHED;
+            return vector;
+        }
+
+
+        double[] row( int size ) {
+            if ( row.length != size ) {
+                row = new double[size];
             }
-        } else {
-            throw new RuntimeException( "Not useable Arrays, ask jan." );
+            return row;
         }
+
     }
 
 }
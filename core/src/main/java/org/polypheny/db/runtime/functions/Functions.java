@@ -101,6 +101,7 @@
 import org.apache.calcite.linq4j.function.NonDeterministic;
 import org.apache.calcite.linq4j.tree.Primitive;
 import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.ParameterBatch;
 import org.polypheny.db.adapter.enumerable.JavaRowFormat;
 import org.polypheny.db.algebra.exceptions.ConstraintViolationException;
 import org.polypheny.db.algebra.json.JsonConstructorNullClause;
@@ -113,7 +114,7 @@
 import org.polypheny.db.interpreter.Row;
 import org.polypheny.db.runtime.FlatLists;
 import org.polypheny.db.runtime.FlatLists.ComparableList;
-import org.polypheny.db.runtime.Like;
+import org.polypheny.db.runtime.PatternMatchers;
 import org.polypheny.db.runtime.PolyCollections.PolyDictionary;
 import org.polypheny.db.type.PolyType;
 import org.polypheny.db.type.PolyTypeFactoryImpl;
@@ -180,44 +181,127 @@ private Functions() {
     }
 
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
+    /**
+     * Distance with a metric which is only known at runtime, see {@link #distanceL2(List, double[])} and the other
+     * methods for the kernels which are chosen if the metric is a literal.
+     */
+    @SuppressWarnings({ "rawtypes" })
     public static double distance( List value, List target, String metric, List weights ) {
-        DistanceFunctions.verifyInputs( value, target, weights );
+        final double[] t = DistanceFunctions.toVector( target );
+        final double[] w = DistanceFunctions.toVector( weights );
+        DistanceFunctions.verifyWeights( t, w );
+        final double[] v = DistanceFunctions.rowVector( value, t.length );
         if ( "L2".equals( metric ) ) {
-            return DistanceFunctions.l2MetricWeighted( value, target, weights );
+            return DistanceFunctions.l2MetricWeighted( v, t, w );
         } else if ( "L1".equals( metric ) ) {
-            return DistanceFunctions.l1MetricWeighted( value, target, weights );
+            return DistanceFunctions.l1MetricWeighted( v, t, w );
         } else if ( "L2SQUARED".equals( metric ) ) {
-            return DistanceFunctions.l2SquaredMetricWeighted( value, target, weights );
+            return DistanceFunctions.l2SquaredMetricWeighted( v, t, w );
         } else if ( "CHISQUARED".equals( metric ) ) {
-            return DistanceFunctions.chiSquaredMetricWeighted( value, target, weights );
+            return DistanceFunctions.chiSquaredMetricWeighted( v, t, w );
         } else if ( "COSINE".equals( metric ) ) {
-            return DistanceFunctions.cosineMetricWeighted( value, target, weights );
+            return DistanceFunctions.cosineMetricWeighted( v, t, w );
         } else {
             return 0.0;
         }
     }
 
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @SuppressWarnings({ "rawtypes" })
     public static double distance( List value, List target, String metric ) {
-        DistanceFunctions.verifyInputs( value, target, null );
+        final double[] t = DistanceFunctions.toVector( target );
+        final double[] v = DistanceFunctions.rowVector( value, t.length );
         if ( "L2".equals( metric ) ) {
-            return DistanceFunctions.l2Metric( value, target );
+            return DistanceFunctions.l2Metric( v, t );
         } else if ( "L1".equals( metric ) ) {
-            return DistanceFunctions.l1Metric( value, target );
+            return DistanceFunctions.l1Metric( v, t );
         } else if ( "L2SQUARED".equals( metric ) ) {
-            return DistanceFunctions.l2SquaredMetric( value, target );
+            return DistanceFunctions.l2SquaredMetric( v, t );
         } else if ( "CHISQUARED".equals( metric ) ) {
-            return DistanceFunctions.chiSquaredMetric( value, target );
+            return DistanceFunctions.chiSquaredMetric( v, t );
         } else if ( "COSINE".equals( metric ) ) {
-            return DistanceFunctions.cosineMetric( value, target );
+            return DistanceFunctions.cosineMetric( v, t );
         } else {
             return 0.0;
         }
     }
 
 
+    /**
+     * Converts a target vector or weights of a distance to a primitive vector. As this class is deterministic, the
+     * conversion of a literal is only executed once.
+     */
+    @SuppressWarnings({ "rawtypes" })
+    public static double[] toVector( List list ) {
+        return DistanceFunctions.toVector( list );
+    }
+
+
+    @SuppressWarnings({ "rawtypes" })
+    public static double distanceL1( List value, double[] target ) {
+        return DistanceFunctions.l1Metric( DistanceFunctions.rowVector( value, target.length ), target );
+    }
+
+
+    @SuppressWarnings({ "rawtypes" })
+    public static double distanceL1( List value, double[] target, double[] weights ) {
+        DistanceFunctions.verifyWeights( target, weights );
+        return DistanceFunctions.l1MetricWeighted( DistanceFunctions.rowVector( value, target.length ), target, weights );
+    }
+
+
+    @SuppressWarnings({ "rawtypes" })
+    public static double distanceL2( List value, double[] target ) {
+        return DistanceFunctions.l2Metric( DistanceFunctions.rowVector( value, target.length ), target );
+    }
+
+
+    @SuppressWarnings({ "rawtypes" })
+    public static double distanceL2( List value, double[] target, double[] weights ) {
+        DistanceFunctions.verifyWeights( target, weights );
+        return DistanceFunctions.l2MetricWeighted( DistanceFunctions.rowVector( value, target.length ), target, weights );
+    }
+
+
+    @SuppressWarnings({ "rawtypes" })
+    public static double distanceL2Squared( List value, double[] target ) {
+        return DistanceFunctions.l2SquaredMetric( DistanceFunctions.rowVector( value, target.length ), target );
+    }
+
+
+    @SuppressWarnings({ "rawtypes" })
+    public static double distanceL2Squared( List value, double[] target, double[] weights ) {
+        DistanceFunctions.verifyWeights( target, weights );
+        return DistanceFunctions.l2SquaredMetricWeighted( DistanceFunctions.rowVector( value, target.length ), target, weights );
+    }
+
+
+    @SuppressWarnings({ "rawtypes" })
+    public static double distanceChiSquared( List value, double[] target ) {
+        return DistanceFunctions.chiSquaredMetric( DistanceFunctions.rowVector( value, target.length ), target );
+    }
+
+
+    @SuppressWarnings({ "rawtypes" })
+    public static double distanceChiSquared( List value, double[] target, double[] weights ) {
+        DistanceFunctions.verifyWeights( target, weights );
+        return DistanceFunctions.chiSquaredMetricWeighted( DistanceFunctions.rowVector( value, target.length ), target, weights );
+    }
+
+
+    @SuppressWarnings({ "rawtypes" })
+    public static double distanceCosine( List value, double[] target ) {
+        return DistanceFunctions.cosineMetric( DistanceFunctions.rowVector( value, target.length ), target );
+    }
+
+
+    @SuppressWarnings({ "rawtypes" })
+    public static double distanceCosine( List value, double[] target, double[] weights ) {
+        DistanceFunctions.verifyWeights( target, weights );
+        return DistanceFunctions.cosineMetricWeighted( DistanceFunctions.rowVector( value, target.length ), target, weights );
+    }
+
+
     private static class MetadataModel {
 
         String name;
@@ -283,21 +367,23 @@ public static String meta( final Object mm, final String dirName, final String t
     public static Enumerable<?> batch( final DataContext context, final Enumerable<Object> baz ) {
         List<Object> results = new ArrayList<>();
 
-        List<Map<Long, Object>> values = new ArrayList<>( context.getParameterValues() );
+        ParameterBatch values = ParameterBatch.of( context.getParameterValues() );
 
         if ( values.size() == 0 ) {
             return baz;
         }
 
-        Set<Long> keys = values.get( 0 ).keySet();
+        Set<Long> keys = values.getIndexes();
         // due to the fact that the standard collector Collectors.toMap crashes with null values,
         // we use the old school way here
         Map<Long, AlgDataType> types = new HashMap<>();
         keys.forEach( k -> types.put( k, context.getParameterType( k ) ) );
 
-        for ( Map<Long, Object> value : values ) {
+        for ( int row = 0; row < values.size(); row++ ) {
             context.resetParameterValues();
-            value.forEach( ( k, v ) -> context.addParameterValues( k, types.get( k ), Collections.singletonList( v ) ) );
+            for ( Long k : keys ) {
+                context.addParameterValues( k, types.get( k ), Collections.singletonList( values.getValue( row, k ) ) );
+            }
 
             Iterator<Object> iter = baz.iterator();
             results.add( iter.next() );
@@ -306,43 +392,64 @@ public static Enumerable<?> batch( final DataContext context, final Enumerable<O
     }
 
 
+    /**
+     * Executes the right side of a streamed DML statement with the values provided by the left side bound as parameters.
+     * If {@code batchSize} is positive, the left side is not materialized as a whole, instead the right side is executed
+     * for chunks of at most {@code batchSize} rows and the update counts of the chunks are summed up.
+     */
     @SuppressWarnings("unused")
-    public static <T> Enumerable<Object> streamRight( final DataContext context, final Enumerable<Object> baz, final Function0<Enumerable<Object>> executorCall, final List<PolyType> polyTypes ) {
+    public static <T> Enumerable<Object> streamRight( final DataContext context, final Enumerable<Object> baz, final Function0<Enumerable<Object>> executorCall, final List<PolyType> polyTypes, final int batchSize ) {
         PolyTypeFactoryImpl factory = new PolyTypeFactoryImpl( AlgDataTypeSystem.DEFAULT );
         List<AlgDataType> algDataTypes = polyTypes.stream().map( factory::createPolyType ).collect( Collectors.toList() );
 
         boolean single = polyTypes.size() == 1;
 
+        List<Map<Long, Object>> valuesBackup = context.getParameterValues();
+        Map<Long, AlgDataType> typesBackup = context.getParameterTypes();
+
+        List<Object> results = null;
         List<Object[]> values = new ArrayList<>();
-        for ( Object o : baz ) {
-            if ( single ) {
-                values.add( new Object[]{ o } );
-            } else {
-                values.add( (Object[]) o );
+        try ( Enumerator<Object> enumerator = baz.enumerator() ) {
+            while ( enumerator.moveNext() ) {
+                Object o = enumerator.current();
+                if ( single ) {
+                    values.add( new Object[]{ o } );
+                } else {
+                    values.add( (Object[]) o );
+                }
+                if ( batchSize > 0 && values.size() >= batchSize ) {
+                    results = mergeUpdateCounts( results, executeRight( context, executorCall, algDataTypes, values ) );
+                    values.clear();
+                }
+            }
+            if ( !values.isEmpty() ) {
+                results = mergeUpdateCounts( results, executeRight( context, executorCall, algDataTypes, values ) );
             }
+        } finally {
+            // the parameters of the statement are restored, also if the execution of a chunk failed
+            context.resetParameterValues();
+
+            context.setParameterTypes( typesBackup );
+            context.setParameterValues( valuesBackup );
         }
-        if ( values.isEmpty() ) {
+        if ( results == null ) {
             // there are no updates to make, we don't execute the right executor
             return Linq4j.asEnumerable( List.of( 0 ) );
         }
 
-        List<Map<Long, Object>> valuesBackup = context.getParameterValues();
-        Map<Long, AlgDataType> typesBackup = context.getParameterTypes();
+        return Linq4j.asEnumerable( results );
+    }
 
+
+    private static List<Object> executeRight( DataContext context, Function0<Enumerable<Object>> executorCall, List<AlgDataType> algDataTypes, List<Object[]> values ) {
         context.resetParameterValues();
-        Map<Integer, List<Object>> vals = new HashMap<>();
-        for ( int i = 0; i < values.get( 0 ).length; i++ ) {
-            vals.put( i, new ArrayList<>() );
-        }
-        for ( Object[] value : values ) {
-            int i = 0;
-            for ( Object o1 : value ) {
-                vals.get( i ).add( o1 );
-                i++;
+        int columns = values.get( 0 ).length;
+        for ( int i = 0; i < columns; i++ ) {
+            List<Object> column = new ArrayList<>( values.size() );
+            for ( Object[] value : values ) {
+                column.add( value[i] );
             }
-        }
-        for ( int i = 0; i < values.get( 0 ).length; i++ ) {
-            context.addParameterValues( i, algDataTypes.get( i ), vals.get( i ) );
+            context.addParameterValues( i, algDataTypes.get( i ), column );
         }
 
         List<Object> results = new ArrayList<>();
@@ -350,13 +457,38 @@ public static <T> Enumerable<Object> streamRight( final DataContext context, fin
         for ( Object o : executor ) {
             results.add( o );
         }
+        return results;
+    }
 
-        context.resetParameterValues();
 
-        context.setParameterTypes( typesBackup );
-        context.setParameterValues( valuesBackup );
+    /**
+     * Sums up the update counts returned for the individual chunks of a streamed DML statement position-wise.
+     */
+    private static List<Object> mergeUpdateCounts( List<Object> total, List<Object> chunk ) {
+        if ( total == null ) {
+            return chunk;
+        }
+        for ( int i = 0; i < Math.min( total.size(), chunk.size() ); i++ ) {
+            Object a = total.get( i );
+            Object b = chunk.get( i );
+            if ( a instanceof Object[] && b instanceof Object[] ) {
+                total.set( i, new Object[]{ sumUpdateCounts( ((Object[]) a)[0], ((Object[]) b)[0] ) } );
+            } else {
+                total.set( i, sumUpdateCounts( a, b ) );
+            }
+        }
+        return total;
+    }
 
-        return Linq4j.asEnumerable( results );
+
+    private static Object sumUpdateCounts( Object a, Object b ) {
+        if ( !(a instanceof Number) || !(b instanceof Number) ) {
+            return a;
+        }
+        if ( a instanceof Integer ) {
+            return ((Number) a).intValue() + ((Number) b).intValue();
+        }
+        return ((Number) a).longValue() + ((Number) b).longValue();
     }
 
 
@@ -770,8 +902,7 @@ public static Enumerable<?> singleSum( Enumerable<?> results ) {
      * SQL {@code LIKE} function.
      */
     public static boolean like( String s, String pattern ) {
-        final String regex = Like.sqlToRegexLike( pattern, null );
-        return Pattern.matches( regex, s );
+        return PatternMatchers.like( pattern, null ).test( s );
     }
 
 
@@ -779,8 +910,7 @@ public static boolean like( String s, String pattern ) {
      * SQL {@code LIKE} function with escape.
      */
     public static boolean like( String s, String pattern, String escape ) {
-        final String regex = Like.sqlToRegexLike( pattern, escape );
-        return Pattern.matches( regex, s );
+        return PatternMatchers.like( pattern, escape ).test( s );
     }
 
 
@@ -788,8 +918,7 @@ public static boolean like( String s, String pattern, String escape ) {
      * SQL {@code SIMILAR} function.
      */
     public static boolean similar( String s, String pattern ) {
-        final String regex = Like.sqlToRegexSimilar( pattern, null );
-        return Pattern.matches( regex, s );
+        return PatternMatchers.similar( pattern, null ).test( s );
     }
 
 
@@ -797,8 +926,7 @@ public static boolean similar( String s, String pattern ) {
      * SQL {@code SIMILAR} function with escape.
      */
     public static boolean similar( String s, String pattern, String escape ) {
-        final String regex = Like.sqlToRegexSimilar( pattern, escape );
-        return Pattern.matches( regex, s );
+        return PatternMatchers.similar( pattern, escape ).test( s );
     }
 
     // =
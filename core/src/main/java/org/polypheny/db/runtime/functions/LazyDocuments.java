@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.functions;
+
+
+import java.util.List;
+import java.util.regex.Pattern;
+import org.bson.BsonArray;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+
+
+/**
+ * Parses documents, which are stored as JSON, into their binary form. The fields of a {@link RawBsonDocument} are only
+ * decoded when they are accessed, so retrieving a value by its path does not materialize the whole document.
+ *
+ * The document functions of a query are evaluated row by row and usually access the same document multiple times,
+ * e.g. a filter on two fields. The last parsed document of every thread is therefore kept and reused as long as the
+ * functions are called with the same string instance, which means every document is parsed once per row.
+ */
+final class LazyDocuments {
+
+    private static final Pattern INDEX = Pattern.compile( "[0-9]+" );
+
+    private static final ThreadLocal<LazyDocuments> LAST = ThreadLocal.withInitial( LazyDocuments::new );
+
+    private String json;
+    private RawBsonDocument document;
+
+
+    private LazyDocuments() {
+        // use parse()
+    }
+
+
+    /**
+     * Parses the given JSON document or returns the document parsed last if it was parsed from the same string.
+     *
+     * @return the document or {@code null} if the string is not a valid document
+     */
+    static RawBsonDocument parse( String json ) {
+        final LazyDocuments last = LAST.get();
+        if ( last.json != json ) {
+            RawBsonDocument document;
+            try {
+                document = RawBsonDocument.parse( json );
+            } catch ( Exception e ) {
+                document = null;
+            }
+            last.json = json;
+            last.document = document;
+        }
+        return last.document;
+    }
+
+
+    /**
+     * Returns the given value as BSON, parsing strings if necessary.
+     *
+     * @return the value as BSON or {@code null} if it is neither BSON nor a JSON document
+     */
+    static BsonValue toBson( Object value ) {
+        if ( value instanceof String ) {
+            return parse( (String) value );
+        } else if ( value instanceof BsonValue ) {
+            return (BsonValue) value;
+        }
+        return null;
+    }
+
+
+    /**
+     * Retrieves the value at the given path, only the documents and arrays on the path are decoded.
+     *
+     * @param path the path in the form key1.key2.key3 {@code ->} [key1, key2, key3], array elements are addressed by their position
+     * @return the value or {@code null} if the path does not exist
+     */
+    static BsonValue get( BsonValue value, List<String> path ) {
+        for ( String key : path ) {
+            if ( value == null ) {
+                return null;
+            }
+            if ( value.isDocument() ) {
+                value = value.asDocument().get( key );
+            } else if ( value.isArray() && INDEX.matcher( key ).matches() ) {
+                final BsonArray array = value.asArray();
+                final int pos;
+                try {
+                    pos = Integer.parseInt( key );
+                } catch ( NumberFormatException e ) {
+                    return null;
+                }
+                value = pos < array.size() ? array.get( pos ) : null;
+            } else {
+                return null;
+            }
+        }
+        return value;
+    }
+
+
+    /**
+     * Tests if the given path exists, only documents are traversed.
+     */
+    static boolean exists( BsonValue value, List<String> path ) {
+        for ( String key : path ) {
+            if ( value == null || !value.isDocument() || !value.asDocument().containsKey( key ) ) {
+                return false;
+            }
+            value = value.asDocument().get( key );
+        }
+        return true;
+    }
+
+}
@@ -23,6 +23,7 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -32,6 +33,7 @@
 import org.bson.BsonArray;
 import org.bson.BsonDocument;
 import org.bson.BsonValue;
+import org.polypheny.db.runtime.PatternMatchers;
 import org.polypheny.db.schema.document.DocumentUtil;
 import org.polypheny.db.util.Pair;
 
@@ -46,6 +48,8 @@ public class MqlFunctions {
             .enableComplexMapKeySerialization()
             .create();
 
+    private static final Pattern WHITESPACE = Pattern.compile( "\\s" );
+
 
     private MqlFunctions() {
         // empty on purpose
@@ -61,7 +65,11 @@ private MqlFunctions() {
      */
     @SuppressWarnings("UnusedDeclaration")
     public static Object docQueryValue( Object input, List<String> filters ) {
-        input = deserializeBsonIfNecessary( input );
+        BsonValue document = LazyDocuments.toBson( input );
+        if ( document != null ) {
+            // only the retrieved value has to be transformed
+            return transformBsonToPrimitive( LazyDocuments.get( document, filters ) );
+        }
         ArrayList<String> filtersCopy = new ArrayList<>( filters );
         while ( filtersCopy.size() != 0 && input != null ) {
             if ( input instanceof Map ) {
@@ -399,14 +407,14 @@ public static boolean docRegexMatch( Object input, String regex, boolean isInsen
                 flags |= Pattern.MULTILINE;
             }
             if ( doesIgnoreWhitespace ) {
-                regex = regex.replaceAll( "\\s", "" );
-                comp = comp.replaceAll( "\\s", "" );
+                regex = WHITESPACE.matcher( regex ).replaceAll( "" );
+                comp = WHITESPACE.matcher( comp ).replaceAll( "" );
             }
             if ( allowsDot ) {
                 flags |= Pattern.DOTALL;
             }
 
-            return Pattern.compile( ".*" + regex + ".*", flags ).matcher( comp ).matches();
+            return PatternMatchers.regex( ".*" + regex + ".*", flags ).matcher( comp ).matches();
         }
         return false;
     }
@@ -710,8 +718,12 @@ private static void excludeBson( BsonValue doc, List<List<String>> excluded ) {
      */
     private static Object deserializeBsonIfNecessary( Object obj ) {
         if ( obj instanceof String ) {
+            BsonValue document = LazyDocuments.parse( (String) obj );
+            if ( document == null ) {
+                return obj;
+            }
             try {
-                return transformBsonToPrimitive( BsonDocument.parse( (String) obj ) );
+                return transformBsonToPrimitive( document );
             } catch ( Exception e ) {
                 return obj;
             }
@@ -732,7 +744,10 @@ private static Object deserializeBsonIfNecessary( Object obj ) {
      */
     @SuppressWarnings("UnusedDeclaration")
     public static boolean docExists( Object obj, List<String> path ) {
-        obj = deserializeBsonIfNecessary( obj );
+        BsonValue document = LazyDocuments.toBson( obj );
+        if ( document != null ) {
+            return LazyDocuments.exists( document, path );
+        }
         if ( !(obj instanceof Map) ) {
             return false;
         }
@@ -777,8 +792,15 @@ private static Object transformBsonToPrimitive( BsonValue doc ) {
                 return doc.asString().getValue();
             case DECIMAL128:
                 return doc.asDecimal128().decimal128Value().bigDecimalValue();
+            case BOOLEAN:
+                return doc.asBoolean().getValue();
             case DOCUMENT:
-                return doc.asDocument().entrySet().stream().collect( Collectors.toMap( Entry::getKey, e -> transformBsonToPrimitive( e.getValue() ) ) );
+                // Collectors.toMap does not accept null values, which null fields are transformed to
+                Map<String, Object> map = new LinkedHashMap<>();
+                for ( Entry<String, BsonValue> entry : doc.asDocument().entrySet() ) {
+                    map.put( entry.getKey(), transformBsonToPrimitive( entry.getValue() ) );
+                }
+                return map;
             case ARRAY:
                 return doc.asArray().stream().map( MqlFunctions::transformBsonToPrimitive ).collect( Collectors.toList() );
             default:
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.List;
+import lombok.Getter;
+import org.polypheny.db.type.PolyType;
+
+
+/**
+ * A batch of rows in columnar layout, one {@link ColumnVector} per field.
+ *
+ * Operators which remove rows (e.g. filters) do not copy the vectors, they only narrow the selection vector,
+ * which holds the positions of the rows that are still alive.
+ */
+public class ColumnBatch {
+
+    @Getter
+    private final ColumnVector[] columns;
+
+    @Getter
+    private final int capacity;
+
+    /**
+     * Number of rows which have been written into the vectors.
+     */
+    @Getter
+    private int size;
+
+    /**
+     * Positions of the selected rows, {@code null} if all {@link #size} rows are selected.
+     */
+    private int[] selection;
+
+    private int selectedCount;
+
+
+    public ColumnBatch( List<PolyType> types, int capacity ) {
+        this.capacity = capacity;
+        this.columns = new ColumnVector[types.size()];
+        for ( int i = 0; i < columns.length; i++ ) {
+            columns[i] = ColumnVector.create( types.get( i ), capacity );
+        }
+    }
+
+
+    private ColumnBatch( ColumnVector[] columns, int capacity, int size, int[] selection, int selectedCount ) {
+        this.columns = columns;
+        this.capacity = capacity;
+        this.size = size;
+        this.selection = selection;
+        this.selectedCount = selectedCount;
+    }
+
+
+    public ColumnVector getColumn( int index ) {
+        return columns[index];
+    }
+
+
+    public int getFieldCount() {
+        return columns.length;
+    }
+
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+
+    /**
+     * Appends a row in the row-based enumerable representation.
+     */
+    public void add( Object[] row ) {
+        for ( int i = 0; i < columns.length; i++ ) {
+            columns[i].set( size, row[i] );
+        }
+        size++;
+    }
+
+
+    /**
+     * Marks the next row as written, for producers which write the values into the vectors directly.
+     */
+    public void incrementSize() {
+        size++;
+    }
+
+
+    /**
+     * Number of rows which are currently selected.
+     */
+    public int getSelectedCount() {
+        return selection == null ? size : selectedCount;
+    }
+
+
+    /**
+     * Returns the physical position of the i-th selected row.
+     */
+    public int position( int i ) {
+        return selection == null ? i : selection[i];
+    }
+
+
+    /**
+     * Replaces the selection vector; the positions have to be in ascending order.
+     */
+    public void select( int[] positions, int count ) {
+        this.selection = positions;
+        this.selectedCount = count;
+    }
+
+
+    /**
+     * Returns a batch with the given fields of this batch. The vectors and the selection are shared, not copied.
+     */
+    public ColumnBatch project( int[] fields ) {
+        final ColumnVector[] projected = new ColumnVector[fields.length];
+        for ( int i = 0; i < fields.length; i++ ) {
+            projected[i] = columns[fields[i]];
+        }
+        return new ColumnBatch( projected, capacity, size, selection, selectedCount );
+    }
+
+
+    /**
+     * Materializes the i-th selected row.
+     */
+    public Object[] row( int i ) {
+        final int pos = position( i );
+        final Object[] row = new Object[columns.length];
+        for ( int j = 0; j < columns.length; j++ ) {
+            row[j] = columns[j].get( pos );
+        }
+        return row;
+    }
+
+
+    /**
+     * Clears the batch so that its vectors can be refilled.
+     */
+    public void reset() {
+        for ( ColumnVector column : columns ) {
+            column.reset();
+        }
+        size = 0;
+        selection = null;
+        selectedCount = 0;
+    }
+
+}
@@ -0,0 +1,496 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.List;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.Function0;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.runtime.vector.ColumnVector.DoubleVector;
+import org.polypheny.db.runtime.vector.ColumnVector.LongVector;
+import org.polypheny.db.type.PolyType;
+
+
+/**
+ * Converters between the row-based enumerable representation ({@code Object[]} per row) and {@link ColumnBatch}es,
+ * as well as vectorized kernels for filters, projections and aggregates which work directly on the column vectors.
+ *
+ * The converters allow to adopt the columnar representation operator by operator: a row-based input can be
+ * batched with {@link #toBatches(Enumerable, List, int)} and the output of a batch-based operator can be consumed
+ * by every row-based operator via {@link #toRows(Enumerable)}.
+ */
+public final class ColumnBatches {
+
+    private ColumnBatches() {
+        // empty on purpose
+    }
+
+
+    /**
+     * Groups the rows of the given enumerable into batches of the given size.
+     * The input has to use the {@link org.polypheny.db.adapter.enumerable.JavaRowFormat#ARRAY array row format}.
+     */
+    public static Enumerable<ColumnBatch> toBatches( final Enumerable<Object[]> rows, final List<PolyType> types, final int batchSize ) {
+        if ( batchSize <= 0 ) {
+            throw new IllegalArgumentException( "The batch size has to be positive." );
+        }
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<ColumnBatch> enumerator() {
+                return new Enumerator<>() {
+                    private final Enumerator<Object[]> input = rows.enumerator();
+                    private ColumnBatch current;
+                    private boolean done = false;
+
+
+                    @Override
+                    public ColumnBatch current() {
+                        return current;
+                    }
+
+
+                    @Override
+                    public boolean moveNext() {
+                        if ( done ) {
+                            return false;
+                        }
+                        // a new batch is allocated per step, as downstream operators are allowed to keep references
+                        ColumnBatch batch = new ColumnBatch( types, batchSize );
+                        while ( !batch.isFull() && input.moveNext() ) {
+                            batch.add( input.current() );
+                        }
+                        if ( batch.getSize() < batchSize ) {
+                            done = true;
+                        }
+                        if ( batch.getSize() == 0 ) {
+                            current = null;
+                            return false;
+                        }
+                        current = batch;
+                        return true;
+                    }
+
+
+                    @Override
+                    public void reset() {
+                        input.reset();
+                        current = null;
+                        done = false;
+                    }
+
+
+                    @Override
+                    public void close() {
+                        input.close();
+                    }
+                };
+            }
+        };
+    }
+
+
+    /**
+     * Flattens the selected rows of the given batches into the row-based enumerable representation.
+     */
+    public static Enumerable<Object[]> toRows( final Enumerable<ColumnBatch> batches ) {
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<Object[]> enumerator() {
+                return new Enumerator<>() {
+                    private final Enumerator<ColumnBatch> input = batches.enumerator();
+                    private ColumnBatch batch;
+                    private int index = -1;
+
+
+                    @Override
+                    public Object[] current() {
+                        return batch.row( index );
+                    }
+
+
+                    @Override
+                    public boolean moveNext() {
+                        while ( batch == null || ++index >= batch.getSelectedCount() ) {
+                            if ( !input.moveNext() ) {
+                                return false;
+                            }
+                            batch = input.current();
+                            index = -1;
+                        }
+                        return true;
+                    }
+
+
+                    @Override
+                    public void reset() {
+                        input.reset();
+                        batch = null;
+                        index = -1;
+                    }
+
+
+                    @Override
+                    public void close() {
+                        input.close();
+                    }
+                };
+            }
+        };
+    }
+
+
+    /**
+     * Applies a conjunction of {@code columns[i] ops[i] values[i]} comparisons to every batch of the given enumerable.
+     * The values are bound once per enumeration, as they may be parameters of the statement. They have to be numbers
+     * and are compared as {@code long} to {@link LongVector} columns and as {@code double} to {@link DoubleVector}
+     * columns; a {@code null} value does not match any row.
+     */
+    public static Enumerable<ColumnBatch> filter( final Enumerable<ColumnBatch> batches, final int[] columns, final Kind[] ops, final Function0<Object[]> values ) {
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<ColumnBatch> enumerator() {
+                final Object[] bound = values.apply();
+                return Linq4j.transform( batches.enumerator(), batch -> filter( batch, columns, ops, bound ) );
+            }
+        };
+    }
+
+
+    /**
+     * Narrows the selection of the batch to the rows which satisfy all {@code columns[i] ops[i] values[i]} comparisons.
+     */
+    public static ColumnBatch filter( ColumnBatch batch, int[] columns, Kind[] ops, Object[] values ) {
+        for ( int i = 0; i < columns.length && batch.getSelectedCount() > 0; i++ ) {
+            final Number value = (Number) values[i];
+            if ( value == null ) {
+                batch.select( new int[0], 0 );
+            } else if ( batch.getColumn( columns[i] ) instanceof LongVector ) {
+                filter( batch, columns[i], ops[i], value.longValue() );
+            } else {
+                filter( batch, columns[i], ops[i], value.doubleValue() );
+            }
+        }
+        return batch;
+    }
+
+
+    /**
+     * Reduces every batch of the given enumerable to the given fields, without copying the vectors.
+     */
+    public static Enumerable<ColumnBatch> project( final Enumerable<ColumnBatch> batches, final int[] fields ) {
+        return batches.select( batch -> batch.project( fields ) );
+    }
+
+
+    /**
+     * Computes aggregates over all selected rows of the given batches and returns them as a single row.
+     * {@code kinds[i]} is one of {@link Kind#COUNT}, {@link Kind#SUM}, {@link Kind#SUM0}, {@link Kind#MIN} and
+     * {@link Kind#MAX}, {@code columns[i]} is its argument or {@code -1} for {@code COUNT(*)}. The results are
+     * returned in the representation of the given result types.
+     */
+    public static Enumerable<Object[]> aggregate( final Enumerable<ColumnBatch> batches, final Kind[] kinds, final int[] columns, final PolyType[] resultTypes ) {
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<Object[]> enumerator() {
+                final long[] counts = new long[kinds.length];
+                final long[] longs = new long[kinds.length];
+                final double[] doubles = new double[kinds.length];
+                try ( Enumerator<ColumnBatch> enumerator = batches.enumerator() ) {
+                    while ( enumerator.moveNext() ) {
+                        final ColumnBatch batch = enumerator.current();
+                        for ( int i = 0; i < kinds.length; i++ ) {
+                            accumulate( batch, kinds[i], columns[i], i, counts, longs, doubles );
+                        }
+                    }
+                }
+                final Object[] row = new Object[kinds.length];
+                for ( int i = 0; i < kinds.length; i++ ) {
+                    if ( kinds[i] == Kind.COUNT ) {
+                        row[i] = counts[i];
+                    } else if ( counts[i] == 0 && kinds[i] != Kind.SUM0 ) {
+                        row[i] = null;
+                    } else {
+                        row[i] = box( resultTypes[i], longs[i], doubles[i] );
+                    }
+                }
+                return Linq4j.singletonEnumerator( row );
+            }
+        };
+    }
+
+
+    private static void accumulate( ColumnBatch batch, Kind kind, int column, int i, long[] counts, long[] longs, double[] doubles ) {
+        if ( column < 0 ) {
+            counts[i] += batch.getSelectedCount();
+            return;
+        }
+        final long count = count( batch, column );
+        if ( count == 0 ) {
+            return;
+        }
+        final boolean integral = batch.getColumn( column ) instanceof LongVector;
+        final boolean first = counts[i] == 0;
+        counts[i] += count;
+        switch ( kind ) {
+            case COUNT:
+                break;
+            case SUM:
+            case SUM0:
+                if ( integral ) {
+                    longs[i] += sumLong( batch, column );
+                } else {
+                    doubles[i] += sumDouble( batch, column );
+                }
+                break;
+            case MIN:
+                if ( integral ) {
+                    final long min = minLong( batch, column );
+                    longs[i] = first ? min : Math.min( longs[i], min );
+                } else {
+                    final double min = minDouble( batch, column );
+                    doubles[i] = first ? min : Math.min( doubles[i], min );
+                }
+                break;
+            case MAX:
+                if ( integral ) {
+                    final long max = maxLong( batch, column );
+                    longs[i] = first ? max : Math.max( longs[i], max );
+                } else {
+                    final double max = maxDouble( batch, column );
+                    doubles[i] = first ? max : Math.max( doubles[i], max );
+                }
+                break;
+            default:
+                throw new IllegalArgumentException( "Unsupported aggregate for columnar batches: " + kind );
+        }
+    }
+
+
+    private static Object box( PolyType type, long longValue, double doubleValue ) {
+        switch ( type ) {
+            case TINYINT:
+                return (byte) longValue;
+            case SMALLINT:
+                return (short) longValue;
+            case INTEGER:
+                return (int) longValue;
+            case BIGINT:
+                return longValue;
+            case REAL:
+                return (float) doubleValue;
+            case FLOAT:
+            case DOUBLE:
+                return doubleValue;
+            default:
+                throw new IllegalArgumentException( "Unsupported aggregate type for columnar batches: " + type );
+        }
+    }
+
+
+    /**
+     * Narrows the selection of the batch to the rows for which {@code column op value} holds.
+     * Rows with a null value in the column are never selected.
+     */
+    public static void filter( ColumnBatch batch, int column, Kind op, long value ) {
+        final LongVector vector = (LongVector) batch.getColumn( column );
+        final long[] values = vector.values;
+        final int count = batch.getSelectedCount();
+        final int[] selected = new int[count];
+        int n = 0;
+        for ( int i = 0; i < count; i++ ) {
+            final int pos = batch.position( i );
+            if ( !vector.isNull( pos ) && compare( Long.compare( values[pos], value ), op ) ) {
+                selected[n++] = pos;
+            }
+        }
+        batch.select( selected, n );
+    }
+
+
+    /**
+     * Narrows the selection of the batch to the rows for which {@code column op value} holds.
+     * Rows with a null value in the column are never selected.
+     */
+    public static void filter( ColumnBatch batch, int column, Kind op, double value ) {
+        final DoubleVector vector = (DoubleVector) batch.getColumn( column );
+        final double[] values = vector.values;
+        final int count = batch.getSelectedCount();
+        final int[] selected = new int[count];
+        int n = 0;
+        for ( int i = 0; i < count; i++ ) {
+            final int pos = batch.position( i );
+            if ( !vector.isNull( pos ) && compare( Double.compare( values[pos], value ), op ) ) {
+                selected[n++] = pos;
+            }
+        }
+        batch.select( selected, n );
+    }
+
+
+    private static boolean compare( int c, Kind op ) {
+        switch ( op ) {
+            case EQUALS:
+                return c == 0;
+            case NOT_EQUALS:
+                return c != 0;
+            case LESS_THAN:
+                return c < 0;
+            case LESS_THAN_OR_EQUAL:
+                return c <= 0;
+            case GREATER_THAN:
+                return c > 0;
+            case GREATER_THAN_OR_EQUAL:
+                return c >= 0;
+            default:
+                throw new IllegalArgumentException( "Unsupported comparison for vectorized filter: " + op );
+        }
+    }
+
+
+    /**
+     * Number of selected rows with a non-null value in the given column.
+     */
+    public static long count( ColumnBatch batch, int column ) {
+        final ColumnVector vector = batch.getColumn( column );
+        final int count = batch.getSelectedCount();
+        if ( !vector.isMayHaveNulls() ) {
+            return count;
+        }
+        long n = 0;
+        for ( int i = 0; i < count; i++ ) {
+            if ( !vector.isNull( batch.position( i ) ) ) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+
+    /**
+     * Sum of the selected non-null values of an integral column.
+     */
+    public static long sumLong( ColumnBatch batch, int column ) {
+        final LongVector vector = (LongVector) batch.getColumn( column );
+        final long[] values = vector.values;
+        final int count = batch.getSelectedCount();
+        long sum = 0;
+        for ( int i = 0; i < count; i++ ) {
+            final int pos = batch.position( i );
+            if ( !vector.isNull( pos ) ) {
+                sum += values[pos];
+            }
+        }
+        return sum;
+    }
+
+
+    /**
+     * Minimum of the selected non-null values of an integral column, {@link Long#MAX_VALUE} if there are none.
+     */
+    public static long minLong( ColumnBatch batch, int column ) {
+        final LongVector vector = (LongVector) batch.getColumn( column );
+        final long[] values = vector.values;
+        final int count = batch.getSelectedCount();
+        long min = Long.MAX_VALUE;
+        for ( int i = 0; i < count; i++ ) {
+            final int pos = batch.position( i );
+            if ( !vector.isNull( pos ) && values[pos] < min ) {
+                min = values[pos];
+            }
+        }
+        return min;
+    }
+
+
+    /**
+     * Maximum of the selected non-null values of an integral column, {@link Long#MIN_VALUE} if there are none.
+     */
+    public static long maxLong( ColumnBatch batch, int column ) {
+        final LongVector vector = (LongVector) batch.getColumn( column );
+        final long[] values = vector.values;
+        final int count = batch.getSelectedCount();
+        long max = Long.MIN_VALUE;
+        for ( int i = 0; i < count; i++ ) {
+            final int pos = batch.position( i );
+            if ( !vector.isNull( pos ) && values[pos] > max ) {
+                max = values[pos];
+            }
+        }
+        return max;
+    }
+
+
+    /**
+     * Minimum of the selected non-null values of an approximate numeric column, {@link Double#POSITIVE_INFINITY} if
+     * there are none.
+     */
+    public static double minDouble( ColumnBatch batch, int column ) {
+        final DoubleVector vector = (DoubleVector) batch.getColumn( column );
+        final double[] values = vector.values;
+        final int count = batch.getSelectedCount();
+        double min = Double.POSITIVE_INFINITY;
+        for ( int i = 0; i < count; i++ ) {
+            final int pos = batch.position( i );
+            if ( !vector.isNull( pos ) ) {
+                min = Math.min( min, values[pos] );
+            }
+        }
+        return min;
+    }
+
+
+    /**
+     * Maximum of the selected non-null values of an approximate numeric column, {@link Double#NEGATIVE_INFINITY} if
+     * there are none.
+     */
+    public static double maxDouble( ColumnBatch batch, int column ) {
+        final DoubleVector vector = (DoubleVector) batch.getColumn( column );
+        final double[] values = vector.values;
+        final int count = batch.getSelectedCount();
+        double max = Double.NEGATIVE_INFINITY;
+        for ( int i = 0; i < count; i++ ) {
+            final int pos = batch.position( i );
+            if ( !vector.isNull( pos ) ) {
+                max = Math.max( max, values[pos] );
+            }
+        }
+        return max;
+    }
+
+
+    /**
+     * Sum of the selected non-null values of an approximate numeric column.
+     */
+    public static double sumDouble( ColumnBatch batch, int column ) {
+        final DoubleVector vector = (DoubleVector) batch.getColumn( column );
+        final double[] values = vector.values;
+        final int count = batch.getSelectedCount();
+        double sum = 0;
+        for ( int i = 0; i < count; i++ ) {
+            final int pos = batch.position( i );
+            if ( !vector.isNull( pos ) ) {
+                sum += values[pos];
+            }
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.vector;
+
+
+import java.util.Arrays;
+import lombok.Getter;
+import org.polypheny.db.type.PolyType;
+
+
+/**
+ * A fixed-capacity vector holding the values of one column for a {@link ColumnBatch}.
+ * Values of numeric and boolean types are stored in primitive arrays, nulls are tracked in a separate bitmap.
+ */
+public abstract class ColumnVector {
+
+    @Getter
+    protected final PolyType type;
+
+    @Getter
+    protected final int capacity;
+
+    private final long[] nulls;
+
+    @Getter
+    private boolean mayHaveNulls = false;
+
+
+    protected ColumnVector( PolyType type, int capacity ) {
+        this.type = type;
+        this.capacity = capacity;
+        this.nulls = new long[(capacity + 63) >>> 6];
+    }
+
+
+    /**
+     * Creates a vector which is able to hold values of the given type in their primitive representation if possible.
+     */
+    public static ColumnVector create( PolyType type, int capacity ) {
+        switch ( type ) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case DATE:
+            case TIME:
+            case TIMESTAMP:
+                return new LongVector( type, capacity );
+            case FLOAT:
+            case REAL:
+            case DOUBLE:
+                return new DoubleVector( type, capacity );
+            case BOOLEAN:
+                return new BooleanVector( type, capacity );
+            default:
+                return new ObjectVector( type, capacity );
+        }
+    }
+
+
+    public boolean isNull( int index ) {
+        return mayHaveNulls && (nulls[index >>> 6] & (1L << index)) != 0;
+    }
+
+
+    public void setNull( int index ) {
+        nulls[index >>> 6] |= 1L << index;
+        mayHaveNulls = true;
+    }
+
+
+    /**
+     * Resets the null bitmap, the values themselves are overwritten on the next fill.
+     */
+    public void reset() {
+        if ( mayHaveNulls ) {
+            Arrays.fill( nulls, 0L );
+            mayHaveNulls = false;
+        }
+    }
+
+
+    /**
+     * Stores the given value in its enumerable (boxed) representation at the given position.
+     */
+    public void set( int index, Object value ) {
+        if ( value == null ) {
+            setNull( index );
+        } else {
+            setNonNull( index, value );
+        }
+    }
+
+
+    /**
+     * Returns the value at the given position in the representation used by the row-based enumerable convention.
+     */
+    public Object get( int index ) {
+        return isNull( index ) ? null : getNonNull( index );
+    }
+
+
+    protected abstract void setNonNull( int index, Object value );
+
+    protected abstract Object getNonNull( int index );
+
+
+    /**
+     * Vector for all integral and date-time types, which are represented as {@code long}.
+     */
+    public static class LongVector extends ColumnVector {
+
+        public final long[] values;
+
+
+        LongVector( PolyType type, int capacity ) {
+            super( type, capacity );
+            this.values = new long[capacity];
+        }
+
+
+        @Override
+        protected void setNonNull( int index, Object value ) {
+            values[index] = ((Number) value).longValue();
+        }
+
+
+        @Override
+        protected Object getNonNull( int index ) {
+            long value = values[index];
+            switch ( type ) {
+                case TINYINT:
+                    return (byte) value;
+                case SMALLINT:
+                    return (short) value;
+                case INTEGER:
+                case DATE:
+                case TIME:
+                    return (int) value;
+                default:
+                    return value;
+            }
+        }
+
+    }
+
+
+    /**
+     * Vector for all approximate numeric types, which are represented as {@code double}.
+     */
+    public static class DoubleVector extends ColumnVector {
+
+        public final double[] values;
+
+
+        DoubleVector( PolyType type, int capacity ) {
+            super( type, capacity );
+            this.values = new double[capacity];
+        }
+
+
+        @Override
+        protected void setNonNull( int index, Object value ) {
+            values[index] = ((Number) value).doubleValue();
+        }
+
+
+        @Override
+        protected Object getNonNull( int index ) {
+            if ( type == PolyType.REAL ) {
+                return (float) values[index];
+            }
+            return values[index];
+        }
+
+    }
+
+
+    public static class BooleanVector extends ColumnVector {
+
+        public final boolean[] values;
+
+
+        BooleanVector( PolyType type, int capacity ) {
+            super( type, capacity );
+            this.values = new boolean[capacity];
+        }
+
+
+        @Override
+        protected void setNonNull( int index, Object value ) {
+            values[index] = (Boolean) value;
+        }
+
+
+        @Override
+        protected Object getNonNull( int index ) {
+            return values[index];
+        }
+
+    }
+
+
+    /**
+     * Fallback vector for all types without a primitive representation.
+     */
+    public static class ObjectVector extends ColumnVector {
+
+        public final Object[] values;
+
+
+        ObjectVector( PolyType type, int capacity ) {
+            super( type, capacity );
+            this.values = new Object[capacity];
+        }
+
+
+        @Override
+        public void set( int index, Object value ) {
+            // nulls are stored directly in the array, the bitmap is kept consistent for generic consumers
+            values[index] = value;
+            if ( value == null ) {
+                setNull( index );
+            }
+        }
+
+
+        @Override
+        protected void setNonNull( int index, Object value ) {
+            values[index] = value;
+        }
+
+
+        @Override
+        protected Object getNonNull( int index ) {
+            return values[index];
+        }
+
+    }
+
+}
@@ -103,7 +103,7 @@ public Expression getAsExpression() {
                         PolyEdge.class );
         if ( fromTo != null ) {
             expression = Expressions.call( expression, "fromTo",
-                    Expressions.call( BuiltInMethod.PAIR_OF.method, Expressions.constant( fromTo.left ), Expressions.constant( fromTo.right ) ) );
+                    Expressions.call( BuiltInMethod.PAIR_OF.method, Expressions.constant( fromTo.left, Integer.class ), Expressions.constant( fromTo.right, Integer.class ) ) );
         }
         return expression;
     }
@@ -134,6 +134,17 @@ public int getMinLength() {
     }
 
 
+    /**
+     * Returns the maximal number of hops of this edge, {@link Integer#MAX_VALUE} if the length is unbounded.
+     */
+    public int getMaxLength() {
+        if ( fromTo == null ) {
+            return 1;
+        }
+        return fromTo.right == null ? Integer.MAX_VALUE : fromTo.right;
+    }
+
+
     public String getRangeDescriptor() {
         if ( fromTo == null ) {
             return "";
@@ -147,11 +158,11 @@ public String getRangeDescriptor() {
             return range + fromTo.left + ".." + fromTo.right;
         }
         if ( fromTo.right != null ) {
-            return fromTo.right.toString();
+            return range + ".." + fromTo.right;
         }
 
         if ( fromTo.left != null ) {
-            return fromTo.left.toString();
+            return range + fromTo.left + "..";
         }
         return range;
     }
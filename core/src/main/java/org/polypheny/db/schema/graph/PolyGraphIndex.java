@@ -0,0 +1,545 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.schema.graph;
+
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.polypheny.db.schema.graph.PolyEdge.EdgeDirection;
+
+
+/**
+ * Adjacency index of a {@link PolyGraph} in compressed sparse row format, used to match patterns without scanning all
+ * edges for every hop.
+ *
+ * Nodes and edges are numbered densely in the iteration order of the graph. The outgoing edges of node {@code i} are
+ * {@code outEdges[outOffsets[i]]} to {@code outEdges[outOffsets[i + 1] - 1]}, the incoming edges are stored the same
+ * way. For every label, a bitset holds the nodes respectively edges having this label. The labels are only used to
+ * skip elements which can not match, the elements themselves decide whether they match a pattern.
+ *
+ * The index is built for the state of the graph at the time of creation and has to be rebuilt if the graph changes.
+ */
+public class PolyGraphIndex {
+
+    private static final BitSet NONE = new BitSet();
+
+    private final PolyNode[] nodes;
+    private final PolyEdge[] edges;
+
+    // endpoints of the edges, -1 if the node is not part of the graph
+    private final int[] sources;
+    private final int[] targets;
+
+    private final int[] outOffsets;
+    private final int[] outEdges;
+    private final int[] inOffsets;
+    private final int[] inEdges;
+
+    private final Map<String, BitSet> nodeLabels = new HashMap<>();
+    private final Map<String, BitSet> edgeLabels = new HashMap<>();
+
+    private final String variableName;
+
+
+    PolyGraphIndex( PolyGraph graph ) {
+        this.variableName = graph.getVariableName();
+        this.nodes = graph.getNodes().values().toArray( new PolyNode[0] );
+        this.edges = graph.getEdges().values().toArray( new PolyEdge[0] );
+
+        final Map<String, Integer> nodeIds = new HashMap<>( nodes.length * 2 );
+        for ( int i = 0; i < nodes.length; i++ ) {
+            nodeIds.put( nodes[i].id, i );
+            for ( String label : nodes[i].labels ) {
+                nodeLabels.computeIfAbsent( label, l -> new BitSet( nodes.length ) ).set( i );
+            }
+        }
+
+        this.sources = new int[edges.length];
+        this.targets = new int[edges.length];
+        final int[] outDegrees = new int[nodes.length];
+        final int[] inDegrees = new int[nodes.length];
+        for ( int i = 0; i < edges.length; i++ ) {
+            sources[i] = nodeIds.getOrDefault( edges[i].source, -1 );
+            targets[i] = nodeIds.getOrDefault( edges[i].target, -1 );
+            if ( sources[i] >= 0 && targets[i] >= 0 ) {
+                outDegrees[sources[i]]++;
+                inDegrees[targets[i]]++;
+            }
+            for ( String label : edges[i].labels ) {
+                edgeLabels.computeIfAbsent( label, l -> new BitSet( edges.length ) ).set( i );
+            }
+        }
+
+        this.outOffsets = offsets( outDegrees );
+        this.inOffsets = offsets( inDegrees );
+        this.outEdges = new int[outOffsets[nodes.length]];
+        this.inEdges = new int[inOffsets[nodes.length]];
+        final int[] outPositions = outOffsets.clone();
+        final int[] inPositions = inOffsets.clone();
+        for ( int i = 0; i < edges.length; i++ ) {
+            // edges with a missing endpoint can never be matched
+            if ( sources[i] >= 0 && targets[i] >= 0 ) {
+                outEdges[outPositions[sources[i]]++] = i;
+                inEdges[inPositions[targets[i]]++] = i;
+            }
+        }
+    }
+
+
+    private static int[] offsets( int[] degrees ) {
+        final int[] offsets = new int[degrees.length + 1];
+        for ( int i = 0; i < degrees.length; i++ ) {
+            offsets[i + 1] = offsets[i] + degrees[i];
+        }
+        return offsets;
+    }
+
+
+    /**
+     * Returns the elements having all the given labels, or {@code null} if no labels are given.
+     */
+    private static BitSet withLabels( Map<String, BitSet> index, List<String> labels ) {
+        if ( labels.isEmpty() ) {
+            return null;
+        }
+        BitSet result = null;
+        for ( String label : labels ) {
+            final BitSet elements = index.getOrDefault( label, NONE );
+            if ( result == null ) {
+                result = (BitSet) elements.clone();
+            } else {
+                result.and( elements );
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns the nodes matching the labels and properties of the given node.
+     */
+    private BitSet candidates( PolyNode pattern ) {
+        BitSet candidates = withLabels( nodeLabels, pattern.labels );
+        if ( candidates == null ) {
+            candidates = new BitSet( nodes.length );
+            candidates.set( 0, nodes.length );
+        }
+        for ( int i = candidates.nextSetBit( 0 ); i >= 0; i = candidates.nextSetBit( i + 1 ) ) {
+            if ( !nodes[i].labelAndPropertyMatch( pattern ) ) {
+                candidates.clear( i );
+            }
+        }
+        return candidates;
+    }
+
+
+    private boolean matches( BitSet candidates, PolyEdge pattern, int edge ) {
+        return (candidates == null || candidates.get( edge )) && edges[edge].labelAndPropertyMatch( pattern );
+    }
+
+
+    /**
+     * Returns all nodes matching the labels and properties of the given node.
+     */
+    public List<PolyNode> extract( PolyNode other ) {
+        final List<PolyNode> result = new ArrayList<>();
+        final BitSet candidates = candidates( other );
+        for ( int i = candidates.nextSetBit( 0 ); i >= 0; i = candidates.nextSetBit( i + 1 ) ) {
+            result.add( nodes[i] );
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns all paths matching the given pattern.
+     *
+     * @see #match(PolyPath)
+     */
+    public List<PolyPath> extract( PolyPath pattern ) {
+        final List<PolyPath> result = new ArrayList<>();
+        match( pattern ).forEach( result::add );
+        return result;
+    }
+
+
+    /**
+     * Matches the given pattern lazily, the paths are searched start node by start node while iterating. Like in
+     * Neo4j, a path is only matched if it does not use an edge more than once and patterns without direction match
+     * every fitting path once in each direction. Relationships with a variable length like <code>-[*1..5]-&gt;</code>
+     * are expanded hop by hop in the same traversal, so common prefixes of paths of different lengths are only
+     * searched once.
+     */
+    public Iterable<PolyPath> match( PolyPath pattern ) {
+        return () -> new PathMatcher( pattern );
+    }
+
+
+    /**
+     * Matches the shortest paths between all pairs of nodes fitting the start and end node of the given pattern, which
+     * consists of a single relationship, by a breadth-first search from every start node. Pairs without a path within
+     * the maximal length of the relationship are skipped.
+     *
+     * @param all whether all shortest paths of a pair are returned ( <code>allShortestPaths</code> ) or only one of them
+     * ( <code>shortestPath</code> )
+     */
+    public Iterable<PolyPath> matchShortest( PolyPath pattern, boolean all ) {
+        if ( pattern.getEdges().size() != 1 ) {
+            throw new UnsupportedOperationException( "Shortest paths can only be matched for patterns with a single relationship." );
+        }
+        if ( pattern.getEdges().get( 0 ).getMinLength() > 1 ) {
+            throw new UnsupportedOperationException( "Shortest paths only support a minimal length of 0 or 1." );
+        }
+        return () -> new ShortestPathMatcher( pattern, all );
+    }
+
+
+    private PolyPath buildPath( int[] pathNodes, int[] pathEdges, String[] nodeNames, String[] edgeNames, int length ) {
+        final List<PolyNode> nodes = new ArrayList<>( length + 1 );
+        final List<PolyEdge> edges = new ArrayList<>( length );
+        final List<GraphPropertyHolder> path = new ArrayList<>( 2 * length + 1 );
+        final List<String> names = new ArrayList<>( 2 * length + 1 );
+
+        for ( int i = 0; i <= length; i++ ) {
+            if ( i > 0 ) {
+                final PolyEdge edge = this.edges[pathEdges[i - 1]].copyNamed( edgeNames[i - 1] );
+                edges.add( edge );
+                path.add( edge );
+                names.add( null );
+            }
+            final PolyNode node = this.nodes[pathNodes[i]].copyNamed( nodeNames[i] );
+            nodes.add( node );
+            path.add( node );
+            names.add( null );
+        }
+        return new PolyPath( nodes, edges, names, path, variableName );
+    }
+
+
+    /**
+     * Produces the matches of all start nodes fitting a node pattern, the matches of the next start node are only
+     * searched if the ones of the previous start node are consumed.
+     */
+    private abstract static class StartNodeIterator implements Iterator<PolyPath> {
+
+        private final BitSet starts;
+        private final Deque<PolyPath> buffer = new ArrayDeque<>();
+        private int start;
+
+
+        StartNodeIterator( BitSet starts ) {
+            this.starts = starts;
+            this.start = starts.nextSetBit( 0 );
+        }
+
+
+        protected abstract void matchFrom( int start, Deque<PolyPath> paths );
+
+
+        @Override
+        public boolean hasNext() {
+            while ( buffer.isEmpty() && start >= 0 ) {
+                matchFrom( start, buffer );
+                start = starts.nextSetBit( start + 1 );
+            }
+            return !buffer.isEmpty();
+        }
+
+
+        @Override
+        public PolyPath next() {
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            return buffer.poll();
+        }
+
+    }
+
+
+    /**
+     * Matches a path pattern with a depth-first search along the adjacency lists.
+     */
+    private class PathMatcher extends StartNodeIterator {
+
+        private final List<PolyNode> patternNodes;
+        private final List<PolyEdge> patternEdges;
+        private final BitSet[] edgeCandidates;
+        private final BitSet usedEdges = new BitSet( edges.length );
+
+        // the current path and the variable names of its elements
+        private final int[] pathNodes;
+        private final int[] pathEdges;
+        private final String[] nodeNames;
+        private final String[] edgeNames;
+
+
+        PathMatcher( PolyPath pattern ) {
+            super( candidates( pattern.getNodes().get( 0 ) ) );
+            this.patternNodes = pattern.getNodes();
+            this.patternEdges = pattern.getEdges();
+            this.edgeCandidates = new BitSet[patternEdges.size()];
+            long maxLength = 0;
+            for ( int i = 0; i < patternEdges.size(); i++ ) {
+                edgeCandidates[i] = withLabels( edgeLabels, patternEdges.get( i ).labels );
+                maxLength += patternEdges.get( i ).getMaxLength();
+            }
+            // a path can not be longer than the number of edges
+            final int capacity = (int) Math.min( maxLength, edges.length ) + 1;
+            this.pathNodes = new int[capacity];
+            this.pathEdges = new int[capacity];
+            this.nodeNames = new String[capacity];
+            this.edgeNames = new String[capacity];
+        }
+
+
+        @Override
+        protected void matchFrom( int start, Deque<PolyPath> paths ) {
+            pathNodes[0] = start;
+            nodeNames[0] = patternNodes.get( 0 ).getVariableName();
+            expand( 0, 0, 0, paths );
+        }
+
+
+        /**
+         * Continues the current path.
+         *
+         * @param i the relationship of the pattern, which is currently expanded
+         * @param hops the number of edges already matched for this relationship
+         * @param depth the length of the current path
+         */
+        private void expand( int i, int hops, int depth, Deque<PolyPath> paths ) {
+            if ( i == patternEdges.size() ) {
+                paths.add( buildPath( pathNodes, pathEdges, nodeNames, edgeNames, depth ) );
+                return;
+            }
+            final PolyEdge pattern = patternEdges.get( i );
+            final int node = pathNodes[depth];
+            if ( hops >= pattern.getMinLength() && nodes[node].labelAndPropertyMatch( patternNodes.get( i + 1 ) ) ) {
+                // the relationship can end here, continue with the next one of the pattern
+                final String name = nodeNames[depth];
+                nodeNames[depth] = patternNodes.get( i + 1 ).getVariableName();
+                expand( i + 1, 0, depth, paths );
+                nodeNames[depth] = name;
+            }
+            if ( hops < pattern.getMaxLength() ) {
+                if ( pattern.direction != EdgeDirection.RIGHT_TO_LEFT ) {
+                    for ( int j = outOffsets[node]; j < outOffsets[node + 1]; j++ ) {
+                        step( i, hops, depth, outEdges[j], targets[outEdges[j]], paths );
+                    }
+                }
+                if ( pattern.direction != EdgeDirection.LEFT_TO_RIGHT ) {
+                    for ( int j = inOffsets[node]; j < inOffsets[node + 1]; j++ ) {
+                        step( i, hops, depth, inEdges[j], sources[inEdges[j]], paths );
+                    }
+                }
+            }
+        }
+
+
+        private void step( int i, int hops, int depth, int edge, int next, Deque<PolyPath> paths ) {
+            // relationship isomorphism, every edge is used at most once per path
+            if ( usedEdges.get( edge ) || !matches( edgeCandidates[i], patternEdges.get( i ), edge ) ) {
+                return;
+            }
+            usedEdges.set( edge );
+            pathEdges[depth] = edge;
+            edgeNames[depth] = patternEdges.get( i ).getVariableName();
+            pathNodes[depth + 1] = next;
+            // nodes inside of a variable length relationship have no name
+            nodeNames[depth + 1] = null;
+            expand( i, hops + 1, depth + 1, paths );
+            usedEdges.clear( edge );
+        }
+
+    }
+
+
+    /**
+     * Searches the shortest paths from a start node to all fitting end nodes breadth-first, level by level. The search
+     * stops as soon as all end nodes are reached or the maximal length is exceeded.
+     */
+    private class ShortestPathMatcher extends StartNodeIterator {
+
+        private final PolyEdge pattern;
+        private final BitSet edgeCandidates;
+        private final BitSet ends;
+        private final boolean all;
+
+        private final String[] nodeNames;
+        private final String[] edgeNames;
+        private final String endName;
+
+        // distance of every node from the start node, -1 if it was not reached yet
+        private final int[] distances;
+        // the reached nodes in the order of their distance, the current level is the frontier of the search
+        private final int[] reached;
+        private int reachedCount;
+
+        // predecessors of the nodes on shortest paths as linked lists of entries ( node, edge, next entry )
+        private final int[] firstPredecessors;
+        private int[] predecessors = new int[3 * 16];
+        private int predecessorCount;
+
+
+        ShortestPathMatcher( PolyPath pattern, boolean all ) {
+            super( candidates( pattern.getNodes().get( 0 ) ) );
+            this.pattern = pattern.getEdges().get( 0 );
+            this.edgeCandidates = withLabels( edgeLabels, this.pattern.labels );
+            this.ends = candidates( pattern.getNodes().get( 1 ) );
+            this.all = all;
+
+            final int capacity = Math.min( this.pattern.getMaxLength(), nodes.length ) + 1;
+            this.nodeNames = new String[capacity];
+            this.edgeNames = new String[capacity];
+            Arrays.fill( edgeNames, this.pattern.getVariableName() );
+            this.nodeNames[0] = pattern.getNodes().get( 0 ).getVariableName();
+            this.endName = pattern.getNodes().get( 1 ).getVariableName();
+
+            this.distances = new int[nodes.length];
+            this.reached = new int[nodes.length];
+            this.firstPredecessors = new int[nodes.length];
+            Arrays.fill( distances, -1 );
+            Arrays.fill( firstPredecessors, -1 );
+        }
+
+
+        @Override
+        protected void matchFrom( int start, Deque<PolyPath> paths ) {
+            search( start );
+            for ( int end = ends.nextSetBit( 0 ); end >= 0; end = ends.nextSetBit( end + 1 ) ) {
+                final int distance = distances[end];
+                if ( distance < pattern.getMinLength() ) {
+                    // not reached or the start node itself
+                    continue;
+                }
+                final int[] pathNodes = new int[distance + 1];
+                final int[] pathEdges = new int[distance];
+                Arrays.fill( nodeNames, 1, distance + 1, null );
+                if ( distance > 0 ) {
+                    nodeNames[distance] = endName;
+                }
+                pathNodes[distance] = end;
+                collect( distance, pathNodes, pathEdges, paths );
+            }
+            reset();
+        }
+
+
+        private void search( int start ) {
+            int remaining = ends.cardinality();
+            distances[start] = 0;
+            reached[reachedCount++] = start;
+            if ( ends.get( start ) ) {
+                remaining--;
+            }
+
+            int levelStart = 0;
+            for ( int level = 0; level < pattern.getMaxLength() && remaining > 0 && levelStart < reachedCount; level++ ) {
+                final int levelEnd = reachedCount;
+                for ( int i = levelStart; i < levelEnd; i++ ) {
+                    final int node = reached[i];
+                    if ( pattern.direction != EdgeDirection.RIGHT_TO_LEFT ) {
+                        for ( int j = outOffsets[node]; j < outOffsets[node + 1]; j++ ) {
+                            remaining -= visit( node, outEdges[j], targets[outEdges[j]], level + 1 );
+                        }
+                    }
+                    if ( pattern.direction != EdgeDirection.LEFT_TO_RIGHT ) {
+                        for ( int j = inOffsets[node]; j < inOffsets[node + 1]; j++ ) {
+                            remaining -= visit( node, inEdges[j], sources[inEdges[j]], level + 1 );
+                        }
+                    }
+                }
+                levelStart = levelEnd;
+            }
+        }
+
+
+        /**
+         * Follows an edge of the frontier.
+         *
+         * @return 1 if a not yet reached end node is reached, 0 otherwise
+         */
+        private int visit( int node, int edge, int next, int distance ) {
+            if ( !matches( edgeCandidates, pattern, edge ) ) {
+                return 0;
+            }
+            if ( distances[next] < 0 ) {
+                distances[next] = distance;
+                reached[reachedCount++] = next;
+                addPredecessor( next, node, edge );
+                return ends.get( next ) ? 1 : 0;
+            }
+            if ( all && distances[next] == distance ) {
+                // another path of the same length
+                addPredecessor( next, node, edge );
+            }
+            return 0;
+        }
+
+
+        private void addPredecessor( int node, int predecessor, int edge ) {
+            if ( 3 * (predecessorCount + 1) > predecessors.length ) {
+                predecessors = Arrays.copyOf( predecessors, 2 * predecessors.length );
+            }
+            final int entry = 3 * predecessorCount++;
+            predecessors[entry] = predecessor;
+            predecessors[entry + 1] = edge;
+            predecessors[entry + 2] = firstPredecessors[node];
+            firstPredecessors[node] = entry;
+        }
+
+
+        /**
+         * Builds the paths from the start node to the node at the given position of the path, backwards from the end node.
+         */
+        private void collect( int position, int[] pathNodes, int[] pathEdges, Deque<PolyPath> paths ) {
+            if ( position == 0 ) {
+                paths.add( buildPath( pathNodes, pathEdges, nodeNames, edgeNames, pathEdges.length ) );
+                return;
+            }
+            for ( int entry = firstPredecessors[pathNodes[position]]; entry >= 0; entry = predecessors[entry + 2] ) {
+                pathNodes[position - 1] = predecessors[entry];
+                pathEdges[position - 1] = predecessors[entry + 1];
+                collect( position - 1, pathNodes, pathEdges, paths );
+                if ( !all ) {
+                    return;
+                }
+            }
+        }
+
+
+        private void reset() {
+            for ( int i = 0; i < reachedCount; i++ ) {
+                distances[reached[i]] = -1;
+                firstPredecessors[reached[i]] = -1;
+            }
+            reachedCount = 0;
+            predecessorCount = 0;
+        }
+
+    }
+
+}
@@ -27,4 +27,9 @@ public TransactionException( Exception e ) {
     public TransactionException( String s ) {
         super( s );
     }
+
+
+    public TransactionException( String s, Throwable cause ) {
+        super( s, cause );
+    }
 }
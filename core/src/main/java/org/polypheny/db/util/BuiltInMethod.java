@@ -47,6 +47,7 @@
 import org.polypheny.db.adapter.enumerable.lpg.EnumerableLpgMatch.MatchEnumerable;
 import org.polypheny.db.adapter.java.ReflectiveSchema;
 import org.polypheny.db.algebra.constant.ExplainLevel;
+import org.polypheny.db.algebra.constant.Kind;
 import org.polypheny.db.algebra.core.Modify.Operation;
 import org.polypheny.db.algebra.json.JsonConstructorNullClause;
 import org.polypheny.db.algebra.json.JsonQueryEmptyOrErrorBehavior;
@@ -65,6 +66,7 @@
 import org.polypheny.db.runtime.functions.Functions;
 import org.polypheny.db.runtime.functions.Functions.FlatProductInputType;
 import org.polypheny.db.runtime.functions.MqlFunctions;
+import org.polypheny.db.runtime.vector.ColumnBatches;
 import org.polypheny.db.schema.*;
 import org.polypheny.db.schema.graph.*;
 import org.polypheny.db.type.PolyType;
@@ -76,6 +78,7 @@
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.function.Predicate;
 
 
 /**
@@ -84,7 +87,7 @@
 public enum BuiltInMethod {
     SWITCH_CONTEXT( DataContext.class, "switchContext" ),
     BATCH( Functions.class, "batch", DataContext.class, Enumerable.class ),
-    STREAM_RIGHT( Functions.class, "streamRight", DataContext.class, Enumerable.class, Function0.class, List.class ),
+    STREAM_RIGHT( Functions.class, "streamRight", DataContext.class, Enumerable.class, Function0.class, List.class, int.class ),
     ENFORCE_CONSTRAINT( Functions.class, "enforceConstraint", Function0.class, Enumerable.class, List.class, List.class ),
     TO_NODE( CypherFunctions.class, "toNode", Enumerable.class ),
     TO_EDGE( CypherFunctions.class, "toEdge", Enumerable.class ),
@@ -97,6 +100,13 @@ public enum BuiltInMethod {
     ABSTRACT_ENUMERABLE_CTOR( AbstractEnumerable.class ),
     BATCH_ITERATOR_CTOR( BatchIteratorEnumerable.class ),
     BATCH_ITERATOR_GET_ENUM( BatchIteratorEnumerable.class, "getEnumerable" ),
+    TO_COLUMN_BATCHES( ColumnBatches.class, "toBatches", Enumerable.class, List.class, int.class ),
+    FROM_COLUMN_BATCHES( ColumnBatches.class, "toRows", Enumerable.class ),
+    FILTER_COLUMN_BATCHES( ColumnBatches.class, "filter", Enumerable.class, int[].class, Kind[].class, Function0.class ),
+    PROJECT_COLUMN_BATCHES( ColumnBatches.class, "project", Enumerable.class, int[].class ),
+    AGGREGATE_COLUMN_BATCHES( ColumnBatches.class, "aggregate", Enumerable.class, Kind[].class, int[].class, PolyType[].class ),
+    GATHER( ParallelEnumerables.class, "gather", int.class, List.class, int.class ),
+    PREFETCH( ParallelEnumerables.class, "prefetch", List.class, int.class ),
     INTO( ExtendedEnumerable.class, "into", Collection.class ),
     REMOVE_ALL( ExtendedEnumerable.class, "removeAll", Collection.class ),
     SCHEMA_GET_SUB_SCHEMA( Schema.class, "getSubSchema", String.class ),
@@ -132,6 +142,7 @@ public enum BuiltInMethod {
     GROUP_BY_MULTIPLE( EnumerableDefaults.class, "groupByMultiple", Enumerable.class, List.class, Function0.class, Function2.class, Function2.class ),
     AGGREGATE( ExtendedEnumerable.class, "aggregate", Object.class, Function2.class, Function1.class ),
     ORDER_BY( ExtendedEnumerable.class, "orderBy", Function1.class, Comparator.class ),
+    ORDER_BY_LIMIT( Enumerables.class, "orderByLimit", Enumerable.class, Function1.class, Comparator.class, int.class, int.class ),
     UNION( ExtendedEnumerable.class, "union", Enumerable.class ),
     CONCAT( ExtendedEnumerable.class, "concat", Enumerable.class ),
     INTERSECT( ExtendedEnumerable.class, "intersect", Enumerable.class ),
@@ -244,6 +255,8 @@ public enum BuiltInMethod {
     LTRIM( Functions.class, "ltrim", String.class ),
     RTRIM( Functions.class, "rtrim", String.class ),
     LIKE( Functions.class, "like", String.class, String.class ),
+    LIKE_MATCHER( PatternMatchers.class, "like", String.class, String.class ),
+    PREDICATE_TEST( Predicate.class, "test", Object.class ),
     SIMILAR( Functions.class, "similar", String.class, String.class ),
     IS_TRUE( Functions.class, "isTrue", Boolean.class ),
     IS_NOT_FALSE( Functions.class, "isNotFalse", Boolean.class ),
@@ -390,6 +403,8 @@ public enum BuiltInMethod {
     DOC_JSONIZE( MqlFunctions.class, "docJsonify", Object.class ),
     DOC_EXISTS( MqlFunctions.class, "docExists", Object.class, List.class ),
     GRAPH_PATH_MATCH( CypherFunctions.class, "pathMatch", PolyGraph.class, PolyPath.class ),
+    GRAPH_SHORTEST_PATH_MATCH( CypherFunctions.class, "shortestPathMatch", PolyGraph.class, PolyPath.class ),
+    GRAPH_ALL_SHORTEST_PATHS_MATCH( CypherFunctions.class, "allShortestPathsMatch", PolyGraph.class, PolyPath.class ),
     CYPHER_HAS_LABEL( CypherFunctions.class, "hasLabel", PolyNode.class, String.class ),
     CYPHER_HAS_PROPERTY( CypherFunctions.class, "hasProperty", PolyNode.class, String.class ),
     GRAPH_NODE_MATCH( CypherFunctions.class, "nodeMatch", PolyGraph.class, PolyNode.class ),
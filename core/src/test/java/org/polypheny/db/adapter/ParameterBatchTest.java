@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+
+/**
+ * Unit tests for {@link ParameterBatch}.
+ */
+public class ParameterBatchTest {
+
+    @Test
+    public void testRowViews() {
+        ParameterBatch batch = new ParameterBatch();
+        batch.addColumn( 0, Arrays.asList( 1, 2, 3 ) );
+        batch.addColumn( 1, Arrays.asList( "a", null, "c" ) );
+
+        assertEquals( 3, batch.size() );
+        Map<Long, Object> expected = new HashMap<>();
+        expected.put( 0L, 2 );
+        expected.put( 1L, null );
+        assertEquals( expected, batch.get( 1 ) );
+        assertEquals( "c", batch.get( 2 ).get( 1L ) );
+        assertEquals( 3, batch.getValue( 2, 0 ) );
+    }
+
+
+    @Test(expected = RuntimeException.class)
+    public void testRowCountMismatch() {
+        ParameterBatch batch = new ParameterBatch();
+        batch.addColumn( 0, Arrays.asList( 1, 2, 3 ) );
+        batch.addColumn( 1, Arrays.asList( 1, 2 ) );
+    }
+
+
+    @Test
+    public void testFromRows() {
+        Map<Long, Object> first = new HashMap<>();
+        first.put( 0L, "x" );
+        Map<Long, Object> second = new HashMap<>();
+        second.put( 0L, "y" );
+        ParameterBatch batch = ParameterBatch.of( List.of( first, second ) );
+        assertEquals( List.of( first, second ), batch );
+        assertSame( batch, ParameterBatch.of( batch ) );
+    }
+
+
+    @Test
+    public void testClearAndRemove() {
+        ParameterBatch batch = new ParameterBatch();
+        batch.addColumn( 0, Arrays.asList( 1, 2, 3 ) );
+        batch.addColumn( 1, Arrays.asList( "a", "b", "c" ) );
+
+        Map<Long, Object> removed = batch.remove( 1 );
+        assertEquals( 2, removed.get( 0L ) );
+        assertEquals( 2, batch.size() );
+        assertEquals( "c", batch.getValue( 1, 1 ) );
+
+        batch.clear();
+        assertEquals( 0, batch.size() );
+        assertTrue( batch.getIndexes().isEmpty() );
+        // after clearing, a batch with a different number of rows can be bound
+        batch.addColumn( 0, Arrays.asList( 4, 5, 6, 7 ) );
+        assertEquals( 4, batch.size() );
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.index;
+
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.junit.Assert;
+import org.junit.Test;
+import org.polypheny.db.transaction.PUID;
+import org.polypheny.db.transaction.PUID.Type;
+import org.polypheny.db.transaction.PolyXid;
+import org.polypheny.db.util.Pair;
+
+
+public class CowDocumentIndexTest {
+
+    private static CowDocumentIndex index() {
+        return new CowDocumentIndex( 42L, "idx_test", null, null, List.of( "_data_" ), List.of( "_id_", "_data_" ), List.of( "customer", "id" ) );
+    }
+
+
+    private static PolyXid xid() {
+        return PolyXid.generateLocalTransactionIdentifier( PUID.randomPUID( Type.NODE ), PUID.randomPUID( Type.TRANSACTION ) );
+    }
+
+
+    private static Pair<List<Object>, List<Object>> tuple( String id, String customer ) {
+        BsonDocument document = BsonDocument.parse( "{\"_id\": \"" + id + "\", \"customer\": " + customer + "}" );
+        return Pair.of( List.of( document ), List.of( id, document ) );
+    }
+
+
+    private static Set<String> ids( List<BsonValue> documents ) {
+        return documents.stream().map( d -> d.asDocument().getString( "_id" ).getValue() ).collect( Collectors.toSet() );
+    }
+
+
+    @Test
+    public void testLookup() {
+        CowDocumentIndex idx = index();
+        idx.insertAll( Arrays.asList(
+                tuple( "a", "{\"id\": 42}" ),
+                tuple( "b", "{\"id\": 42.0}" ),
+                tuple( "c", "{\"id\": 7}" ),
+                tuple( "d", "{\"id\": \"42\"}" ),
+                tuple( "e", "{\"id\": [42, 43]}" ),
+                tuple( "f", "{\"name\": \"Ada\"}" )
+        ) );
+        PolyXid xid = xid();
+        // numbers are equal regardless of their type, arrays are always candidates
+        Assert.assertEquals( Set.of( "a", "b", "e" ), ids( idx.lookup( xid, new BigDecimal( 42 ) ) ) );
+        Assert.assertEquals( Set.of( "d", "e" ), ids( idx.lookup( xid, "42" ) ) );
+        // missing values are null
+        Assert.assertEquals( Set.of( "e", "f" ), ids( idx.lookup( xid, null ) ) );
+
+        // only numbers are part of ranges, arrays are always candidates
+        Assert.assertEquals( Set.of( "a", "b", "c", "e" ), ids( idx.lookup( xid, 7, true, 42, true ) ) );
+        Assert.assertEquals( Set.of( "c", "e" ), ids( idx.lookup( xid, null, false, 42, false ) ) );
+        Assert.assertEquals( Set.of( "a", "b", "e" ), ids( idx.lookup( xid, 7, false, null, false ) ) );
+        Assert.assertEquals( Set.of( "e" ), ids( idx.lookup( xid, 42, true, 7, true ) ) );
+        // ranges of strings cannot be looked up
+        Assert.assertNull( idx.lookup( xid, "4", true, null, false ) );
+        Assert.assertNull( idx.lookup( xid, 7, true, "42", true ) );
+    }
+
+
+    @Test
+    public void testCopyOnWriteIsolation() {
+        CowDocumentIndex idx = index();
+        PolyXid xid1 = xid();
+        PolyXid xid2 = xid();
+        idx.insertAll( xid1, List.of( tuple( "a", "{\"id\": 1}" ), tuple( "b", "{\"id\": 2}" ) ) );
+        // Not visible before the barrier
+        Assert.assertTrue( idx.lookup( xid1, 1 ).isEmpty() );
+        idx.barrier( xid1 );
+        Assert.assertEquals( Set.of( "a" ), ids( idx.lookup( xid1, 1 ) ) );
+        Assert.assertTrue( idx.contains( xid1, tuple( "x", "{\"id\": 2}" ).left ) );
+        Assert.assertTrue( idx.lookup( xid2, 1 ).isEmpty() );
+        idx.commit( xid1 );
+        Assert.assertEquals( Set.of( "a" ), ids( idx.lookup( xid2, 1 ) ) );
+
+        // Update of a document moves it to another key
+        idx.deleteAllPrimary( xid1, List.of( tuple( "a", "{\"id\": 1}" ) ) );
+        idx.insertAll( xid1, List.of( tuple( "a", "{\"id\": 3}" ) ) );
+        idx.barrier( xid1 );
+        Assert.assertTrue( idx.lookup( xid1, 1 ).isEmpty() );
+        Assert.assertEquals( Set.of( "a", "b" ), ids( idx.lookup( xid1, 2, true, 3, true ) ) );
+        Assert.assertEquals( Set.of( "a" ), ids( idx.lookup( xid2, 1 ) ) );
+        idx.rollback( xid1 );
+        Assert.assertEquals( Set.of( "a" ), ids( idx.lookup( xid1, 1 ) ) );
+        Assert.assertTrue( idx.lookup( xid1, 3 ).isEmpty() );
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.index;
+
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.polypheny.db.runtime.functions.DistanceFunctions;
+import org.polypheny.db.transaction.PUID;
+import org.polypheny.db.transaction.PUID.Type;
+import org.polypheny.db.transaction.PolyXid;
+import org.polypheny.db.util.Pair;
+
+
+public class CowHnswIndexTest {
+
+    private static CowHnswIndex index() {
+        return new CowHnswIndex( 42L, "idx_test", CowHnswIndex.METHOD_L2, null, null, List.of( "vector" ), List.of( "id" ) );
+    }
+
+
+    private static PolyXid xid() {
+        return PolyXid.generateLocalTransactionIdentifier( PUID.randomPUID( Type.NODE ), PUID.randomPUID( Type.TRANSACTION ) );
+    }
+
+
+    private static Pair<List<Object>, List<Object>> tuple( int id, Double... vector ) {
+        return Pair.of( List.<Object>of( List.of( vector ) ), List.<Object>of( id ) );
+    }
+
+
+    private static List<Object> ids( List<List<Object>> primaries ) {
+        return primaries.stream().map( p -> p.get( 0 ) ).collect( Collectors.toList() );
+    }
+
+
+    @Test
+    public void testRecall() {
+        final Random random = new Random( 42 );
+        final float[][] vectors = new float[500][8];
+        final HnswGraph graph = new HnswGraph( DistanceFunctions::l2SquaredMetric, 16, 100, 42 );
+        for ( int i = 0; i < vectors.length; i++ ) {
+            for ( int j = 0; j < vectors[i].length; j++ ) {
+                vectors[i][j] = random.nextFloat();
+            }
+            graph.insert( List.of( i ), vectors[i] );
+        }
+        Assert.assertEquals( 500, graph.size() );
+        Assert.assertEquals( 8, graph.getDimension() );
+
+        int found = 0;
+        for ( int q = 0; q < 20; q++ ) {
+            final float[] query = vectors[random.nextInt( vectors.length )].clone();
+            query[0] += 0.01f;
+            final Set<Integer> exact = IntStream.range( 0, vectors.length ).boxed()
+                    .sorted( Comparator.comparingDouble( i -> DistanceFunctions.l2SquaredMetric( query, vectors[i] ) ) )
+                    .limit( 10 )
+                    .collect( Collectors.toSet() );
+            final List<HnswGraph.Neighbour> neighbours = graph.search( query, 10, 64 );
+            Assert.assertEquals( 10, neighbours.size() );
+            for ( int i = 1; i < neighbours.size(); i++ ) {
+                // nearest first
+                Assert.assertTrue( neighbours.get( i - 1 ).distance <= neighbours.get( i ).distance );
+            }
+            found += (int) neighbours.stream().filter( n -> exact.contains( (Integer) n.getPrimary().get( 0 ) ) ).count();
+        }
+        Assert.assertTrue( "Recall too low: " + found / 200.0, found >= 180 );
+
+        // deleted vectors are never returned
+        final Set<Object> deleted = new HashSet<>();
+        for ( int i = 0; i < 300; i++ ) {
+            graph.delete( List.of( i ) );
+            deleted.add( i );
+        }
+        Assert.assertEquals( 200, graph.size() );
+        Assert.assertTrue( graph.search( vectors[0], 10, 64 ).stream().noneMatch( n -> deleted.contains( n.getPrimary().get( 0 ) ) ) );
+    }
+
+
+    @Test
+    public void testCopyOnWriteIsolation() {
+        CowHnswIndex idx = index();
+        idx.insertAll( List.of( tuple( 1, 0.0, 0.0 ), tuple( 2, 1.0, 0.0 ), tuple( 3, 2.0, 0.0 ), tuple( 4, 3.0, 0.0 ) ) );
+        PolyXid xid1 = xid();
+        PolyXid xid2 = xid();
+        List<Double> query = List.of( 0.9, 0.0 );
+        Assert.assertEquals( List.of( 2, 1 ), ids( idx.lookup( xid1, query, 2, 16 ) ) );
+
+        // Moves row 1 next to the query and deletes row 2
+        idx.deleteAllPrimary( xid1, List.of( tuple( 1, 0.0, 0.0 ), tuple( 2, 1.0, 0.0 ) ) );
+        idx.insertAll( xid1, List.of( tuple( 1, 0.8, 0.0 ) ) );
+        // Not visible before the barrier
+        Assert.assertEquals( List.of( 2, 1 ), ids( idx.lookup( xid1, query, 2, 16 ) ) );
+        idx.barrier( xid1 );
+        Assert.assertEquals( List.of( 1, 3 ), ids( idx.lookup( xid1, query, 2, 16 ) ) );
+        Assert.assertTrue( idx.contains( xid1, List.<Object>of( List.of( 0.8, 0.0 ) ) ) );
+        Assert.assertFalse( idx.contains( xid1, List.<Object>of( List.of( 1.0, 0.0 ) ) ) );
+        Assert.assertEquals( List.of( 2, 1 ), ids( idx.lookup( xid2, query, 2, 16 ) ) );
+
+        idx.commit( xid1 );
+        Assert.assertEquals( List.of( 1, 3 ), ids( idx.lookup( xid2, query, 2, 16 ) ) );
+        Assert.assertEquals( 3, idx.size() );
+
+        // Rows without a vector are not indexed
+        idx.insertAll( xid2, List.of( Pair.of( Collections.<Object>singletonList( null ), List.<Object>of( 5 ) ) ) );
+        idx.barrier( xid2 );
+        Assert.assertEquals( List.of( 1, 3, 4 ), ids( idx.lookup( xid2, query, 5, 16 ) ) );
+        idx.rollback( xid2 );
+    }
+
+
+    @Test
+    public void testDoesNotProvideValues() {
+        CowHnswIndex idx = index();
+        idx.insertAll( List.of( tuple( 1, 0.0, 0.0 ) ) );
+        // The index manager must never use the index to replace a scan
+        Assert.assertFalse( idx.providesValues() );
+        try {
+            idx.getAsValues( xid(), null, null );
+            Assert.fail( "HNSW indexes must reject getAsValues" );
+        } catch ( UnsupportedOperationException e ) {
+            // expected
+        }
+    }
+
+
+    @Test(expected = RuntimeException.class)
+    public void testDimensionMismatch() {
+        CowHnswIndex idx = index();
+        idx.insertAll( List.of( tuple( 1, 0.0, 0.0 ) ) );
+        idx.insertAll( xid(), List.of( tuple( 2, 0.0, 0.0, 0.0 ) ) );
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Linq4j;
+import org.junit.Test;
+import org.polypheny.db.algebra.constant.Kind;
+import org.polypheny.db.runtime.vector.ColumnBatch;
+import org.polypheny.db.runtime.vector.ColumnBatches;
+import org.polypheny.db.type.PolyType;
+
+
+/**
+ * Unit tests for {@link ColumnBatches}.
+ */
+public class ColumnBatchesTest {
+
+    private static final List<PolyType> TYPES = List.of( PolyType.INTEGER, PolyType.DOUBLE, PolyType.VARCHAR );
+
+
+    private static Enumerable<Object[]> rows( int count ) {
+        List<Object[]> rows = new ArrayList<>();
+        for ( int i = 0; i < count; i++ ) {
+            rows.add( new Object[]{ i, i % 3 == 0 ? null : i * 0.5, "r" + i } );
+        }
+        return Linq4j.asEnumerable( rows );
+    }
+
+
+    @Test
+    public void testRoundTrip() {
+        List<ColumnBatch> batches = ColumnBatches.toBatches( rows( 10 ), TYPES, 4 ).toList();
+        assertEquals( 3, batches.size() );
+        assertEquals( 2, batches.get( 2 ).getSize() );
+
+        List<Object[]> result = ColumnBatches.toRows( Linq4j.asEnumerable( batches ) ).toList();
+        List<Object[]> expected = rows( 10 ).toList();
+        assertEquals( expected.size(), result.size() );
+        for ( int i = 0; i < expected.size(); i++ ) {
+            assertArrayEquals( expected.get( i ), result.get( i ) );
+        }
+    }
+
+
+    @Test
+    public void testEmptyInput() {
+        assertEquals( 0, ColumnBatches.toBatches( rows( 0 ), TYPES, 4 ).count() );
+        assertEquals( 0, ColumnBatches.toRows( ColumnBatches.toBatches( rows( 0 ), TYPES, 4 ) ).count() );
+    }
+
+
+    @Test
+    public void testFilterAndAggregate() {
+        ColumnBatch batch = ColumnBatches.toBatches( rows( 10 ), TYPES, 16 ).first();
+        ColumnBatches.filter( batch, 0, Kind.GREATER_THAN_OR_EQUAL, 4L );
+        assertEquals( 6, batch.getSelectedCount() );
+        assertEquals( 4 + 5 + 6 + 7 + 8 + 9, ColumnBatches.sumLong( batch, 0 ) );
+        // rows 6 and 9 have a null double value
+        assertEquals( 4, ColumnBatches.count( batch, 1 ) );
+
+        ColumnBatches.filter( batch, 1, Kind.LESS_THAN, 4.0 );
+        assertEquals( 3, batch.getSelectedCount() );
+        assertEquals( 2.0 + 2.5 + 3.5, ColumnBatches.sumDouble( batch, 1 ), 0.0 );
+        assertArrayEquals( new Object[]{ 7, 3.5, "r7" }, batch.row( 2 ) );
+    }
+
+
+    @Test
+    public void testFilterEnumerable() {
+        Enumerable<ColumnBatch> batches = ColumnBatches.filter(
+                ColumnBatches.toBatches( rows( 10 ), TYPES, 4 ),
+                new int[]{ 0, 1 },
+                new Kind[]{ Kind.GREATER_THAN, Kind.LESS_THAN_OR_EQUAL },
+                () -> new Object[]{ 1, 3.5 } );
+        List<Object[]> result = ColumnBatches.toRows( batches ).toList();
+        // rows 3 and 6 have a null double value
+        assertEquals( 4, result.size() );
+        assertArrayEquals( new Object[]{ 2, 1.0, "r2" }, result.get( 0 ) );
+        assertArrayEquals( new Object[]{ 4, 2.0, "r4" }, result.get( 1 ) );
+        assertArrayEquals( new Object[]{ 5, 2.5, "r5" }, result.get( 2 ) );
+        assertArrayEquals( new Object[]{ 7, 3.5, "r7" }, result.get( 3 ) );
+    }
+
+
+    @Test
+    public void testFilterNullValue() {
+        Enumerable<ColumnBatch> batches = ColumnBatches.filter(
+                ColumnBatches.toBatches( rows( 10 ), TYPES, 4 ),
+                new int[]{ 0 },
+                new Kind[]{ Kind.NOT_EQUALS },
+                () -> new Object[]{ null } );
+        assertEquals( 0, ColumnBatches.toRows( batches ).count() );
+    }
+
+
+    @Test
+    public void testProject() {
+        Enumerable<ColumnBatch> batches = ColumnBatches.project(
+                ColumnBatches.filter(
+                        ColumnBatches.toBatches( rows( 10 ), TYPES, 4 ),
+                        new int[]{ 0 },
+                        new Kind[]{ Kind.GREATER_THAN_OR_EQUAL },
+                        () -> new Object[]{ 8L } ),
+                new int[]{ 2, 0 } );
+        List<Object[]> result = ColumnBatches.toRows( batches ).toList();
+        assertEquals( 2, result.size() );
+        assertArrayEquals( new Object[]{ "r8", 8 }, result.get( 0 ) );
+        assertArrayEquals( new Object[]{ "r9", 9 }, result.get( 1 ) );
+    }
+
+
+    @Test
+    public void testAggregate() {
+        Object[] row = ColumnBatches.aggregate(
+                ColumnBatches.toBatches( rows( 10 ), TYPES, 4 ),
+                new Kind[]{ Kind.COUNT, Kind.COUNT, Kind.SUM, Kind.MIN, Kind.MAX, Kind.SUM },
+                new int[]{ -1, 1, 0, 1, 1, 1 },
+                new PolyType[]{ PolyType.BIGINT, PolyType.BIGINT, PolyType.INTEGER, PolyType.DOUBLE, PolyType.DOUBLE, PolyType.DOUBLE } ).single();
+        // rows 0, 3, 6 and 9 have a null double value
+        assertArrayEquals( new Object[]{ 10L, 6L, 45, 0.5, 4.0, 0.5 * (1 + 2 + 4 + 5 + 7 + 8) }, row );
+    }
+
+
+    @Test
+    public void testAggregateEmptyInput() {
+        Object[] row = ColumnBatches.aggregate(
+                ColumnBatches.toBatches( rows( 0 ), TYPES, 4 ),
+                new Kind[]{ Kind.COUNT, Kind.SUM, Kind.SUM0, Kind.MAX },
+                new int[]{ -1, 0, 0, 1 },
+                new PolyType[]{ PolyType.BIGINT, PolyType.INTEGER, PolyType.INTEGER, PolyType.DOUBLE } ).single();
+        assertArrayEquals( new Object[]{ 0L, null, 0, null }, row );
+    }
+
+}
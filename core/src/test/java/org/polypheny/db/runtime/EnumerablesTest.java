@@ -41,6 +41,7 @@
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.EnumerableDefaults;
@@ -222,6 +223,24 @@ public void testThetaFullJoinBothEmpty() {
     }
 
 
+    @Test
+    public void testOrderByLimit() {
+        // equal keys keep their order like in a stable sort
+        assertThat(
+                Enumerables.orderByLimit( EMPS, e -> e.deptno, null, 0, 2 ).toList().toString(),
+                equalTo( "[Emp(10, Fred), Emp(20, Theodore)]" ) );
+        assertThat(
+                Enumerables.orderByLimit( EMPS, e -> e.deptno, Comparator.<Integer>reverseOrder(), 1, 2 ).toList().toString(),
+                equalTo( "[Emp(20, Theodore), Emp(20, Sebastian)]" ) );
+        assertThat(
+                Enumerables.orderByLimit( EMPS, e -> e.name, null, 2, 10 ).toList().toString(),
+                equalTo( "[Emp(20, Sebastian), Emp(20, Theodore)]" ) );
+        assertThat(
+                Enumerables.orderByLimit( EMPS, e -> e.deptno, null, 0, 0 ).toList().toString(),
+                equalTo( "[]" ) );
+    }
+
+
     /**
      * Employee record.
      */
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.linq4j.function.Function0;
+import org.junit.Test;
+
+
+/**
+ * Unit tests for {@link ParallelEnumerables}.
+ */
+public class ParallelEnumerablesTest {
+
+    private static List<Function0<Enumerable<Object>>> branches( int count, Set<String> threads ) {
+        List<Function0<Enumerable<Object>>> branches = new ArrayList<>();
+        for ( int i = 0; i < count; i++ ) {
+            final int branch = i;
+            branches.add( () -> {
+                threads.add( Thread.currentThread().getName() );
+                return Linq4j.asEnumerable( List.of( branch * 10, branch * 10 + 1 ) );
+            } );
+        }
+        return branches;
+    }
+
+
+    @Test
+    public void testGatherKeepsBranchOrder() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Object> result = ParallelEnumerables.gather( 3, branches( 5, threads ), 1 ).toList();
+        assertEquals( List.of( 0, 1, 10, 11, 20, 21, 30, 31, 40, 41 ), result );
+        assertFalse( threads.contains( Thread.currentThread().getName() ) );
+    }
+
+
+    @Test
+    public void testSequentialFallback() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Object> result = ParallelEnumerables.gather( 1, branches( 2, threads ), 1 ).toList();
+        assertEquals( List.of( 0, 1, 10, 11 ), result );
+        assertEquals( Set.of( Thread.currentThread().getName() ), threads );
+    }
+
+
+    @Test
+    public void testGatherStreams() {
+        List<Function0<Enumerable<Object>>> branches = new ArrayList<>();
+        branches.add( ParallelEnumerablesTest::endless );
+        branches.addAll( branches( 2, ConcurrentHashMap.newKeySet() ) );
+        // the first branch never ends, its rows have to be handed over before it is finished
+        assertEquals( List.of( 0, 1, 2 ), ParallelEnumerables.gather( 2, branches, 2 ).take( 3 ).toList() );
+    }
+
+
+    @Test
+    public void testGatherReset() {
+        try ( Enumerator<Object> enumerator = ParallelEnumerables.gather( 2, branches( 3, ConcurrentHashMap.newKeySet() ), 1 ).enumerator() ) {
+            assertTrue( enumerator.moveNext() );
+            assertTrue( enumerator.moveNext() );
+            enumerator.reset();
+            List<Object> result = new ArrayList<>();
+            while ( enumerator.moveNext() ) {
+                result.add( enumerator.current() );
+            }
+            assertEquals( List.of( 0, 1, 10, 11, 20, 21 ), result );
+        }
+    }
+
+
+    /**
+     * Returns an enumerable which counts upwards until its enumerator is closed.
+     */
+    private static Enumerable<Object> endless() {
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<Object> enumerator() {
+                return new Enumerator<>() {
+                    private int current = -1;
+
+
+                    @Override
+                    public Object current() {
+                        return current;
+                    }
+
+
+                    @Override
+                    public boolean moveNext() {
+                        current++;
+                        return true;
+                    }
+
+
+                    @Override
+                    public void reset() {
+                        current = -1;
+                    }
+
+
+                    @Override
+                    public void close() {
+                        // nothing to release
+                    }
+                };
+            }
+        };
+    }
+
+
+    @Test
+    public void testPrefetchReturnsAllRows() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        // a prefetch size smaller than the branch size forces the producers to block
+        List<Object> result = ParallelEnumerables.prefetch( branches( 4, threads ), 1 ).toList();
+        assertEquals( Set.of( 0, 1, 10, 11, 20, 21, 30, 31 ), new HashSet<>( result ) );
+        assertEquals( 8, result.size() );
+        assertFalse( threads.contains( Thread.currentThread().getName() ) );
+    }
+
+
+    @Test(expected = IllegalStateException.class)
+    public void testPrefetchPropagatesFailures() {
+        List<Function0<Enumerable<Object>>> branches = branches( 2, ConcurrentHashMap.newKeySet() );
+        branches.add( () -> {
+            throw new IllegalStateException( "failing branch" );
+        } );
+        ParallelEnumerables.prefetch( branches, 10 ).toList();
+    }
+
+
+    @Test
+    public void testPrefetchCloseDoesNotInterrupt() {
+        final AtomicBoolean interrupted = new AtomicBoolean( false );
+        List<Function0<Enumerable<Object>>> branches = new ArrayList<>();
+        branches.add( () -> endless().select( row -> {
+            interrupted.compareAndSet( false, Thread.currentThread().isInterrupted() );
+            return row;
+        } ) );
+        branches.addAll( branches( 1, ConcurrentHashMap.newKeySet() ) );
+        try ( Enumerator<Object> enumerator = ParallelEnumerables.prefetch( branches, 1 ).enumerator() ) {
+            for ( int i = 0; i < 10; i++ ) {
+                assertTrue( enumerator.moveNext() );
+            }
+        }
+        // close waits for the workers, they must not have been interrupted
+        assertFalse( interrupted.get() );
+    }
+
+
+    @Test
+    public void testPrefetchReset() {
+        try ( Enumerator<Object> enumerator = ParallelEnumerables.prefetch( branches( 3, ConcurrentHashMap.newKeySet() ), 1 ).enumerator() ) {
+            assertTrue( enumerator.moveNext() );
+            enumerator.reset();
+            Set<Object> result = new HashSet<>();
+            int count = 0;
+            while ( enumerator.moveNext() ) {
+                result.add( enumerator.current() );
+                count++;
+            }
+            assertEquals( Set.of( 0, 1, 10, 11, 20, 21 ), result );
+            assertEquals( 6, count );
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Pattern;
+import org.junit.Test;
+import org.polypheny.db.runtime.PatternMatchers.LiteralPattern;
+import org.polypheny.db.runtime.PatternMatchers.LiteralPattern.Kind;
+
+
+/**
+ * Unit tests for {@link PatternMatchers}.
+ */
+public class PatternMatchersTest {
+
+    @Test
+    public void testLiteralPatterns() {
+        assertEquals( Kind.EQUALS, LiteralPattern.of( "abc", null ).kind );
+        assertEquals( Kind.PREFIX, LiteralPattern.of( "abc%", null ).kind );
+        assertEquals( Kind.SUFFIX, LiteralPattern.of( "%abc", null ).kind );
+        assertEquals( Kind.CONTAINS, LiteralPattern.of( "%abc%", null ).kind );
+        assertEquals( "abc", LiteralPattern.of( "%abc%", null ).literal );
+        assertEquals( Kind.ANY, LiteralPattern.of( "%", null ).kind );
+        assertEquals( Kind.ANY, LiteralPattern.of( "%%", null ).kind );
+        assertNull( LiteralPattern.of( "a_c", null ) );
+        assertNull( LiteralPattern.of( "a%c", null ) );
+        assertNull( LiteralPattern.of( "abc%", "\\" ) );
+    }
+
+
+    @Test
+    public void testLikeMatchesRegexTranslation() {
+        String[] patterns = { "abc", "abc%", "%abc", "%abc%", "%", "", "a_c", "a%c", "%.*%", "[a]%" };
+        String[] values = { "abc", "abcd", "xabc", "xabcx", "", "ac", "a.*c", "[a]bc", "ABC" };
+        for ( String pattern : patterns ) {
+            for ( String value : values ) {
+                assertEquals(
+                        pattern + " / " + value,
+                        Pattern.matches( Like.sqlToRegexLike( pattern, null ), value ),
+                        PatternMatchers.like( pattern, null ).test( value ) );
+            }
+        }
+    }
+
+
+    @Test
+    public void testSimilar() {
+        assertTrue( PatternMatchers.similar( "(a|b)%", null ).test( "bcd" ) );
+        assertFalse( PatternMatchers.similar( "(a|b)%", null ).test( "cd" ) );
+    }
+
+
+    @Test
+    public void testMatchersAreCached() {
+        assertSame( PatternMatchers.like( "a_c", null ), PatternMatchers.like( "a_c", null ) );
+        assertSame( PatternMatchers.regex( "a+", Pattern.DOTALL ), PatternMatchers.regex( "a+", Pattern.DOTALL ) );
+    }
+
+}
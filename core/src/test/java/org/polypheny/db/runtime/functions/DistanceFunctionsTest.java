@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.functions;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+
+/**
+ * Tests the kernels of the distance metrics.
+ */
+public class DistanceFunctionsTest {
+
+    private static final double DELTA = 1e-9;
+
+    private static final List<Number> VALUE = List.of( 1, 2.5, 3L );
+    private static final List<Number> TARGET = List.of( 2, 0.5, 3 );
+    private static final List<Number> WEIGHTS = List.of( 1, 2, 0.5 );
+
+
+    @Test
+    public void testMetrics() {
+        assertEquals( 3.0, Functions.distance( VALUE, TARGET, "L1" ), DELTA );
+        assertEquals( 5.0, Functions.distance( VALUE, TARGET, "L2SQUARED" ), DELTA );
+        assertEquals( Math.sqrt( 5.0 ), Functions.distance( VALUE, TARGET, "L2" ), DELTA );
+        assertEquals( 1.0 / 3 + 4.0 / 3, Functions.distance( VALUE, TARGET, "CHISQUARED" ), DELTA );
+        assertEquals( 1 - 12.25 / (Math.sqrt( 16.25 ) * Math.sqrt( 13.25 )), Functions.distance( VALUE, TARGET, "COSINE" ), DELTA );
+        assertEquals( 0.0, Functions.distance( VALUE, TARGET, "UNKNOWN" ), DELTA );
+
+        assertEquals( 5.0, Functions.distance( VALUE, TARGET, "L1", WEIGHTS ), DELTA );
+        assertEquals( 9.0, Functions.distance( VALUE, TARGET, "L2SQUARED", WEIGHTS ), DELTA );
+        // weighted cosine is the cosine of the weighted vectors
+        assertEquals( 1 - 9.25 / (Math.sqrt( 28.25 ) * Math.sqrt( 7.25 )), Functions.distance( VALUE, TARGET, "COSINE", WEIGHTS ), DELTA );
+    }
+
+
+    @Test
+    public void testKernelsMatchGenericDistance() {
+        double[] target = Functions.toVector( TARGET );
+        double[] weights = Functions.toVector( WEIGHTS );
+        assertEquals( Functions.distance( VALUE, TARGET, "L1" ), Functions.distanceL1( VALUE, target ), DELTA );
+        assertEquals( Functions.distance( VALUE, TARGET, "L2" ), Functions.distanceL2( VALUE, target ), DELTA );
+        assertEquals( Functions.distance( VALUE, TARGET, "L2SQUARED" ), Functions.distanceL2Squared( VALUE, target ), DELTA );
+        assertEquals( Functions.distance( VALUE, TARGET, "CHISQUARED" ), Functions.distanceChiSquared( VALUE, target ), DELTA );
+        assertEquals( Functions.distance( VALUE, TARGET, "COSINE" ), Functions.distanceCosine( VALUE, target ), DELTA );
+        assertEquals( Functions.distance( VALUE, TARGET, "L2", WEIGHTS ), Functions.distanceL2( VALUE, target, weights ), DELTA );
+        assertEquals( Functions.distance( VALUE, TARGET, "CHISQUARED", WEIGHTS ), Functions.distanceChiSquared( VALUE, target, weights ), DELTA );
+    }
+
+
+    @Test
+    public void testFloatKernels() {
+        float[] value = { 1f, 2.5f, 3f };
+        float[] target = { 2f, 0.5f, 3f };
+        double[] v = Functions.toVector( VALUE );
+        double[] t = Functions.toVector( TARGET );
+        assertEquals( DistanceFunctions.l1Metric( v, t ), DistanceFunctions.l1Metric( value, target ), DELTA );
+        assertEquals( DistanceFunctions.l2Metric( v, t ), DistanceFunctions.l2Metric( value, target ), DELTA );
+        assertEquals( DistanceFunctions.chiSquaredMetric( v, t ), DistanceFunctions.chiSquaredMetric( value, target ), DELTA );
+        assertEquals( DistanceFunctions.cosineMetric( v, t ), DistanceFunctions.cosineMetric( value, target ), DELTA );
+    }
+
+
+    @Test
+    public void testConstantVectorsAreConvertedOnce() {
+        List<Number> target = new ArrayList<>( TARGET );
+        assertSame( DistanceFunctions.toVector( target ), DistanceFunctions.toVector( target ) );
+        assertArrayEquals( new double[]{ 2, 0.5, 3 }, DistanceFunctions.toVector( new ArrayList<>( TARGET ) ), DELTA );
+    }
+
+
+    @Test(expected = RuntimeException.class)
+    public void testSizeMismatch() {
+        Functions.distance( List.of( 1, 2 ), TARGET, "L2" );
+    }
+
+
+    @Test(expected = RuntimeException.class)
+    public void testNoNumbers() {
+        Functions.distance( List.of( "a", "b", "c" ), TARGET, "L2" );
+    }
+
+}
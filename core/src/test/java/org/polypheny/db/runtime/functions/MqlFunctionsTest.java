@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.runtime.functions;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+
+/**
+ * Tests the retrieval of values from documents stored as JSON.
+ */
+public class MqlFunctionsTest {
+
+    private static final String DOCUMENT = "{\"name\": \"Ada\", \"address\": {\"city\": \"Basel\", \"zip\": 4051}, \"tags\": [\"a\", {\"b\": 2}]}";
+
+
+    @Test
+    public void testQueryValue() {
+        assertEquals( "Ada", MqlFunctions.docQueryValue( DOCUMENT, List.of( "name" ) ) );
+        assertEquals( 4051, MqlFunctions.docQueryValue( DOCUMENT, List.of( "address", "zip" ) ) );
+        assertEquals( "a", MqlFunctions.docQueryValue( DOCUMENT, List.of( "tags", "0" ) ) );
+        assertEquals( 2, MqlFunctions.docQueryValue( DOCUMENT, List.of( "tags", "1", "b" ) ) );
+        assertEquals( Map.of( "city", "Basel", "zip", 4051 ), MqlFunctions.docQueryValue( DOCUMENT, List.of( "address" ) ) );
+
+        assertNull( MqlFunctions.docQueryValue( DOCUMENT, List.of( "unknown" ) ) );
+        assertNull( MqlFunctions.docQueryValue( DOCUMENT, List.of( "name", "first" ) ) );
+        assertNull( MqlFunctions.docQueryValue( DOCUMENT, List.of( "tags", "2" ) ) );
+        assertNull( MqlFunctions.docQueryValue( "no document", List.of( "name" ) ) );
+    }
+
+
+    @Test
+    public void testQueryValueWithBooleanAndNull() {
+        String document = "{\"a\": {\"b\": true, \"c\": null}}";
+        Map<String, Object> expected = new HashMap<>();
+        expected.put( "b", true );
+        expected.put( "c", null );
+        assertEquals( expected, MqlFunctions.docQueryValue( document, List.of( "a" ) ) );
+        assertEquals( true, MqlFunctions.docQueryValue( document, List.of( "a", "b" ) ) );
+        assertNull( MqlFunctions.docQueryValue( document, List.of( "a", "c" ) ) );
+        assertTrue( MqlFunctions.docExists( document, List.of( "a", "c" ) ) );
+    }
+
+
+    @Test
+    public void testExists() {
+        assertTrue( MqlFunctions.docExists( DOCUMENT, List.of( "address", "city" ) ) );
+        assertFalse( MqlFunctions.docExists( DOCUMENT, List.of( "address", "street" ) ) );
+        assertFalse( MqlFunctions.docExists( DOCUMENT, List.of( "name", "first" ) ) );
+    }
+
+
+    @Test
+    public void testParsedOncePerDocument() {
+        assertSame( LazyDocuments.parse( DOCUMENT ), LazyDocuments.parse( DOCUMENT ) );
+        // an equal document of another row is parsed again
+        String other = new String( DOCUMENT );
+        assertEquals( LazyDocuments.parse( DOCUMENT ), LazyDocuments.parse( other ) );
+        assertNull( LazyDocuments.parse( "no document" ) );
+    }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.schema.graph;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.polypheny.db.runtime.PolyCollections.PolyDictionary;
+import org.polypheny.db.runtime.PolyCollections.PolyMap;
+import org.polypheny.db.schema.graph.PolyEdge.EdgeDirection;
+import org.polypheny.db.util.Pair;
+
+
+public class PolyGraphIndexTest {
+
+    private static PolyNode node( String id, String label ) {
+        return new PolyNode( id, new PolyDictionary(), List.of( label ), null );
+    }
+
+
+    private static PolyEdge edge( String id, String label, String source, String target ) {
+        return new PolyEdge( id, new PolyDictionary(), List.of( label ), source, target, EdgeDirection.LEFT_TO_RIGHT, null );
+    }
+
+
+    /**
+     * (a:Person)-[:KNOWS]->(b:Person), (b)-[:KNOWS]->(a), (a)-[:LIVES]->(c:City)
+     */
+    private static PolyGraph graph() {
+        PolyMap<String, PolyNode> nodes = new PolyMap<>();
+        nodes.put( "a", node( "a", "Person" ) );
+        nodes.put( "b", node( "b", "Person" ) );
+        nodes.put( "c", node( "c", "City" ) );
+        PolyMap<String, PolyEdge> edges = new PolyMap<>();
+        edges.put( "ab", edge( "ab", "KNOWS", "a", "b" ) );
+        edges.put( "ba", edge( "ba", "KNOWS", "b", "a" ) );
+        edges.put( "ac", edge( "ac", "LIVES", "a", "c" ) );
+        // dangling edge, its target is not part of the graph
+        edges.put( "ax", edge( "ax", "LIVES", "a", "x" ) );
+        return new PolyGraph( nodes, edges );
+    }
+
+
+    /**
+     * Builds a pattern of alternating nodes and edges, e.g. <code>(n0)-[e0]->(n1)</code>.
+     */
+    private static PolyPath pattern( List<String> nodeLabels, List<String> edgeLabels, EdgeDirection direction ) {
+        List<PolyNode> nodes = new ArrayList<>();
+        List<PolyEdge> edges = new ArrayList<>();
+        List<GraphPropertyHolder> path = new ArrayList<>();
+        for ( int i = 0; i < nodeLabels.size(); i++ ) {
+            PolyNode node = new PolyNode( new PolyDictionary(), labels( nodeLabels.get( i ) ), "n" + i );
+            nodes.add( node );
+            path.add( node );
+            if ( i < edgeLabels.size() ) {
+                PolyEdge edge = new PolyEdge( new PolyDictionary(), labels( edgeLabels.get( i ) ), null, null, direction, "e" + i );
+                edges.add( edge );
+                path.add( edge );
+            }
+        }
+        return new PolyPath( nodes, edges, Collections.nCopies( path.size(), null ), path, null );
+    }
+
+
+    private static List<String> labels( String label ) {
+        return label == null ? List.of() : List.of( label );
+    }
+
+
+    private static List<String> ids( PolyPath path ) {
+        return path.getPath().stream().map( e -> e.id ).collect( Collectors.toList() );
+    }
+
+
+    @Test
+    public void testNodeMatch() {
+        PolyGraph graph = graph();
+        assertEquals( 2, graph.extract( new PolyNode( new PolyDictionary(), List.of( "Person" ), "n" ) ).size() );
+        assertEquals( 3, graph.extract( new PolyNode( new PolyDictionary(), List.of(), "n" ) ).size() );
+        assertEquals( 0, graph.extract( new PolyNode( new PolyDictionary(), List.of( "Unknown" ), "n" ) ).size() );
+    }
+
+
+    @Test
+    public void testDirectedPath() {
+        List<PolyPath> paths = graph().extract( pattern( List.of( "Person", "Person" ), List.of( "KNOWS" ), EdgeDirection.LEFT_TO_RIGHT ) );
+        List<List<String>> ids = paths.stream().map( PolyGraphIndexTest::ids ).collect( Collectors.toList() );
+        assertEquals( 2, ids.size() );
+        assertTrue( ids.contains( List.of( "a", "ab", "b" ) ) );
+        assertTrue( ids.contains( List.of( "b", "ba", "a" ) ) );
+
+        assertEquals( 0, graph().extract( pattern( List.of( "City", "Person" ), List.of( "LIVES" ), EdgeDirection.LEFT_TO_RIGHT ) ).size() );
+        assertEquals( 1, graph().extract( pattern( List.of( "City", "Person" ), List.of( "LIVES" ), EdgeDirection.RIGHT_TO_LEFT ) ).size() );
+    }
+
+
+    @Test
+    public void testUndirectedPath() {
+        // every fitting path is matched once in each direction, the dangling edge is never matched
+        List<PolyPath> paths = graph().extract( pattern( Collections.nCopies( 2, null ), List.of( "LIVES" ), EdgeDirection.NONE ) );
+        List<List<String>> ids = paths.stream().map( PolyGraphIndexTest::ids ).collect( Collectors.toList() );
+        assertEquals( 2, ids.size() );
+        assertTrue( ids.contains( List.of( "a", "ac", "c" ) ) );
+        assertTrue( ids.contains( List.of( "c", "ac", "a" ) ) );
+    }
+
+
+    @Test
+    public void testEdgesAreUsedOnce() {
+        // (a)->(b)->(a) uses two different edges, (a)->(b)->(a)->(b) would have to use one edge twice
+        PolyPath twoHops = pattern( Collections.nCopies( 3, null ), List.of( "KNOWS", "KNOWS" ), EdgeDirection.LEFT_TO_RIGHT );
+        assertEquals( 2, graph().extract( twoHops ).size() );
+        PolyPath threeHops = pattern( Collections.nCopies( 4, null ), List.of( "KNOWS", "KNOWS", "KNOWS" ), EdgeDirection.LEFT_TO_RIGHT );
+        assertEquals( 0, graph().extract( threeHops ).size() );
+    }
+
+
+    @Test
+    public void testVariableNames() {
+        PolyPath path = graph().extract( pattern( List.of( "Person", "City" ), List.of( "LIVES" ), EdgeDirection.LEFT_TO_RIGHT ) ).get( 0 );
+        List<String> names = path.getPath().stream().map( GraphObject::getVariableName ).collect( Collectors.toList() );
+        assertEquals( List.of( "n0", "e0", "n1" ), names );
+    }
+
+
+    @Test
+    public void testVariableLength() {
+        PolyPath pattern = pattern( List.of( "Person", "Person" ), List.of( "KNOWS" ), EdgeDirection.LEFT_TO_RIGHT );
+        pattern.getEdges().get( 0 ).fromTo( Pair.of( 1, 2 ) );
+        List<PolyPath> paths = graph().extract( pattern );
+        List<List<String>> ids = paths.stream().map( PolyGraphIndexTest::ids ).collect( Collectors.toList() );
+        assertEquals( 4, ids.size() );
+        assertTrue( ids.contains( List.of( "a", "ab", "b" ) ) );
+        assertTrue( ids.contains( List.of( "a", "ab", "b", "ba", "a" ) ) );
+        assertTrue( ids.contains( List.of( "b", "ba", "a" ) ) );
+        assertTrue( ids.contains( List.of( "b", "ba", "a", "ab", "b" ) ) );
+
+        // nodes inside of the relationship are not named
+        PolyPath path = paths.stream().filter( p -> p.getEdges().size() == 2 ).findFirst().orElseThrow();
+        List<String> names = path.getPath().stream().map( GraphObject::getVariableName ).collect( Collectors.toList() );
+        assertEquals( Arrays.asList( "n0", "e0", null, "e0", "n1" ), names );
+
+        // unbounded, but every edge is only used once
+        pattern.getEdges().get( 0 ).fromTo( Pair.of( 1, null ) );
+        assertEquals( 4, graph().extract( pattern ).size() );
+    }
+
+
+    /**
+     * (s:Start)-&gt;(a:Stop)-&gt;(e:End), (s)-&gt;(b:Stop)-&gt;(e), (e)-&gt;(s)
+     */
+    private static PolyGraph routes() {
+        PolyMap<String, PolyNode> nodes = new PolyMap<>();
+        nodes.put( "s", node( "s", "Start" ) );
+        nodes.put( "a", node( "a", "Stop" ) );
+        nodes.put( "b", node( "b", "Stop" ) );
+        nodes.put( "e", node( "e", "End" ) );
+        PolyMap<String, PolyEdge> edges = new PolyMap<>();
+        edges.put( "sa", edge( "sa", "ROUTE", "s", "a" ) );
+        edges.put( "ae", edge( "ae", "ROUTE", "a", "e" ) );
+        edges.put( "sb", edge( "sb", "ROUTE", "s", "b" ) );
+        edges.put( "be", edge( "be", "ROUTE", "b", "e" ) );
+        edges.put( "es", edge( "es", "ROUTE", "e", "s" ) );
+        return new PolyGraph( nodes, edges );
+    }
+
+
+    @Test
+    public void testShortestPath() {
+        PolyPath pattern = pattern( List.of( "Start", "End" ), List.of( "ROUTE" ), EdgeDirection.LEFT_TO_RIGHT );
+        pattern.getEdges().get( 0 ).fromTo( Pair.of( 1, null ) );
+
+        List<PolyPath> shortest = new ArrayList<>();
+        routes().getIndex().matchShortest( pattern, false ).forEach( shortest::add );
+        assertEquals( 1, shortest.size() );
+        assertEquals( 2, shortest.get( 0 ).getEdges().size() );
+
+        List<List<String>> all = new ArrayList<>();
+        routes().getIndex().matchShortest( pattern, true ).forEach( p -> all.add( ids( p ) ) );
+        assertEquals( 2, all.size() );
+        assertTrue( all.contains( List.of( "s", "sa", "a", "ae", "e" ) ) );
+        assertTrue( all.contains( List.of( "s", "sb", "b", "be", "e" ) ) );
+
+        // without direction the edge back to the start is the shortest path
+        PolyPath undirected = pattern( List.of( "Start", "End" ), List.of( "ROUTE" ), EdgeDirection.NONE );
+        undirected.getEdges().get( 0 ).fromTo( Pair.of( 1, null ) );
+        List<List<String>> back = new ArrayList<>();
+        routes().getIndex().matchShortest( undirected, true ).forEach( p -> back.add( ids( p ) ) );
+        assertEquals( List.of( List.of( "s", "es", "e" ) ), back );
+
+        // too short
+        pattern.getEdges().get( 0 ).fromTo( Pair.of( 1, 1 ) );
+        assertFalse( routes().getIndex().matchShortest( pattern, true ).iterator().hasNext() );
+    }
+
+
+    @Test
+    public void testIndexIsCached() {
+        PolyGraph graph = graph();
+        assertSame( graph.getIndex(), graph.getIndex() );
+    }
+
+}
@@ -38,6 +38,8 @@
 import org.polypheny.db.adapter.DataSource.ExportedColumn;
 import org.polypheny.db.adapter.DataStore;
 import org.polypheny.db.adapter.DataStore.AvailableIndexMethod;
+import org.polypheny.db.adapter.index.CowDocumentIndex;
+import org.polypheny.db.adapter.index.CowHnswIndex;
 import org.polypheny.db.adapter.index.IndexManager;
 import org.polypheny.db.algebra.AlgCollation;
 import org.polypheny.db.algebra.AlgNode;
@@ -767,6 +769,20 @@ public void addPolyphenyIndex( CatalogTable catalogTable, String indexMethodName
             methodDisplayName = IndexManager.getDefaultIndexMethod().displayName;
         }
 
+        // Nearest-neighbour indexes are built over a single column holding vectors
+        if ( method.equals( CowHnswIndex.METHOD_L2 ) || method.equals( CowHnswIndex.METHOD_L1 ) || method.equals( CowHnswIndex.METHOD_COSINE ) ) {
+            if ( isUnique ) {
+                throw new RuntimeException( "HNSW indexes cannot be unique." );
+            }
+            if ( columnIds.size() != 1 ) {
+                throw new RuntimeException( "HNSW indexes can only be created on a single column." );
+            }
+            CatalogColumn catalogColumn = catalog.getColumn( columnIds.get( 0 ) );
+            if ( catalogColumn.collectionsType != PolyType.ARRAY || !PolyType.NUMERIC_TYPES.contains( catalogColumn.type ) ) {
+                throw new RuntimeException( "HNSW indexes can only be created on arrays of numbers." );
+            }
+        }
+
         long indexId = catalog.addIndex(
                 catalogTable.id,
                 columnIds,
@@ -781,6 +797,32 @@ public void addPolyphenyIndex( CatalogTable catalogTable, String indexMethodName
     }
 
 
+    @Override
+    public void addDocumentIndex( CatalogCollection catalogCollection, String path, String indexName, Statement statement ) throws GenericCatalogException, UnknownUserException, UnknownSchemaException, UnknownKeyException, UnknownDatabaseException, UnknownTableException, TransactionException, IndexExistsException {
+        indexName = indexName.toLowerCase();
+        CatalogCollectionMapping mapping = catalog.getCollectionMapping( catalogCollection.id );
+
+        // Check if there is already an index with this name for this collection
+        if ( catalog.checkIfExistsIndex( mapping.collectionId, indexName ) ) {
+            throw new IndexExistsException();
+        }
+
+        long indexId = catalog.addIndex(
+                mapping.collectionId,
+                List.of( mapping.dataId ),
+                false,
+                CowDocumentIndex.METHOD,
+                "DOCUMENT PATH",
+                0,
+                IndexType.MANUAL,
+                indexName );
+        // The polystore index has no physical counterpart, its physical name holds the indexed path
+        catalog.setIndexPhysicalName( indexId, path );
+
+        IndexManager.getInstance().addIndex( catalog.getIndex( indexId ), statement );
+    }
+
+
     @Override
     public void addDataPlacement( CatalogTable catalogTable, List<Long> columnIds, List<Integer> partitionGroupIds, List<String> partitionGroupNames, DataStore dataStore, Statement statement ) throws PlacementAlreadyExistsException {
         List<CatalogColumn> addedColumns = new LinkedList<>();
@@ -2328,6 +2370,10 @@ public void dropCollection( CatalogCollection catalogCollection, Statement state
     public void removeDocumentLogistics( CatalogCollection catalogCollection, Statement statement ) {
         CatalogCollectionMapping mapping = catalog.getCollectionMapping( catalogCollection.id );
         CatalogTable table = catalog.getTable( mapping.collectionId );
+        for ( CatalogIndex index : catalog.getIndexes( table.id, false ) ) {
+            IndexManager.getInstance().deleteIndex( index );
+            catalog.deleteIndex( index.id );
+        }
         catalog.deleteTable( table.id );
     }
 
@@ -40,6 +40,8 @@
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.avatica.Meta.CursorFactory;
 import org.apache.commons.lang3.time.StopWatch;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
 import org.polypheny.db.PolyImplementation;
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.adapter.DataContext.ParameterValue;
@@ -48,10 +50,13 @@
 import org.polypheny.db.adapter.enumerable.EnumerableCalc;
 import org.polypheny.db.adapter.enumerable.EnumerableConvention;
 import org.polypheny.db.adapter.enumerable.EnumerableInterpretable;
+import org.polypheny.db.adapter.index.CowDocumentIndex;
+import org.polypheny.db.adapter.index.CowHnswIndex;
 import org.polypheny.db.adapter.index.Index;
 import org.polypheny.db.adapter.index.IndexManager;
 import org.polypheny.db.algebra.AlgCollation;
 import org.polypheny.db.algebra.AlgCollations;
+import org.polypheny.db.algebra.AlgFieldCollation;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.AlgRoot;
 import org.polypheny.db.algebra.AlgShuttle;
@@ -67,18 +72,26 @@
 import org.polypheny.db.algebra.core.common.ConditionalExecute.Condition;
 import org.polypheny.db.algebra.core.common.ConstraintEnforcer;
 import org.polypheny.db.algebra.core.document.DocumentAlg;
+import org.polypheny.db.algebra.core.document.DocumentValues;
 import org.polypheny.db.algebra.core.lpg.LpgAlg;
+import org.polypheny.db.algebra.logical.common.LogicalBatchIterator;
 import org.polypheny.db.algebra.logical.common.LogicalConditionalExecute;
+import org.polypheny.db.algebra.logical.document.LogicalDocumentFilter;
 import org.polypheny.db.algebra.logical.document.LogicalDocumentModify;
+import org.polypheny.db.algebra.logical.document.LogicalDocumentProject;
+import org.polypheny.db.algebra.logical.document.LogicalDocumentScan;
+import org.polypheny.db.algebra.logical.document.LogicalDocumentValues;
 import org.polypheny.db.algebra.logical.lpg.LogicalLpgModify;
 import org.polypheny.db.algebra.logical.relational.LogicalModify;
 import org.polypheny.db.algebra.logical.relational.LogicalProject;
 import org.polypheny.db.algebra.logical.relational.LogicalScan;
+import org.polypheny.db.algebra.logical.relational.LogicalSort;
 import org.polypheny.db.algebra.logical.relational.LogicalValues;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.algebra.type.AlgDataTypeField;
 import org.polypheny.db.catalog.Catalog;
 import org.polypheny.db.catalog.Catalog.NamespaceType;
+import org.polypheny.db.catalog.entity.CatalogCollectionMapping;
 import org.polypheny.db.catalog.entity.CatalogSchema;
 import org.polypheny.db.catalog.entity.CatalogTable;
 import org.polypheny.db.catalog.exceptions.UnknownDatabaseException;
@@ -97,6 +110,7 @@
 import org.polypheny.db.monitoring.events.StatementEvent;
 import org.polypheny.db.partition.PartitionManagerFactory;
 import org.polypheny.db.plan.AlgOptCost;
+import org.polypheny.db.plan.AlgOptTable;
 import org.polypheny.db.plan.AlgOptUtil;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.plan.Convention;
@@ -111,6 +125,7 @@
 import org.polypheny.db.processing.shuttles.ParameterValueValidator;
 import org.polypheny.db.processing.shuttles.QueryParameterizer;
 import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexCall;
 import org.polypheny.db.rex.RexDynamicParam;
 import org.polypheny.db.rex.RexInputRef;
 import org.polypheny.db.rex.RexLiteral;
@@ -128,6 +143,7 @@
 import org.polypheny.db.routing.dto.CachedProposedRoutingPlan;
 import org.polypheny.db.routing.dto.ProposedRoutingPlanImpl;
 import org.polypheny.db.runtime.Bindable;
+import org.polypheny.db.runtime.Hook;
 import org.polypheny.db.runtime.Typed;
 import org.polypheny.db.schema.LogicalTable;
 import org.polypheny.db.schema.ModelTrait;
@@ -140,6 +156,7 @@
 import org.polypheny.db.transaction.EntityAccessMap.EntityIdentifier;
 import org.polypheny.db.transaction.Lock.LockMode;
 import org.polypheny.db.transaction.LockManager;
+import org.polypheny.db.transaction.PolyXid;
 import org.polypheny.db.transaction.Statement;
 import org.polypheny.db.transaction.TransactionImpl;
 import org.polypheny.db.type.PolyType;
@@ -358,6 +375,13 @@ private ProposedImplementations prepareQueryList( AlgRoot logicalRoot, AlgDataTy
             if ( RuntimeConfig.POLYSTORE_INDEXES_ENABLED.getBoolean() && RuntimeConfig.POLYSTORE_INDEXES_SIMPLIFY.getBoolean() ) {
                 indexLookupRoot = indexLookup( indexLookupRoot, statement );
             }
+
+            //
+            // Parameter Batches
+            if ( isParameterBatch( indexLookupRoot, statement ) ) {
+                // executed once for all parameter rows if the adapters bind the whole batch, otherwise once per row
+                indexLookupRoot = indexLookupRoot.withAlg( LogicalBatchIterator.create( indexLookupRoot.alg, statement ) );
+            }
             if ( isAnalyze ) {
                 statement.getProcessingDuration().stop( "Index Lookup Rewrite" );
                 statement.getProcessingDuration().start( "Routing" );
@@ -610,6 +634,16 @@ private void acquireLock( boolean isAnalyze, AlgRoot logicalRoot, Map<Integer, L
     }
 
 
+    /**
+     * Checks whether the given DML statement is executed with more than one row of parameters.
+     */
+    private static boolean isParameterBatch( AlgRoot root, Statement statement ) {
+        return root.kind.belongsTo( Kind.DML )
+                && statement.getDataContext().getParameterValues().size() > 1
+                && (root.alg instanceof LogicalModify || root.alg instanceof ConditionalExecute || root.alg instanceof ConstraintEnforcer);
+    }
+
+
     private AlgRoot indexUpdate( AlgRoot root, Statement statement, AlgDataType parameterRowType ) {
         if ( root.kind.belongsTo( Kind.DML ) ) {
             final AlgShuttle shuttle = new AlgShuttleImpl() {
@@ -617,7 +651,9 @@ private AlgRoot indexUpdate( AlgRoot root, Statement statement, AlgDataType para
                 @Override
                 public AlgNode visit( AlgNode node ) {
                     RexBuilder rexBuilder = new RexBuilder( statement.getTransaction().getTypeFactory() );
-                    if ( node instanceof LogicalModify ) {
+                    if ( node instanceof LogicalDocumentModify ) {
+                        documentIndexUpdate( (LogicalDocumentModify) node, statement, parameterRowType );
+                    } else if ( node instanceof LogicalModify ) {
                         final Catalog catalog = Catalog.getInstance();
                         final LogicalModify ltm = (LogicalModify) node;
                         final CatalogTable table;
@@ -683,6 +719,9 @@ public AlgNode visit( AlgNode node ) {
                                     );
                                     if ( fieldValue instanceof RexLiteral ) {
                                         rowValues.add( ((RexLiteral) fieldValue).getValue2() );
+                                    } else if ( fieldValue.isA( Kind.ARRAY_VALUE_CONSTRUCTOR ) && ((RexCall) fieldValue).operands.stream().allMatch( o -> o instanceof RexLiteral ) ) {
+                                        // Arrays, e.g. the vectors of nearest-neighbour indexes
+                                        rowValues.add( ((RexCall) fieldValue).operands.stream().map( o -> ((RexLiteral) o).getValue2() ).collect( Collectors.toList() ) );
                                     } else if ( fieldValue instanceof RexDynamicParam ) {
                                         //
                                         // TODO: This is dynamic parameter. We need to do the index update in the generated code!
@@ -910,6 +949,21 @@ public AlgNode visit( AlgNode node ) {
 
             };
             newRoot = newRoot.accept( shuttle );
+        } else {
+            final AlgShuttle nearestNeighbourShuttle = new AlgShuttleImpl() {
+
+                @Override
+                public AlgNode visit( LogicalSort sort ) {
+                    final AlgNode replacement = nearestNeighbourLookup( sort, builder, statement );
+                    if ( replacement != null ) {
+                        IndexManager.getInstance().incrementHit();
+                        return replacement;
+                    }
+                    return super.visit( sort );
+                }
+
+            };
+            newRoot = newRoot.accept( nearestNeighbourShuttle );
         }
         final AlgShuttle shuttle2 = new AlgShuttleImpl() {
 
@@ -978,10 +1032,316 @@ public AlgNode visit( AlgNode node ) {
 
         };
         newRoot = newRoot.accept( shuttle2 );
+        if ( logicalRoot.getModel() == ModelTrait.DOCUMENT && !logicalRoot.kind.belongsTo( Kind.DML ) ) {
+            final AlgShuttle shuttle3 = new AlgShuttleImpl() {
+
+                @Override
+                public AlgNode visit( LogicalDocumentFilter filter ) {
+                    if ( filter.getInput() instanceof LogicalDocumentScan && isCollection( ((LogicalDocumentScan) filter.getInput()).getCollection() ) ) {
+                        final List<BsonValue> documents = documentIndexLookup( filter.condition, (LogicalDocumentScan) filter.getInput(), statement );
+                        if ( documents == null ) {
+                            // No index available for the filtered paths
+                            IndexManager.getInstance().incrementNoIndex();
+                            return super.visit( filter );
+                        }
+                        // The filter is kept, as the index only narrows down the candidates
+                        IndexManager.getInstance().incrementHit();
+                        return LogicalDocumentFilter.create(
+                                LogicalDocumentValues.create( filter.getCluster(), ImmutableList.copyOf( documents ) ),
+                                filter.condition );
+                    }
+                    return super.visit( filter );
+                }
+
+            };
+            newRoot = newRoot.accept( shuttle3 );
+        }
         return AlgRoot.of( newRoot, logicalRoot.kind );
     }
 
 
+    /**
+     * Updates the document indexes of the modified collection with the removed and added documents.
+     */
+    private void documentIndexUpdate( LogicalDocumentModify modify, Statement statement, AlgDataType parameterRowType ) {
+        if ( !isCollection( modify.getCollection() ) ) {
+            // Only collections have document indexes
+            return;
+        }
+        final Catalog catalog = Catalog.getInstance();
+        final CatalogCollectionMapping mapping = catalog.getCollectionMapping( modify.getCollection().getTable().getTableId() );
+        final CatalogTable table = catalog.getTable( mapping.collectionId );
+        final List<Index> indices = IndexManager.getInstance().getIndices( catalog.getSchema( table.namespaceId ), table ).stream()
+                .filter( index -> index instanceof CowDocumentIndex )
+                .collect( Collectors.toList() );
+        if ( indices.isEmpty() ) {
+            // Nothing to do here
+            return;
+        }
+
+        final List<BsonDocument> removed = new ArrayList<>();
+        final List<BsonDocument> added = new ArrayList<>();
+        switch ( modify.operation ) {
+            case INSERT:
+                if ( modify.getInput() instanceof DocumentValues ) {
+                    ((DocumentValues) modify.getInput()).getDocumentTuples().forEach( document -> added.add( document.asDocument() ) );
+                } else {
+                    added.addAll( getDocuments( modify.getInput(), statement, parameterRowType ) );
+                }
+                break;
+            case UPDATE:
+                removed.addAll( getDocuments( modify.getInput(), statement, parameterRowType ) );
+                final AlgNode updated = LogicalDocumentProject.create(
+                        modify.getInput(),
+                        List.of( modify.getUpdates().get( 0 ) ),
+                        List.of( modify.getInput().getRowType().getFieldList().get( 0 ).getName() ) );
+                added.addAll( getDocuments( updated, statement, parameterRowType ) );
+                break;
+            case DELETE:
+                removed.addAll( getDocuments( modify.getInput(), statement, parameterRowType ) );
+                break;
+            default:
+                throw new RuntimeException( "Unknown update operation for document." );
+        }
+
+        final PolyXid xid = statement.getTransaction().getXid();
+        for ( final Index index : indices ) {
+            index.deleteAllPrimary( xid, getIndexTuples( removed ) );
+            index.insertAll( xid, getIndexTuples( added ) );
+        }
+    }
+
+
+    private List<BsonDocument> getDocuments( AlgNode query, Statement statement, AlgDataType parameterRowType ) {
+        final AlgRoot root = AlgRoot.of( query.accept( new DeepCopyShuttle() ), Kind.SELECT );
+        final PolyImplementation implementation = prepareQuery( root, parameterRowType, false, false, true );
+        return implementation.getRows( statement, -1 ).stream()
+                .map( row -> CowDocumentIndex.toDocument( row.get( 0 ) ) )
+                .collect( Collectors.toList() );
+    }
+
+
+    private List<Pair<List<Object>, List<Object>>> getIndexTuples( List<BsonDocument> documents ) {
+        return documents.stream()
+                .map( document -> Pair.<List<Object>, List<Object>>of( List.of( document ), List.of( CowDocumentIndex.getId( document ), document ) ) )
+                .collect( Collectors.toList() );
+    }
+
+
+    /**
+     * Looks up the candidates of a filter on a collection, if one of its conjunctions compares the value at an indexed
+     * path with a literal.
+     *
+     * @return the candidate documents or {@code null} if no index can be used
+     */
+    private List<BsonValue> documentIndexLookup( RexNode condition, LogicalDocumentScan scan, Statement statement ) {
+        final Catalog catalog = Catalog.getInstance();
+        final CatalogCollectionMapping mapping = catalog.getCollectionMapping( scan.getCollection().getTable().getTableId() );
+        final CatalogTable table = catalog.getTable( mapping.collectionId );
+        final CatalogSchema schema = catalog.getSchema( table.namespaceId );
+        final PolyXid xid = statement.getTransaction().getXid();
+
+        // Ranges over indexed paths are only used if there is no equality
+        final Map<CowDocumentIndex, DocumentRange> ranges = new LinkedHashMap<>();
+        for ( final RexNode node : AlgOptUtil.conjunctions( condition ) ) {
+            if ( !(node instanceof RexCall) || ((RexCall) node).operands.size() != 2 ) {
+                continue;
+            }
+            final RexCall call = (RexCall) node;
+            Kind kind = call.getKind();
+            List<String> path = getDocumentPath( call.operands.get( 0 ) );
+            RexNode value = call.operands.get( 1 );
+            if ( path == null ) {
+                path = getDocumentPath( call.operands.get( 1 ) );
+                value = call.operands.get( 0 );
+                kind = kind.reverse();
+            }
+            if ( path == null || !(value instanceof RexLiteral) ) {
+                continue;
+            }
+            final CowDocumentIndex index = IndexManager.getInstance().getDocumentIndex( schema, table, path );
+            if ( index == null ) {
+                continue;
+            }
+            final Comparable literal = ((RexLiteral) value).getValue();
+            switch ( kind ) {
+                case EQUALS:
+                    return index.lookup( xid, literal );
+                case GREATER_THAN:
+                case GREATER_THAN_OR_EQUAL:
+                    final DocumentRange lower = ranges.computeIfAbsent( index, i -> new DocumentRange() );
+                    lower.lower = literal;
+                    lower.lowerInclusive = kind == Kind.GREATER_THAN_OR_EQUAL;
+                    break;
+                case LESS_THAN:
+                case LESS_THAN_OR_EQUAL:
+                    final DocumentRange upper = ranges.computeIfAbsent( index, i -> new DocumentRange() );
+                    upper.upper = literal;
+                    upper.upperInclusive = kind == Kind.LESS_THAN_OR_EQUAL;
+                    break;
+                default:
+                    break;
+            }
+        }
+        for ( final Entry<CowDocumentIndex, DocumentRange> range : ranges.entrySet() ) {
+            final DocumentRange bounds = range.getValue();
+            final List<BsonValue> documents = range.getKey().lookup( xid, bounds.lower, bounds.lowerInclusive, bounds.upper, bounds.upperInclusive );
+            if ( documents != null ) {
+                return documents;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Narrows down the scanned rows of a query, which orders the rows of a table by their distance to a vector and
+     * fetches the first rows, to the nearest neighbours found by an HNSW index. The distances are still computed and
+     * sorted for the remaining rows, so the result is exact with respect to the candidates returned by the index.
+     *
+     * @return the sort over the narrowed down scan or {@code null} if no index can be used
+     */
+    private AlgNode nearestNeighbourLookup( LogicalSort sort, AlgBuilder builder, Statement statement ) {
+        if ( sort.getCollation().getFieldCollations().size() != 1
+                || sort.getCollation().getFieldCollations().get( 0 ).getDirection() != AlgFieldCollation.Direction.ASCENDING
+                || sort.fetch == null
+                || !(sort.getInput() instanceof LogicalProject)
+                || !(((LogicalProject) sort.getInput()).getInput() instanceof LogicalScan) ) {
+            return null;
+        }
+        final LogicalProject project = (LogicalProject) sort.getInput();
+        final LogicalScan scan = (LogicalScan) project.getInput();
+        final RexNode distance = project.getProjects().get( sort.getCollation().getFieldCollations().get( 0 ).getFieldIndex() );
+        if ( !distance.isA( Kind.DISTANCE ) || ((RexCall) distance).operands.size() != 3 ) {
+            return null;
+        }
+        final List<RexNode> operands = ((RexCall) distance).operands;
+        final Integer offset = sort.offset == null ? Integer.valueOf( 0 ) : getIntegerValue( sort.offset, statement );
+        final Integer fetch = getIntegerValue( sort.fetch, statement );
+        final List<?> vector = getVectorValue( operands.get( 1 ), statement );
+        if ( !(operands.get( 0 ) instanceof RexInputRef) || !(operands.get( 2 ) instanceof RexLiteral) || offset == null || fetch == null || vector == null || scan.getTable().getTable().getTableId() == null ) {
+            return null;
+        }
+
+        final Catalog catalog = Catalog.getInstance();
+        final CatalogTable table = catalog.getTable( scan.getTable().getTable().getTableId() );
+        final String column = scan.getRowType().getFieldList().get( ((RexInputRef) operands.get( 0 )).getIndex() ).getName();
+        final String metric = ((RexLiteral) operands.get( 2 )).getValueAs( String.class ).toUpperCase();
+        final CowHnswIndex index = IndexManager.getInstance().getNearestNeighbourIndex( catalog.getSchema( table.namespaceId ), table, column, metric );
+        if ( index == null ) {
+            IndexManager.getInstance().incrementNoIndex();
+            return null;
+        }
+        final int k = offset + fetch;
+        final List<List<Object>> primaries = index.lookup( statement.getTransaction().getXid(), vector, k, Math.max( k, RuntimeConfig.POLYSTORE_INDEXES_HNSW_EF_SEARCH.getInteger() ) );
+        if ( primaries.size() < k ) {
+            // Not enough rows with a vector, the rows without one are still part of the result
+            IndexManager.getInstance().incrementMiss();
+            return null;
+        }
+
+        // Filter the scan to the primary keys of the candidates
+        builder.push( scan );
+        final List<RexNode> candidates = new ArrayList<>( primaries.size() );
+        for ( final List<Object> primary : primaries ) {
+            final List<RexNode> conjunctions = new ArrayList<>( primary.size() );
+            for ( int i = 0; i < primary.size(); i++ ) {
+                final RexNode field = builder.field( index.getTargetColumns().get( i ) );
+                final Pair<Comparable, PolyType> converted = RexLiteral.convertType( (Comparable) primary.get( i ), field.getType() );
+                conjunctions.add( builder.equals( field, new RexLiteral( converted.left, field.getType(), converted.right ) ) );
+            }
+            candidates.add( builder.and( conjunctions ) );
+        }
+        final AlgNode filter = builder.filter( builder.or( candidates ) ).build();
+        return sort.copy( sort.getTraitSet(), List.of( project.copy( project.getTraitSet(), List.of( filter ) ) ) );
+    }
+
+
+    private Integer getIntegerValue( RexNode node, Statement statement ) {
+        if ( node instanceof RexLiteral ) {
+            return ((RexLiteral) node).getValueAs( Integer.class );
+        } else if ( node instanceof RexDynamicParam ) {
+            final Object value = statement.getDataContext().getParameterValue( ((RexDynamicParam) node).getIndex() );
+            return value instanceof Number ? ((Number) value).intValue() : null;
+        }
+        return null;
+    }
+
+
+    /**
+     * Returns the vector a distance is computed to, if it is known before the execution.
+     *
+     * @return the elements of the vector or {@code null} if it is computed by the query
+     */
+    private List<?> getVectorValue( RexNode node, Statement statement ) {
+        if ( node instanceof RexDynamicParam ) {
+            final Object value = statement.getDataContext().getParameterValue( ((RexDynamicParam) node).getIndex() );
+            return value instanceof List ? (List<?>) value : null;
+        }
+        final List<?> elements;
+        if ( node.isA( Kind.ARRAY_VALUE_CONSTRUCTOR ) ) {
+            elements = ((RexCall) node).operands;
+        } else if ( node instanceof RexLiteral && ((RexLiteral) node).getValue() instanceof List ) {
+            elements = (List<?>) ((RexLiteral) node).getValue();
+        } else {
+            return null;
+        }
+        final List<Double> vector = new ArrayList<>( elements.size() );
+        for ( final Object element : elements ) {
+            if ( element instanceof RexLiteral && ((RexLiteral) element).getValue() instanceof Number ) {
+                vector.add( ((RexLiteral) element).getValueAs( Double.class ) );
+            } else if ( element instanceof Number ) {
+                vector.add( ((Number) element).doubleValue() );
+            } else {
+                return null;
+            }
+        }
+        return vector;
+    }
+
+
+    private boolean isCollection( AlgOptTable entity ) {
+        return entity.getTable().getSchemaType() == NamespaceType.DOCUMENT;
+    }
+
+
+    /**
+     * Returns the path of a retrieval of a value from the document of a scan, e.g. <code>customer.id</code>.
+     *
+     * @return the path or {@code null} if the node is no such retrieval
+     */
+    private List<String> getDocumentPath( RexNode node ) {
+        if ( !node.isA( Kind.MQL_QUERY_VALUE ) ) {
+            return null;
+        }
+        final List<RexNode> operands = ((RexCall) node).operands;
+        if ( !(operands.get( 0 ) instanceof RexInputRef) || ((RexInputRef) operands.get( 0 )).getIndex() != 0 || !(operands.get( 1 ) instanceof RexCall) ) {
+            return null;
+        }
+        final List<String> path = new ArrayList<>();
+        for ( final RexNode key : ((RexCall) operands.get( 1 )).operands ) {
+            if ( !(key instanceof RexLiteral) ) {
+                return null;
+            }
+            path.add( ((RexLiteral) key).getValueAs( String.class ) );
+        }
+        return path;
+    }
+
+
+    /**
+     * Bounds of a range over the values at a path of documents, a missing bound is {@code null}.
+     */
+    private static class DocumentRange {
+
+        private Comparable lower;
+        private boolean lowerInclusive;
+        private Comparable upper;
+        private boolean upperInclusive;
+
+    }
+
+
     private List<ProposedRoutingPlan> route( AlgRoot logicalRoot, Statement statement, LogicalQueryInformation queryInformation ) {
         final DmlRouter dmlRouter = RoutingManager.getInstance().getDmlRouter();
         if ( logicalRoot.getModel() == ModelTrait.GRAPH ) {
@@ -1170,6 +1530,7 @@ private PreparedResult implement( AlgRoot root, AlgDataType parameterRowType ) {
         if ( log.isTraceEnabled() ) {
             log.trace( "Physical query plan: [{}]", AlgOptUtil.dumpPlan( "-- Physical Plan", root.alg, ExplainFormat.TEXT, ExplainLevel.DIGEST_ATTRIBUTES ) );
         }
+        Hook.PLAN_BEFORE_IMPLEMENTATION.run( root );
 
         final AlgDataType jdbcType = QueryProcessorHelpers.makeStruct( root.alg.getCluster().getTypeFactory(), root.validatedRowType );
         List<List<String>> fieldOrigins = Collections.nCopies( jdbcType.getFieldCount(), null );
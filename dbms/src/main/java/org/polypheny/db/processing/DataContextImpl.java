@@ -16,9 +16,7 @@
 
 package org.polypheny.db.processing;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
@@ -28,6 +26,7 @@
 import org.apache.calcite.linq4j.QueryProvider;
 import org.jetbrains.annotations.NotNull;
 import org.polypheny.db.adapter.DataContext;
+import org.polypheny.db.adapter.ParameterBatch;
 import org.polypheny.db.adapter.java.JavaTypeFactory;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.runtime.Hook;
@@ -57,7 +56,7 @@ public class DataContextImpl implements DataContext {
     private Map<Long, AlgDataType> parameterTypes; // ParameterIndex -> Data ExpressionType
     @Getter
     @Setter
-    private List<Map<Long, Object>> parameterValues; // List of ( ParameterIndex -> Value )
+    private List<Map<Long, Object>> parameterValues; // List of ( ParameterIndex -> Value ), usually a columnar ParameterBatch
 
     private final Map<Integer, List<Map<Long, Object>>> otherParameterValues;
 
@@ -81,7 +80,7 @@ private DataContextImpl( QueryProvider queryProvider, Map<String, Object> parame
 
 
     public DataContextImpl( QueryProvider queryProvider, Map<String, Object> parameters, PolyphenyDbSchema rootSchema, JavaTypeFactory typeFactory, Statement statement ) {
-        this( queryProvider, parameters, rootSchema, typeFactory, statement, new HashMap<>(), new LinkedList<>() );
+        this( queryProvider, parameters, rootSchema, typeFactory, statement, new HashMap<>(), new ParameterBatch() );
     }
 
 
@@ -143,19 +142,12 @@ public void addParameterValues( long index, AlgDataType type, List<Object> data
         if ( parameterTypes.containsKey( index ) ) {
             throw new RuntimeException( "There are already values assigned to this index" );
         }
-        if ( parameterValues.size() == 0 ) {
-            for ( Object d : data ) {
-                parameterValues.add( new HashMap<>() );
-            }
-        }
-        if ( parameterValues.size() != data.size() ) {
-            throw new RuntimeException( "Expecting " + parameterValues.size() + " rows but " + data.size() + " values specified!" );
+        if ( !(parameterValues instanceof ParameterBatch) ) {
+            // values which were set row-wise are converted once, all further parameters are added as columns
+            parameterValues = ParameterBatch.of( parameterValues );
         }
+        ((ParameterBatch) parameterValues).addColumn( index, data );
         parameterTypes.put( index, type );
-        int i = 0;
-        for ( Object d : data ) {
-            parameterValues.get( i++ ).put( index, d );
-        }
     }
 
 
@@ -168,7 +160,7 @@ public AlgDataType getParameterType( long index ) {
     @Override
     public void resetParameterValues() {
         parameterTypes = new HashMap<>();
-        parameterValues = new ArrayList<>();
+        parameterValues = new ParameterBatch();
     }
 
 
@@ -184,7 +176,7 @@ public DataContext switchContext() {
     @Override
     public void addContext() {
         otherParameterValues.put( otherParameterValues.size(), parameterValues );
-        parameterValues = new ArrayList<>();
+        parameterValues = new ParameterBatch();
     }
 
 
@@ -194,7 +186,7 @@ public void resetContext() {
         if ( otherParameterValues.size() > 0 ) {
             parameterValues = otherParameterValues.get( i );
         } else {
-            parameterValues = new ArrayList<>();
+            parameterValues = new ParameterBatch();
         }
     }
 
@@ -58,6 +58,7 @@
 import org.polypheny.db.plan.volcano.VolcanoCost;
 import org.polypheny.db.plan.volcano.VolcanoPlanner;
 import org.polypheny.db.rex.RexExecutorImpl;
+import org.polypheny.db.runtime.ParallelEnumerables;
 import org.polypheny.db.schema.ModelTraitDef;
 import org.polypheny.db.transaction.Statement;
 
@@ -89,6 +90,7 @@ public class VolcanoQueryProcessor extends AbstractQueryProcessor {
                     EnumerableRules.ENUMERABLE_COLLECT_RULE,
                     EnumerableRules.ENUMERABLE_UNCOLLECT_RULE,
                     EnumerableRules.ENUMERABLE_UNION_RULE,
+                    EnumerableRules.ENUMERABLE_CONCURRENT_UNION_RULE,
                     EnumerableRules.ENUMERABLE_MODIFY_COLLECT_RULE,
                     EnumerableRules.ENUMERABLE_INTERSECT_RULE,
                     EnumerableRules.ENUMERABLE_MINUS_RULE,
@@ -173,6 +175,14 @@ public VolcanoQueryProcessor( Statement statement ) {
                 planner.addRule( rule );
             }
             planner.addRule( EnumerableInterpreterRule.INSTANCE );
+            if ( ParallelEnumerables.getParallelism() > 1 ) {
+                planner.addRule( EnumerableRules.ENUMERABLE_GATHER_RULE );
+            }
+            if ( RuntimeConfig.COLUMNAR_EXECUTION.getBoolean() ) {
+                planner.addRule( EnumerableRules.ENUMERABLE_VECTOR_FILTER_RULE );
+                planner.addRule( EnumerableRules.ENUMERABLE_VECTOR_CALC_RULE );
+                planner.addRule( EnumerableRules.ENUMERABLE_VECTOR_AGGREGATE_RULE );
+            }
         }
 
         if ( ENABLE_BINDABLE && ENABLE_ENUMERABLE ) {
@@ -471,10 +471,14 @@ public RexNode visitCall( RexCall call ) {
             return new RexDynamicParam( call.type, i );
         } else {
             List<RexNode> newOperands = new LinkedList<>();
-            for ( RexNode operand : call.operands ) {
+            for ( int i = 0; i < call.operands.size(); i++ ) {
+                final RexNode operand = call.operands.get( i );
                 if ( operand instanceof RexLiteral && ((RexLiteral) operand).getTypeName() == PolyType.SYMBOL ) {
                     // Do not replace with dynamic param
                     newOperands.add( operand );
+                } else if ( operand instanceof RexLiteral && call.getKind() == Kind.DISTANCE && i == 2 ) {
+                    // The kernel of the metric is chosen when the code is generated, which requires a literal
+                    newOperands.add( operand );
                 } else {
                     newOperands.add( operand.accept( this ) );
                 }
@@ -35,6 +35,7 @@
 import org.polypheny.db.algebra.core.document.DocumentScan;
 import org.polypheny.db.algebra.core.lpg.LpgAlg;
 import org.polypheny.db.algebra.core.lpg.LpgAlg.NodeType;
+import org.polypheny.db.algebra.core.lpg.LpgMatch;
 import org.polypheny.db.algebra.logical.common.LogicalTransformer;
 import org.polypheny.db.algebra.logical.document.LogicalDocumentScan;
 import org.polypheny.db.algebra.logical.lpg.LogicalLpgScan;
@@ -143,7 +144,12 @@ public List<RoutedAlgBuilder> route( AlgRoot logicalRoot, Statement statement, L
 
     @Override
     public <T extends AlgNode & LpgAlg> AlgNode routeGraph( RoutedAlgBuilder builder, T alg, Statement statement ) {
-        if ( alg.getInputs().size() == 1 ) {
+        if ( alg.getNodeType() == NodeType.MATCH && alg.getInput( 0 ) instanceof LogicalLpgScan ) {
+            // the patterns allow to restrict the scanned part of the graph
+            builder.push( handleGraphScan( (LogicalLpgScan) alg.getInput( 0 ), statement, null, ((LpgMatch) alg).getMatches() ) );
+            alg.replaceInput( 0, builder.build() );
+            return alg;
+        } else if ( alg.getInputs().size() == 1 ) {
             routeGraph( builder, (AlgNode & LpgAlg) alg.getInput( 0 ), statement );
             if ( builder.stackSize() > 0 ) {
                 alg.replaceInput( 0, builder.build() );
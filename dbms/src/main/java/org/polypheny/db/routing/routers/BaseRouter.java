@@ -24,6 +24,7 @@
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +44,7 @@
 import org.polypheny.db.algebra.logical.document.LogicalDocumentScan;
 import org.polypheny.db.algebra.logical.document.LogicalDocumentValues;
 import org.polypheny.db.algebra.logical.lpg.LogicalLpgScan;
+import org.polypheny.db.algebra.logical.relational.LogicalConcurrentUnion;
 import org.polypheny.db.algebra.logical.relational.LogicalJoin;
 import org.polypheny.db.algebra.logical.relational.LogicalScan;
 import org.polypheny.db.algebra.logical.relational.LogicalValues;
@@ -76,6 +78,7 @@
 import org.polypheny.db.prepare.PolyphenyDbCatalogReader;
 import org.polypheny.db.prepare.Prepare.PreparingTable;
 import org.polypheny.db.rex.RexBuilder;
+import org.polypheny.db.rex.RexCall;
 import org.polypheny.db.rex.RexInputRef;
 import org.polypheny.db.rex.RexNode;
 import org.polypheny.db.routing.LogicalQueryInformation;
@@ -371,7 +374,16 @@ public AlgNode buildJoinedScan( Statement statement, AlgOptCluster cluster, Map<
             }
         }
 
-        builder.union( true, placements.size() );
+        if ( placements.size() > 1 && RuntimeConfig.CONCURRENT_PARTITION_SCANS.getBoolean() && isPlacedOnDistinctAdapters( placements ) ) {
+            // The partitions do not share a store, their scans can therefore be fetched concurrently
+            List<AlgNode> inputs = new LinkedList<>();
+            for ( int i = 0; i < placements.size(); i++ ) {
+                inputs.add( 0, builder.build() );
+            }
+            builder.push( LogicalConcurrentUnion.create( inputs ) );
+        } else {
+            builder.union( true, placements.size() );
+        }
 
         AlgNode node = builder.build();
         if ( RuntimeConfig.JOINED_TABLE_SCAN_CACHE.getBoolean() ) {
@@ -398,6 +410,23 @@ public AlgNode buildJoinedScan( Statement statement, AlgOptCluster cluster, Map<
     }
 
 
+    /**
+     * Checks whether no adapter is involved in the scan of more than one partition.
+     */
+    private boolean isPlacedOnDistinctAdapters( Map<Long, List<CatalogColumnPlacement>> placements ) {
+        Set<Integer> adapterIds = new HashSet<>();
+        for ( List<CatalogColumnPlacement> partitionPlacements : placements.values() ) {
+            Set<Integer> partitionAdapterIds = partitionPlacements.stream().map( p -> p.adapterId ).collect( Collectors.toSet() );
+            for ( int adapterId : partitionAdapterIds ) {
+                if ( !adapterIds.add( adapterId ) ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
     private void buildFinalProject( RoutedAlgBuilder builder, List<CatalogColumnPlacement> currentPlacements ) {
         List<RexNode> rexNodes = new ArrayList<>();
         List<CatalogColumn> placementList = currentPlacements.stream()
@@ -412,6 +441,15 @@ private void buildFinalProject( RoutedAlgBuilder builder, List<CatalogColumnPlac
 
 
     public AlgNode handleGraphScan( LogicalLpgScan alg, Statement statement, @Nullable Integer placementId ) {
+        return handleGraphScan( alg, statement, placementId, List.of() );
+    }
+
+
+    /**
+     * Routes the scan of a graph, which is the input of a match with the given patterns. Placements on relational stores
+     * are restricted to the nodes and edges which can be part of a match, if possible.
+     */
+    public AlgNode handleGraphScan( LogicalLpgScan alg, Statement statement, @Nullable Integer placementId, List<RexCall> matches ) {
         PolyphenyDbCatalogReader reader = statement.getTransaction().getCatalogReader();
 
         Catalog catalog = Catalog.getInstance();
@@ -443,7 +481,7 @@ public AlgNode handleGraphScan( LogicalLpgScan alg, Statement statement, @Nullab
 
             if ( !(graph instanceof TranslatableGraph) ) {
                 // needs substitution later on
-                scans.add( getRelationalScan( alg, adapterId, statement ) );
+                scans.add( getRelationalScan( alg, adapterId, statement, matches ) );
                 continue;
             }
 
@@ -494,6 +532,11 @@ private AlgNode handleGraphOnDocument( LogicalLpgScan alg, CatalogSchema namespa
 
 
     public AlgNode getRelationalScan( LogicalLpgScan alg, int adapterId, Statement statement ) {
+        return getRelationalScan( alg, adapterId, statement, List.of() );
+    }
+
+
+    private AlgNode getRelationalScan( LogicalLpgScan alg, int adapterId, Statement statement, List<RexCall> matches ) {
         CatalogGraphMapping mapping = Catalog.getInstance().getGraphMapping( alg.getGraph().getId() );
 
         PreparingTable nodesTable = getSubstitutionTable( statement, mapping.nodesId, mapping.idNodeId, adapterId );
@@ -502,6 +545,18 @@ public AlgNode getRelationalScan( LogicalLpgScan alg, int adapterId, Statement s
 
         PreparingTable edgePropertiesTable = getSubstitutionTable( statement, mapping.edgesPropertyId, mapping.idEdgesPropertyId, adapterId );
 
+        GraphSubstitutionFilter filter = GraphSubstitutionFilter.of( matches );
+        if ( filter != null ) {
+            AlgTraitSet out = alg.getTraitSet().replace( ModelTrait.RELATIONAL );
+            List<AlgNode> inputs = filter.build(
+                    RoutedAlgBuilder.create( statement, alg.getCluster() ),
+                    () -> new LogicalScan( alg.getCluster(), out, nodesTable ),
+                    () -> new LogicalScan( alg.getCluster(), out, nodePropertiesTable ),
+                    () -> new LogicalScan( alg.getCluster(), out, edgesTable ),
+                    () -> new LogicalScan( alg.getCluster(), out, edgePropertiesTable ) );
+            return LogicalTransformer.create( inputs, out, ModelTrait.RELATIONAL, ModelTrait.GRAPH, alg.getRowType() );
+        }
+
         AlgNode node = buildSubstitutionJoin( alg, nodesTable, nodePropertiesTable );
 
         AlgNode edge = buildSubstitutionJoin( alg, edgesTable, edgePropertiesTable );
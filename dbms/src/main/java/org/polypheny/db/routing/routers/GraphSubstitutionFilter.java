@@ -0,0 +1,284 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.routing.routers;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.Nullable;
+import org.polypheny.db.algebra.AlgNode;
+import org.polypheny.db.algebra.core.JoinAlgType;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.rex.RexCall;
+import org.polypheny.db.rex.RexLiteral;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.schema.graph.GraphPropertyHolder;
+import org.polypheny.db.schema.graph.PolyEdge;
+import org.polypheny.db.schema.graph.PolyEdge.EdgeDirection;
+import org.polypheny.db.schema.graph.PolyNode;
+import org.polypheny.db.schema.graph.PolyPath;
+import org.polypheny.db.tools.AlgBuilder;
+
+
+/**
+ * Restricts the substitution tables of a graph which is placed on a relational store to the nodes and edges which can
+ * be part of a match of the patterns of a <code>MATCH</code>. The labels and properties of the patterns are translated
+ * into filters and joins on the substitution tables, which are executed by the store, and the edges of a pattern are
+ * restricted to the ones connecting candidates of the adjacent nodes of the pattern.
+ *
+ * The result is a subgraph containing all matches, the patterns themselves are still matched on the subgraph by the
+ * match operator. Only patterns of fixed length, in which every node or edge is restricted, can be translated.
+ */
+final class GraphSubstitutionFilter {
+
+    // Columns of the substitution tables, see Catalog#addGraphLogistics
+    private static final int ID = 0;
+    private static final int LABEL = 1;
+    private static final int KEY = 1;
+    private static final int VALUE = 2;
+    private static final int SOURCE = 2;
+    private static final int TARGET = 3;
+
+    private final List<PolyNode> nodePatterns = new ArrayList<>();
+    private final List<PolyPath> pathPatterns = new ArrayList<>();
+
+
+    private GraphSubstitutionFilter() {
+        // use of()
+    }
+
+
+    /**
+     * Creates a filter for the given matches of a <code>MATCH</code>.
+     *
+     * @return the filter or {@code null} if any of the patterns would match the whole graph
+     */
+    @Nullable
+    static GraphSubstitutionFilter of( List<RexCall> matches ) {
+        if ( !RuntimeConfig.GRAPH_PATTERN_PUSHDOWN.getBoolean() || matches.isEmpty() ) {
+            return null;
+        }
+        GraphSubstitutionFilter filter = new GraphSubstitutionFilter();
+        for ( RexCall match : matches ) {
+            switch ( match.op.getOperatorName() ) {
+                case CYPHER_NODE_MATCH:
+                    PolyNode node = (PolyNode) ((RexLiteral) match.operands.get( 1 )).getValue();
+                    if ( !isRestricted( node ) ) {
+                        return null;
+                    }
+                    filter.nodePatterns.add( node );
+                    break;
+                case CYPHER_PATH_MATCH:
+                    PolyPath path = (PolyPath) ((RexLiteral) match.operands.get( 1 )).getValue();
+                    if ( !isRestricted( path ) ) {
+                        return null;
+                    }
+                    filter.pathPatterns.add( path );
+                    break;
+                default:
+                    // e.g. extraction of all nodes
+                    return null;
+            }
+        }
+        return filter;
+    }
+
+
+    private static boolean isRestricted( GraphPropertyHolder element ) {
+        return !element.labels.isEmpty() || !element.properties.isEmpty();
+    }
+
+
+    private static boolean isRestricted( PolyPath path ) {
+        if ( path.getEdges().isEmpty() ) {
+            return isRestricted( path.getNodes().get( 0 ) );
+        }
+        for ( int i = 0; i < path.getEdges().size(); i++ ) {
+            PolyEdge edge = path.getEdges().get( i );
+            if ( edge.isRange() || edge.getMinLength() != 1 ) {
+                // variable length, the nodes of the pattern are not adjacent
+                return false;
+            }
+            boolean adjacentRestricted = edge.direction != EdgeDirection.NONE
+                    && (isRestricted( path.getNodes().get( i ) ) || isRestricted( path.getNodes().get( i + 1 ) ));
+            if ( !isRestricted( edge ) && !adjacentRestricted ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Builds the inputs of the transformation of the substitution tables into a graph: the nodes joined with their
+     * properties and the edges joined with their properties.
+     *
+     * @param nodes supplies new scans of the nodes table
+     * @param nodeProperties supplies new scans of the node properties table
+     * @param edges supplies new scans of the edges table
+     * @param edgeProperties supplies new scans of the edge properties table
+     */
+    List<AlgNode> build( AlgBuilder builder, Supplier<AlgNode> nodes, Supplier<AlgNode> nodeProperties, Supplier<AlgNode> edges, Supplier<AlgNode> edgeProperties ) {
+        // Candidate edges of all paths
+        int edgeInputs = 0;
+        for ( PolyPath path : pathPatterns ) {
+            for ( int i = 0; i < path.getEdges().size(); i++ ) {
+                PolyEdge edge = path.getEdges().get( i );
+                PolyNode left = path.getNodes().get( i );
+                PolyNode right = path.getNodes().get( i + 1 );
+                pushEdges( builder, edge, edges, edgeProperties );
+                if ( edge.direction == EdgeDirection.LEFT_TO_RIGHT ) {
+                    restrictEndpoint( builder, SOURCE, left, nodes, nodeProperties );
+                    restrictEndpoint( builder, TARGET, right, nodes, nodeProperties );
+                } else if ( edge.direction == EdgeDirection.RIGHT_TO_LEFT ) {
+                    restrictEndpoint( builder, TARGET, left, nodes, nodeProperties );
+                    restrictEndpoint( builder, SOURCE, right, nodes, nodeProperties );
+                }
+                edgeInputs++;
+            }
+        }
+
+        final AlgNode candidateEdges;
+        if ( edgeInputs == 0 ) {
+            candidateEdges = builder.push( edges.get() ).empty().build();
+        } else {
+            if ( edgeInputs > 1 ) {
+                // an edge may match several patterns, it has to be passed on only once
+                builder.union( false, edgeInputs ).distinct();
+            }
+            candidateEdges = builder.build();
+        }
+
+        // Candidate nodes are the ones matching a node pattern and the endpoints of candidate edges
+        int nodeInputs = 0;
+        for ( PolyNode node : nodePatterns ) {
+            pushNodeIds( builder, node, nodes, nodeProperties );
+            nodeInputs++;
+        }
+        for ( PolyPath path : pathPatterns ) {
+            if ( path.getEdges().isEmpty() ) {
+                pushNodeIds( builder, path.getNodes().get( 0 ), nodes, nodeProperties );
+                nodeInputs++;
+            }
+        }
+        if ( edgeInputs > 0 ) {
+            builder.push( candidateEdges ).project( List.of( builder.field( SOURCE ) ), List.of( "_id_" ) );
+            builder.push( candidateEdges ).project( List.of( builder.field( TARGET ) ), List.of( "_id_" ) );
+            nodeInputs += 2;
+        }
+        if ( nodeInputs > 1 ) {
+            // the ids have to be distinct for the semi join, otherwise the rows of a node would be duplicated
+            builder.union( false, nodeInputs ).distinct();
+        }
+        final AlgNode candidateNodeIds = builder.build();
+
+        builder.push( nodes.get() ).push( candidateNodeIds );
+        semiJoin( builder, ID );
+        builder.push( nodeProperties.get() )
+                .join( JoinAlgType.LEFT, builder.equals( builder.field( 2, 0, ID ), builder.field( 2, 1, ID ) ) );
+        final AlgNode nodeInput = builder.build();
+
+        builder.push( candidateEdges ).push( edgeProperties.get() )
+                .join( JoinAlgType.LEFT, builder.equals( builder.field( 2, 0, ID ), builder.field( 2, 1, ID ) ) );
+        final AlgNode edgeInput = builder.build();
+
+        return List.of( nodeInput, edgeInput );
+    }
+
+
+    /**
+     * Pushes the edges with the labels and properties of the given pattern edge.
+     */
+    private void pushEdges( AlgBuilder builder, PolyEdge edge, Supplier<AlgNode> edges, Supplier<AlgNode> edgeProperties ) {
+        builder.push( edges.get() );
+        for ( String label : edge.labels ) {
+            builder.filter( builder.equals( builder.field( LABEL ), builder.literal( label ) ) );
+        }
+        for ( Entry<String, Object> property : edge.properties.entrySet() ) {
+            pushPropertyIds( builder, edgeProperties, property );
+            semiJoin( builder, ID );
+        }
+    }
+
+
+    /**
+     * Restricts the edges on top of the stack to the ones whose endpoint in the given column matches the given node pattern.
+     */
+    private void restrictEndpoint( AlgBuilder builder, int column, PolyNode node, Supplier<AlgNode> nodes, Supplier<AlgNode> nodeProperties ) {
+        if ( !isRestricted( node ) ) {
+            return;
+        }
+        pushNodeIds( builder, node, nodes, nodeProperties );
+        semiJoin( builder, column );
+    }
+
+
+    /**
+     * Pushes the distinct ids of the nodes with the labels and properties of the given node pattern.
+     */
+    private void pushNodeIds( AlgBuilder builder, PolyNode node, Supplier<AlgNode> nodes, Supplier<AlgNode> nodeProperties ) {
+        int inputs = 0;
+        // A node has one row per label in the nodes table
+        for ( String label : node.labels ) {
+            builder.push( nodes.get() )
+                    .filter( builder.equals( builder.field( LABEL ), builder.literal( label ) ) )
+                    .project( builder.field( ID ) );
+            if ( inputs++ > 0 ) {
+                semiJoin( builder, ID );
+            }
+        }
+        for ( Entry<String, Object> property : node.properties.entrySet() ) {
+            pushPropertyIds( builder, nodeProperties, property );
+            if ( inputs++ > 0 ) {
+                semiJoin( builder, ID );
+            }
+        }
+        builder.distinct();
+    }
+
+
+    /**
+     * Pushes the ids of the elements having the given property. Values are stored as strings, as in the match operator
+     * they are compared by their string representation.
+     */
+    private void pushPropertyIds( AlgBuilder builder, Supplier<AlgNode> properties, Entry<String, Object> property ) {
+        builder.push( properties.get() )
+                .filter(
+                        builder.equals( builder.field( KEY ), builder.literal( property.getKey() ) ),
+                        builder.equals( builder.field( VALUE ), builder.literal( property.getValue().toString() ) ) )
+                .project( builder.field( ID ) )
+                .distinct();
+    }
+
+
+    /**
+     * Joins the two inputs on top of the stack on the given column of the first and the id of the second input, which
+     * has to be distinct, and keeps only the columns of the first input.
+     */
+    private void semiJoin( AlgBuilder builder, int column ) {
+        final int fieldCount = builder.peek( 1 ).getRowType().getFieldCount();
+        builder.join( JoinAlgType.INNER, builder.equals( builder.field( 2, 0, column ), builder.field( 2, 1, ID ) ) );
+        final List<RexNode> fields = new ArrayList<>( fieldCount );
+        for ( int i = 0; i < fieldCount; i++ ) {
+            fields.add( builder.field( i ) );
+        }
+        builder.project( fields );
+    }
+
+}
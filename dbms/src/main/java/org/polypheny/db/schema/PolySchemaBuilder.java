@@ -20,13 +20,17 @@
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
 import org.polypheny.db.adapter.Adapter;
@@ -46,10 +50,15 @@
 import org.polypheny.db.catalog.entity.CatalogCollectionPlacement;
 import org.polypheny.db.catalog.entity.CatalogColumn;
 import org.polypheny.db.catalog.entity.CatalogColumnPlacement;
+import org.polypheny.db.catalog.entity.CatalogDataPlacement;
 import org.polypheny.db.catalog.entity.CatalogDatabase;
+import org.polypheny.db.catalog.entity.CatalogForeignKey;
 import org.polypheny.db.catalog.entity.CatalogGraphDatabase;
 import org.polypheny.db.catalog.entity.CatalogGraphPlacement;
+import org.polypheny.db.catalog.entity.CatalogKey;
 import org.polypheny.db.catalog.entity.CatalogKey.EnforcementTime;
+import org.polypheny.db.catalog.entity.CatalogPartition;
+import org.polypheny.db.catalog.entity.CatalogPartitionGroup;
 import org.polypheny.db.catalog.entity.CatalogPartitionPlacement;
 import org.polypheny.db.catalog.entity.CatalogSchema;
 import org.polypheny.db.catalog.entity.CatalogTable;
@@ -60,12 +69,33 @@
 import org.polypheny.db.util.BuiltInMethod;
 
 
+/**
+ * Builds the schema tree used by the query processor from the catalog.
+ *
+ * The tree is rebuilt after every change of the catalog, but the logical tables of the relational namespaces and the
+ * physical namespaces of the adapters are reused from the previous tree if the changes do not concern them. Changes
+ * which can not be attributed to tables (e.g. adapters, namespaces, collections or graphs) invalidate all of them.
+ */
 public class PolySchemaBuilder implements PropertyChangeListener {
 
     private final static PolySchemaBuilder INSTANCE = new PolySchemaBuilder();
 
-    private AbstractPolyphenyDbSchema current;
-    private boolean isOutdated = true;
+    // Catalog events which do not affect the schema tree
+    private final static Set<String> IGNORED_EVENTS = Set.of( "user", "queryInterface" );
+
+    private volatile AbstractPolyphenyDbSchema current;
+
+    // Number of catalog changes, respectively the number of changes the current schema has been built for
+    private final AtomicLong changes = new AtomicLong( 1 );
+    private volatile long builtChanges = 0;
+
+    // Tables changed since the current schema has been built
+    private final Set<Long> outdatedTables = ConcurrentHashMap.newKeySet();
+    private volatile boolean isOutdated = true;
+
+    // Parts of the current schema which can be reused
+    private Map<Long, LogicalTable> logicalTables = new HashMap<>();
+    private Map<String, PhysicalNamespace> physicalNamespaces = new HashMap<>();
 
 
     private PolySchemaBuilder() {
@@ -80,16 +110,70 @@ public static PolySchemaBuilder getInstance() {
 
     public AbstractPolyphenyDbSchema getCurrent() {
         if ( !RuntimeConfig.SCHEMA_CACHING.getBoolean() ) {
-            return buildSchema();
+            return buildSchema( false );
+        }
+        AbstractPolyphenyDbSchema schema = current;
+        if ( schema == null || builtChanges != changes.get() ) {
+            schema = updateCurrent();
         }
-        if ( current == null || isOutdated ) {
-            current = buildSchema();
+        return schema;
+    }
+
+
+    private synchronized AbstractPolyphenyDbSchema updateCurrent() {
+        // Another thread might have updated the schema in the meantime
+        final long version = changes.get();
+        if ( current == null || builtChanges != version ) {
+            current = buildSchema( true );
+            builtChanges = version;
         }
         return current;
     }
 
 
-    private synchronized AbstractPolyphenyDbSchema buildSchema() {
+    /**
+     * Builds the schema tree.
+     *
+     * @param reuse Whether the parts of the previous schema which are not affected by the changes of the catalog are reused
+     */
+    private synchronized AbstractPolyphenyDbSchema buildSchema( boolean reuse ) {
+        if ( !reuse ) {
+            return buildSchema( Set.of(), Map.of(), Map.of(), new HashMap<>(), new HashMap<>() );
+        }
+
+        // Consume the changes before reading the catalog, changes happening while building are applied the next time
+        final Set<Long> outdated = new HashSet<>( outdatedTables );
+        outdatedTables.removeAll( outdated );
+        final boolean rebuild = isOutdated;
+        isOutdated = false;
+
+        final Map<Long, LogicalTable> nextLogicalTables = new HashMap<>();
+        final Map<String, PhysicalNamespace> nextPhysicalNamespaces = new HashMap<>();
+        final AbstractPolyphenyDbSchema polyphenyDbSchema;
+        try {
+            polyphenyDbSchema = buildSchema(
+                    outdated,
+                    rebuild ? Map.of() : logicalTables,
+                    rebuild ? Map.of() : physicalNamespaces,
+                    nextLogicalTables,
+                    nextPhysicalNamespaces );
+        } catch ( RuntimeException e ) {
+            // The consumed changes are lost, do not reuse anything the next time
+            isOutdated = true;
+            throw e;
+        }
+        logicalTables = nextLogicalTables;
+        physicalNamespaces = nextPhysicalNamespaces;
+        return polyphenyDbSchema;
+    }
+
+
+    private AbstractPolyphenyDbSchema buildSchema(
+            Set<Long> outdated,
+            Map<Long, LogicalTable> previousLogicalTables,
+            Map<String, PhysicalNamespace> previousPhysicalNamespaces,
+            Map<Long, LogicalTable> nextLogicalTables,
+            Map<String, PhysicalNamespace> nextPhysicalNamespaces ) {
         final Schema schema = new RootSchema();
         final AbstractPolyphenyDbSchema polyphenyDbSchema = new SimplePolyphenyDbSchema( null, schema, "", NamespaceType.RELATIONAL, false );
 
@@ -99,7 +183,7 @@ private synchronized AbstractPolyphenyDbSchema buildSchema() {
         CatalogDatabase catalogDatabase = catalog.getDatabase( 1 );
 
         // Build logical namespaces
-        buildRelationalLogical( polyphenyDbSchema, rootSchema, catalog, catalogDatabase );
+        buildRelationalLogical( polyphenyDbSchema, rootSchema, catalog, catalogDatabase, outdated, previousLogicalTables, nextLogicalTables );
 
         buildDocumentLogical( polyphenyDbSchema, rootSchema, catalog, catalogDatabase );
 
@@ -110,13 +194,12 @@ private synchronized AbstractPolyphenyDbSchema buildSchema() {
         // Build physical namespaces
         List<CatalogAdapter> adapters = Catalog.getInstance().getAdapters();
 
-        buildPhysicalTables( polyphenyDbSchema, rootSchema, catalog, catalogDatabase, adapters );
+        buildPhysicalTables( polyphenyDbSchema, rootSchema, catalog, catalogDatabase, adapters, outdated, previousPhysicalNamespaces, nextPhysicalNamespaces );
 
         buildPhysicalDocuments( polyphenyDbSchema, rootSchema, catalog, catalogDatabase, adapters );
 
         buildPhysicalGraphs( polyphenyDbSchema, rootSchema, catalog, catalogDatabase );
 
-        isOutdated = false;
         return polyphenyDbSchema;
     }
 
@@ -131,7 +214,14 @@ private void buildGraphLogical( AbstractPolyphenyDbSchema polyphenyDbSchema, Sch
     }
 
 
-    private void buildRelationalLogical( AbstractPolyphenyDbSchema polyphenyDbSchema, SchemaPlus rootSchema, Catalog catalog, CatalogDatabase catalogDatabase ) {
+    private void buildRelationalLogical(
+            AbstractPolyphenyDbSchema polyphenyDbSchema,
+            SchemaPlus rootSchema,
+            Catalog catalog,
+            CatalogDatabase catalogDatabase,
+            Set<Long> outdated,
+            Map<Long, LogicalTable> previous,
+            Map<Long, LogicalTable> next ) {
         for ( CatalogSchema catalogSchema : catalog.getSchemas( catalogDatabase.id, null ) ) {
             if ( catalogSchema.namespaceType != NamespaceType.RELATIONAL ) {
                 continue;
@@ -139,29 +229,13 @@ private void buildRelationalLogical( AbstractPolyphenyDbSchema polyphenyDbSchema
             Map<String, LogicalTable> tableMap = new HashMap<>();
             SchemaPlus s = new SimplePolyphenyDbSchema( polyphenyDbSchema, new AbstractSchema(), catalogSchema.name, catalogSchema.namespaceType, catalogSchema.caseSensitive ).plus();
             for ( CatalogTable catalogTable : catalog.getTables( catalogSchema.id, null ) ) {
-                List<String> columnNames = new LinkedList<>();
-
-                AlgDataType rowType;
-                final AlgDataTypeFactory typeFactory = new PolyTypeFactoryImpl( AlgDataTypeSystem.DEFAULT );
-
-                final Builder fieldInfo = typeFactory.builder();
-
-                for ( CatalogColumn catalogColumn : catalog.getColumns( catalogTable.id ) ) {
-                    columnNames.add( catalogColumn.name );
-                    fieldInfo.add( catalogColumn.name, null, catalogColumn.getAlgDataType( typeFactory ) );
-                    fieldInfo.nullable( catalogColumn.nullable );
-                }
-                rowType = fieldInfo.build();
-
-                List<Long> columnIds = new LinkedList<>();
-                catalog.getColumns( catalogTable.id ).forEach( c -> columnIds.add( c.id ) );
-                if ( catalogTable.entityType == EntityType.VIEW ) {
-                    buildView( tableMap, s, catalogTable, columnNames, fieldInfo, columnIds );
-                } else if ( catalogTable.entityType == EntityType.ENTITY || catalogTable.entityType == EntityType.SOURCE || catalogTable.entityType == EntityType.MATERIALIZED_VIEW ) {
-                    buildEntity( catalog, catalogSchema, tableMap, s, catalogTable, columnNames, rowType, columnIds );
-                } else {
-                    throw new RuntimeException( "Unhandled table type: " + catalogTable.entityType.name() );
+                LogicalTable table = outdated.contains( catalogTable.id ) ? null : previous.get( catalogTable.id );
+                if ( table == null ) {
+                    table = buildLogicalTable( catalog, catalogSchema, catalogTable );
                 }
+                s.add( catalogTable.name, table );
+                tableMap.put( catalogTable.name, table );
+                next.put( catalogTable.id, table );
             }
 
             rootSchema.add( catalogSchema.name, s, catalogSchema.namespaceType );
@@ -174,6 +248,33 @@ private void buildRelationalLogical( AbstractPolyphenyDbSchema polyphenyDbSchema
     }
 
 
+    private LogicalTable buildLogicalTable( Catalog catalog, CatalogSchema catalogSchema, CatalogTable catalogTable ) {
+        List<String> columnNames = new LinkedList<>();
+
+        AlgDataType rowType;
+        final AlgDataTypeFactory typeFactory = new PolyTypeFactoryImpl( AlgDataTypeSystem.DEFAULT );
+
+        final Builder fieldInfo = typeFactory.builder();
+
+        for ( CatalogColumn catalogColumn : catalog.getColumns( catalogTable.id ) ) {
+            columnNames.add( catalogColumn.name );
+            fieldInfo.add( catalogColumn.name, null, catalogColumn.getAlgDataType( typeFactory ) );
+            fieldInfo.nullable( catalogColumn.nullable );
+        }
+        rowType = fieldInfo.build();
+
+        List<Long> columnIds = new LinkedList<>();
+        catalog.getColumns( catalogTable.id ).forEach( c -> columnIds.add( c.id ) );
+        if ( catalogTable.entityType == EntityType.VIEW ) {
+            return buildView( catalogTable, columnNames, fieldInfo, columnIds );
+        } else if ( catalogTable.entityType == EntityType.ENTITY || catalogTable.entityType == EntityType.SOURCE || catalogTable.entityType == EntityType.MATERIALIZED_VIEW ) {
+            return buildEntity( catalog, catalogSchema, catalogTable, columnNames, rowType, columnIds );
+        } else {
+            throw new RuntimeException( "Unhandled table type: " + catalogTable.entityType.name() );
+        }
+    }
+
+
     private void buildDocumentLogical( AbstractPolyphenyDbSchema polyphenyDbSchema, SchemaPlus rootSchema, Catalog catalog, CatalogDatabase catalogDatabase ) {
         for ( CatalogSchema catalogSchema : catalog.getSchemas( catalogDatabase.id, null ) ) {
             if ( catalogSchema.namespaceType != NamespaceType.DOCUMENT ) {
@@ -309,7 +410,15 @@ private void buildPhysicalDocuments( AbstractPolyphenyDbSchema polyphenyDbSchema
     }
 
 
-    private void buildPhysicalTables( AbstractPolyphenyDbSchema polyphenyDbSchema, SchemaPlus rootSchema, Catalog catalog, CatalogDatabase catalogDatabase, List<CatalogAdapter> adapters ) {
+    private void buildPhysicalTables(
+            AbstractPolyphenyDbSchema polyphenyDbSchema,
+            SchemaPlus rootSchema,
+            Catalog catalog,
+            CatalogDatabase catalogDatabase,
+            List<CatalogAdapter> adapters,
+            Set<Long> outdated,
+            Map<String, PhysicalNamespace> previous,
+            Map<String, PhysicalNamespace> next ) {
         // Build adapter schema (physical schema) RELATIONAL
         for ( CatalogSchema catalogSchema : new ArrayList<>( catalog.getSchemas( catalogDatabase.id, null ) ) ) {
             for ( CatalogAdapter catalogAdapter : adapters ) {
@@ -323,55 +432,66 @@ private void buildPhysicalTables( AbstractPolyphenyDbSchema polyphenyDbSchema, S
                 for ( String physicalSchemaName : tableIdsPerSchema.keySet() ) {
                     Set<Long> tableIds = tableIdsPerSchema.get( physicalSchemaName );
 
-                    HashMap<String, Table> physicalTables = new HashMap<>();
-                    Adapter adapter = AdapterManager.getInstance().getAdapter( catalogAdapter.id );
-
                     final String schemaName = buildAdapterSchemaName( catalogAdapter.uniqueName, catalogSchema.name, physicalSchemaName );
 
-                    adapter.createNewSchema( rootSchema, schemaName );
-                    SchemaPlus s = new SimplePolyphenyDbSchema( polyphenyDbSchema, adapter.getCurrentSchema(), schemaName, catalogSchema.namespaceType, catalogSchema.caseSensitive ).plus();
-                    for ( long tableId : tableIds ) {
-                        CatalogTable catalogTable = catalog.getTable( tableId );
+                    PhysicalNamespace namespace = previous.get( schemaName );
+                    if ( namespace == null || !namespace.tableIds.equals( tableIds ) || !Collections.disjoint( tableIds, outdated ) ) {
+                        namespace = buildPhysicalNamespace( rootSchema, catalog, catalogSchema, catalogAdapter, schemaName, tableIds );
+                    }
+                    if ( namespace.tables.isEmpty() ) {
+                        continue;
+                    }
+
+                    SchemaPlus s = new SimplePolyphenyDbSchema( polyphenyDbSchema, namespace.schema, schemaName, catalogSchema.namespaceType, catalogSchema.caseSensitive ).plus();
+                    rootSchema.add( schemaName, s, catalogSchema.namespaceType );
+                    namespace.tables.forEach( rootSchema.getSubSchema( schemaName )::add );
+                    rootSchema.getSubSchema( schemaName ).polyphenyDbSchema().setSchema( namespace.schema );
+                    next.put( schemaName, namespace );
+                }
+            }
+        }
+    }
 
-                        List<CatalogPartitionPlacement> partitionPlacements = catalog.getPartitionPlacementsByTableOnAdapter( adapter.getAdapterId(), tableId );
 
-                        for ( CatalogPartitionPlacement partitionPlacement : partitionPlacements ) {
-                            if ( catalogSchema.namespaceType != NamespaceType.RELATIONAL && catalogAdapter.getSupportedNamespaces().contains( catalogSchema.namespaceType ) ) {
-                                continue;
-                            }
+    private PhysicalNamespace buildPhysicalNamespace( SchemaPlus rootSchema, Catalog catalog, CatalogSchema catalogSchema, CatalogAdapter catalogAdapter, String schemaName, Set<Long> tableIds ) {
+        HashMap<String, Table> physicalTables = new HashMap<>();
+        Adapter adapter = AdapterManager.getInstance().getAdapter( catalogAdapter.id );
 
-                            Table table = adapter.createTableSchema(
-                                    catalogTable,
-                                    Catalog.getInstance().getColumnPlacementsOnAdapterSortedByPhysicalPosition( adapter.getAdapterId(), catalogTable.id ),
-                                    partitionPlacement );
+        adapter.createNewSchema( rootSchema, schemaName );
+        for ( long tableId : tableIds ) {
+            CatalogTable catalogTable = catalog.getTable( tableId );
 
-                            physicalTables.put( catalog.getTable( tableId ).name + "_" + partitionPlacement.partitionId, table );
+            List<CatalogPartitionPlacement> partitionPlacements = catalog.getPartitionPlacementsByTableOnAdapter( adapter.getAdapterId(), tableId );
 
-                            rootSchema.add( schemaName, s, catalogSchema.namespaceType );
-                            physicalTables.forEach( rootSchema.getSubSchema( schemaName )::add );
-                            rootSchema.getSubSchema( schemaName ).polyphenyDbSchema().setSchema( adapter.getCurrentSchema() );
-                        }
-                    }
+            for ( CatalogPartitionPlacement partitionPlacement : partitionPlacements ) {
+                if ( catalogSchema.namespaceType != NamespaceType.RELATIONAL && catalogAdapter.getSupportedNamespaces().contains( catalogSchema.namespaceType ) ) {
+                    continue;
                 }
+
+                Table table = adapter.createTableSchema(
+                        catalogTable,
+                        Catalog.getInstance().getColumnPlacementsOnAdapterSortedByPhysicalPosition( adapter.getAdapterId(), catalogTable.id ),
+                        partitionPlacement );
+
+                physicalTables.put( catalogTable.name + "_" + partitionPlacement.partitionId, table );
             }
         }
+        return new PhysicalNamespace( adapter.getCurrentSchema(), Set.copyOf( tableIds ), physicalTables );
     }
 
 
-    private void buildView( Map<String, LogicalTable> tableMap, SchemaPlus s, CatalogTable catalogTable, List<String> columnNames, Builder fieldInfo, List<Long> columnIds ) {
-        LogicalRelView view = new LogicalRelView(
+    private LogicalTable buildView( CatalogTable catalogTable, List<String> columnNames, Builder fieldInfo, List<Long> columnIds ) {
+        return new LogicalRelView(
                 catalogTable.id,
                 catalogTable.getNamespaceName(),
                 catalogTable.name,
                 columnIds,
                 columnNames,
                 AlgDataTypeImpl.proto( fieldInfo.build() ) );
-        s.add( catalogTable.name, view );
-        tableMap.put( catalogTable.name, view );
     }
 
 
-    private void buildEntity( Catalog catalog, CatalogSchema catalogSchema, Map<String, LogicalTable> tableMap, SchemaPlus s, CatalogTable catalogTable, List<String> columnNames, AlgDataType rowType, List<Long> columnIds ) {
+    private LogicalTable buildEntity( Catalog catalog, CatalogSchema catalogSchema, CatalogTable catalogTable, List<String> columnNames, AlgDataType rowType, List<Long> columnIds ) {
         LogicalTable table;
         if ( catalogSchema.namespaceType == NamespaceType.RELATIONAL ) {
             table = new LogicalTable(
@@ -404,9 +524,7 @@ private void buildEntity( Catalog catalog, CatalogSchema catalogSchema, Map<Stri
         } else {
             throw new RuntimeException( "Model is not supported" );
         }
-
-        s.add( catalogTable.name, table );
-        tableMap.put( catalogTable.name, table );
+        return table;
     }
 
 
@@ -418,8 +536,64 @@ public static String buildAdapterSchemaName( String storeName, String logicalSch
     // Listens on changes to the catalog
     @Override
     public void propertyChange( PropertyChangeEvent evt ) {
-        // Catalog changed, flag as outdated
-        isOutdated = true;
+        if ( IGNORED_EVENTS.contains( evt.getPropertyName() ) ) {
+            return;
+        }
+        // Catalog changed, flag the affected tables or the whole schema as outdated
+        final boolean oldAttributed = markOutdated( evt.getOldValue() );
+        final boolean newAttributed = markOutdated( evt.getNewValue() );
+        if ( !oldAttributed || !newAttributed || (evt.getOldValue() == null && evt.getNewValue() == null) ) {
+            isOutdated = true;
+        }
+        changes.incrementAndGet();
+    }
+
+
+    /**
+     * Flags the table the given catalog object belongs to as outdated.
+     *
+     * @return false if the object can not be attributed to a table
+     */
+    private boolean markOutdated( Object value ) {
+        if ( value == null ) {
+            return true;
+        } else if ( value instanceof CatalogTable ) {
+            outdatedTables.add( ((CatalogTable) value).id );
+        } else if ( value instanceof CatalogColumn ) {
+            outdatedTables.add( ((CatalogColumn) value).tableId );
+        } else if ( value instanceof CatalogColumnPlacement ) {
+            outdatedTables.add( ((CatalogColumnPlacement) value).tableId );
+        } else if ( value instanceof CatalogPartitionPlacement ) {
+            outdatedTables.add( ((CatalogPartitionPlacement) value).tableId );
+        } else if ( value instanceof CatalogPartition ) {
+            outdatedTables.add( ((CatalogPartition) value).tableId );
+        } else if ( value instanceof CatalogPartitionGroup ) {
+            outdatedTables.add( ((CatalogPartitionGroup) value).tableId );
+        } else if ( value instanceof CatalogDataPlacement ) {
+            outdatedTables.add( ((CatalogDataPlacement) value).tableId );
+        } else if ( value instanceof CatalogForeignKey ) {
+            // Constraints of both tables are checked on commit
+            outdatedTables.add( ((CatalogForeignKey) value).tableId );
+            outdatedTables.add( ((CatalogForeignKey) value).referencedKeyTableId );
+        } else if ( value instanceof CatalogKey ) {
+            outdatedTables.add( ((CatalogKey) value).tableId );
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+
+    /**
+     * Adapter schema of a physical namespace together with the physical tables of the namespace.
+     */
+    @AllArgsConstructor
+    private static class PhysicalNamespace {
+
+        private final Schema schema;
+        private final Set<Long> tableIds;
+        private final Map<String, Table> tables;
+
     }
 
 
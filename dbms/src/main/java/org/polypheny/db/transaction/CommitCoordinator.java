@@ -0,0 +1,280 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.transaction;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.adapter.Adapter;
+import org.polypheny.db.config.RuntimeConfig;
+
+
+/**
+ * Runs the prepare and commit phases of a transaction concurrently on all involved adapters, so that the commit latency
+ * is determined by the slowest adapter instead of the sum of all adapters. The latency of every adapter and phase is
+ * recorded in a histogram which is shown on the transactions monitoring page.
+ */
+@Slf4j
+final class CommitCoordinator {
+
+    /**
+     * Upper bounds (exclusive) of the histogram buckets in milliseconds. The last bucket holds all larger latencies.
+     */
+    static final long[] BUCKET_BOUNDS_MILLIS = { 1, 5, 10, 50, 100, 500, 1000 };
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool( new ThreadFactory() {
+        private final AtomicInteger counter = new AtomicInteger();
+
+
+        @Override
+        public Thread newThread( Runnable runnable ) {
+            Thread thread = new Thread( runnable, "commit-" + counter.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    } );
+
+    private static final Map<String, LatencyHistogram> LATENCIES = new ConcurrentHashMap<>();
+
+
+    private CommitCoordinator() {
+        // empty on purpose
+    }
+
+
+    /**
+     * Asks all adapters to prepare the transaction.
+     *
+     * @return Whether all adapters voted to commit within the timeout
+     */
+    static boolean prepare( List<Adapter> adapters, PolyXid xid ) {
+        return prepareAll( adapters, Adapter::getUniqueName, adapter -> adapter.prepare( xid ) );
+    }
+
+
+    /**
+     * Commits the transaction on all adapters.
+     */
+    static void commit( List<Adapter> adapters, PolyXid xid ) throws TransactionException {
+        commitAll( adapters, Adapter::getUniqueName, adapter -> adapter.commit( xid ) );
+    }
+
+
+    /**
+     * Prepares all participants concurrently and waits until all of them have voted or the configured timeout is
+     * exceeded. Participants which are still preparing after the timeout are interrupted, the transaction is
+     * rolled back in this case anyway.
+     */
+    static <P> boolean prepareAll( List<P> participants, Function<P, String> names, Predicate<P> prepare ) {
+        if ( participants.size() == 1 ) {
+            // No need to hand a single adapter over to another thread
+            try {
+                return timed( names.apply( participants.get( 0 ) ), Phase.PREPARE, () -> prepare.test( participants.get( 0 ) ) );
+            } catch ( RuntimeException e ) {
+                log.error( "Exception while preparing the transaction", e );
+                return false;
+            }
+        }
+
+        final List<Future<Boolean>> futures = new ArrayList<>( participants.size() );
+        for ( P participant : participants ) {
+            futures.add( EXECUTOR.submit( () -> timed( names.apply( participant ), Phase.PREPARE, () -> prepare.test( participant ) ) ) );
+        }
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( RuntimeConfig.TWO_PC_TIMEOUT.getInteger() );
+        boolean vote = true;
+        for ( int i = 0; i < futures.size(); i++ ) {
+            try {
+                vote &= futures.get( i ).get( deadline - System.nanoTime(), TimeUnit.NANOSECONDS );
+            } catch ( TimeoutException e ) {
+                log.error( "Timeout while waiting for adapter {} to prepare the transaction", names.apply( participants.get( i ) ) );
+                for ( Future<Boolean> future : futures ) {
+                    future.cancel( true );
+                }
+                return false;
+            } catch ( ExecutionException e ) {
+                log.error( "Exception while preparing the transaction on adapter {}", names.apply( participants.get( i ) ), e.getCause() );
+                vote = false;
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return vote;
+    }
+
+
+    /**
+     * Commits all participants concurrently. Once all participants have prepared the transaction, every one of them
+     * has to commit it; the commits are therefore never interrupted and the method waits for all of them, also if
+     * some of them fail. The failures are collected and reported together.
+     */
+    static <P> void commitAll( List<P> participants, Function<P, String> names, Consumer<P> commit ) throws TransactionException {
+        if ( participants.size() == 1 ) {
+            try {
+                timed( names.apply( participants.get( 0 ) ), Phase.COMMIT, () -> {
+                    commit.accept( participants.get( 0 ) );
+                    return true;
+                } );
+            } catch ( RuntimeException e ) {
+                throw new TransactionException( e );
+            }
+            return;
+        }
+
+        final List<Future<Boolean>> futures = new ArrayList<>( participants.size() );
+        for ( P participant : participants ) {
+            futures.add( EXECUTOR.submit( () -> timed( names.apply( participant ), Phase.COMMIT, () -> {
+                commit.accept( participant );
+                return true;
+            } ) ) );
+        }
+        TransactionException failure = null;
+        boolean interrupted = false;
+        for ( int i = 0; i < futures.size(); i++ ) {
+            Throwable cause = null;
+            while ( true ) {
+                try {
+                    futures.get( i ).get();
+                    break;
+                } catch ( ExecutionException e ) {
+                    cause = e.getCause();
+                    break;
+                } catch ( InterruptedException e ) {
+                    // keep waiting, the outcome of every commit has to be known
+                    interrupted = true;
+                }
+            }
+            if ( cause != null ) {
+                final String name = names.apply( participants.get( i ) );
+                log.error( "Exception while committing the transaction on adapter {}", name, cause );
+                if ( failure == null ) {
+                    failure = new TransactionException( "Failed to commit the transaction on adapter " + name, cause );
+                } else {
+                    failure.addSuppressed( cause );
+                }
+            }
+        }
+        if ( interrupted ) {
+            Thread.currentThread().interrupt();
+        }
+        if ( failure != null ) {
+            throw failure;
+        }
+    }
+
+
+    private static <T> T timed( String adapterName, Phase phase, Supplier<T> action ) {
+        final long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            LATENCIES.computeIfAbsent( adapterName + "::" + phase, k -> new LatencyHistogram( adapterName, phase ) )
+                    .record( System.nanoTime() - start );
+        }
+    }
+
+
+    static Iterable<LatencyHistogram> getLatencies() {
+        return LATENCIES.values();
+    }
+
+
+    static void resetLatencies() {
+        LATENCIES.clear();
+    }
+
+
+    enum Phase {
+        PREPARE, COMMIT
+    }
+
+
+    /**
+     * Latencies of one phase of one adapter.
+     */
+    static class LatencyHistogram {
+
+        @Getter
+        private final String adapterName;
+        @Getter
+        private final Phase phase;
+        private final AtomicLongArray buckets = new AtomicLongArray( BUCKET_BOUNDS_MILLIS.length + 1 );
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+
+
+        LatencyHistogram( String adapterName, Phase phase ) {
+            this.adapterName = adapterName;
+            this.phase = phase;
+        }
+
+
+        void record( long nanos ) {
+            final long millis = TimeUnit.NANOSECONDS.toMillis( nanos );
+            int bucket = 0;
+            while ( bucket < BUCKET_BOUNDS_MILLIS.length && millis >= BUCKET_BOUNDS_MILLIS[bucket] ) {
+                bucket++;
+            }
+            buckets.incrementAndGet( bucket );
+            count.incrementAndGet();
+            totalNanos.addAndGet( nanos );
+        }
+
+
+        Long[] getBuckets() {
+            final Long[] values = new Long[buckets.length()];
+            for ( int i = 0; i < values.length; i++ ) {
+                values[i] = buckets.get( i );
+            }
+            return values;
+        }
+
+
+        long getCount() {
+            return count.get();
+        }
+
+
+        /**
+         * Average latency in milliseconds.
+         */
+        double getAverage() {
+            final long n = count.get();
+            return n == 0 ? 0 : totalNanos.get() / 1e6 / n;
+        }
+
+    }
+
+}
@@ -18,11 +18,12 @@
 
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -95,22 +96,23 @@ public class TransactionImpl implements Transaction, Comparable<Object> {
     @Setter
     private boolean analyze;
 
-    private final List<Statement> statements = new ArrayList<>();
+    // Statements of the same connection may be executed concurrently, all state shared by them is thread-safe
+    private final List<Statement> statements = Collections.synchronizedList( new ArrayList<>() );
 
-    private final List<String> changedTables = new ArrayList<>();
+    private final Set<String> changedTables = ConcurrentHashMap.newKeySet();
 
     @Getter
-    private final Set<CatalogTable> catalogTables = new TreeSet<>();
+    private final Set<CatalogTable> catalogTables = new ConcurrentSkipListSet<>();
 
     @Getter
-    private final List<Adapter> involvedAdapters = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<Adapter> involvedAdapters = new CopyOnWriteArrayList<>();
 
-    private final Set<Lock> lockList = new HashSet<>();
-    private boolean useCache = true;
+    private final Set<Lock> lockList = ConcurrentHashMap.newKeySet();
+    private volatile boolean useCache = true;
 
-    private boolean acceptsOutdated = false;
+    private volatile boolean acceptsOutdated = false;
 
-    private AccessMode accessMode = AccessMode.NO_ACCESS;
+    private volatile AccessMode accessMode = AccessMode.NO_ACCESS;
 
     @Getter
     private final JavaTypeFactory typeFactory = new JavaTypeFactoryImpl();
@@ -151,9 +153,7 @@ public InformationManager getQueryAnalyzer() {
 
     @Override
     public void registerInvolvedAdapter( Adapter adapter ) {
-        if ( !involvedAdapters.contains( adapter ) ) {
-            involvedAdapters.add( adapter );
-        }
+        involvedAdapters.addIfAbsent( adapter );
     }
 
 
@@ -166,9 +166,7 @@ public void commit() throws TransactionException {
         // Prepare to commit changes on all involved adapters and the catalog
         boolean okToCommit = true;
         if ( RuntimeConfig.TWO_PC_MODE.getBoolean() ) {
-            for ( Adapter adapter : involvedAdapters ) {
-                okToCommit &= adapter.prepare( xid );
-            }
+            okToCommit = CommitCoordinator.prepare( involvedAdapters, xid );
         }
 
         if ( !catalogTables.isEmpty() ) {
@@ -189,9 +187,7 @@ public void commit() throws TransactionException {
 
         if ( okToCommit ) {
             // Commit changes
-            for ( Adapter adapter : involvedAdapters ) {
-                adapter.commit( xid );
-            }
+            CommitCoordinator.commit( involvedAdapters, xid );
 
             this.statements.forEach( statement -> {
                 if ( statement.getMonitoringEvent() != null ) {
@@ -290,11 +286,10 @@ public StatementImpl createStatement() {
 
     @Override
     public void addChangedTable( String qualifiedTableName ) {
-        if ( !this.changedTables.contains( qualifiedTableName ) ) {
+        if ( this.changedTables.add( qualifiedTableName ) ) {
             if ( log.isDebugEnabled() ) {
                 log.debug( "Add changed table: {}", qualifiedTableName );
             }
-            this.changedTables.add( qualifiedTableName );
         }
     }
 
@@ -364,7 +359,7 @@ public AccessMode getAccessMode() {
 
 
     @Override
-    public void updateAccessMode( AccessMode accessModeCandidate ) {
+    public synchronized void updateAccessMode( AccessMode accessModeCandidate ) {
 
         // If TX is already in RW access we can skip immediately
         if ( this.accessMode.equals( AccessMode.READWRITE_ACCESS ) || this.accessMode.equals( accessModeCandidate ) ) {
@@ -17,7 +17,9 @@
 package org.polypheny.db.transaction;
 
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
@@ -30,10 +32,15 @@
 import org.polypheny.db.catalog.exceptions.UnknownDatabaseException;
 import org.polypheny.db.catalog.exceptions.UnknownSchemaException;
 import org.polypheny.db.catalog.exceptions.UnknownUserException;
+import org.polypheny.db.information.InformationAction;
+import org.polypheny.db.information.InformationGraph;
+import org.polypheny.db.information.InformationGraph.GraphData;
+import org.polypheny.db.information.InformationGraph.GraphType;
 import org.polypheny.db.information.InformationGroup;
 import org.polypheny.db.information.InformationManager;
 import org.polypheny.db.information.InformationPage;
 import org.polypheny.db.information.InformationTable;
+import org.polypheny.db.transaction.CommitCoordinator.LatencyHistogram;
 import org.polypheny.db.transaction.PUID.ConnectionId;
 import org.polypheny.db.transaction.PUID.NodeId;
 import org.polypheny.db.transaction.PUID.Type;
@@ -68,6 +75,57 @@ private TransactionManagerImpl() {
                     v.getInvolvedAdapters().stream().map( Adapter::getUniqueName ).collect( Collectors.joining( ", " ) ),
                     v.getOrigin() ) );
         } );
+
+        registerCommitLatencies( im, page );
+    }
+
+
+    private void registerCommitLatencies( InformationManager im, InformationPage page ) {
+        InformationGroup latencyGroup = new InformationGroup( page, "Commit Latency" );
+        im.addGroup( latencyGroup );
+
+        final String[] bucketLabels = new String[CommitCoordinator.BUCKET_BOUNDS_MILLIS.length + 1];
+        for ( int i = 0; i < CommitCoordinator.BUCKET_BOUNDS_MILLIS.length; i++ ) {
+            bucketLabels[i] = "< " + CommitCoordinator.BUCKET_BOUNDS_MILLIS[i] + " ms";
+        }
+        bucketLabels[bucketLabels.length - 1] = ">= " + CommitCoordinator.BUCKET_BOUNDS_MILLIS[bucketLabels.length - 2] + " ms";
+
+        InformationGraph latencyGraph = new InformationGraph( latencyGroup, GraphType.BAR, bucketLabels );
+        latencyGraph.setOrder( 1 );
+        im.registerInformation( latencyGraph );
+
+        List<String> columns = new ArrayList<>( Arrays.asList( "Adapter", "Phase", "Count", "Average (ms)" ) );
+        columns.addAll( Arrays.asList( bucketLabels ) );
+        InformationTable latencyTable = new InformationTable( latencyGroup, columns );
+        latencyTable.setOrder( 2 );
+        im.registerInformation( latencyTable );
+
+        latencyGroup.setRefreshFunction( () -> {
+            List<GraphData<Long>> graphData = new ArrayList<>();
+            latencyTable.reset();
+            for ( LatencyHistogram histogram : CommitCoordinator.getLatencies() ) {
+                Long[] buckets = histogram.getBuckets();
+                graphData.add( new GraphData<>( histogram.getAdapterName() + " " + histogram.getPhase().name().toLowerCase(), buckets ) );
+                List<Object> row = new ArrayList<>( Arrays.asList(
+                        histogram.getAdapterName(),
+                        histogram.getPhase().name(),
+                        histogram.getCount(),
+                        String.format( "%.2f", histogram.getAverage() ) ) );
+                row.addAll( Arrays.asList( buckets ) );
+                latencyTable.addRow( row.toArray() );
+            }
+            if ( !graphData.isEmpty() ) {
+                latencyGraph.updateGraph( bucketLabels, graphData.toArray( new GraphData[0] ) );
+            }
+        } );
+
+        InformationAction resetAction = new InformationAction( latencyGroup, "Reset", parameters -> {
+            CommitCoordinator.resetLatencies();
+            latencyGroup.refresh();
+            return "Successfully reset the commit latencies!";
+        } );
+        resetAction.setOrder( 3 );
+        im.registerInformation( resetAction );
     }
 
 
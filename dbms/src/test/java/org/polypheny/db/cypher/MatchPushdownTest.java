@@ -0,0 +1,181 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.cypher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.cypher.helper.TestNode;
+import org.polypheny.db.util.Pair;
+import org.polypheny.db.webui.models.Result;
+
+/**
+ * Tests MATCH queries on a graph placed on a relational store, with and without reading only the nodes and edges
+ * which can match the patterns.
+ */
+public class MatchPushdownTest extends CypherTestTemplate {
+
+    private static final List<String> QUERIES = List.of(
+            "MATCH (n:Person) RETURN n",
+            "MATCH (n:Villain) RETURN n",
+            "MATCH (n {name: 'Max'}) RETURN n",
+            "MATCH (n {name: 'Kira', age: 3}) RETURN n",
+            "MATCH (n:Person {name: 'David'}) RETURN n",
+            "MATCH (p:Person)-[r:OWNER_OF]->(a) RETURN a",
+            "MATCH (p:Person {name: 'Max'})-[r:KNOWS]->(b) RETURN b",
+            "MATCH (p:Person)-[r:FRIEND_OF]->(a) RETURN a",
+            "MATCH (n:Employee) RETURN n",
+            "MATCH (p)-[r]->(a) RETURN a" );
+
+
+    @Before
+    public void reset() {
+        tearDown();
+        createGraph();
+    }
+
+
+    @Test
+    public void labelMatchTest() {
+        execute( SINGLE_NODE_ANIMAL );
+        execute( SINGLE_NODE_PERSON_1 );
+        execute( SINGLE_NODE_PERSON_2 );
+
+        Result res = execute( "MATCH (n:Person) RETURN n" );
+        assertNode( res, 0 );
+        assert containsNodes( res, true, MAX, HANS );
+
+        res = execute( "MATCH (n:Animal) RETURN n" );
+        assertNode( res, 0 );
+        assert containsNodes( res, true, KIRA );
+    }
+
+
+    @Test
+    public void propertyMatchTest() {
+        execute( SINGLE_NODE_ANIMAL );
+        execute( SINGLE_NODE_PERSON_1 );
+        execute( SINGLE_NODE_PERSON_2 );
+
+        Result res = execute( "MATCH (n {name: 'Hans'}) RETURN n" );
+        assertNode( res, 0 );
+        assert containsNodes( res, true, HANS );
+
+        res = execute( "MATCH (n:Animal {name: 'Kira', age: 3}) RETURN n" );
+        assertNode( res, 0 );
+        assert containsNodes( res, true, KIRA );
+    }
+
+
+    @Test
+    public void edgeMatchTest() {
+        execute( SINGLE_EDGE_1 );
+        execute( SINGLE_EDGE_2 );
+
+        Result res = execute( "MATCH (p:Person)-[r:OWNER_OF]->(a) RETURN a" );
+        assertNode( res, 0 );
+        assert containsNodes( res, true, KIRA );
+
+        res = execute( "MATCH (p:Person {name: 'Max'})-[r:KNOWS]->(b) RETURN b" );
+        assertNode( res, 0 );
+        assert containsNodes( res, true, HANS_AGE );
+    }
+
+
+    @Test
+    public void noMatchTest() {
+        execute( SINGLE_NODE_ANIMAL );
+        execute( SINGLE_EDGE_2 );
+
+        Result res = execute( "MATCH (n:Villain) RETURN n" );
+        assertNode( res, 0 );
+        assertEmpty( res );
+
+        res = execute( "MATCH (n:Person {name: 'David'}) RETURN n" );
+        assertNode( res, 0 );
+        assertEmpty( res );
+
+        res = execute( "MATCH (p:Person)-[r:OWNER_OF]->(a) RETURN a" );
+        assertNode( res, 0 );
+        assertEmpty( res );
+    }
+
+
+    @Test
+    public void multiLabelNodeMatchTest() {
+        // Ann is the target of one and the source of another edge, so both endpoints of the edges contain her id
+        execute( "CREATE (h:Person {name: 'Hans'})-[f:FRIEND_OF]->(p:Person:Employee {name: 'Ann'})-[rel:OWNER_OF]->(a:Animal {name:'Kira', age:3, type:'dog'})" );
+        final TestNode ann = TestNode.from( List.of( "Person", "Employee" ), Pair.of( "name", "Ann" ) );
+
+        Result res = execute( "MATCH (n:Employee) RETURN n" );
+        assertNode( res, 0 );
+        assert containsNodes( res, true, ann );
+
+        res = execute( "MATCH (p)-[r]->(a) RETURN a" );
+        assertNode( res, 0 );
+        assert containsNodes( res, true, ann, KIRA );
+
+        res = execute( "MATCH (p:Employee)-[r]->(a) RETURN p" );
+        assertNode( res, 0 );
+        assert containsNodes( res, true, ann );
+    }
+
+
+    @Test
+    public void pushdownMatchesFullScanTest() {
+        execute( SINGLE_NODE_ANIMAL );
+        execute( SINGLE_NODE_PERSON_2 );
+        execute( SINGLE_EDGE_1 );
+        execute( SINGLE_EDGE_2 );
+        execute( MULTIPLE_HOP_EDGE );
+        execute( "CREATE (h:Person {name: 'Hans'})-[f:FRIEND_OF]->(p:Person:Employee {name: 'Ann'})-[rel:OWNER_OF]->(a:Animal {name:'Kira'})" );
+
+        final boolean oldPushdown = RuntimeConfig.GRAPH_PATTERN_PUSHDOWN.getBoolean();
+        final boolean oldRoutingCaching = RuntimeConfig.ROUTING_PLAN_CACHING.getBoolean();
+        final boolean oldImplementationCaching = RuntimeConfig.IMPLEMENTATION_CACHING.getBoolean();
+        // Cached plans would not reflect the pushdown setting
+        RuntimeConfig.ROUTING_PLAN_CACHING.setBoolean( false );
+        RuntimeConfig.IMPLEMENTATION_CACHING.setBoolean( false );
+        try {
+            for ( String query : QUERIES ) {
+                RuntimeConfig.GRAPH_PATTERN_PUSHDOWN.setBoolean( true );
+                List<String> pushedDown = rows( execute( query ) );
+                RuntimeConfig.GRAPH_PATTERN_PUSHDOWN.setBoolean( false );
+                List<String> fullScan = rows( execute( query ) );
+                Assert.assertEquals( query, fullScan, pushedDown );
+            }
+        } finally {
+            RuntimeConfig.GRAPH_PATTERN_PUSHDOWN.setBoolean( oldPushdown );
+            RuntimeConfig.ROUTING_PLAN_CACHING.setBoolean( oldRoutingCaching );
+            RuntimeConfig.IMPLEMENTATION_CACHING.setBoolean( oldImplementationCaching );
+        }
+    }
+
+
+    private static List<String> rows( Result res ) {
+        return Arrays.stream( res.getData() )
+                .map( Arrays::toString )
+                .sorted()
+                .collect( Collectors.toList() );
+    }
+
+}
@@ -26,6 +26,8 @@
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.apache.calcite.avatica.ColumnMetaData;
 import org.apache.calcite.avatica.ColumnMetaData.Rep;
 import org.apache.calcite.avatica.SqlType;
@@ -39,9 +41,14 @@
 import org.polypheny.db.AdapterTestSuite;
 import org.polypheny.db.TestHelper;
 import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.excluded.CassandraExcluded;
 import org.polypheny.db.excluded.CottontailExcluded;
 import org.polypheny.db.excluded.FileExcluded;
+import org.polypheny.db.excluded.Neo4jExcluded;
+import org.polypheny.db.plan.AlgOptUtil;
+import org.polypheny.db.runtime.Hook;
 
 @SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
 @Category({ AdapterTestSuite.class, CassandraExcluded.class })
@@ -210,6 +217,121 @@ public void batchInsertTest() throws SQLException {
     }
 
 
+    @Test
+    public void batchUpdateCountsTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( SCHEMA_SQL );
+
+                try {
+                    // parameter rows are executed in bulk, only the total number of changed rows is known
+                    PreparedStatement preparedInsert = connection.prepareStatement( "INSERT INTO pstest(tinteger,tvarchar) VALUES (?, ?)" );
+                    preparedInsert.setInt( 1, 1 );
+                    preparedInsert.setString( 2, "Foo" );
+                    preparedInsert.addBatch();
+                    preparedInsert.setInt( 1, 2 );
+                    preparedInsert.setString( 2, "Bar" );
+                    preparedInsert.addBatch();
+                    Assert.assertArrayEquals( new int[]{ Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO }, preparedInsert.executeBatch() );
+
+                    // without parameters, every row is executed on its own
+                    PreparedStatement preparedUpdate = connection.prepareStatement( "UPDATE pstest SET tvarchar = 'Baz' WHERE tinteger > 0" );
+                    preparedUpdate.addBatch();
+                    preparedUpdate.addBatch();
+                    Assert.assertArrayEquals( new int[]{ 2, 2 }, preparedUpdate.executeBatch() );
+                    connection.commit();
+                } finally {
+                    statement.executeUpdate( "DROP TABLE pstest" );
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Executes a batch of three inserts and returns the optimized plans and the generated code of its execution.
+     */
+    private static List<String> executeInsertBatch( Connection connection, boolean bulk ) throws SQLException {
+        final List<String> plans = new CopyOnWriteArrayList<>();
+        final boolean oldBulk = RuntimeConfig.BULK_BATCH_EXECUTION.getBoolean();
+        final boolean oldCaching = RuntimeConfig.IMPLEMENTATION_CACHING.getBoolean();
+        RuntimeConfig.BULK_BATCH_EXECUTION.setBoolean( bulk );
+        // a cached implementation would not be generated again
+        RuntimeConfig.IMPLEMENTATION_CACHING.setBoolean( false );
+        try (
+                Hook.Closeable planHook = Hook.PLAN_BEFORE_IMPLEMENTATION.<AlgRoot>add( root -> plans.add( AlgOptUtil.toString( root.alg ) ) );
+                Hook.Closeable javaHook = Hook.JAVA_PLAN.<String>add( plans::add )
+        ) {
+            PreparedStatement preparedInsert = connection.prepareStatement( "INSERT INTO pstest(tinteger,tvarchar) VALUES (?, ?)" );
+            for ( int i = 1; i <= 3; i++ ) {
+                preparedInsert.setInt( 1, i );
+                preparedInsert.setString( 2, "Row" + i );
+                preparedInsert.addBatch();
+            }
+            preparedInsert.executeBatch();
+            connection.commit();
+        } finally {
+            RuntimeConfig.BULK_BATCH_EXECUTION.setBoolean( oldBulk );
+            RuntimeConfig.IMPLEMENTATION_CACHING.setBoolean( oldCaching );
+        }
+        return plans;
+    }
+
+
+    private static void checkInsertedBatch( Connection connection ) throws SQLException {
+        PreparedStatement preparedSelect = connection.prepareStatement( "SELECT tinteger,tvarchar FROM pstest ORDER BY tinteger" );
+        TestHelper.checkResultSet(
+                preparedSelect.executeQuery(),
+                ImmutableList.of(
+                        new Object[]{ 1, "Row1" },
+                        new Object[]{ 2, "Row2" },
+                        new Object[]{ 3, "Row3" } ),
+                true );
+    }
+
+
+    @Test
+    @Category({ FileExcluded.class, Neo4jExcluded.class })
+    public void batchBulkExecutionTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( SCHEMA_SQL );
+
+                try {
+                    List<String> plans = executeInsertBatch( connection, true );
+                    Assert.assertTrue( "No batch iterator in " + plans, plans.stream().anyMatch( plan -> plan.contains( "EnumerableBatchIterator" ) ) );
+                    // the adapter binds all rows at once, the plan is not executed once per row
+                    Assert.assertTrue( "Row by row execution in " + plans, plans.stream().noneMatch( plan -> plan.contains( "BatchIteratorEnumerable" ) ) );
+                    checkInsertedBatch( connection );
+                } finally {
+                    statement.executeUpdate( "DROP TABLE pstest" );
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void batchRowByRowExecutionTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( SCHEMA_SQL );
+
+                try {
+                    List<String> plans = executeInsertBatch( connection, false );
+                    Assert.assertTrue( "No row by row execution in " + plans, plans.stream().anyMatch( plan -> plan.contains( "BatchIteratorEnumerable" ) ) );
+                    checkInsertedBatch( connection );
+                } finally {
+                    statement.executeUpdate( "DROP TABLE pstest" );
+                }
+            }
+        }
+    }
+
+
     @Test
     public void batchInsertDefaultValuesTest() throws SQLException {
         try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( false ) ) {
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.mql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.polypheny.db.AdapterTestSuite;
+import org.polypheny.db.TestHelper.MongoConnection;
+import org.polypheny.db.adapter.index.IndexManager;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.excluded.CassandraExcluded;
+import org.polypheny.db.excluded.FileExcluded;
+import org.polypheny.db.webui.models.Result;
+
+
+/**
+ * Tests the creation of document indexes and the replacement of filtered scans by lookups of these indexes.
+ */
+@Category({ AdapterTestSuite.class, FileExcluded.class, CassandraExcluded.class })
+public class DocumentIndexTest extends MqlTestTemplate {
+
+    private static final String COLLECTION = "indextest";
+
+    private static final List<String> DATA = Arrays.asList(
+            "{\"name\":\"Ada\",\"customer\":{\"id\":1}}",
+            "{\"name\":\"Bob\",\"customer\":{\"id\":2}}",
+            "{\"name\":\"Eve\",\"customer\":{\"id\":3.0}}",
+            "{\"name\":\"Tim\",\"customer\":{\"id\":\"4\"}}",
+            "{\"name\":\"Kim\"}" );
+
+    private static boolean oldSimplify;
+
+
+    @BeforeClass
+    public static void createIndex() {
+        oldSimplify = RuntimeConfig.POLYSTORE_INDEXES_SIMPLIFY.getBoolean();
+        RuntimeConfig.POLYSTORE_INDEXES_SIMPLIFY.setBoolean( true );
+        createCollection( COLLECTION, database );
+        Result result = execute( "db." + COLLECTION + ".createIndex({\"customer.id\": 1})", database );
+        assertNull( result.getError() );
+    }
+
+
+    @AfterClass
+    public static void resetSimplify() {
+        RuntimeConfig.POLYSTORE_INDEXES_SIMPLIFY.setBoolean( oldSimplify );
+    }
+
+
+    @After
+    @Override
+    public void cleanDocuments() {
+        deleteMany( "{}", COLLECTION );
+    }
+
+
+    @Test
+    public void duplicateIndexTest() {
+        Result result = execute( "db." + COLLECTION + ".createIndex({\"customer.id\": 1})", database );
+        assertNotNull( result.getError() );
+    }
+
+
+    @Test
+    public void equalityLookupTest() {
+        insertDocuments( DATA );
+
+        long hits = IndexManager.getInstance().getHitCount();
+        Result result = find( "{\"customer.id\":2}", "{}", COLLECTION );
+        assertTrue( IndexManager.getInstance().getHitCount() > hits );
+        assertTrue(
+                MongoConnection.checkResultSet(
+                        result,
+                        ImmutableList.of( new Object[]{ DATA.get( 1 ) } ), true ) );
+
+        // Numbers are compared by their value, not by their type
+        result = find( "{\"customer.id\":3}", "{}", COLLECTION );
+        assertTrue(
+                MongoConnection.checkResultSet(
+                        result,
+                        ImmutableList.of( new Object[]{ DATA.get( 2 ) } ), true ) );
+
+        result = find( "{\"customer.id\":\"4\"}", "{}", COLLECTION );
+        assertTrue(
+                MongoConnection.checkResultSet(
+                        result,
+                        ImmutableList.of( new Object[]{ DATA.get( 3 ) } ), true ) );
+
+        result = find( "{\"customer.id\":5}", "{}", COLLECTION );
+        assertTrue( MongoConnection.checkResultSet( result, ImmutableList.of(), true ) );
+    }
+
+
+    @Test
+    public void rangeLookupTest() {
+        insertDocuments( DATA );
+
+        long hits = IndexManager.getInstance().getHitCount();
+        Result result = find( "{\"customer.id\":{\"$gt\":1}}", "{}", COLLECTION );
+        assertTrue( IndexManager.getInstance().getHitCount() > hits );
+        // The string is not part of a numeric range
+        assertEquals( 2, result.getData().length );
+
+        result = find( "{\"customer.id\":{\"$lte\":1}}", "{}", COLLECTION );
+        assertTrue(
+                MongoConnection.checkResultSet(
+                        result,
+                        ImmutableList.of( new Object[]{ DATA.get( 0 ) } ), true ) );
+    }
+
+
+    @Test
+    public void stringRangeTest() {
+        insertDocuments( DATA );
+
+        // Only numbers are part of the ranges of the index, so the collection is scanned
+        long hits = IndexManager.getInstance().getHitCount();
+        Result result = find( "{\"customer.id\":{\"$gt\":\"3\"}}", "{}", COLLECTION );
+        assertNull( result.getError() );
+        assertEquals( hits, IndexManager.getInstance().getHitCount() );
+        assertRows( findWithoutIndex( "{\"customer.id\":{\"$gt\":\"3\"}}" ), result );
+    }
+
+
+    @Test
+    public void arrayPathTest() {
+        insertDocuments( DATA );
+        String array = "{\"name\":\"Sam\",\"customer\":{\"id\":[1,5]}}";
+        insert( array, COLLECTION );
+
+        // Arrays are candidates of every lookup, as the filter may match one of their elements
+        long hits = IndexManager.getInstance().getHitCount();
+        Result result = find( "{\"customer.id\":5}", "{}", COLLECTION );
+        assertTrue( IndexManager.getInstance().getHitCount() > hits );
+        assertTrue(
+                MongoConnection.checkResultSet(
+                        result,
+                        ImmutableList.of( new Object[]{ array } ), true ) );
+
+        hits = IndexManager.getInstance().getHitCount();
+        result = find( "{\"customer.id\":{\"$gt\":4}}", "{}", COLLECTION );
+        assertTrue( IndexManager.getInstance().getHitCount() > hits );
+        assertRows( findWithoutIndex( "{\"customer.id\":{\"$gt\":4}}" ), result );
+    }
+
+
+    @Test
+    public void modifiedDocumentsTest() {
+        insertDocuments( DATA );
+
+        String added = "{\"name\":\"Max\",\"customer\":{\"id\":7}}";
+        insert( added, COLLECTION );
+        Result result = find( "{\"customer.id\":7}", "{}", COLLECTION );
+        assertTrue(
+                MongoConnection.checkResultSet(
+                        result,
+                        ImmutableList.of( new Object[]{ added } ), true ) );
+
+        deleteMany( "{\"customer.id\":7}", COLLECTION );
+        result = find( "{\"customer.id\":7}", "{}", COLLECTION );
+        assertTrue( MongoConnection.checkResultSet( result, ImmutableList.of(), true ) );
+    }
+
+
+    /**
+     * Executes the query with a scan of the collection instead of a lookup of the index.
+     */
+    private Result findWithoutIndex( String query ) {
+        final boolean oldQueryCaching = RuntimeConfig.QUERY_PLAN_CACHING.getBoolean();
+        final boolean oldImplementationCaching = RuntimeConfig.IMPLEMENTATION_CACHING.getBoolean();
+        RuntimeConfig.POLYSTORE_INDEXES_SIMPLIFY.setBoolean( false );
+        RuntimeConfig.QUERY_PLAN_CACHING.setBoolean( false );
+        RuntimeConfig.IMPLEMENTATION_CACHING.setBoolean( false );
+        try {
+            return find( query, "{}", COLLECTION );
+        } finally {
+            RuntimeConfig.POLYSTORE_INDEXES_SIMPLIFY.setBoolean( true );
+            RuntimeConfig.QUERY_PLAN_CACHING.setBoolean( oldQueryCaching );
+            RuntimeConfig.IMPLEMENTATION_CACHING.setBoolean( oldImplementationCaching );
+        }
+    }
+
+
+    private static void assertRows( Result expected, Result actual ) {
+        assertNull( actual.getError() );
+        assertEquals( expected.getData().length, actual.getData().length );
+        for ( String[] row : expected.getData() ) {
+            assertTrue( Arrays.stream( actual.getData() ).anyMatch( r -> Arrays.equals( r, row ) ) );
+        }
+    }
+
+
+    private static void insertDocuments( List<String> documents ) {
+        MongoConnection.executeGetResponse( "db." + COLLECTION + ".insertMany([" + String.join( ",", documents ) + "])" );
+    }
+
+}
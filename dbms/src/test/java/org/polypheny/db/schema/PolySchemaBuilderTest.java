@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.schema;
+
+
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.polypheny.db.AdapterTestSuite;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.algebra.type.AlgDataTypeSystem;
+import org.polypheny.db.excluded.CassandraExcluded;
+import org.polypheny.db.type.PolyTypeFactoryImpl;
+
+
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+@Category({ AdapterTestSuite.class, CassandraExcluded.class })
+public class PolySchemaBuilderTest {
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Test
+    public void reuseUnchangedTablesTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE schemabuilderchanged( id INTEGER NOT NULL, PRIMARY KEY (id) )" );
+                statement.executeUpdate( "CREATE TABLE schemabuilderunchanged( id INTEGER NOT NULL, PRIMARY KEY (id) )" );
+                try {
+                    Table changed = getLogicalTable( "schemabuilderchanged" );
+                    Table unchanged = getLogicalTable( "schemabuilderunchanged" );
+
+                    statement.executeUpdate( "ALTER TABLE schemabuilderchanged ADD COLUMN name VARCHAR(20) NULL" );
+
+                    Assert.assertNotSame( changed, getLogicalTable( "schemabuilderchanged" ) );
+                    Assert.assertSame( unchanged, getLogicalTable( "schemabuilderunchanged" ) );
+                    Assert.assertEquals( 2, getLogicalTable( "schemabuilderchanged" ).getRowType( new PolyTypeFactoryImpl( AlgDataTypeSystem.DEFAULT ) ).getFieldCount() );
+                } finally {
+                    statement.executeUpdate( "DROP TABLE schemabuilderchanged" );
+                    statement.executeUpdate( "DROP TABLE schemabuilderunchanged" );
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void mergePartitionsTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "CREATE TABLE schemabuildermerge( id INTEGER NOT NULL, val INTEGER NULL, PRIMARY KEY (id) ) "
+                        + "PARTITION BY HASH (val) "
+                        + "PARTITIONS 3" );
+                statement.executeUpdate( "CREATE TABLE schemabuilderunchanged( id INTEGER NOT NULL, PRIMARY KEY (id) )" );
+                try {
+                    statement.executeUpdate( "INSERT INTO schemabuildermerge VALUES (1, 10), (2, 20), (3, 30)" );
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT COUNT(*) FROM schemabuildermerge" ),
+                            ImmutableList.of( new Object[]{ 3L } ) );
+                    Table unchanged = getLogicalTable( "schemabuilderunchanged" );
+
+                    // Deletes partitions and partition placements, the physical tables have to be rebuilt
+                    statement.executeUpdate( "ALTER TABLE schemabuildermerge MERGE PARTITIONS" );
+
+                    Assert.assertSame( unchanged, getLogicalTable( "schemabuilderunchanged" ) );
+                    TestHelper.checkResultSet(
+                            statement.executeQuery( "SELECT id, val FROM schemabuildermerge ORDER BY id" ),
+                            ImmutableList.of(
+                                    new Object[]{ 1, 10 },
+                                    new Object[]{ 2, 20 },
+                                    new Object[]{ 3, 30 } ) );
+                } finally {
+                    statement.executeUpdate( "DROP TABLE schemabuildermerge" );
+                    statement.executeUpdate( "DROP TABLE schemabuilderunchanged" );
+                }
+            }
+        }
+    }
+
+
+    private static Table getLogicalTable( String tableName ) {
+        return PolySchemaBuilder.getInstance()
+                .getCurrent()
+                .getSubSchema( "public", false )
+                .getTable( tableName )
+                .getTable();
+    }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.sql;
+
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.polypheny.db.AdapterTestSuite;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.excluded.CassandraExcluded;
+import org.polypheny.db.plan.AlgOptUtil;
+import org.polypheny.db.runtime.Hook;
+
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+@Category({ AdapterTestSuite.class, CassandraExcluded.class })
+public class SqlColumnarFilterTest {
+
+    /**
+     * Union of two tables on different stores, so that the operators above the union are executed by Polypheny.
+     */
+    private static final String CROSS_STORE = "(SELECT id, amount, price FROM columnarfilter UNION ALL SELECT id, amount, price FROM columnarfilter2) AS t";
+
+    private static final List<String> plans = new CopyOnWriteArrayList<>();
+
+    private static Hook.Closeable planHook;
+    private static boolean oldColumnarExecution;
+    private static boolean oldImplementationCaching;
+
+
+    @BeforeClass
+    public static void start() throws SQLException {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+        oldColumnarExecution = RuntimeConfig.COLUMNAR_EXECUTION.getBoolean();
+        RuntimeConfig.COLUMNAR_EXECUTION.setBoolean( true );
+        // cached implementations would skip the planning whose result is checked
+        oldImplementationCaching = RuntimeConfig.IMPLEMENTATION_CACHING.getBoolean();
+        RuntimeConfig.IMPLEMENTATION_CACHING.setBoolean( false );
+        planHook = Hook.PLAN_BEFORE_IMPLEMENTATION.<AlgRoot>add( root -> plans.add( AlgOptUtil.toString( root.alg ) ) );
+        addTestData();
+    }
+
+
+    private static void addTestData() throws SQLException {
+        try ( JdbcConnection jdbcConnection = new JdbcConnection( false ) ) {
+            Connection connection = jdbcConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "ALTER ADAPTERS ADD \"columnarstore\" USING 'Hsqldb' AS 'Store'"
+                        + " WITH '{maxConnections:\"25\",trxControlMode:locks,trxIsolationLevel:read_committed,type:Memory,tableType:Memory,mode:embedded}'" );
+                statement.executeUpdate( "CREATE TABLE columnarfilter( id INTEGER NOT NULL, name VARCHAR(39), amount BIGINT, price DOUBLE, PRIMARY KEY (id))" );
+                statement.executeUpdate( "INSERT INTO columnarfilter VALUES (1, 'Hans', 5, 1.5)" );
+                statement.executeUpdate( "INSERT INTO columnarfilter VALUES (2, 'Alice', 7, null)" );
+                statement.executeUpdate( "INSERT INTO columnarfilter VALUES (3, 'Bob', null, 4.5)" );
+                statement.executeUpdate( "INSERT INTO columnarfilter VALUES (4, 'Saskia', 6, 2.0)" );
+                statement.executeUpdate( "INSERT INTO columnarfilter VALUES (5, 'Rebecca', 3, 8.25)" );
+                statement.executeUpdate( "CREATE TABLE columnarfilter2( id INTEGER NOT NULL, name VARCHAR(39), amount BIGINT, price DOUBLE, PRIMARY KEY (id)) ON STORE \"columnarstore\"" );
+                statement.executeUpdate( "INSERT INTO columnarfilter2 VALUES (6, 'Lena', 9, 0.75)" );
+                statement.executeUpdate( "INSERT INTO columnarfilter2 VALUES (7, 'Max', null, 3.0)" );
+                statement.executeUpdate( "INSERT INTO columnarfilter2 VALUES (8, 'Ute', 4, null)" );
+                connection.commit();
+            }
+        }
+    }
+
+
+    @AfterClass
+    public static void stop() throws SQLException {
+        try ( JdbcConnection jdbcConnection = new JdbcConnection( true ) ) {
+            Connection connection = jdbcConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "DROP TABLE columnarfilter" );
+                statement.executeUpdate( "DROP TABLE columnarfilter2" );
+                statement.executeUpdate( "ALTER ADAPTERS DROP \"columnarstore\"" );
+            }
+        } finally {
+            planHook.close();
+            RuntimeConfig.COLUMNAR_EXECUTION.setBoolean( oldColumnarExecution );
+            RuntimeConfig.IMPLEMENTATION_CACHING.setBoolean( oldImplementationCaching );
+        }
+    }
+
+
+    @Before
+    public void clearPlans() {
+        plans.clear();
+    }
+
+
+    /**
+     * Asserts that one of the plans executed since the start of the test contains all given operators.
+     */
+    private static void assertPlanContains( String... operators ) {
+        assertTrue(
+                "Not all of " + Arrays.toString( operators ) + " in the plans " + plans,
+                plans.stream().anyMatch( plan -> Arrays.stream( operators ).allMatch( operator -> Pattern.compile( operator ).matcher( plan ).find() ) ) );
+    }
+
+    // --------------- Tests ---------------
+
+
+    @Test
+    public void comparisonTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id, name FROM columnarfilter WHERE amount >= 5 ORDER BY id" ),
+                        ImmutableList.of(
+                                new Object[]{ 1, "Hans" },
+                                new Object[]{ 2, "Alice" },
+                                new Object[]{ 4, "Saskia" } ) );
+
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id FROM columnarfilter WHERE 2.0 < price ORDER BY id" ),
+                        ImmutableList.of(
+                                new Object[]{ 3 },
+                                new Object[]{ 5 } ) );
+            }
+        }
+    }
+
+
+    @Test
+    public void crossStoreFilterTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id FROM " + CROSS_STORE + " WHERE amount >= 5 ORDER BY id" ),
+                        ImmutableList.of(
+                                new Object[]{ 1 },
+                                new Object[]{ 2 },
+                                new Object[]{ 4 },
+                                new Object[]{ 6 } ) );
+                assertPlanContains( "EnumerableUnion", "EnumerableVector" );
+
+                plans.clear();
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id, amount, price FROM " + CROSS_STORE + " WHERE amount <> 6 AND price <= 8.25 AND id > 0 ORDER BY id" ),
+                        ImmutableList.of(
+                                new Object[]{ 1, 5L, 1.5 },
+                                new Object[]{ 5, 3L, 8.25 },
+                                new Object[]{ 6, 9L, 0.75 } ) );
+                assertPlanContains( "EnumerableVector" );
+
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id FROM " + CROSS_STORE + " WHERE amount > 100" ),
+                        ImmutableList.of() );
+            }
+        }
+    }
+
+
+    @Test
+    public void preparedStatementTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( PreparedStatement statement = connection.prepareStatement( "SELECT id FROM " + CROSS_STORE + " WHERE amount > ? AND price < ? ORDER BY id" ) ) {
+                statement.setLong( 1, 4 );
+                statement.setDouble( 2, 3.5 );
+                TestHelper.checkResultSet(
+                        statement.executeQuery(),
+                        ImmutableList.of(
+                                new Object[]{ 1 },
+                                new Object[]{ 4 },
+                                new Object[]{ 6 } ) );
+                assertPlanContains( "EnumerableVector" );
+
+                // the parameters are bound per execution
+                statement.setLong( 1, 6 );
+                statement.setDouble( 2, 10 );
+                TestHelper.checkResultSet(
+                        statement.executeQuery(),
+                        ImmutableList.of(
+                                new Object[]{ 6 } ) );
+            }
+        }
+    }
+
+
+    @Test
+    public void aggregateTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT COUNT(*), COUNT(price), MIN(price), MAX(price) FROM " + CROSS_STORE + " WHERE amount >= 5" ),
+                        ImmutableList.of(
+                                new Object[]{ 4L, 3L, 0.75, 2.0 } ) );
+                // the aggregate consumes the batches of the filter
+                assertPlanContains( "EnumerableVectorAggregate", "EnumerableVector(Calc|Filter)" );
+
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT COUNT(*), MAX(amount) FROM " + CROSS_STORE + " WHERE amount > 100" ),
+                        ImmutableList.of(
+                                new Object[]{ 0L, null } ) );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.sql;
+
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.polypheny.db.AdapterTestSuite;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.TestHelper.JdbcConnection;
+import org.polypheny.db.algebra.AlgRoot;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.excluded.CassandraExcluded;
+import org.polypheny.db.plan.AlgOptUtil;
+import org.polypheny.db.runtime.Hook;
+
+
+@SuppressWarnings({ "SqlDialectInspection", "SqlNoDataSourceInspection" })
+@Category({ AdapterTestSuite.class, CassandraExcluded.class })
+public class SqlGatherTest {
+
+    private static final List<String> plans = new CopyOnWriteArrayList<>();
+
+    private static Hook.Closeable planHook;
+    private static int oldParallelism;
+    private static boolean oldImplementationCaching;
+
+
+    @BeforeClass
+    public static void start() throws SQLException {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+        oldParallelism = RuntimeConfig.INTRA_QUERY_PARALLELISM.getInteger();
+        RuntimeConfig.INTRA_QUERY_PARALLELISM.setInteger( 2 );
+        // cached implementations would skip the planning whose result is checked
+        oldImplementationCaching = RuntimeConfig.IMPLEMENTATION_CACHING.getBoolean();
+        RuntimeConfig.IMPLEMENTATION_CACHING.setBoolean( false );
+        planHook = Hook.PLAN_BEFORE_IMPLEMENTATION.<AlgRoot>add( root -> plans.add( AlgOptUtil.toString( root.alg ) ) );
+        addTestData();
+    }
+
+
+    private static void addTestData() throws SQLException {
+        try ( JdbcConnection jdbcConnection = new JdbcConnection( false ) ) {
+            Connection connection = jdbcConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "ALTER ADAPTERS ADD \"gatherstore\" USING 'Hsqldb' AS 'Store'"
+                        + " WITH '{maxConnections:\"25\",trxControlMode:locks,trxIsolationLevel:read_committed,type:Memory,tableType:Memory,mode:embedded}'" );
+                statement.executeUpdate( "CREATE TABLE gather1( id INTEGER NOT NULL, name VARCHAR(39), PRIMARY KEY (id))" );
+                statement.executeUpdate( "INSERT INTO gather1 VALUES (1, 'Hans')" );
+                statement.executeUpdate( "INSERT INTO gather1 VALUES (2, 'Alice')" );
+                statement.executeUpdate( "CREATE TABLE gather2( id INTEGER NOT NULL, name VARCHAR(39), PRIMARY KEY (id))" );
+                statement.executeUpdate( "INSERT INTO gather2 VALUES (3, 'Bob')" );
+                statement.executeUpdate( "CREATE TABLE gather3( id INTEGER NOT NULL, name VARCHAR(39), PRIMARY KEY (id)) ON STORE \"gatherstore\"" );
+                statement.executeUpdate( "INSERT INTO gather3 VALUES (4, 'Lena')" );
+                statement.executeUpdate( "INSERT INTO gather3 VALUES (5, 'Max')" );
+                connection.commit();
+            }
+        }
+    }
+
+
+    @AfterClass
+    public static void stop() throws SQLException {
+        try ( JdbcConnection jdbcConnection = new JdbcConnection( true ) ) {
+            Connection connection = jdbcConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                statement.executeUpdate( "DROP TABLE gather1" );
+                statement.executeUpdate( "DROP TABLE gather2" );
+                statement.executeUpdate( "DROP TABLE gather3" );
+                statement.executeUpdate( "ALTER ADAPTERS DROP \"gatherstore\"" );
+            }
+        } finally {
+            planHook.close();
+            RuntimeConfig.INTRA_QUERY_PARALLELISM.setInteger( oldParallelism );
+            RuntimeConfig.IMPLEMENTATION_CACHING.setBoolean( oldImplementationCaching );
+        }
+    }
+
+
+    @Before
+    public void clearPlans() {
+        plans.clear();
+    }
+
+
+    private static boolean planContains( String operator ) {
+        return plans.stream().anyMatch( plan -> plan.contains( operator ) );
+    }
+
+    // --------------- Tests ---------------
+
+
+    @Test
+    public void crossStoreUnionTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id, name FROM (SELECT id, name FROM gather1 UNION ALL SELECT id, name FROM gather3) AS t ORDER BY id" ),
+                        ImmutableList.of(
+                                new Object[]{ 1, "Hans" },
+                                new Object[]{ 2, "Alice" },
+                                new Object[]{ 4, "Lena" },
+                                new Object[]{ 5, "Max" } ) );
+                assertTrue( "No gather in the plans " + plans, planContains( "EnumerableGather" ) );
+            }
+        }
+    }
+
+
+    @Test
+    public void sameStoreUnionTest() throws SQLException {
+        try ( JdbcConnection polyphenyDbConnection = new JdbcConnection( true ) ) {
+            Connection connection = polyphenyDbConnection.getConnection();
+            try ( Statement statement = connection.createStatement() ) {
+                TestHelper.checkResultSet(
+                        statement.executeQuery( "SELECT id, name FROM (SELECT id, name FROM gather1 UNION ALL SELECT id, name FROM gather2) AS t ORDER BY id" ),
+                        ImmutableList.of(
+                                new Object[]{ 1, "Hans" },
+                                new Object[]{ 2, "Alice" },
+                                new Object[]{ 3, "Bob" } ) );
+                // both branches would use the same connection of the store
+                assertFalse( "Gather in the plans " + plans, planContains( "EnumerableGather" ) );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.transaction;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.junit.Test;
+
+
+/**
+ * Unit tests for {@link CommitCoordinator}.
+ */
+public class CommitCoordinatorTest {
+
+    private static final Function<String, String> NAMES = name -> name;
+
+
+    @Test
+    public void commitFailureDoesNotAbortOtherCommits() {
+        final Set<String> committed = ConcurrentHashMap.newKeySet();
+        final Set<String> interrupted = ConcurrentHashMap.newKeySet();
+        try {
+            CommitCoordinator.commitAll( List.of( "a", "failing", "slow" ), NAMES, name -> {
+                if ( name.equals( "failing" ) ) {
+                    throw new IllegalStateException( "commit failed" );
+                }
+                if ( name.equals( "slow" ) ) {
+                    try {
+                        Thread.sleep( 200 );
+                    } catch ( InterruptedException e ) {
+                        interrupted.add( name );
+                        return;
+                    }
+                }
+                committed.add( name );
+            } );
+            fail( "The failed commit has not been reported" );
+        } catch ( TransactionException e ) {
+            assertTrue( e.getCause() instanceof IllegalStateException );
+        }
+        // all other adapters have committed, none of them has been interrupted
+        assertEquals( Set.of( "a", "slow" ), committed );
+        assertTrue( interrupted.isEmpty() );
+    }
+
+
+    @Test
+    public void prepareCollectsVotes() {
+        assertTrue( CommitCoordinator.prepareAll( List.of( "a", "b" ), NAMES, name -> true ) );
+        assertFalse( CommitCoordinator.prepareAll( List.of( "a", "b" ), NAMES, name -> name.equals( "a" ) ) );
+        assertFalse( CommitCoordinator.prepareAll( List.of( "a", "b" ), NAMES, name -> {
+            throw new IllegalStateException( "prepare failed" );
+        } ) );
+    }
+
+}
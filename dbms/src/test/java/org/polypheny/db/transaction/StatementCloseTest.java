@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.transaction;
+
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.polypheny.db.TestHelper;
+import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.type.PolyType;
+
+
+/**
+ * Tests closing statements which still have bound parameter values.
+ */
+public class StatementCloseTest {
+
+    @BeforeClass
+    public static void start() {
+        // Ensures that Polypheny-DB is running
+        //noinspection ResultOfMethodCallIgnored
+        TestHelper.getInstance();
+    }
+
+
+    @Test
+    public void closeWithParameterBatch() {
+        Transaction transaction = TestHelper.getInstance().getTransaction();
+        Statement statement = transaction.createStatement();
+        AlgDataType type = transaction.getTypeFactory().createPolyType( PolyType.INTEGER );
+        statement.getDataContext().addParameterValues( 0, type, Arrays.asList( 1, 2, 3 ) );
+        assertEquals( 3, statement.getDataContext().getParameterValues().size() );
+
+        statement.close();
+    }
+
+
+    @Test
+    public void rollbackWithParameterBatch() throws TransactionException {
+        Transaction transaction = TestHelper.getInstance().getTransaction();
+        Statement statement = transaction.createStatement();
+        AlgDataType type = transaction.getTypeFactory().createPolyType( PolyType.INTEGER );
+        statement.getDataContext().addParameterValues( 0, type, Arrays.asList( 1, 2, 3 ) );
+        statement.getDataContext().addParameterValues( 1, type, Arrays.asList( 4, 5, 6 ) );
+
+        // closes the statement, which clears its parameter values
+        transaction.rollback();
+    }
+
+}
@@ -41,6 +41,7 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.avatica.AvaticaParameter;
 import org.apache.calcite.avatica.AvaticaSeverity;
@@ -870,14 +871,12 @@ public MetaResultSet getPseudoColumns( final ConnectionHandle ch, final String c
     @Override
     public ExecuteBatchResult executeBatchProtobuf( final StatementHandle h, final List<UpdateBatch> parameterValues ) throws NoSuchStatementException {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        final PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
+        synchronized ( statementHandle ) {
             if ( log.isTraceEnabled() ) {
                 log.trace( "executeBatchProtobuf( StatementHandle {}, List<UpdateBatch> {} )", h, parameterValues );
             }
 
-            final PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
-
-            long[] updateCounts = new long[parameterValues.size()];
             Map<Long, List<Object>> values = new HashMap<>();
             for ( UpdateBatch updateBatch : parameterValues ) {
                 List<Common.TypedValue> list = updateBatch.getParameterValuesList();
@@ -895,24 +894,96 @@ public ExecuteBatchResult executeBatchProtobuf( final StatementHandle h, final L
                 }
             }
 
+            return new ExecuteBatchResult( executeBatch( h, connection, statementHandle, values, parameterValues.size() ) );
+        }
+    }
+
+
+    /**
+     * Binds all parameter rows as one batch to the data context of a new statement and executes it with a single plan.
+     * Adapters supporting it execute the whole batch at once (see {@link org.polypheny.db.adapter.enumerable.BulkExecutable}).
+     *
+     * @param values The values of each parameter index, one value per row
+     * @param rowCount The number of parameter rows
+     * @return The update counts, one per parameter row
+     */
+    private long[] executeBatch( StatementHandle h, PolyphenyDbConnectionHandle connection, PolyphenyDbStatementHandle statementHandle, Map<Long, List<Object>> values, int rowCount ) {
+        if ( rowCount == 0 ) {
+            // Nothing to execute
+            return new long[0];
+        }
+        try {
+            final long[] updateCounts = new long[rowCount];
+            // A batch of statements without parameters can not be bound as parameter batch
+            final boolean bulk = !values.isEmpty();
+            final int executions = bulk ? 1 : rowCount;
+            final boolean autoCommit = connection.isAutoCommit();
+            final Lock lock = getExecutionLock( connection, autoCommit );
+            lock.lock();
             try {
-                if ( values.size() == 0 ) {
-                    // Nothing to execute
-                    return new ExecuteBatchResult( new long[0] );
+                for ( int i = 0; i < executions; i++ ) {
+                    statementHandle.setStatement( connection.getCurrentOrCreateNewTransaction().createStatement() );
+                    for ( Entry<Long, List<Object>> valuesList : values.entrySet() ) {
+                        statementHandle.getStatement().getDataContext().addParameterValues( valuesList.getKey(), null, valuesList.getValue() );
+                    }
+                    prepare( h, statementHandle.getPreparedQuery() );
+                    updateCounts[i] = getUpdateCount( execute( h, connection, statementHandle, -1 ) );
                 }
-                statementHandle.setStatement( connection.getCurrentOrCreateNewTransaction().createStatement() );
-                for ( Entry<Long, List<Object>> valuesList : values.entrySet() ) {
-                    statementHandle.getStatement().getDataContext().addParameterValues( valuesList.getKey(), null, valuesList.getValue() );
+                if ( autoCommit ) {
+                    commitIfRequired( connection, statementHandle, true );
                 }
-                prepare( h, statementHandle.getPreparedQuery() );
-                updateCounts[0] = execute( h, connection, statementHandle, -1 ).size();
-            } catch ( Throwable e ) {
-                log.error( "Exception while preparing query", e );
-                String message = e.getLocalizedMessage();
-                throw new AvaticaRuntimeException( message == null ? "null" : message, -1, "", AvaticaSeverity.ERROR );
+            } finally {
+                lock.unlock();
             }
+            if ( !autoCommit ) {
+                commitIfRequired( connection, statementHandle, false );
+            }
+            if ( bulk && rowCount > 1 ) {
+                // a bulk execution only reports the total count, the counts of the individual rows are unknown
+                Arrays.fill( updateCounts, Statement.SUCCESS_NO_INFO );
+            }
+            return updateCounts;
+        } catch ( Throwable e ) {
+            log.error( "Exception while executing batch", e );
+            String message = e.getLocalizedMessage();
+            throw new AvaticaRuntimeException( message == null ? "null" : message, -1, "", AvaticaSeverity.ERROR );
+        }
+    }
 
-            return new ExecuteBatchResult( updateCounts );
+
+    private static long getUpdateCount( List<MetaResultSet> results ) {
+        long updateCount = 0;
+        for ( MetaResultSet result : results ) {
+            updateCount += Math.max( result.updateCount, 0 );
+        }
+        return updateCount;
+    }
+
+
+    /**
+     * Returns the lock to hold while executing a statement. In auto-commit mode, the statement is committed before the
+     * lock is released, so no other statement of the connection may execute in its transaction meanwhile.
+     */
+    private static Lock getExecutionLock( PolyphenyDbConnectionHandle connection, boolean autoCommit ) {
+        return autoCommit ? connection.getTransactionLock() : connection.getStatementLock();
+    }
+
+
+    /**
+     * Commits the transaction after a DDL statement or, in auto-commit mode, after a DML statement. In auto-commit mode,
+     * it has to be called while holding the {@link #getExecutionLock(PolyphenyDbConnectionHandle, boolean) execution lock},
+     * otherwise after releasing the {@link PolyphenyDbConnectionHandle#getStatementLock() statement lock}.
+     */
+    private void commitIfRequired( PolyphenyDbConnectionHandle connection, PolyphenyDbStatementHandle statementHandle, boolean autoCommit ) {
+        final StatementType statementType = statementHandle.getSignature().statementType;
+        if ( statementType == StatementType.OTHER_DDL || (statementType == StatementType.IS_DML && autoCommit) ) {
+            try {
+                commit( connection.getHandle() );
+            } catch ( Exception e ) {
+                rollback( connection.getHandle() );
+
+                throw new RuntimeException( "Error on auto-commit, transaction was rolled back.\n\n" + e );
+            }
         }
     }
 
@@ -948,7 +1019,9 @@ public Iterable<Object> createIterable( final StatementHandle h, final QueryStat
     @Override
     public StatementHandle prepare( final ConnectionHandle ch, final String sql, final long maxRowCount ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        // The statement is new and not yet known to the client, so there is no need to lock it
+        connection.getStatementLock().lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "prepare( ConnectionHandle {}, String {}, long {} )", ch, sql, maxRowCount );
             }
@@ -991,6 +1064,8 @@ public StatementHandle prepare( final ConnectionHandle ch, final String sql, fin
             polyphenyDbStatement.setSignature( signature );
 
             return h;
+        } finally {
+            connection.getStatementLock().unlock();
         }
     }
 
@@ -1028,14 +1103,13 @@ public ExecuteResult prepareAndExecute( final StatementHandle h, final String sq
     @Override
     public ExecuteResult prepareAndExecute( final StatementHandle h, final String sql, final long maxRowCount, final int maxRowsInFirstFrame, final PrepareCallback callback ) throws NoSuchStatementException {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        final PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
+        synchronized ( statementHandle ) {
             if ( log.isTraceEnabled() ) {
                 log.trace( "prepareAndExecute( StatementHandle {}, String {}, long {}, int {}, PrepareCallback {} )", h, sql, maxRowCount, maxRowsInFirstFrame, callback );
             }
 
-            PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
             statementHandle.setPreparedQuery( sql );
-            statementHandle.setStatement( connection.getCurrentOrCreateNewTransaction().createStatement() );
             return execute( h, new LinkedList<>(), maxRowsInFirstFrame, connection );
         }
     }
@@ -1051,13 +1125,39 @@ public ExecuteResult prepareAndExecute( final StatementHandle h, final String sq
     @Override
     public ExecuteBatchResult prepareAndExecuteBatch( final StatementHandle h, final List<String> sqlCommands ) throws NoSuchStatementException {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        final PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
+        synchronized ( statementHandle ) {
             if ( log.isTraceEnabled() ) {
                 log.trace( "prepareAndExecuteBatch( StatementHandle {}, List<String> {} )", h, sqlCommands );
             }
 
-            log.error( "[NOT IMPLEMENTED YET] prepareAndExecuteBatch( StatementHandle {}, List<String> {} )", h, sqlCommands );
-            return null;
+            final long[] updateCounts = new long[sqlCommands.size()];
+            try {
+                for ( int i = 0; i < sqlCommands.size(); i++ ) {
+                    statementHandle.setPreparedQuery( sqlCommands.get( i ) );
+                    final boolean autoCommit = connection.isAutoCommit();
+                    final Lock lock = getExecutionLock( connection, autoCommit );
+                    lock.lock();
+                    try {
+                        statementHandle.setStatement( connection.getCurrentOrCreateNewTransaction().createStatement() );
+                        prepare( h, statementHandle.getPreparedQuery() );
+                        updateCounts[i] = getUpdateCount( execute( h, connection, statementHandle, -1 ) );
+                        if ( autoCommit ) {
+                            commitIfRequired( connection, statementHandle, true );
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    if ( !autoCommit ) {
+                        commitIfRequired( connection, statementHandle, false );
+                    }
+                }
+            } catch ( Throwable e ) {
+                log.error( "Exception while executing batch", e );
+                String message = e.getLocalizedMessage();
+                throw new AvaticaRuntimeException( message == null ? "null" : message, -1, "", AvaticaSeverity.ERROR );
+            }
+            return new ExecuteBatchResult( updateCounts );
         }
     }
 
@@ -1072,13 +1172,31 @@ public ExecuteBatchResult prepareAndExecuteBatch( final StatementHandle h, final
     @Override
     public ExecuteBatchResult executeBatch( final StatementHandle h, final List<List<TypedValue>> parameterValues ) throws NoSuchStatementException {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        final PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
+        synchronized ( statementHandle ) {
             if ( log.isTraceEnabled() ) {
                 log.trace( "executeBatch( StatementHandle {}, List<List<TypedValue>> {} )", h, parameterValues );
             }
 
-            log.error( "[NOT IMPLEMENTED YET] executeBatch( StatementHandle {}, List<List<TypedValue>> {} )", h, parameterValues );
-            return null;
+            Map<Long, List<Object>> values = new HashMap<>();
+            for ( List<TypedValue> row : parameterValues ) {
+                long index = 0;
+                for ( TypedValue v : row ) {
+                    long i = index++;
+                    if ( !values.containsKey( i ) ) {
+                        values.put( i, new ArrayList<>( parameterValues.size() ) );
+                    }
+                    if ( v == null ) {
+                        values.get( i ).add( null );
+                    } else if ( "ARRAY".equals( v.type.name() ) ) {
+                        values.get( i ).add( convertList( (List<Object>) v.toLocal() ) );
+                    } else {
+                        values.get( i ).add( v.toJdbc( calendar ) );
+                    }
+                }
+            }
+
+            return new ExecuteBatchResult( executeBatch( h, connection, statementHandle, values, parameterValues.size() ) );
         }
     }
 
@@ -1096,42 +1214,55 @@ public ExecuteBatchResult executeBatch( final StatementHandle h, final List<List
     @Override
     public Frame fetch( final StatementHandle h, final long offset, final int fetchMaxRowCount ) throws NoSuchStatementException {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        final PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
+        synchronized ( statementHandle ) {
             if ( log.isTraceEnabled() ) {
                 log.trace( "fetch( StatementHandle {}, long {}, int {} )", h, offset, fetchMaxRowCount );
             }
+            // Frames of different statements can be fetched concurrently, but not while the transaction is committed
+            connection.getStatementLock().lock();
+            try {
+                return fetch( statementHandle, offset, fetchMaxRowCount );
+            } finally {
+                connection.getStatementLock().unlock();
+            }
+        }
+    }
 
-            final PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
-
-            final PolyphenyDbSignature signature = statementHandle.getSignature();
-            final Iterator<Object> iterator;
-            if ( statementHandle.getOpenResultSet() == null ) {
-                final Iterable<Object> iterable = createIterable( statementHandle.getStatement().getDataContext(), signature );
-                iterator = iterable.iterator();
-                statementHandle.setOpenResultSet( iterator );
-                statementHandle.getExecutionStopWatch().start();
-            } else {
-                iterator = statementHandle.getOpenResultSet();
-                statementHandle.getExecutionStopWatch().resume();
-            }
-            final List rows = MetaImpl.collect( signature.cursorFactory, LimitIterator.of( iterator, fetchMaxRowCount ), new ArrayList<>() );
-            statementHandle.getExecutionStopWatch().suspend();
-            boolean done = fetchMaxRowCount == 0 || rows.size() < fetchMaxRowCount;
-            @SuppressWarnings("unchecked")
-            List<Object> rows1 = (List<Object>) rows;
-            if ( done ) {
-                statementHandle.getExecutionStopWatch().stop();
-                signature.getExecutionTimeMonitor().setExecutionTime( statementHandle.getExecutionStopWatch().getNanoTime() );
-                try {
-                    if ( iterator instanceof AutoCloseable ) {
-                        ((AutoCloseable) iterator).close();
-                    }
-                } catch ( Exception e ) {
-                    log.error( "Exception while closing result iterator", e );
+
+    private Frame fetch( PolyphenyDbStatementHandle statementHandle, long offset, int fetchMaxRowCount ) {
+        final PolyphenyDbSignature signature = statementHandle.getSignature();
+        final Iterator<Object> iterator;
+        if ( statementHandle.getOpenResultSet() == null ) {
+            if ( fetchMaxRowCount > 0 ) {
+                // Read the result from the underlying stores in chunks matching the frame size
+                statementHandle.getStatement().getDataContext().addAll( Map.of( DataContext.Variable.FETCH_SIZE.camelName, fetchMaxRowCount ) );
+            }
+            final Iterable<Object> iterable = createIterable( statementHandle.getStatement().getDataContext(), signature );
+            iterator = iterable.iterator();
+            statementHandle.setOpenResultSet( iterator );
+            statementHandle.getExecutionStopWatch().start();
+        } else {
+            iterator = statementHandle.getOpenResultSet();
+            statementHandle.getExecutionStopWatch().resume();
+        }
+        final List rows = MetaImpl.collect( signature.cursorFactory, LimitIterator.of( iterator, fetchMaxRowCount ), new ArrayList<>() );
+        statementHandle.getExecutionStopWatch().suspend();
+        boolean done = fetchMaxRowCount == 0 || rows.size() < fetchMaxRowCount;
+        @SuppressWarnings("unchecked")
+        List<Object> rows1 = (List<Object>) rows;
+        if ( done ) {
+            statementHandle.getExecutionStopWatch().stop();
+            signature.getExecutionTimeMonitor().setExecutionTime( statementHandle.getExecutionStopWatch().getNanoTime() );
+            try {
+                if ( iterator instanceof AutoCloseable ) {
+                    ((AutoCloseable) iterator).close();
                 }
+            } catch ( Exception e ) {
+                log.error( "Exception while closing result iterator", e );
             }
-            return new Meta.Frame( offset, done, rows1 );
         }
+        return new Meta.Frame( offset, done, rows1 );
     }
 
 
@@ -1173,12 +1304,11 @@ public ExecuteResult execute( final StatementHandle h, final List<TypedValue> pa
     @Override
     public ExecuteResult execute( final StatementHandle h, final List<TypedValue> parameterValues, final int maxRowsInFirstFrame ) throws NoSuchStatementException {
         final PolyphenyDbConnectionHandle connection = openConnections.get( h.connectionId );
-        synchronized ( connection ) {
+        final PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
+        synchronized ( statementHandle ) {
             if ( log.isTraceEnabled() ) {
                 log.trace( "execute( StatementHandle {}, List<TypedValue> {}, int {} )", h, parameterValues, maxRowsInFirstFrame );
             }
-            final PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
-            statementHandle.setStatement( connection.getCurrentOrCreateNewTransaction().createStatement() );
             return execute( h, parameterValues, maxRowsInFirstFrame, connection );
         }
     }
@@ -1187,32 +1317,38 @@ public ExecuteResult execute( final StatementHandle h, final List<TypedValue> pa
     private ExecuteResult execute( StatementHandle h, List<TypedValue> parameterValues, int maxRowsInFirstFrame, PolyphenyDbConnectionHandle connection ) throws NoSuchStatementException {
         final PolyphenyDbStatementHandle statementHandle = getPolyphenyDbStatementHandle( h );
 
-        long index = 0;
-        for ( TypedValue v : parameterValues ) {
-            if ( v != null ) {
-                Object o;
-                if ( "ARRAY".equals( v.type.name() ) ) {
-                    o = convertList( (List<Object>) v.toLocal() );
-                } else {
-                    o = v.toJdbc( calendar );
-                }
-                List<Object> list = new LinkedList<>();
-                list.add( o );
-                statementHandle.getStatement().getDataContext().addParameterValues( index++, null, list );
-            }
-        }
-
         try {
-            prepare( h, statementHandle.getPreparedQuery() );
-            List<MetaResultSet> results = execute( h, connection, statementHandle, maxRowsInFirstFrame );
-            if ( List.of( StatementType.OTHER_DDL, StatementType.OTHER_DDL, StatementType.IS_DML ).contains( statementHandle.getSignature().statementType ) && connection.isAutoCommit() ) {
-                try {
-                    commit( connection.getHandle() );
-                } catch ( Exception e ) {
-                    rollback( connection.getHandle() );
+            final List<MetaResultSet> results;
+            final boolean autoCommit = connection.isAutoCommit();
+            final Lock lock = getExecutionLock( connection, autoCommit );
+            lock.lock();
+            try {
+                statementHandle.setStatement( connection.getCurrentOrCreateNewTransaction().createStatement() );
+                long index = 0;
+                for ( TypedValue v : parameterValues ) {
+                    if ( v != null ) {
+                        Object o;
+                        if ( "ARRAY".equals( v.type.name() ) ) {
+                            o = convertList( (List<Object>) v.toLocal() );
+                        } else {
+                            o = v.toJdbc( calendar );
+                        }
+                        List<Object> list = new LinkedList<>();
+                        list.add( o );
+                        statementHandle.getStatement().getDataContext().addParameterValues( index++, null, list );
+                    }
+                }
 
-                    throw new RuntimeException( "Error on auto-commit, transaction was rolled back.\n\n" + e );
+                prepare( h, statementHandle.getPreparedQuery() );
+                results = execute( h, connection, statementHandle, maxRowsInFirstFrame );
+                if ( autoCommit ) {
+                    commitIfRequired( connection, statementHandle, true );
                 }
+            } finally {
+                lock.unlock();
+            }
+            if ( !autoCommit ) {
+                commitIfRequired( connection, statementHandle, false );
             }
 
             return new ExecuteResult( results );
@@ -1268,7 +1404,6 @@ private List<MetaResultSet> execute( StatementHandle h, PolyphenyDbConnectionHan
         if ( statementHandle.getSignature().statementType == StatementType.OTHER_DDL ) {
             MetaResultSet resultSet = MetaResultSet.count( statementHandle.getConnection().getConnectionId().toString(), h.id, 1 );
             resultSets = ImmutableList.of( resultSet );
-            commit( connection.getHandle() );
         } else if ( statementHandle.getSignature().statementType == StatementType.IS_DML ) {
             Iterator<?> iterator = statementHandle.getSignature().enumerable( statementHandle.getStatement().getDataContext() ).iterator();
             int rowsChanged = -1;
@@ -1338,14 +1473,14 @@ public StatementHandle createStatement( ConnectionHandle ch ) {
      */
     @Override
     public void closeStatement( final StatementHandle statementHandle ) {
-        final PolyphenyDbConnectionHandle connection = openConnections.get( statementHandle.connectionId );
-        synchronized ( connection ) {
-            if ( log.isTraceEnabled() ) {
-                log.trace( "closeStatement( StatementHandle {} )", statementHandle );
-            }
+        if ( log.isTraceEnabled() ) {
+            log.trace( "closeStatement( StatementHandle {} )", statementHandle );
+        }
 
-            final PolyphenyDbStatementHandle toClose = openStatements.remove( statementHandle.connectionId + "::" + Integer.toString( statementHandle.id ) );
-            if ( toClose != null ) {
+        final PolyphenyDbStatementHandle toClose = openStatements.remove( statementHandle.connectionId + "::" + Integer.toString( statementHandle.id ) );
+        if ( toClose != null ) {
+            // Waits until a running execution or fetch of the statement is done
+            synchronized ( toClose ) {
                 if ( toClose.getOpenResultSet() != null && toClose.getOpenResultSet() instanceof AutoCloseable ) {
                     try {
                         ((AutoCloseable) toClose.getOpenResultSet()).close();
@@ -1445,7 +1580,9 @@ public void openConnection( final ConnectionHandle ch, final Map<String, String>
     @Override
     public void closeConnection( ConnectionHandle ch ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        // Waits until statements executing in the current transaction are done
+        connection.getTransactionLock().lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "closeConnection( ConnectionHandle {} )", ch );
             }
@@ -1478,6 +1615,8 @@ public void closeConnection( ConnectionHandle ch ) {
             }
 
             // TODO: release all resources associated with this connection
+        } finally {
+            connection.getTransactionLock().unlock();
         }
     }
 
@@ -1524,7 +1663,9 @@ public boolean syncResults( final StatementHandle sh, final QueryState state, fi
     @Override
     public void commit( final ConnectionHandle ch ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        // Waits until statements executing in the current transaction are done
+        connection.getTransactionLock().lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "commit( ConnectionHandle {} )", ch );
             }
@@ -1544,6 +1685,8 @@ public void commit( final ConnectionHandle ch ) {
             } finally {
                 connection.endCurrentTransaction();
             }
+        } finally {
+            connection.getTransactionLock().unlock();
         }
     }
 
@@ -1554,7 +1697,9 @@ public void commit( final ConnectionHandle ch ) {
     @Override
     public void rollback( final ConnectionHandle ch ) {
         final PolyphenyDbConnectionHandle connection = getPolyphenyDbConnectionHandle( ch.id );
-        synchronized ( connection ) {
+        // Waits until statements executing in the current transaction are done
+        connection.getTransactionLock().lock();
+        try {
             if ( log.isTraceEnabled() ) {
                 log.trace( "rollback( ConnectionHandle {} )", ch );
             }
@@ -1574,6 +1719,8 @@ public void rollback( final ConnectionHandle ch ) {
             } finally {
                 connection.endCurrentTransaction();
             }
+        } finally {
+            connection.getTransactionLock().unlock();
         }
     }
 
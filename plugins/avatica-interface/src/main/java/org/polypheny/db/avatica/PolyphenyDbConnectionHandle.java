@@ -18,6 +18,9 @@
 
 
 import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import lombok.Getter;
 import org.apache.calcite.avatica.ConnectionPropertiesImpl;
 import org.apache.calcite.avatica.Meta;
@@ -54,6 +57,10 @@ public class PolyphenyDbConnectionHandle {
 
     private final ConnectionProperties connectionProperties = new ConnectionPropertiesImpl( true, false, java.sql.Connection.TRANSACTION_SERIALIZABLE, "APP", "public" );
 
+    // Statements of this connection execute concurrently holding the read lock, commit and rollback as well as statements
+    // executed in auto-commit mode hold the write lock
+    private final ReadWriteLock transactionLock = new ReentrantReadWriteLock( true );
+
 
     public PolyphenyDbConnectionHandle( final Meta.ConnectionHandle handle, final CatalogUser catalogUser, final ConnectionId connectionId, final CatalogDatabase database, final CatalogSchema schema, final TransactionManager transactionManager ) {
         this.handle = handle;
@@ -110,6 +117,25 @@ public Transaction getCurrentOrCreateNewTransaction() {
     }
 
 
+    /**
+     * Returns the lock to hold while executing a statement or fetching results in the current transaction.
+     * Multiple statements can hold it at the same time.
+     */
+    public Lock getStatementLock() {
+        return transactionLock.readLock();
+    }
+
+
+    /**
+     * Returns the lock to hold while ending the current transaction. It is only granted once no statement is executing,
+     * and statements started afterwards wait until the transaction has been ended. The statement lock can not be
+     * upgraded to this lock.
+     */
+    public Lock getTransactionLock() {
+        return transactionLock.writeLock();
+    }
+
+
     public void setCurrentOpenResultSet( PolyphenyDbResultSet resultSet ) {
         this.currentOpenResultSet = resultSet;
     }
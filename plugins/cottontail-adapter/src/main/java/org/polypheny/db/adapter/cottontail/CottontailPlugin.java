@@ -137,6 +137,12 @@ public void stop() {
     @AdapterSettingInteger(name = "port", defaultValue = 1865, position = 2)
     @AdapterSettingString(name = "database", defaultValue = "cottontail", position = 3)
     @AdapterSettingList(name = "engine", options = { "MAPDB", "HARE" }, defaultValue = "MAPDB", position = 4)
+    @AdapterSettingInteger(name = "batchSize", defaultValue = 1000, position = 5, modifiable = true,
+            description = "Maximum number of rows sent to Cottontail DB in a single insert message.")
+    @AdapterSettingInteger(name = "maxInFlight", defaultValue = 8, position = 6, modifiable = true,
+            description = "Maximum number of insert messages sent to Cottontail DB without having received their response. Set to 1 to send them one by one.")
+    @AdapterSettingInteger(name = "prefetchSize", defaultValue = 0, position = 7, modifiable = true,
+            description = "Number of query results fetched ahead of their consumption on a separate thread. 0 disables prefetching.")
     public static class CottontailStore extends DataStore {
 
         // Running embedded
@@ -200,6 +206,7 @@ public CottontailStore( int storeId, String uniqueName, Map<String, String> sett
 
             final ManagedChannel channel = NettyChannelBuilder.forAddress( this.dbHostname, this.dbPort ).usePlaintext().build();
             this.wrapper = new CottontailWrapper( channel, this );
+            applyClientSettings();
             this.wrapper.checkedCreateSchemaBlocking(
                     CottontailGrpc.CreateSchemaMessage.newBuilder().setSchema( SchemaName.newBuilder().setName( this.dbName ) ).build()
             );
@@ -737,7 +744,23 @@ public void shutdown() {
 
         @Override
         protected void reloadSettings( List<String> updatedSettings ) {
+            applyClientSettings();
+        }
+
 
+        /**
+         * Passes the settings of the client to the wrapper. Stores created before these settings existed keep the defaults.
+         */
+        private void applyClientSettings() {
+            if ( settings.containsKey( "batchSize" ) ) {
+                this.wrapper.setBatchSize( Math.max( 1, Integer.parseInt( settings.get( "batchSize" ) ) ) );
+            }
+            if ( settings.containsKey( "maxInFlight" ) ) {
+                this.wrapper.setMaxInFlight( Math.max( 1, Integer.parseInt( settings.get( "maxInFlight" ) ) ) );
+            }
+            if ( settings.containsKey( "prefetchSize" ) ) {
+                this.wrapper.setPrefetchSize( Math.max( 0, Integer.parseInt( settings.get( "prefetchSize" ) ) ) );
+            }
         }
 
     }
@@ -203,7 +203,8 @@ public Enumerator enumerator() {
                     .build();
             return new CottontailQueryEnumerable(
                     cottontailTable.cottontailSchema.getWrapper().query( queryMessage ),
-                    new CottontailQueryEnumerable.RowTypeParser( cottontailTable.getRowType( typeFactory ), cottontailTable.physicalColumnNames )
+                    new CottontailQueryEnumerable.RowTypeParser( cottontailTable.getRowType( typeFactory ), cottontailTable.physicalColumnNames ),
+                    cottontailTable.cottontailSchema.getWrapper()
             ).enumerator();
         }
 
@@ -19,8 +19,17 @@
 import io.grpc.ManagedChannel;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.polypheny.db.adapter.cottontail.CottontailPlugin.CottontailStore;
 import org.polypheny.db.transaction.PolyXid;
@@ -29,6 +38,7 @@
 import org.vitrivr.cottontail.client.iterators.Tuple;
 import org.vitrivr.cottontail.client.iterators.TupleIterator;
 import org.vitrivr.cottontail.grpc.CottontailGrpc;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.QueryResponseMessage;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.BatchInsertMessage;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.ColumnName;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.CreateEntityMessage;
@@ -44,6 +54,7 @@
 import org.vitrivr.cottontail.grpc.CottontailGrpc.QueryMessage;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.TruncateEntityMessage;
 import org.vitrivr.cottontail.grpc.CottontailGrpc.UpdateMessage;
+import org.vitrivr.cottontail.grpc.DMLGrpc;
 
 
 /**
@@ -54,6 +65,12 @@ public class CottontailWrapper implements AutoCloseable {
 
     private static final long MAX_QUERY_CALL_TIMEOUT = 300_000; // TODO expose to config
 
+    /**
+     * The maximum number of queries, whose results are prefetched at the same time. The results of further queries are
+     * fetched while they are consumed.
+     */
+    private static final int MAX_PREFETCH_THREADS = Math.max( 2, Runtime.getRuntime().availableProcessors() );
+
     /**
      * The {@link ManagedChannel} used by this {@link CottontailWrapper}.
      */
@@ -74,6 +91,43 @@ public class CottontailWrapper implements AutoCloseable {
      */
     private final CottontailStore store;
 
+    /**
+     * The maximum number of rows sent in a single {@link BatchInsertMessage}.
+     */
+    @Getter
+    @Setter
+    private volatile int batchSize = 1000;
+
+    /**
+     * The maximum number of {@link BatchInsertMessage}s sent to Cottontail DB without having received their response.
+     */
+    @Getter
+    @Setter
+    private volatile int maxInFlight = 8;
+
+    /**
+     * The number of query results fetched ahead of their consumption, 0 disables prefetching.
+     */
+    @Getter
+    @Setter
+    private volatile int prefetchSize = 0;
+
+    /**
+     * The {@link ExecutorService} used to prefetch query results. It rejects tasks if all of its threads are busy.
+     */
+    @Getter
+    private final ExecutorService prefetchExecutor = new ThreadPoolExecutor(
+            0,
+            MAX_PREFETCH_THREADS,
+            60L,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            runnable -> {
+                final Thread thread = new Thread( runnable, "Cottontail-Prefetch" );
+                thread.setDaemon( true );
+                return thread;
+            } );
+
 
     /**
      * Default constructor.
@@ -317,6 +371,70 @@ public boolean insert( BatchInsertMessage message ) {
     }
 
 
+    /**
+     * Sends the given {@link BatchInsertMessage}s without waiting for the response to a message before sending the next
+     * one. At most {@link #maxInFlight} messages are pending at any time. No further messages are sent once an insert
+     * has failed.
+     *
+     * @param messages The {@link BatchInsertMessage}s to send.
+     * @return True if all messages were inserted, false otherwise.
+     */
+    public boolean insert( List<BatchInsertMessage> messages ) {
+        final int permits = this.maxInFlight;
+        if ( permits <= 1 || messages.size() <= 1 ) {
+            for ( BatchInsertMessage message : messages ) {
+                if ( !this.insert( message ) ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        final DMLGrpc.DMLStub stub = DMLGrpc.newStub( this.channel );
+        final Semaphore inFlight = new Semaphore( permits );
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        try {
+            for ( BatchInsertMessage message : messages ) {
+                inFlight.acquire();
+                if ( error.get() != null ) {
+                    inFlight.release();
+                    break;
+                }
+                stub.withDeadlineAfter( MAX_QUERY_CALL_TIMEOUT, TimeUnit.MILLISECONDS ).insertBatch( message, new StreamObserver<>() {
+                    @Override
+                    public void onNext( QueryResponseMessage value ) {
+                        // The number of inserted rows is known from the message
+                    }
+
+
+                    @Override
+                    public void onError( Throwable t ) {
+                        error.compareAndSet( null, t );
+                        inFlight.release();
+                    }
+
+
+                    @Override
+                    public void onCompleted() {
+                        inFlight.release();
+                    }
+                } );
+            }
+            /* Wait for the responses to all pending messages. */
+            inFlight.acquire( permits );
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            error.compareAndSet( null, e );
+        }
+
+        if ( error.get() != null ) {
+            log.error( "Caught exception", error.get() );
+            return false;
+        }
+        return true;
+    }
+
+
     public TupleIterator query( QueryMessage query ) {
         try {
             return this.client.query( query );
@@ -355,6 +473,7 @@ public TupleIterator batchedQuery( CottontailGrpc.BatchedQueryMessage query ) {
 
     @Override
     public void close() {
+        this.prefetchExecutor.shutdownNow();
         try {
             this.channel.shutdown();
             this.channel.awaitTermination( 1000, TimeUnit.MILLISECONDS );
@@ -31,6 +31,7 @@
 import org.polypheny.db.adapter.cottontail.enumberable.CottontailDeleteEnumerable;
 import org.polypheny.db.adapter.cottontail.enumberable.CottontailEnumerableFactory;
 import org.polypheny.db.adapter.cottontail.util.Linq4JFixer;
+import org.polypheny.db.adapter.enumerable.BulkExecutable;
 import org.polypheny.db.adapter.enumerable.EnumerableAlg;
 import org.polypheny.db.adapter.enumerable.EnumerableAlgImplementor;
 import org.polypheny.db.adapter.enumerable.JavaRowFormat;
@@ -39,6 +40,7 @@
 import org.polypheny.db.algebra.AbstractAlgNode;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.convert.ConverterImpl;
+import org.polypheny.db.algebra.core.Modify;
 import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
 import org.polypheny.db.algebra.type.AlgDataType;
 import org.polypheny.db.plan.AlgOptCluster;
@@ -52,7 +54,7 @@
 import org.polypheny.db.util.BuiltInMethod;
 import org.vitrivr.cottontail.client.iterators.Tuple;
 
-public class CottontailToEnumerableConverter extends ConverterImpl implements EnumerableAlg {
+public class CottontailToEnumerableConverter extends ConverterImpl implements EnumerableAlg, BulkExecutable {
 
     public static final List<PolyType> SUPPORTED_ARRAY_COMPONENT_TYPES = ImmutableList.of(
             PolyType.TINYINT,
@@ -89,6 +91,13 @@ public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq )
     }
 
 
+    @Override
+    public boolean supportsBulkExecution() {
+        // prepared inserts send all parameter rows in one batch insert message, the other operations are executed once per row
+        return getInput() instanceof Modify && ((Modify) getInput()).isInsert();
+    }
+
+
     @Override
     public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         final BlockBuilder list = new BlockBuilder();
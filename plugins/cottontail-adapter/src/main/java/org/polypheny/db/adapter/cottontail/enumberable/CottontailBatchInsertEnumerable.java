@@ -49,10 +49,20 @@ private class CottontailInsertResultEnumerator implements Enumerator<Long> {
         private long currentResult;
 
         /**
-         * The pointer to the last {@link BatchInsertMessage} that was executed.
+         * The pointer to the last {@link BatchInsertMessage} whose result was returned.
          */
         private int pointer = 0;
 
+        /**
+         * Whether the {@link BatchInsertMessage}s were sent. They are all sent at once, so they can be pipelined.
+         */
+        private boolean executed = false;
+
+        /**
+         * Whether all {@link BatchInsertMessage}s were inserted.
+         */
+        private boolean successful;
+
 
         @Override
         public Long current() {
@@ -62,14 +72,17 @@ public Long current() {
 
         @Override
         public boolean moveNext() {
+            if ( !this.executed ) {
+                this.successful = CottontailBatchInsertEnumerable.this.wrapper.insert( CottontailBatchInsertEnumerable.this.inserts );
+                this.executed = true;
+            }
+            if ( !this.successful ) {
+                this.currentResult = -1;
+                return false;
+            }
             if ( this.pointer < CottontailBatchInsertEnumerable.this.inserts.size() ) {
-                final BatchInsertMessage insertMessage = CottontailBatchInsertEnumerable.this.inserts.get( this.pointer++ );
-                if ( CottontailBatchInsertEnumerable.this.wrapper.insert( insertMessage ) ) {
-                    this.currentResult = insertMessage.getInsertsCount();
-                } else {
-                    this.currentResult = -1;
-                }
-                return !(this.currentResult == -1L);
+                this.currentResult = CottontailBatchInsertEnumerable.this.inserts.get( this.pointer++ ).getInsertsCount();
+                return true;
             } else {
                 return false;
             }
@@ -146,7 +146,7 @@ public static CottontailQueryEnumerable query(
             queryResponseIterator = wrapper.batchedQuery( batchedQueryMessageBuilder.build() );
         }
 
-        return new CottontailQueryEnumerable( queryResponseIterator, rowParser );
+        return new CottontailQueryEnumerable( queryResponseIterator, rowParser, wrapper );
     }
 
 
@@ -221,6 +221,19 @@ public static AbstractEnumerable<Long> insertFromValues(
 
         /* Build INSERT messages and create enumerable. */
         final CottontailGrpc.From from_ = CottontailTypeUtil.fromFromTableAndSchema( from, schema );
+        if ( values.size() > 1 ) {
+            /* Multiple rows are sent as batches. */
+            final List<String> columns = new ArrayList<>( values.get( 0 ).keySet() );
+            final List<Insert> inserts = new ArrayList<>( values.size() );
+            for ( Map<String, Literal> value : values ) {
+                final Insert.Builder insertBuilder = Insert.newBuilder();
+                for ( String column : columns ) {
+                    insertBuilder.addValues( value.getOrDefault( column, Literal.getDefaultInstance() ) );
+                }
+                inserts.add( insertBuilder.build() );
+            }
+            return new CottontailBatchInsertEnumerable( buildBatchInserts( from_, txId, columns, inserts, wrapper.getBatchSize() ), wrapper );
+        }
         final List<InsertMessage> insertMessages = new ArrayList<>( values.size() );
         for ( Map<String, CottontailGrpc.Literal> value : values ) {
             final InsertMessage.Builder message = InsertMessage.newBuilder().setFrom( from_ ).setMetadata( Metadata.newBuilder().setTransactionId( txId ) );
@@ -257,45 +270,62 @@ public static AbstractEnumerable<Long> insertFromPreparedStatements(
             insertMessages.add( insert.build() );
             return new CottontailInsertEnumerable( insertMessages, wrapper );
         } else {
-            final List<BatchInsertMessage> insertMessages = new LinkedList<>();
-            BatchInsertMessage.Builder builder = BatchInsertMessage.newBuilder().setFrom( from_ ).setMetadata( Metadata.newBuilder().setTransactionId( txId ) );
-
-            /* Add columns to BatchInsertMessage */
+            /* Order of the columns as returned by the tuple builder. */
             final List<Map<Long, Object>> parameterValues = dataContext.getParameterValues();
-            for ( Entry<String, Literal> e : tupleBuilder.apply( parameterValues.get( 0 ) ).entrySet() ) {
-                final ColumnName name = ColumnName.newBuilder().setName( e.getKey() ).build();
-                builder.addColumns( name );
-            }
+            final List<String> columns = new ArrayList<>( tupleBuilder.apply( parameterValues.get( 0 ) ).keySet() );
 
-            /* Start to track message size. */
-            final int basicSize = builder.clone().build().getSerializedSize();
-            int messageSize = basicSize;
-
-            /* Add values to BatchInsertMessage. */
+            /* Build one insert per row. */
+            final List<Insert> inserts = new ArrayList<>( parameterValues.size() );
             for ( Map<Long, Object> row : parameterValues ) {
+                final Map<String, Literal> values = tupleBuilder.apply( row );
                 final Insert.Builder insertBuilder = Insert.newBuilder();
-                for ( Entry<String, Literal> e : tupleBuilder.apply( row ).entrySet() ) {
-                    insertBuilder.addValues( e.getValue() );
-                }
-                final Insert insert = insertBuilder.build();
-
-                /* Check if maximum message size is exceeded. If so, build and add BatchInsertMessage to list. */
-                if ( messageSize + insert.getSerializedSize() >= Constants.MAX_PAGE_SIZE_BYTES ) {
-                    insertMessages.add( builder.build() );
-                    builder = builder.clone().clearInserts();
-                    messageSize = basicSize;
+                for ( String column : columns ) {
+                    insertBuilder.addValues( values.getOrDefault( column, Literal.getDefaultInstance() ) );
                 }
-                messageSize += insert.getSerializedSize();
-                builder.addInserts( insert );
+                inserts.add( insertBuilder.build() );
             }
 
-            /* Add file message. */
-            if ( builder.getInsertsCount() > 0 ) {
+            return new CottontailBatchInsertEnumerable( buildBatchInserts( from_, txId, columns, inserts, wrapper.getBatchSize() ), wrapper );
+        }
+    }
+
+
+    /**
+     * Splits the given inserts into {@link BatchInsertMessage}s, which neither exceed the given number of rows nor the
+     * maximum message size of Cottontail DB.
+     */
+    private static List<BatchInsertMessage> buildBatchInserts( CottontailGrpc.From from, long txId, List<String> columns, List<Insert> inserts, int batchSize ) {
+        final List<BatchInsertMessage> insertMessages = new ArrayList<>();
+        BatchInsertMessage.Builder builder = BatchInsertMessage.newBuilder().setFrom( from ).setMetadata( Metadata.newBuilder().setTransactionId( txId ) );
+
+        /* Add columns to BatchInsertMessage */
+        for ( String column : columns ) {
+            builder.addColumns( ColumnName.newBuilder().setName( column ).build() );
+        }
+
+        /* Start to track message size. */
+        final int basicSize = builder.clone().build().getSerializedSize();
+        int messageSize = basicSize;
+
+        /* Add values to BatchInsertMessage. */
+        for ( Insert insert : inserts ) {
+            /* Check if the batch is full. If so, build and add BatchInsertMessage to list. */
+            if ( builder.getInsertsCount() > 0
+                    && (builder.getInsertsCount() >= batchSize || messageSize + insert.getSerializedSize() >= Constants.MAX_PAGE_SIZE_BYTES) ) {
                 insertMessages.add( builder.build() );
+                builder = builder.clone().clearInserts();
+                messageSize = basicSize;
             }
+            messageSize += insert.getSerializedSize();
+            builder.addInserts( insert );
+        }
 
-            return new CottontailBatchInsertEnumerable( insertMessages, wrapper );
+        /* Add final message. */
+        if ( builder.getInsertsCount() > 0 ) {
+            insertMessages.add( builder.build() );
         }
+
+        return insertMessages;
     }
 
 
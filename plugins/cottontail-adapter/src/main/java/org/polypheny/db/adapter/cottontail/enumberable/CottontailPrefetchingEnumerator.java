@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.cottontail.enumberable;
+
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.function.Function1;
+
+
+/**
+ * Enumerator, which fetches and parses the results of a query on another thread, while the previous results are consumed.
+ * At most the given number of results are fetched ahead.
+ *
+ * The fetching thread is the only one accessing the source while it is running. {@link #close()} stops it, waits for it
+ * to finish and only then closes the source.
+ *
+ * @param <T> The type of the results of the source
+ */
+@Slf4j
+class CottontailPrefetchingEnumerator<T> implements Enumerator<Object> {
+
+    /**
+     * Marks the end of the prefetched results.
+     */
+    private static final Object END = new Object();
+
+    private final Iterator<T> source;
+    private final AutoCloseable closeable;
+    private final Function1<T, Object[]> parser;
+
+    /**
+     * The parsed results, the {@link #END} marker or the {@link Throwable} which ended the fetching.
+     */
+    private final BlockingQueue<Object> queue;
+
+    /**
+     * Released once the fetching thread does not access the source anymore.
+     */
+    private final CountDownLatch fetched = new CountDownLatch( 1 );
+
+    private volatile boolean closed = false;
+    private boolean finished = false;
+    private Object[] row = null;
+
+
+    /**
+     * Starts fetching the results of the given source.
+     *
+     * @param source The results to fetch
+     * @param closeable Closes the source, called once the fetching has stopped
+     * @param parser Parses a single result
+     * @param prefetchSize The maximum number of results fetched ahead
+     * @param executor The executor running the fetching thread
+     * @throws RejectedExecutionException If the executor has no thread available, the source is not accessed in that case
+     */
+    CottontailPrefetchingEnumerator( Iterator<T> source, AutoCloseable closeable, Function1<T, Object[]> parser, int prefetchSize, Executor executor ) {
+        this.source = source;
+        this.closeable = closeable;
+        this.parser = parser;
+        this.queue = new ArrayBlockingQueue<>( prefetchSize );
+        executor.execute( this::fetch );
+    }
+
+
+    private void fetch() {
+        try {
+            while ( !this.closed && this.source.hasNext() ) {
+                put( this.parser.apply( this.source.next() ) );
+            }
+            put( END );
+        } catch ( Throwable t ) {
+            put( t );
+        } finally {
+            this.fetched.countDown();
+        }
+    }
+
+
+    /**
+     * Waits for space in the {@link #queue}, unless the enumerator is closed.
+     */
+    private void put( Object element ) {
+        try {
+            while ( !this.closed ) {
+                if ( this.queue.offer( element, 100, TimeUnit.MILLISECONDS ) ) {
+                    return;
+                }
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    @Override
+    public Object current() {
+        return CottontailQueryEnumerable.toResult( this.row );
+    }
+
+
+    @Override
+    public boolean moveNext() {
+        if ( this.finished ) {
+            return false;
+        }
+        final Object element;
+        try {
+            element = this.queue.take();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( e );
+        }
+        if ( element == END ) {
+            this.finished = true;
+            return false;
+        } else if ( element instanceof Throwable ) {
+            this.finished = true;
+            throw new RuntimeException( (Throwable) element );
+        }
+        this.row = (Object[]) element;
+        return true;
+    }
+
+
+    /**
+     * Not supported, the results of a query can only be enumerated once.
+     */
+    @Override
+    public void reset() {
+        throw new UnsupportedOperationException( "The results of a Cottontail DB query can only be enumerated once." );
+    }
+
+
+    @Override
+    public void close() {
+        if ( this.closed ) {
+            return;
+        }
+        this.closed = true;
+        // Frees the space the fetching thread might be waiting for
+        this.queue.clear();
+        try {
+            // The fetching thread notices the flag after the current result at the latest
+            this.fetched.await();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            log.warn( "Interrupted while waiting for the prefetching of a query to stop, the query is not closed." );
+            return;
+        }
+        try {
+            this.closeable.close();
+        } catch ( Exception e ) {
+            log.warn( "Caught exception", e );
+        }
+    }
+
+}
@@ -17,10 +17,12 @@
 package org.polypheny.db.adapter.cottontail.enumberable;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.linq4j.function.Function1;
+import org.polypheny.db.adapter.cottontail.CottontailWrapper;
 import org.polypheny.db.adapter.cottontail.algebra.CottontailToEnumerableConverter;
 import org.polypheny.db.adapter.cottontail.util.Linq4JFixer;
 import org.polypheny.db.algebra.type.AlgDataType;
@@ -43,19 +45,42 @@ public class CottontailQueryEnumerable extends AbstractEnumerable<Object> {
      */
     private final Function1<Tuple, Object[]> parser;
 
+    /**
+     * The {@link CottontailWrapper} providing the settings and threads for prefetching.
+     */
+    private final CottontailWrapper wrapper;
 
-    public CottontailQueryEnumerable( TupleIterator iterator, Function1<Tuple, Object[]> rowParser ) {
+
+    public CottontailQueryEnumerable( TupleIterator iterator, Function1<Tuple, Object[]> rowParser, CottontailWrapper wrapper ) {
         this.tupleIterator = iterator;
         this.parser = rowParser;
+        this.wrapper = wrapper;
     }
 
 
     @Override
     public Enumerator<Object> enumerator() {
+        final int prefetchSize = this.wrapper.getPrefetchSize();
+        if ( prefetchSize > 0 ) {
+            try {
+                return new CottontailPrefetchingEnumerator<>( this.tupleIterator, this.tupleIterator, this.parser, prefetchSize, this.wrapper.getPrefetchExecutor() );
+            } catch ( RejectedExecutionException e ) {
+                // All prefetching threads are busy, the results are fetched while they are consumed
+            }
+        }
         return new CottontailQueryResultEnumerator();
     }
 
 
+    static Object toResult( Object[] results ) {
+        if ( results.length == 1 ) {
+            return results[0];
+        } else {
+            return results;
+        }
+    }
+
+
     private class CottontailQueryResultEnumerator implements Enumerator<Object> {
 
         /**
@@ -66,12 +91,7 @@ private class CottontailQueryResultEnumerator implements Enumerator<Object> {
 
         @Override
         public Object current() {
-            final Object[] results = CottontailQueryEnumerable.this.parser.apply( this.tuple );
-            if ( results.length == 1 ) {
-                return results[0];
-            } else {
-                return results;
-            }
+            return toResult( CottontailQueryEnumerable.this.parser.apply( this.tuple ) );
         }
 
 
@@ -86,9 +106,12 @@ public boolean moveNext() {
         }
 
 
+        /**
+         * Not supported, the results of a query can only be enumerated once.
+         */
         @Override
         public void reset() {
-            // TODO js(ct): do we need to do something here?
+            throw new UnsupportedOperationException( "The results of a Cottontail DB query can only be enumerated once." );
         }
 
 
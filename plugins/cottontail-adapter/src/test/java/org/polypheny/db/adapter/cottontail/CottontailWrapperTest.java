@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.cottontail;
+
+
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.BatchInsertMessage;
+import org.vitrivr.cottontail.grpc.CottontailGrpc.QueryResponseMessage;
+import org.vitrivr.cottontail.grpc.DMLGrpc;
+
+
+/**
+ * Tests the pipelined inserts and the prefetching threads of the {@link CottontailWrapper} against an in-process server.
+ */
+public class CottontailWrapperTest {
+
+    private final ScheduledExecutorService responses = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile int failAt = -1;
+
+    private Server server;
+    private CottontailWrapper wrapper;
+
+
+    @Before
+    public void start() throws IOException {
+        final String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName( name )
+                .directExecutor()
+                .addService( new DMLGrpc.DMLImplBase() {
+                    @Override
+                    public void insertBatch( BatchInsertMessage request, StreamObserver<QueryResponseMessage> responseObserver ) {
+                        final int number = received.getAndIncrement();
+                        maxInFlight.accumulateAndGet( inFlight.incrementAndGet(), Math::max );
+                        // Respond later, so that the client can send further messages in the meantime
+                        responses.schedule( () -> {
+                            inFlight.decrementAndGet();
+                            if ( number == failAt ) {
+                                responseObserver.onError( Status.INTERNAL.withDescription( "failed" ).asRuntimeException() );
+                            } else {
+                                responseObserver.onNext( QueryResponseMessage.getDefaultInstance() );
+                                responseObserver.onCompleted();
+                            }
+                        }, 10, TimeUnit.MILLISECONDS );
+                    }
+                } )
+                .build()
+                .start();
+        wrapper = new CottontailWrapper( InProcessChannelBuilder.forName( name ).directExecutor().build(), null );
+    }
+
+
+    @After
+    public void stop() {
+        wrapper.close();
+        server.shutdownNow();
+        responses.shutdownNow();
+    }
+
+
+    private static List<BatchInsertMessage> messages( int count ) {
+        return new ArrayList<>( Collections.nCopies( count, BatchInsertMessage.getDefaultInstance() ) );
+    }
+
+
+    @Test
+    public void testPipelinedInsert() {
+        wrapper.setMaxInFlight( 4 );
+        Assert.assertTrue( wrapper.insert( messages( 20 ) ) );
+        Assert.assertEquals( 20, received.get() );
+        Assert.assertEquals( 0, inFlight.get() );
+        Assert.assertTrue( "More messages were pending than allowed", maxInFlight.get() <= 4 );
+        Assert.assertTrue( "The messages were not pipelined", maxInFlight.get() > 1 );
+    }
+
+
+    @Test
+    public void testSequentialInsert() {
+        wrapper.setMaxInFlight( 1 );
+        Assert.assertTrue( wrapper.insert( messages( 5 ) ) );
+        Assert.assertEquals( 5, received.get() );
+        Assert.assertEquals( 1, maxInFlight.get() );
+    }
+
+
+    @Test
+    public void testPipelinedInsertFailure() {
+        wrapper.setMaxInFlight( 2 );
+        failAt = 3;
+        Assert.assertFalse( wrapper.insert( messages( 50 ) ) );
+        // Sending stops after the failure, only the pending messages may still have been sent
+        Assert.assertTrue( received.get() < 50 );
+    }
+
+
+    @Test
+    public void testPrefetchingIsBounded() throws InterruptedException {
+        Assert.assertEquals( "Prefetching has to be enabled explicitly", 0, wrapper.getPrefetchSize() );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final int limit = Runtime.getRuntime().availableProcessors() + 2;
+        boolean rejected = false;
+        try {
+            for ( int i = 0; i <= limit && !rejected; i++ ) {
+                try {
+                    wrapper.getPrefetchExecutor().execute( () -> {
+                        try {
+                            release.await();
+                        } catch ( InterruptedException e ) {
+                            Thread.currentThread().interrupt();
+                        }
+                    } );
+                } catch ( RejectedExecutionException e ) {
+                    rejected = true;
+                }
+            }
+        } finally {
+            release.countDown();
+        }
+        Assert.assertTrue( "The prefetching threads are not bounded", rejected );
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.adapter.cottontail.enumberable;
+
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class CottontailPrefetchingEnumeratorTest {
+
+    private ExecutorService executor;
+
+
+    @Before
+    public void startExecutor() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+
+    @After
+    public void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+
+    @Test
+    public void testPrefetch() {
+        final AtomicInteger closed = new AtomicInteger();
+        final CottontailPrefetchingEnumerator<Integer> enumerator = new CottontailPrefetchingEnumerator<>(
+                IntStream.range( 0, 100 ).iterator(),
+                closed::incrementAndGet,
+                i -> new Object[]{ i },
+                4,
+                executor );
+        for ( int i = 0; i < 100; i++ ) {
+            Assert.assertTrue( enumerator.moveNext() );
+            Assert.assertEquals( i, enumerator.current() );
+        }
+        Assert.assertFalse( enumerator.moveNext() );
+        Assert.assertFalse( enumerator.moveNext() );
+        enumerator.close();
+        enumerator.close();
+        Assert.assertEquals( 1, closed.get() );
+    }
+
+
+    @Test
+    public void testCloseWaitsForFetching() {
+        final AtomicBoolean fetching = new AtomicBoolean();
+        final AtomicBoolean closedWhileFetching = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        final Iterator<Integer> slow = new Iterator<>() {
+            private int i = 0;
+
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+
+            @Override
+            public Integer next() {
+                fetching.set( true );
+                try {
+                    Thread.sleep( 20 );
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                }
+                fetching.set( false );
+                return i++;
+            }
+        };
+        final CottontailPrefetchingEnumerator<Integer> enumerator = new CottontailPrefetchingEnumerator<>(
+                slow,
+                () -> {
+                    closedWhileFetching.set( fetching.get() );
+                    closed.set( true );
+                },
+                i -> new Object[]{ i },
+                2,
+                executor );
+        Assert.assertTrue( enumerator.moveNext() );
+        Assert.assertEquals( 0, enumerator.current() );
+        enumerator.close();
+        Assert.assertTrue( closed.get() );
+        Assert.assertFalse( "The source was closed while the results were fetched", closedWhileFetching.get() );
+    }
+
+
+    @Test
+    public void testFailure() {
+        final Iterator<Integer> failing = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+
+            @Override
+            public Integer next() {
+                throw new IllegalStateException( "failed" );
+            }
+        };
+        final CottontailPrefetchingEnumerator<Integer> enumerator = new CottontailPrefetchingEnumerator<>( failing, () -> {
+        }, i -> new Object[]{ i }, 2, executor );
+        try {
+            enumerator.moveNext();
+            Assert.fail( "The failure of the fetching was not reported" );
+        } catch ( RuntimeException e ) {
+            Assert.assertTrue( e.getCause() instanceof IllegalStateException );
+        }
+        Assert.assertFalse( enumerator.moveNext() );
+        enumerator.close();
+    }
+
+
+    @Test
+    public void testRejected() {
+        final AtomicInteger accessed = new AtomicInteger();
+        final Iterator<Integer> source = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                accessed.incrementAndGet();
+                return false;
+            }
+
+
+            @Override
+            public Integer next() {
+                accessed.incrementAndGet();
+                return null;
+            }
+        };
+        try {
+            new CottontailPrefetchingEnumerator<>( source, () -> {
+            }, i -> new Object[]{ i }, 2, runnable -> {
+                throw new RejectedExecutionException();
+            } );
+            Assert.fail( "The rejection was not reported" );
+        } catch ( RejectedExecutionException e ) {
+            // expected
+        }
+        Assert.assertEquals( 0, accessed.get() );
+    }
+
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReset() {
+        final CottontailPrefetchingEnumerator<Integer> enumerator = new CottontailPrefetchingEnumerator<>(
+                IntStream.range( 0, 3 ).iterator(),
+                () -> {
+                },
+                i -> new Object[]{ i },
+                2,
+                executor );
+        try {
+            enumerator.reset();
+        } finally {
+            enumerator.close();
+        }
+    }
+
+}
@@ -43,6 +43,10 @@ public static void registerOperators() {
 
         register( OperatorName.CYPHER_PATH_MATCH, new LangFunctionOperator( OperatorName.CYPHER_PATH_MATCH.name(), Kind.CYPHER_FUNCTION ) );
 
+        register( OperatorName.CYPHER_SHORTEST_PATH_MATCH, new LangFunctionOperator( OperatorName.CYPHER_SHORTEST_PATH_MATCH.name(), Kind.CYPHER_FUNCTION ) );
+
+        register( OperatorName.CYPHER_ALL_SHORTEST_PATHS_MATCH, new LangFunctionOperator( OperatorName.CYPHER_ALL_SHORTEST_PATHS_MATCH.name(), Kind.CYPHER_FUNCTION ) );
+
         register( OperatorName.CYPHER_NODE_EXTRACT, new LangFunctionOperator( OperatorName.CYPHER_NODE_EXTRACT.name(), Kind.CYPHER_FUNCTION ) );
 
         register( OperatorName.CYPHER_EXTRACT_FROM_PATH, new LangFunctionOperator( OperatorName.CYPHER_EXTRACT_FROM_PATH.name(), Kind.CYPHER_FUNCTION ) );
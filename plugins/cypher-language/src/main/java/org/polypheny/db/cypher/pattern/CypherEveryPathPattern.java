@@ -127,7 +127,15 @@ public Pair<String, RexNode> getPatternMatch( CypherContext context ) {
         if ( edges.isEmpty() ) {
             return getNodeFilter( context );
         }
-        RexNode path = getPathFilter( context );
+        return getPatternMatch( context, OperatorName.CYPHER_PATH_MATCH );
+    }
+
+
+    /**
+     * Matches the path with the given path match operator.
+     */
+    Pair<String, RexNode> getPatternMatch( CypherContext context, OperatorName operator ) {
+        RexNode path = getPathFilter( context, operator );
 
         String name = path.getType().getFieldList().stream().map( AlgDataTypeField::getName ).collect( Collectors.joining( "-", "$", "$" ) );
 
@@ -167,7 +175,7 @@ private Pair<String, RexNode> getNodeFilter( CypherContext context ) {
     }
 
 
-    private RexNode getPathFilter( CypherContext context ) {
+    private RexNode getPathFilter( CypherContext context, OperatorName operator ) {
         List<Pair<String, PolyNode>> polyNodes = getPolyNodes( context );
 
         List<Pair<String, EdgeVariableHolder>> polyEdges = getPolyEdges( polyNodes );
@@ -177,7 +185,7 @@ private RexNode getPathFilter( CypherContext context ) {
 
         return new RexCall(
                 pathType,
-                OperatorRegistry.get( QueryLanguage.from( "cypher" ), OperatorName.CYPHER_PATH_MATCH ),
+                OperatorRegistry.get( QueryLanguage.from( "cypher" ), operator ),
                 List.of(
                         new RexInputRef( 0, context.graphType ),
                         new RexLiteral( path, pathType, PolyType.PATH ) ) );
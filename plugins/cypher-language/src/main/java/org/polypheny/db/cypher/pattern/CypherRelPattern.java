@@ -81,10 +81,21 @@ public Pair<String, PolyEdge> getPolyEdge( String leftId, String rightId ) {
 
         PolyEdge edge = new PolyEdge( properties, ImmutableList.copyOf( labels ), leftId, rightId, direction, name );
         if ( pathLength != null ) {
-            edge.fromTo( Pair.of( Integer.parseInt( pathLength.getFrom() ), Integer.parseInt( pathLength.getTo() ) ) );
+            // a missing upper bound like in -[*]-> or -[*2..]-> stays null, which means unbounded
+            edge.fromTo( Pair.of( getMinLength(), parseLength( pathLength.getTo(), null ) ) );
         }
 
         return Pair.of( name, edge );
     }
 
+
+    public int getMinLength() {
+        return pathLength == null ? 1 : parseLength( pathLength.getFrom(), 1 );
+    }
+
+
+    private static Integer parseLength( String length, Integer defaultLength ) {
+        return length == null || length.isEmpty() ? defaultLength : Integer.valueOf( length );
+    }
+
 }
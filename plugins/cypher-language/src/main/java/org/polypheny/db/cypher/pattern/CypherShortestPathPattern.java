@@ -17,7 +17,12 @@
 package org.polypheny.db.cypher.pattern;
 
 import lombok.Getter;
+import org.polypheny.db.algebra.operators.OperatorName;
+import org.polypheny.db.cypher.cypher2alg.CypherSyntaxException;
+import org.polypheny.db.cypher.cypher2alg.CypherToAlgConverter.CypherContext;
 import org.polypheny.db.languages.ParserPos;
+import org.polypheny.db.rex.RexNode;
+import org.polypheny.db.util.Pair;
 
 @Getter
 public class CypherShortestPathPattern extends CypherPattern {
@@ -38,4 +43,18 @@ public CypherKind getCypherKind() {
         return CypherKind.SHORTEST_PATTERN;
     }
 
+
+    @Override
+    public Pair<String, RexNode> getPatternMatch( CypherContext context ) {
+        if ( !(pathPattern instanceof CypherEveryPathPattern) || ((CypherEveryPathPattern) pathPattern).getEdges().size() != 1 ) {
+            throw new CypherSyntaxException( "shortestPath requires a pattern with a single relationship." );
+        }
+        if ( ((CypherEveryPathPattern) pathPattern).getEdges().get( 0 ).getMinLength() > 1 ) {
+            throw new CypherSyntaxException( "shortestPath only supports a minimal length of 0 or 1." );
+        }
+        return ((CypherEveryPathPattern) pathPattern).getPatternMatch(
+                context,
+                all ? OperatorName.CYPHER_ALL_SHORTEST_PATHS_MATCH : OperatorName.CYPHER_SHORTEST_PATH_MATCH );
+    }
+
 }
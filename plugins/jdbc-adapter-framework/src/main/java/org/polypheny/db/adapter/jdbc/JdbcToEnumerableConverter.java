@@ -34,6 +34,7 @@
 package org.polypheny.db.adapter.jdbc;
 
 
+import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.function.Function1;
 import org.apache.calcite.linq4j.tree.*;
 import org.polypheny.db.adapter.DataContext;
@@ -43,8 +44,10 @@
 import org.polypheny.db.algebra.AbstractAlgNode;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.convert.ConverterImpl;
+import org.polypheny.db.algebra.core.Modify;
 import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
 import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.algebra.type.AlgDataTypeField;
 import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.plan.*;
 import org.polypheny.db.runtime.Hook;
@@ -76,7 +79,7 @@
 /**
  * Relational expression representing a scan of a table in a JDBC data source.
  */
-public class JdbcToEnumerableConverter extends ConverterImpl implements EnumerableAlg {
+public class JdbcToEnumerableConverter extends ConverterImpl implements EnumerableBatchAlg, BulkExecutable {
 
     public static final Method JDBC_SCHEMA_GET_CONNECTION_HANDLER_METHOD = Types.lookupMethod(
             JdbcSchema.class,
@@ -86,6 +89,10 @@ public class JdbcToEnumerableConverter extends ConverterImpl implements Enumerab
             ResultSetEnumerable.class,
             "setTimeout",
             DataContext.class );
+    public static final Method RESULT_SET_ENUMERABLE_SET_FETCH_SIZE_METHOD = Types.lookupMethod(
+            ResultSetEnumerable.class,
+            "setFetchSize",
+            DataContext.class );
     public static final Method RESULT_SET_ENUMERABLE_OF_METHOD = Types.lookupMethod(
             ResultSetEnumerable.class,
             "of",
@@ -99,6 +106,12 @@ public class JdbcToEnumerableConverter extends ConverterImpl implements Enumerab
             String.class,
             Function1.class,
             ResultSetEnumerable.PreparedStatementEnricher.class );
+    public static final Method RESULT_SET_ENUMERABLE_TO_BATCHES_METHOD = Types.lookupMethod(
+            ResultSetEnumerable.class,
+            "toBatches",
+            Enumerable.class,
+            List.class,
+            int.class );
     public static final Method CREATE_ENRICHER_METHOD = Types.lookupMethod(
             ResultSetEnumerable.class,
             "createEnricher",
@@ -124,6 +137,13 @@ public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq )
     }
 
 
+    @Override
+    public boolean supportsBulkExecution() {
+        // prepared DML binds all parameter rows using addBatch
+        return getInput() instanceof Modify;
+    }
+
+
     @Override
     public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         // Generate:
@@ -196,6 +216,68 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                                                                         Expressions.catch_( e_, Expressions.throw_( Expressions.new_( RuntimeException.class, e_ ) ) ) ) ) ) ) ),
                                 resultSet_ ) );
 
+        final Expression enumerable = createEnumerable( builder0, jdbcConvention, sqlString, sql_, rowBuilderFactory_ );
+        builder0.add( Expressions.return_( null, enumerable ) );
+        return implementor.result( physType, builder0.toBlock() );
+    }
+
+
+    /**
+     * Scans can produce batches if no column needs a conversion of the values the JDBC driver returns.
+     */
+    @Override
+    public boolean producesBatches() {
+        for ( AlgDataTypeField field : getRowType().getFieldList() ) {
+            if ( !ResultSetEnumerable.BATCH_TYPES.contains( field.getType().getPolyType() ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public Result implementBatches( EnumerableAlgImplementor implementor ) {
+        // Generate:
+        //   ResultSetEnumerable.toBatches(ResultSetEnumerable.of(schema.getDataSource(), "select ...", resultSet -> () -> resultSet), types, batchSize)
+        final BlockBuilder builder0 = new BlockBuilder( false );
+        final JdbcConvention jdbcConvention = (JdbcConvention) getInput().getConvention();
+        SqlString sqlString = generateSql( jdbcConvention.dialect, jdbcConvention.getJdbcSchema() );
+        String sql = sqlString.getSql();
+        if ( RuntimeConfig.DEBUG.getBoolean() ) {
+            System.out.println( "[" + sql + "]" );
+        }
+        Hook.QUERY_PLAN.run( sql );
+        final Expression sql_ = builder0.append( "sql", Expressions.constant( sql ) );
+        final ParameterExpression resultSet_ = Expressions.parameter( Modifier.FINAL, ResultSet.class, builder0.newName( "resultSet" ) );
+        // the cursor is the result set itself, the batches read the columns from it
+        final Expression cursorFactory_ =
+                builder0.append(
+                        "cursorFactory",
+                        Expressions.lambda(
+                                Expressions.block(
+                                        Expressions.return_(
+                                                null,
+                                                Expressions.lambda( Expressions.block( Expressions.return_( null, resultSet_ ) ) ) ) ),
+                                resultSet_ ) );
+        final Expression enumerable = createEnumerable( builder0, jdbcConvention, sqlString, sql_, cursorFactory_ );
+        builder0.add(
+                Expressions.return_(
+                        null,
+                        Expressions.call(
+                                RESULT_SET_ENUMERABLE_TO_BATCHES_METHOD,
+                                enumerable,
+                                implementor.columnTypes( getRowType() ),
+                                Expressions.constant( RuntimeConfig.COLUMNAR_BATCH_SIZE.getInteger() ) ) ) );
+        final PhysType physType = PhysTypeImpl.of( implementor.getTypeFactory(), getRowType(), JavaRowFormat.ARRAY, false );
+        return implementor.result( physType, builder0.toBlock() );
+    }
+
+
+    /**
+     * Generates the {@link ResultSetEnumerable} which executes the given SQL and builds its elements with the given factory.
+     */
+    private Expression createEnumerable( BlockBuilder builder0, JdbcConvention jdbcConvention, SqlString sqlString, Expression sql_, Expression rowBuilderFactory_ ) {
         final Expression enumerable;
 
         if ( sqlString.getDynamicParameters() != null && !sqlString.getDynamicParameters().isEmpty() ) {
@@ -236,8 +318,13 @@ public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
                                 enumerable,
                                 RESULT_SET_ENUMERABLE_SET_TIMEOUT_METHOD,
                                 DataContext.ROOT ) ) );
-        builder0.add( Expressions.return_( null, enumerable ) );
-        return implementor.result( physType, builder0.toBlock() );
+        builder0.add(
+                Expressions.statement(
+                        Expressions.call(
+                                enumerable,
+                                RESULT_SET_ENUMERABLE_SET_FETCH_SIZE_METHOD,
+                                DataContext.ROOT ) ) );
+        return enumerable;
     }
 
 
@@ -44,6 +44,7 @@
 import org.apache.calcite.linq4j.function.Function1;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.polypheny.db.adapter.jdbc.connection.ConnectionFactory;
+import org.polypheny.db.adapter.jdbc.connection.ConnectionHandlerPool;
 import org.polypheny.db.information.*;
 import org.polypheny.db.information.InformationGraph.GraphData;
 import org.polypheny.db.information.InformationGraph.GraphType;
@@ -292,10 +293,21 @@ public static void addInformationPoolSize( InformationPage informationPage, List
                     new GraphData<>( uniqueName + "-connection-pool-data", new Integer[]{ active, available, idle } )
             );
 
+            ConnectionHandlerPool<?> pool = connectionFactory.getPool();
             connectionPoolSizeTable.reset();
             connectionPoolSizeTable.addRow( "Active", active );
             connectionPoolSizeTable.addRow( "Idle", idle );
             connectionPoolSizeTable.addRow( "Max", max );
+            connectionPoolSizeTable.addRow( "Waiting", pool.getNumWaiting() );
+            connectionPoolSizeTable.addRow( "Waits", pool.getWaitCount() );
+            connectionPoolSizeTable.addRow( "Avg. Wait Time (ms)", String.format( "%.2f", pool.getAverageWaitTime() ) );
+            connectionPoolSizeTable.addRow( "Max. Wait Time (ms)", String.format( "%.2f", pool.getMaxWaitTime() ) );
+            connectionPoolSizeTable.addRow( "Timeouts", pool.getTimeouts() );
+            connectionPoolSizeTable.addRow( "Evicted Idle Connections", pool.getEvicted() );
+            long hits = pool.getStatementCacheHits();
+            long lookups = hits + pool.getStatementCacheMisses();
+            connectionPoolSizeTable.addRow( "Statement Cache Hits", hits );
+            connectionPoolSizeTable.addRow( "Statement Cache Hit Rate", lookups == 0 ? "-" : String.format( "%.1f %%", 100.0 * hits / lookups ) );
         } );
 
         groups.add( group );
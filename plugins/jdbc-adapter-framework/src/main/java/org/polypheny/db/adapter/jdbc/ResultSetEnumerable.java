@@ -34,6 +34,7 @@
 package org.polypheny.db.adapter.jdbc;
 
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteStreams;
 import com.google.gson.Gson;
 import lombok.extern.slf4j.Slf4j;
@@ -49,6 +50,12 @@
 import org.polypheny.db.adapter.DataContext;
 import org.polypheny.db.adapter.jdbc.connection.ConnectionHandler;
 import org.polypheny.db.algebra.type.AlgDataType;
+import org.polypheny.db.config.RuntimeConfig;
+import org.polypheny.db.runtime.vector.ColumnBatch;
+import org.polypheny.db.runtime.vector.ColumnVector;
+import org.polypheny.db.runtime.vector.ColumnVector.BooleanVector;
+import org.polypheny.db.runtime.vector.ColumnVector.DoubleVector;
+import org.polypheny.db.runtime.vector.ColumnVector.LongVector;
 import org.polypheny.db.sql.language.SqlDialect.IntervalParameterStrategy;
 import org.polypheny.db.type.IntervalPolyType;
 import org.polypheny.db.type.PolyType;
@@ -63,6 +70,7 @@
 import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 /**
@@ -75,6 +83,23 @@
 
     private final static Gson gson = new Gson();
 
+    /**
+     * Types of the columns which can be read into columnar batches by {@link #toBatches(Enumerable, List, int)}, as
+     * their values do not need any conversion.
+     */
+    public final static Set<PolyType> BATCH_TYPES = ImmutableSet.of(
+            PolyType.TINYINT,
+            PolyType.SMALLINT,
+            PolyType.INTEGER,
+            PolyType.BIGINT,
+            PolyType.FLOAT,
+            PolyType.REAL,
+            PolyType.DOUBLE,
+            PolyType.BOOLEAN,
+            PolyType.CHAR,
+            PolyType.VARCHAR,
+            PolyType.DECIMAL );
+
     // timestamp do factor in the timezones, which means that 10:00 is 9:00 with
     // an one hour shift, as we lose this timezone information on retrieval
     // therefore we use the offset if needed
@@ -88,6 +113,7 @@
     private Long queryStart;
     private long timeout;
     private boolean timeoutSetFailed;
+    private int fetchSize;
 
     private static final Function1<ResultSet, Function0<Object>> AUTO_ROW_BUILDER_FACTORY =
             resultSet -> {
@@ -217,6 +243,119 @@ public void setTimeout( DataContext context ) {
     }
 
 
+    /**
+     * Limits the number of rows fetched per round trip to the number of rows the consumer retrieves at once,
+     * if the consumer announced it in the data context.
+     */
+    public void setFetchSize( DataContext context ) {
+        Object fetchSize = context.get( DataContext.Variable.FETCH_SIZE.camelName );
+        if ( fetchSize instanceof Integer && (Integer) fetchSize > 0 ) {
+            this.fetchSize = (Integer) fetchSize;
+        } else {
+            this.fetchSize = 0;
+        }
+    }
+
+
+    /**
+     * Reads the rows of the given cursor into columnar batches of the given types, see {@link #BATCH_TYPES}.
+     * Numeric and boolean values are read with the primitive getters of the result set and written into the vectors
+     * directly, without boxing them.
+     *
+     * @param cursor Enumerable whose elements are the result set, positioned at the current row
+     */
+    public static Enumerable<ColumnBatch> toBatches( final Enumerable<ResultSet> cursor, final List<PolyType> types, final int batchSize ) {
+        return new AbstractEnumerable<>() {
+            @Override
+            public Enumerator<ColumnBatch> enumerator() {
+                return new Enumerator<>() {
+                    private final Enumerator<ResultSet> rows = cursor.enumerator();
+                    private ColumnBatch current;
+                    private boolean done = false;
+
+
+                    @Override
+                    public ColumnBatch current() {
+                        return current;
+                    }
+
+
+                    @Override
+                    public boolean moveNext() {
+                        if ( done ) {
+                            return false;
+                        }
+                        final ColumnBatch batch = new ColumnBatch( types, batchSize );
+                        try {
+                            while ( !batch.isFull() && rows.moveNext() ) {
+                                readRow( rows.current(), batch );
+                            }
+                        } catch ( SQLException e ) {
+                            throw new RuntimeException( e );
+                        }
+                        if ( batch.getSize() < batchSize ) {
+                            done = true;
+                        }
+                        if ( batch.getSize() == 0 ) {
+                            current = null;
+                            return false;
+                        }
+                        current = batch;
+                        return true;
+                    }
+
+
+                    @Override
+                    public void reset() {
+                        rows.reset();
+                        current = null;
+                        done = false;
+                    }
+
+
+                    @Override
+                    public void close() {
+                        rows.close();
+                    }
+                };
+            }
+        };
+    }
+
+
+    private static void readRow( ResultSet resultSet, ColumnBatch batch ) throws SQLException {
+        final int pos = batch.getSize();
+        for ( int i = 0; i < batch.getFieldCount(); i++ ) {
+            final ColumnVector vector = batch.getColumn( i );
+            if ( vector instanceof LongVector ) {
+                final long value = resultSet.getLong( i + 1 );
+                if ( resultSet.wasNull() ) {
+                    vector.setNull( pos );
+                } else {
+                    ((LongVector) vector).values[pos] = value;
+                }
+            } else if ( vector instanceof DoubleVector ) {
+                final double value = resultSet.getDouble( i + 1 );
+                if ( resultSet.wasNull() ) {
+                    vector.setNull( pos );
+                } else {
+                    ((DoubleVector) vector).values[pos] = value;
+                }
+            } else if ( vector instanceof BooleanVector ) {
+                final boolean value = resultSet.getBoolean( i + 1 );
+                if ( resultSet.wasNull() ) {
+                    vector.setNull( pos );
+                } else {
+                    ((BooleanVector) vector).values[pos] = value;
+                }
+            } else {
+                vector.set( pos, resultSet.getObject( i + 1 ) );
+            }
+        }
+        batch.incrementSize();
+    }
+
+
     /**
      * Called from generated code that proposes to create a {@code ResultSetEnumerable} over a prepared statement.
      */
@@ -437,15 +576,19 @@ public Enumerator<T> enumerator() {
     private Enumerator<T> enumeratorBasedOnStatement() {
         Statement statement = null;
         try {
-            statement = connectionHandler.getStatement();
-            setTimeoutIfPossible( statement );
-            if ( statement.execute( sql ) ) {
-                final ResultSet resultSet = statement.getResultSet();
-                statement = null;
-                return new ResultSetEnumerator<>( resultSet, rowBuilderFactory );
-            } else {
-                Integer updateCount = statement.getUpdateCount();
-                return Linq4j.singletonEnumerator( (T) updateCount );
+            // statements of a transaction share the connection of the handler, they must not use it concurrently
+            synchronized ( connectionHandler ) {
+                statement = connectionHandler.getStatement();
+                setTimeoutIfPossible( statement );
+                setFetchSizeIfPossible( statement );
+                if ( statement.execute( sql ) ) {
+                    final ResultSet resultSet = statement.getResultSet();
+                    statement = null;
+                    return new ResultSetEnumerator<>( resultSet, rowBuilderFactory, null, connectionHandler );
+                } else {
+                    Integer updateCount = statement.getUpdateCount();
+                    return Linq4j.singletonEnumerator( (T) updateCount );
+                }
             }
         } catch ( SQLException e ) {
             throw Static.RESOURCE.exceptionWhilePerformingQueryOnJdbcSubSchema( sql ).ex( e );
@@ -458,27 +601,36 @@ private Enumerator<T> enumeratorBasedOnStatement() {
     private Enumerator<T> enumeratorBasedOnPreparedStatement() {
         PreparedStatement preparedStatement = null;
         try {
-            preparedStatement = connectionHandler.prepareStatement( sql );
-            setTimeoutIfPossible( preparedStatement );
-            if ( preparedStatementEnricher.enrich( preparedStatement, connectionHandler ) ) {
-                // batch
-                preparedStatement.executeBatch();
-                Integer updateCount = preparedStatement.getUpdateCount();
-                return Linq4j.singletonEnumerator( (T) updateCount );
-            } else {
-                if ( preparedStatement.execute() ) {
-                    final ResultSet resultSet = preparedStatement.getResultSet();
-                    preparedStatement = null;
-                    return new ResultSetEnumerator<>( resultSet, rowBuilderFactory );
+            // statements of a transaction share the connection of the handler, they must not use it concurrently
+            synchronized ( connectionHandler ) {
+                preparedStatement = connectionHandler.prepareStatement( sql );
+                setTimeoutIfPossible( preparedStatement );
+                setFetchSizeIfPossible( preparedStatement );
+                if ( preparedStatementEnricher.enrich( preparedStatement, connectionHandler ) ) {
+                    // batch
+                    int updateCount = 0;
+                    for ( int count : preparedStatement.executeBatch() ) {
+                        // drivers may only report success without the number of affected rows
+                        updateCount += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max( count, 0 );
+                    }
+                    return Linq4j.singletonEnumerator( (T) Integer.valueOf( updateCount ) );
                 } else {
-                    Integer updateCount = preparedStatement.getUpdateCount();
-                    return Linq4j.singletonEnumerator( (T) updateCount );
+                    if ( preparedStatement.execute() ) {
+                        final ResultSet resultSet = preparedStatement.getResultSet();
+                        preparedStatement = null;
+                        return new ResultSetEnumerator<>( resultSet, rowBuilderFactory, connectionHandler );
+                    } else {
+                        Integer updateCount = preparedStatement.getUpdateCount();
+                        return Linq4j.singletonEnumerator( (T) updateCount );
+                    }
                 }
             }
         } catch ( SQLException e ) {
             throw Static.RESOURCE.exceptionWhilePerformingQueryOnJdbcSubSchema( sql ).ex( e );
         } finally {
-            closeIfPossible( preparedStatement );
+            if ( preparedStatement != null ) {
+                connectionHandler.releaseStatement( preparedStatement );
+            }
         }
     }
 
@@ -508,6 +660,31 @@ private void setTimeoutIfPossible( Statement statement ) throws SQLException {
     }
 
 
+    /**
+     * Sets a fetch size so that drivers which would otherwise read the whole result into memory before returning the
+     * first row stream it using a cursor. The fetch size is at most the configured one and at most the number of rows
+     * the consumer retrieves at once.
+     */
+    private void setFetchSizeIfPossible( Statement statement ) throws SQLException {
+        int size = RuntimeConfig.JDBC_FETCH_SIZE.getInteger();
+        if ( size <= 0 ) {
+            return;
+        }
+        if ( fetchSize > 0 ) {
+            size = Math.min( size, fetchSize );
+        }
+        size = connectionHandler.getDialect().getFetchSize( size, statement.getConnection().getAutoCommit() );
+        if ( size == 0 ) {
+            return;
+        }
+        try {
+            statement.setFetchSize( size );
+        } catch ( SQLFeatureNotSupportedException e ) {
+            log.debug( "Failed to set fetch size {}", size, e );
+        }
+    }
+
+
     private void closeIfPossible( Statement statement ) {
         if ( statement != null ) {
             try {
@@ -527,25 +704,42 @@ private void closeIfPossible( Statement statement ) {
     private static class ResultSetEnumerator<T> implements Enumerator<T> {
 
         private final Function0<T> rowBuilder;
+        private final ConnectionHandler statementOwner;
+        private final Object connectionLock;
         private ResultSet resultSet;
 
 
-        ResultSetEnumerator( ResultSet resultSet, Function1<ResultSet, Function0<T>> rowBuilderFactory ) {
+        ResultSetEnumerator( ResultSet resultSet, Function1<ResultSet, Function0<T>> rowBuilderFactory, ConnectionHandler statementOwner ) {
+            this( resultSet, rowBuilderFactory, statementOwner, statementOwner );
+        }
+
+
+        /**
+         * @param statementOwner Handler to which the statement is handed back instead of closing it, may be {@code null}
+         * @param connectionHandler Handler whose connection the result set is read from, rows are fetched while holding its lock
+         */
+        ResultSetEnumerator( ResultSet resultSet, Function1<ResultSet, Function0<T>> rowBuilderFactory, ConnectionHandler statementOwner, ConnectionHandler connectionHandler ) {
             this.resultSet = resultSet;
             this.rowBuilder = rowBuilderFactory.apply( resultSet );
+            this.statementOwner = statementOwner;
+            this.connectionLock = connectionHandler != null ? connectionHandler : this;
         }
 
 
         @Override
         public T current() {
-            return rowBuilder.apply();
+            synchronized ( connectionLock ) {
+                return rowBuilder.apply();
+            }
         }
 
 
         @Override
         public boolean moveNext() {
             try {
-                return resultSet.next();
+                synchronized ( connectionLock ) {
+                    return resultSet.next();
+                }
             } catch ( SQLException e ) {
                 throw new RuntimeException( e );
             }
@@ -570,7 +764,9 @@ public void close() {
                     resultSet = null;
                     final Statement statement = savedResultSet.getStatement();
                     savedResultSet.close();
-                    if ( statement != null ) {
+                    if ( statement != null && statementOwner != null ) {
+                        statementOwner.releaseStatement( statement );
+                    } else if ( statement != null ) {
                         //final Connection connection = statement.getConnection();
                         statement.close();
                         /*if ( connection != null ) {
@@ -31,6 +31,8 @@ public interface ConnectionFactory {
 
     void close() throws SQLException;
 
+    ConnectionHandlerPool<?> getPool();
+
     int getMaxTotal();
 
     int getNumActive();
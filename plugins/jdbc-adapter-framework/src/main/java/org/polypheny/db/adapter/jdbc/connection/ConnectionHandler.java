@@ -23,13 +23,21 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.config.RuntimeConfig;
 import org.polypheny.db.sql.language.SqlDialect;
 
 
 /**
- * Represents a transaction and provides methods to interact with the database system.
+ * Represents a transaction and provides methods to interact with the database system. All statements of a transaction
+ * share the connection of its handler; the handler is used as lock to serialize their use of the connection.
  */
 @Slf4j
 public abstract class ConnectionHandler {
@@ -43,36 +51,84 @@ public abstract class ConnectionHandler {
      */
     protected ConcurrentLinkedQueue<Statement> openStatements;
 
+    /**
+     * Point in time (milliseconds) at which this handler was handed back to its pool
+     */
+    long idleSince;
+
+    /**
+     * The pool this handler belongs to, {@code null} if it is not pooled
+     */
+    ConnectionHandlerPool<?> pool;
+
+    /**
+     * Prepared statements which are kept open across transactions, in LRU order
+     */
+    private final Map<String, PreparedStatement> statementCache = new LinkedHashMap<>( 16, 0.75f, true );
+
+    /**
+     * Prepared statements (cached or not) which are currently used by an enumerable
+     */
+    private final Set<Statement> borrowedStatements = Collections.newSetFromMap( new IdentityHashMap<>() );
 
-    public int executeUpdate( final String sql ) throws SQLException {
+    private long statementCacheGeneration;
+
+
+    public synchronized int executeUpdate( final String sql ) throws SQLException {
         log.trace( "Executing query on database: {}", sql );
         return statement.executeUpdate( sql );
     }
 
 
-    public ResultSet executeQuery( final String sql ) throws SQLException {
+    public synchronized ResultSet executeQuery( final String sql ) throws SQLException {
         log.trace( "Executing query on database: {}", sql );
         return createStatement().executeQuery( sql );
     }
 
 
-    public void execute( final String sql ) throws SQLException {
+    public synchronized void execute( final String sql ) throws SQLException {
         log.trace( "Executing query on database: {}", sql );
         statement.execute( sql );
     }
 
 
-    public Array createArrayOf( String typeName, Object[] elements ) throws SQLException {
+    public synchronized Array createArrayOf( String typeName, Object[] elements ) throws SQLException {
         return connection.createArrayOf( typeName, elements );
     }
 
 
-    public Statement getStatement() throws SQLException {
+    public synchronized Statement getStatement() throws SQLException {
         return createStatement();
     }
 
 
-    public PreparedStatement prepareStatement( String sql ) throws SQLException {
+    /**
+     * Returns a prepared statement for the given SQL. If the statement cache is enabled, statements are reused across
+     * transactions; the returned statement has to be handed back using {@link #releaseStatement(Statement)}.
+     */
+    public synchronized PreparedStatement prepareStatement( String sql ) throws SQLException {
+        final int cacheSize = RuntimeConfig.JDBC_STATEMENT_CACHE_SIZE.getInteger();
+        if ( cacheSize > 0 ) {
+            validateStatementCache();
+            final PreparedStatement cached = statementCache.get( sql );
+            if ( cached != null && !borrowedStatements.contains( cached ) && !cached.isClosed() ) {
+                recordStatementCacheAccess( true );
+                // a previous user may have failed before executing its bound parameters or batch
+                cached.clearParameters();
+                cached.clearBatch();
+                borrowedStatements.add( cached );
+                return cached;
+            }
+            recordStatementCacheAccess( false );
+            if ( cached == null || cached.isClosed() ) {
+                final PreparedStatement preparedStatement = connection.prepareStatement( sql );
+                statementCache.put( sql, preparedStatement );
+                evictStatements( cacheSize );
+                borrowedStatements.add( preparedStatement );
+                return preparedStatement;
+            }
+            // the cached statement is in use (e.g. the same query twice in a plan), fall back to an uncached one
+        }
         if ( openStatements == null ) {
             openStatements = new ConcurrentLinkedQueue<>();
         }
@@ -82,6 +138,78 @@ public PreparedStatement prepareStatement( String sql ) throws SQLException {
     }
 
 
+    /**
+     * Hands back a statement obtained from this handler. Cached statements are kept open, all others are closed.
+     */
+    public synchronized void releaseStatement( Statement statement ) {
+        borrowedStatements.remove( statement );
+        if ( statement instanceof PreparedStatement && statementCache.containsValue( statement ) ) {
+            try {
+                // the settings of the current query must not apply to the next user of the statement
+                if ( statement.getQueryTimeout() != 0 ) {
+                    statement.setQueryTimeout( 0 );
+                }
+                if ( statement.getFetchSize() != 0 ) {
+                    statement.setFetchSize( 0 );
+                }
+                if ( statement.getMaxRows() != 0 ) {
+                    statement.setMaxRows( 0 );
+                }
+                ((PreparedStatement) statement).clearBatch();
+                return;
+            } catch ( SQLException e ) {
+                statementCache.values().remove( statement );
+            }
+        }
+        closeStatement( statement );
+    }
+
+
+    /**
+     * Called when the handler is handed back to its pool; statements which have not been released are not reused.
+     */
+    synchronized void resetBorrowedStatements() {
+        borrowedStatements.clear();
+    }
+
+
+    private void evictStatements( int cacheSize ) {
+        final Iterator<PreparedStatement> iterator = statementCache.values().iterator();
+        while ( statementCache.size() > cacheSize && iterator.hasNext() ) {
+            final PreparedStatement eldest = iterator.next();
+            iterator.remove();
+            if ( !borrowedStatements.contains( eldest ) ) {
+                closeStatement( eldest );
+            }
+        }
+    }
+
+
+    private void validateStatementCache() {
+        if ( pool != null && pool.getStatementCacheGeneration() != statementCacheGeneration ) {
+            // a DDL statement has been executed on the store since the statements have been prepared
+            statementCacheGeneration = pool.getStatementCacheGeneration();
+            evictStatements( 0 );
+        }
+    }
+
+
+    private void recordStatementCacheAccess( boolean hit ) {
+        if ( pool != null ) {
+            pool.recordStatementCacheAccess( hit );
+        }
+    }
+
+
+    private static void closeStatement( Statement statement ) {
+        try {
+            statement.close();
+        } catch ( SQLException e ) {
+            log.debug( "Exception while closing statement", e );
+        }
+    }
+
+
     public abstract boolean prepare() throws ConnectionHandlerException;
 
     public abstract void commit() throws ConnectionHandlerException;
@@ -99,6 +227,33 @@ private Statement createStatement() throws SQLException {
     }
 
 
+    /**
+     * Checks whether the underlying connection is still usable.
+     */
+    boolean isValid( int timeoutSeconds ) {
+        try {
+            return connection.isValid( timeoutSeconds );
+        } catch ( SQLException e ) {
+            return false;
+        }
+    }
+
+
+    /**
+     * Closes the underlying connection, used by the pool to discard invalid or long idle handlers.
+     */
+    void closeConnection() {
+        synchronized ( this ) {
+            evictStatements( 0 );
+        }
+        try {
+            connection.close();
+        } catch ( SQLException e ) {
+            log.debug( "Exception while closing connection", e );
+        }
+    }
+
+
     public abstract SqlDialect getDialect();
 
 }
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.adapter.jdbc.connection;
+
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.polypheny.db.config.RuntimeConfig;
+
+
+/**
+ * Pool of connection handlers with at most {@code maxConnections} handlers in use at the same time.
+ *
+ * Threads requesting a handler while the pool is saturated are blocked on a fair semaphore and get the next handler
+ * which is released, or fail after the configured acquisition timeout. Idle handlers are reused in LIFO order, validated
+ * if they were idle for a while, and closed once they exceed the idle timeout.
+ */
+@Slf4j
+public class ConnectionHandlerPool<H extends ConnectionHandler> {
+
+    private static final long VALIDATION_INTERVAL_MILLIS = 30_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final int maxConnections;
+    private final HandlerFactory<H> factory;
+    private final Semaphore permits;
+
+    // most recently used handlers are at the head
+    private final ConcurrentLinkedDeque<H> idle = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong waitTimeNanos = new AtomicLong();
+    private final AtomicLong maxWaitTimeNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    private final AtomicLong statementCacheGeneration = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+
+    public ConnectionHandlerPool( int maxConnections, HandlerFactory<H> factory ) {
+        this.maxConnections = maxConnections;
+        this.factory = factory;
+        this.permits = new Semaphore( maxConnections, true );
+    }
+
+
+    /**
+     * Returns an idle handler or creates a new one. Blocks if {@code maxConnections} handlers are in use.
+     */
+    public H acquire() throws ConnectionHandlerException {
+        if ( !permits.tryAcquire() ) {
+            log.debug( "No free connection handler and max number of handlers reached. Waiting for a free instance." );
+            waitForPermit();
+        }
+        try {
+            evictIdle();
+            H handler;
+            while ( (handler = idle.pollFirst()) != null ) {
+                if ( isValid( handler ) ) {
+                    return handler;
+                }
+                log.debug( "Discarding invalid connection handler" );
+                handler.closeConnection();
+            }
+            handler = factory.create();
+            handler.pool = this;
+            return handler;
+        } catch ( ConnectionHandlerException | RuntimeException e ) {
+            permits.release();
+            throw e;
+        }
+    }
+
+
+    private void waitForPermit() throws ConnectionHandlerException {
+        final long timeout = RuntimeConfig.JDBC_POOL_ACQUIRE_TIMEOUT.getInteger();
+        final long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            if ( !permits.tryAcquire( timeout, TimeUnit.MILLISECONDS ) ) {
+                timeouts.incrementAndGet();
+                throw new ConnectionHandlerException( "Timeout after " + timeout + " ms while waiting for a free connection" );
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionHandlerException( "Interrupted while waiting for a free connection", e );
+        } finally {
+            waiting.decrementAndGet();
+            final long waited = System.nanoTime() - start;
+            waitCount.incrementAndGet();
+            waitTimeNanos.addAndGet( waited );
+            maxWaitTimeNanos.accumulateAndGet( waited, Math::max );
+        }
+    }
+
+
+    /**
+     * Hands the given handler back to the pool. The next waiting thread, if any, is woken up.
+     */
+    public void release( H handler ) {
+        handler.resetBorrowedStatements();
+        handler.idleSince = System.currentTimeMillis();
+        idle.offerFirst( handler );
+        permits.release();
+    }
+
+
+    private boolean isValid( H handler ) {
+        if ( System.currentTimeMillis() - handler.idleSince < VALIDATION_INTERVAL_MILLIS ) {
+            return true;
+        }
+        return handler.isValid( VALIDATION_TIMEOUT_SECONDS );
+    }
+
+
+    private void evictIdle() {
+        final long idleTimeout = RuntimeConfig.JDBC_POOL_IDLE_TIMEOUT.getInteger();
+        if ( idleTimeout <= 0 ) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        // the least recently used handlers are at the tail
+        final Iterator<H> iterator = idle.descendingIterator();
+        while ( iterator.hasNext() ) {
+            final H handler = iterator.next();
+            if ( now - handler.idleSince < idleTimeout ) {
+                break;
+            }
+            if ( idle.removeLastOccurrence( handler ) ) {
+                evicted.incrementAndGet();
+                handler.closeConnection();
+            }
+        }
+    }
+
+
+    /**
+     * Closes all idle handlers.
+     */
+    public void close() {
+        H handler;
+        while ( (handler = idle.pollFirst()) != null ) {
+            handler.closeConnection();
+        }
+    }
+
+
+    public int getMaxTotal() {
+        return maxConnections;
+    }
+
+
+    public int getNumActive() {
+        return maxConnections - permits.availablePermits();
+    }
+
+
+    public int getNumIdle() {
+        return idle.size();
+    }
+
+
+    public int getNumWaiting() {
+        return waiting.get();
+    }
+
+
+    public long getWaitCount() {
+        return waitCount.get();
+    }
+
+
+    /**
+     * Average time in milliseconds threads had to wait for a handler, only considering acquisitions which had to wait.
+     */
+    public double getAverageWaitTime() {
+        final long count = waitCount.get();
+        return count == 0 ? 0 : waitTimeNanos.get() / 1e6 / count;
+    }
+
+
+    public double getMaxWaitTime() {
+        return maxWaitTimeNanos.get() / 1e6;
+    }
+
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+
+    public long getEvicted() {
+        return evicted.get();
+    }
+
+
+    /**
+     * Invalidates the prepared statements cached by the handlers of this pool, e.g. after a DDL statement.
+     * The handlers drop their cached statements the next time they prepare a statement.
+     */
+    public void invalidateStatementCaches() {
+        statementCacheGeneration.incrementAndGet();
+    }
+
+
+    long getStatementCacheGeneration() {
+        return statementCacheGeneration.get();
+    }
+
+
+    void recordStatementCacheAccess( boolean hit ) {
+        (hit ? statementCacheHits : statementCacheMisses).incrementAndGet();
+    }
+
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+
+    /**
+     * Creates new connection handlers for the pool.
+     */
+    public interface HandlerFactory<H extends ConnectionHandler> {
+
+        H create() throws ConnectionHandlerException;
+
+    }
+
+}
@@ -21,9 +21,7 @@
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import javax.transaction.xa.Xid;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -38,9 +36,8 @@
 public class TransactionalConnectionFactory implements ConnectionFactory {
 
     protected final Map<Xid, TransactionalConnectionHandler> activeInstances;
-    protected final Queue<TransactionalConnectionHandler> freeInstances;
+    protected final ConnectionHandlerPool<TransactionalConnectionHandler> pool;
 
-    private final int maxConnections;
     private final BasicDataSource dataSource;
 
     private final SqlDialect dialect;
@@ -48,23 +45,37 @@ public class TransactionalConnectionFactory implements ConnectionFactory {
 
     public TransactionalConnectionFactory( BasicDataSource dataSource, int maxConnections, SqlDialect dialect ) {
         super();
-        this.maxConnections = maxConnections;
         this.dataSource = dataSource;
         this.activeInstances = new ConcurrentHashMap<>();
-        this.freeInstances = new ConcurrentLinkedQueue<>();
+        this.pool = new ConnectionHandlerPool<>( maxConnections, () -> {
+            log.debug( "Creating a new transaction handler. Current number of idle handlers: {}", getNumIdle() );
+            try {
+                return new TransactionalConnectionHandler( dataSource.getConnection(), dialect );
+            } catch ( SQLException e ) {
+                throw new ConnectionHandlerException( "Caught exception while creating connection handler", e );
+            }
+        } );
         this.dialect = dialect;
     }
 
 
     @Override
     public TransactionalConnectionHandler getOrCreateConnectionHandler( Xid xid ) throws ConnectionHandlerException {
-        if ( !activeInstances.containsKey( xid ) ) {
-            TransactionalConnectionHandler transactionHandler = getFreeTransactionHandler();
-            transactionHandler.xid = xid;
-            activeInstances.put( xid, transactionHandler );
+        TransactionalConnectionHandler transactionHandler = activeInstances.get( xid );
+        if ( transactionHandler != null ) {
+            return transactionHandler;
+        }
+        // Not acquired within computeIfAbsent: acquiring may wait for a handler to be released, which removes its xid
+        // from the map and could therefore be blocked by the computation.
+        synchronized ( activeInstances ) {
+            transactionHandler = activeInstances.get( xid );
+            if ( transactionHandler == null ) {
+                transactionHandler = pool.acquire();
+                transactionHandler.xid = xid;
+                activeInstances.put( xid, transactionHandler );
+            }
             return transactionHandler;
         }
-        return getConnectionHandler( xid );
     }
 
 
@@ -82,52 +93,32 @@ public TransactionalConnectionHandler getConnectionHandler( Xid xid ) {
 
     @Override
     public void close() throws SQLException {
+        pool.close();
         dataSource.close();
     }
 
 
-    private TransactionalConnectionHandler getFreeTransactionHandler() throws ConnectionHandlerException {
-        TransactionalConnectionHandler handler = freeInstances.poll();
-        if ( handler == null ) {
-            if ( getNumActive() + getNumIdle() < maxConnections ) {
-                log.debug( "Creating a new transaction handler. Current freeInstances-Size: {}", freeInstances.size() );
-                try {
-                    handler = new TransactionalConnectionHandler( dataSource.getConnection(), dialect );
-                } catch ( SQLException e ) {
-                    throw new ConnectionHandlerException( "Caught exception while creating connection handler", e );
-                }
-            } else {
-                log.warn( "No free connection handler and max number of handlers reach. Wait for a free instances." );
-                // Wait for a free instance
-                while ( handler == null ) {
-                    try {
-                        Thread.sleep( 10 );
-                    } catch ( InterruptedException e ) {
-                        // Ignore
-                    }
-                    handler = freeInstances.poll();
-                }
-            }
-        }
-        return handler;
+    @Override
+    public ConnectionHandlerPool<TransactionalConnectionHandler> getPool() {
+        return pool;
     }
 
 
     @Override
     public int getMaxTotal() {
-        return maxConnections;
+        return pool.getMaxTotal();
     }
 
 
     @Override
     public int getNumActive() {
-        return activeInstances.size();
+        return pool.getNumActive();
     }
 
 
     @Override
     public int getNumIdle() {
-        return freeInstances.size();
+        return pool.getNumIdle();
     }
 
 
@@ -182,7 +173,7 @@ public void rollback() throws ConnectionHandlerException {
 
 
         private void close() {
-            log.debug( "Closing a transaction handler. Size of freeInstances before closing: {}", freeInstances.size() );
+            log.debug( "Closing a transaction handler. Number of idle handlers before closing: {}", getNumIdle() );
             try {
                 if ( openStatements != null ) {
                     for ( Statement openStatement : openStatements ) {
@@ -195,8 +186,8 @@ private void close() {
                 openStatements = null;
                 activeInstances.remove( xid );
                 xid = null;
-                freeInstances.add( this );
-                log.debug( "Size of freeInstances after closing: {}", freeInstances.size() );
+                pool.release( this );
+                log.debug( "Number of idle handlers after closing: {}", getNumIdle() );
             }
         }
 
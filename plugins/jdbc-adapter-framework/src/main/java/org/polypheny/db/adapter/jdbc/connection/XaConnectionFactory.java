@@ -20,9 +20,7 @@
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import javax.sql.XAConnection;
 import javax.sql.XADataSource;
 import javax.transaction.xa.XAException;
@@ -40,9 +38,8 @@
 public class XaConnectionFactory implements ConnectionFactory {
 
     protected final Map<Xid, XaConnectionHandler> activeInstances;
-    protected final Queue<XaConnectionHandler> freeInstances;
+    protected final ConnectionHandlerPool<XaConnectionHandler> pool;
 
-    private final int maxConnections;
     private final XADataSource dataSource;
 
     @Getter
@@ -51,23 +48,42 @@ public class XaConnectionFactory implements ConnectionFactory {
 
     public XaConnectionFactory( XADataSource dataSource, int maxConnections, SqlDialect dialect ) {
         super();
-        this.maxConnections = maxConnections;
         this.dataSource = dataSource;
         this.activeInstances = new ConcurrentHashMap<>();
-        this.freeInstances = new ConcurrentLinkedQueue<>();
+        this.pool = new ConnectionHandlerPool<>( maxConnections, () -> {
+            log.debug( "Creating a new transaction handler. Current number of idle handlers: {}", getNumIdle() );
+            try {
+                return new XaConnectionHandler( dataSource.getXAConnection(), dialect );
+            } catch ( SQLException e ) {
+                throw new ConnectionHandlerException( "Caught exception while creating connection handler", e );
+            }
+        } );
         this.dialect = dialect;
     }
 
 
     @Override
     public XaConnectionHandler getOrCreateConnectionHandler( Xid xid ) throws ConnectionHandlerException {
-        if ( !activeInstances.containsKey( xid ) ) {
-            XaConnectionHandler xaConnectionHandler = getFreeTransactionHandler();
-            xaConnectionHandler.init( xid );
-            activeInstances.put( xid, xaConnectionHandler );
+        XaConnectionHandler xaConnectionHandler = activeInstances.get( xid );
+        if ( xaConnectionHandler != null ) {
+            return xaConnectionHandler;
+        }
+        // Not acquired within computeIfAbsent: acquiring may wait for a handler to be released, which removes its xid
+        // from the map and could therefore be blocked by the computation.
+        synchronized ( activeInstances ) {
+            xaConnectionHandler = activeInstances.get( xid );
+            if ( xaConnectionHandler == null ) {
+                xaConnectionHandler = pool.acquire();
+                try {
+                    xaConnectionHandler.init( xid );
+                } catch ( ConnectionHandlerException e ) {
+                    pool.release( xaConnectionHandler );
+                    throw e;
+                }
+                activeInstances.put( xid, xaConnectionHandler );
+            }
             return xaConnectionHandler;
         }
-        return getConnectionHandler( xid );
     }
 
 
@@ -85,57 +101,37 @@ public XaConnectionHandler getConnectionHandler( Xid xid ) {
 
     @Override
     public void close() throws SQLException {
-        log.warn( "Not implemented!" );
+        pool.close();
     }
 
 
-    private XaConnectionHandler getFreeTransactionHandler() throws ConnectionHandlerException {
-        XaConnectionHandler handler = freeInstances.poll();
-        if ( handler == null ) {
-            if ( getNumActive() + getNumIdle() < maxConnections ) {
-                log.debug( "Creating a new transaction handler. Current freeInstances-Size: {}", freeInstances.size() );
-                try {
-                    handler = new XaConnectionHandler( dataSource.getXAConnection(), dialect );
-                } catch ( SQLException e ) {
-                    throw new ConnectionHandlerException( "Caught exception while creating connection handler", e );
-                }
-            } else {
-                log.warn( "No free connection handler and max number of handlers reach. Wait for a free instances." );
-                // Wait for a free instance
-                while ( handler == null ) {
-                    try {
-                        Thread.sleep( 10 );
-                    } catch ( InterruptedException e ) {
-                        // Ignore
-                    }
-                    handler = freeInstances.poll();
-                }
-            }
-        }
-        return handler;
+    @Override
+    public ConnectionHandlerPool<XaConnectionHandler> getPool() {
+        return pool;
     }
 
 
     @Override
     public int getMaxTotal() {
-        return maxConnections;
+        return pool.getMaxTotal();
     }
 
 
     @Override
     public int getNumActive() {
-        return activeInstances.size();
+        return pool.getNumActive();
     }
 
 
     @Override
     public int getNumIdle() {
-        return freeInstances.size();
+        return pool.getNumIdle();
     }
 
 
     public class XaConnectionHandler extends ConnectionHandler {
 
+        private final XAConnection xaConnection;
         private final XAResource xaResource;
         private Xid xid;
 
@@ -146,6 +142,7 @@ public class XaConnectionHandler extends ConnectionHandler {
         XaConnectionHandler( XAConnection xaConnection, SqlDialect dialect ) throws ConnectionHandlerException {
             super();
             try {
+                this.xaConnection = xaConnection;
                 xaResource = xaConnection.getXAResource();
                 connection = xaConnection.getConnection();
                 statement = connection.createStatement();
@@ -204,8 +201,19 @@ public void rollback() throws ConnectionHandlerException {
         }
 
 
+        @Override
+        void closeConnection() {
+            super.closeConnection();
+            try {
+                xaConnection.close();
+            } catch ( SQLException e ) {
+                log.debug( "Exception while closing connection", e );
+            }
+        }
+
+
         private void close() {
-            log.debug( "Closing a transaction handler. Size of freeInstances before closing: {}", freeInstances.size() );
+            log.debug( "Closing a transaction handler. Number of idle handlers before closing: {}", getNumIdle() );
             try {
                 if ( openStatements != null ) {
                     for ( Statement openStatement : openStatements ) {
@@ -218,8 +226,8 @@ private void close() {
                 openStatements = null;
                 activeInstances.remove( xid );
                 xid = null;
-                freeInstances.add( this );
-                log.debug( "Size of freeInstances after closing: {}", freeInstances.size() );
+                pool.release( this );
+                log.debug( "Number of idle handlers after closing: {}", getNumIdle() );
             }
         }
 
@@ -374,6 +374,8 @@ protected void executeUpdate( StringBuilder builder, Context context ) {
         try {
             context.getStatement().getTransaction().registerInvolvedAdapter( this );
             connectionFactory.getOrCreateConnectionHandler( context.getStatement().getTransaction().getXid() ).executeUpdate( builder.toString() );
+            // prepared statements might refer to the old definition of the modified entities
+            connectionFactory.getPool().invalidateStatementCaches();
         } catch ( SQLException | ConnectionHandlerException e ) {
             throw new RuntimeException( e );
         }
@@ -36,6 +36,7 @@
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.Getter;
@@ -199,6 +200,16 @@ public class CatalogImpl extends Catalog {
 
     private static Long openTable;
 
+    // Number of changes applied to the catalog respectively committed to the store, used to skip commits of clean
+    // transactions and to combine concurrent commits
+    private static final AtomicLong changes = new AtomicLong();
+    private static long committedChanges;
+    private static boolean committing;
+    private static final Object commitMonitor = new Object();
+
+    // Read-only copy of the catalog with secondary indexes, replaced after commits which changed the catalog
+    private static final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+
     private static final AtomicInteger adapterIdBuilder = new AtomicInteger( 1 );
     private static final AtomicInteger queryInterfaceIdBuilder = new AtomicInteger( 1 );
     private static final AtomicInteger userIdBuilder = new AtomicInteger( 1 );
@@ -326,18 +337,115 @@ public CatalogImpl( String fileName, boolean doInitSchema, boolean doInitInforma
     }
 
 
+    /**
+     * Commits the changes to the store. Transactions which did not change the catalog do not commit the store.
+     * Concurrent commits are combined: The first transaction waits for a short, configurable delay and then commits
+     * the changes of all transactions, while the others wait until their changes have been committed.
+     */
     @Override
     public void commit() throws NoTablePrimaryKeyException {
         if ( openTable != null ) {
             throw new NoTablePrimaryKeyException();
         }
-        db.commit();
+        final long target = changes.get();
+        synchronized ( commitMonitor ) {
+            while ( committedChanges < target && committing ) {
+                try {
+                    commitMonitor.wait();
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException( "Interrupted while waiting for the catalog commit", e );
+                }
+            }
+            if ( committedChanges >= target ) {
+                // Clean or already committed as part of another commit
+                return;
+            }
+            committing = true;
+        }
+        long committed = committedChanges;
+        try {
+            final int delay = RuntimeConfig.CATALOG_GROUP_COMMIT_DELAY.getInteger();
+            if ( delay > 0 ) {
+                try {
+                    Thread.sleep( delay );
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            final long upTo = changes.get();
+            db.commit();
+            committed = upTo;
+        } finally {
+            synchronized ( commitMonitor ) {
+                committedChanges = committed;
+                committing = false;
+                commitMonitor.notifyAll();
+            }
+        }
+        publishSnapshot();
     }
 
 
     @Override
     public void rollback() {
-        db.rollback();
+        rollbackStore();
+    }
+
+
+    private void rollbackStore() {
+        synchronized ( commitMonitor ) {
+            while ( committing ) {
+                try {
+                    commitMonitor.wait();
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException( "Interrupted while waiting for the catalog commit", e );
+                }
+            }
+            db.rollback();
+            if ( changes.get() == committedChanges ) {
+                // Clean, the snapshot is still valid
+                return;
+            }
+            // All uncommitted changes are discarded, which is a change for the snapshot
+            committedChanges = changes.incrementAndGet();
+        }
+        publishSnapshot();
+    }
+
+
+    /**
+     * Replaces the snapshot of the catalog if it is outdated. Writers hold the monitor of the catalog while changing
+     * the maps, so the snapshot does not contain partial changes.
+     */
+    private void publishSnapshot() {
+        final CatalogSnapshot current = snapshot.get();
+        if ( current != null && current.version == changes.get() ) {
+            return;
+        }
+        synchronized ( this ) {
+            final long version = changes.get();
+            snapshot.set( CatalogSnapshot.of( version, tables, columns, columnPlacements.values() ) );
+        }
+    }
+
+
+    /**
+     * Returns the snapshot of the catalog if it reflects all changes of the catalog, {@code null} otherwise. In the
+     * latter case, e.g. while a transaction is changing the catalog, the maps have to be read.
+     */
+    private static CatalogSnapshot currentSnapshot() {
+        final CatalogSnapshot current = snapshot.get();
+        return current != null && current.version == changes.get() ? current : null;
+    }
+
+
+    /**
+     * Has to be called before changing any of the maps, so that the changes are committed to the store.
+     */
+    private static void markDirty() {
+        changes.incrementAndGet();
     }
 
 
@@ -373,6 +481,7 @@ private boolean isPersistent() {
      * @param db the databases object on which the layout is created
      */
     private void initDBLayout( DB db ) {
+        markDirty();
         try {
             initUserInfo( db );
             initDatabaseInfo( db );
@@ -928,7 +1037,7 @@ private void addDefaultColumn( CatalogAdapter adapter, CatalogTable table, Strin
     @Override
     public void validateColumns() {
         CatalogValidator validator = new CatalogValidator();
-        db.rollback();
+        rollbackStore();
         try {
             validator.validate();
         } catch ( GenericCatalogException e ) {
@@ -965,6 +1074,7 @@ public long addDatabase( String name, int ownerId, String ownerName, long defaul
         long id = databaseIdBuilder.getAndIncrement();
         CatalogDatabase database = new CatalogDatabase( id, name, ownerId, ownerName, defaultSchemaId, defaultSchemaName );
         synchronized ( this ) {
+            markDirty();
             databases.put( id, database );
             databaseNames.put( name, database );
             databaseChildren.put( id, ImmutableList.<Long>builder().build() );
@@ -982,6 +1092,7 @@ public void deleteDatabase( long databaseId ) {
         CatalogDatabase database = getDatabase( databaseId );
         if ( database != null ) {
             synchronized ( this ) {
+                markDirty();
                 databases.remove( databaseId );
                 databaseNames.remove( database.name );
                 databaseChildren.remove( databaseId );
@@ -997,6 +1108,7 @@ public void deleteDatabase( long databaseId ) {
     public int addUser( String name, String password ) {
         CatalogUser user = new CatalogUser( userIdBuilder.getAndIncrement(), name, password );
         synchronized ( this ) {
+            markDirty();
             users.put( user.id, user );
             userNames.put( user.name, user );
         }
@@ -1142,6 +1254,7 @@ public long addNamespace( String name, long databaseId, int ownerId, NamespaceTy
         long id = namespaceIdBuilder.getAndIncrement();
         CatalogSchema schema = new CatalogSchema( id, name, databaseId, ownerId, owner.name, namespaceType, namespaceType == NamespaceType.DOCUMENT || namespaceType == NamespaceType.GRAPH );
         synchronized ( this ) {
+            markDirty();
             schemas.put( id, schema );
             schemaNames.put( new Object[]{ databaseId, name }, schema );
             schemaChildren.put( id, ImmutableList.<Long>builder().build() );
@@ -1175,6 +1288,7 @@ public void renameSchema( long schemaId, String name ) {
             CatalogSchema schema = new CatalogSchema( old.id, name, old.databaseId, old.ownerId, old.ownerName, old.namespaceType, false );
 
             synchronized ( this ) {
+                markDirty();
                 schemas.replace( schemaId, schema );
                 schemaNames.remove( new Object[]{ old.databaseId, old.name } );
                 schemaNames.put( new Object[]{ old.databaseId, name }, schema );
@@ -1195,6 +1309,7 @@ public void setSchemaOwner( long schemaId, long ownerId ) {
             CatalogSchema old = Objects.requireNonNull( schemas.get( schemaId ) );
             CatalogSchema schema = new CatalogSchema( old.id, old.name, old.databaseId, (int) ownerId, old.ownerName, old.namespaceType, false );
             synchronized ( this ) {
+                markDirty();
                 schemas.replace( schemaId, schema );
                 schemaNames.replace( new Object[]{ schema.databaseId, schema.name }, schema );
             }
@@ -1219,6 +1334,7 @@ public long addGraph( long databaseId, String name, List<DataStore> stores, bool
         CatalogGraphDatabase graph = new CatalogGraphDatabase( databaseId, id, name, Catalog.defaultUserId, modifiable, ImmutableList.of(), true );
 
         synchronized ( this ) {
+            markDirty();
             graphs.put( id, graph );
             graphNames.put( new Object[]{ databaseId, name }, graph );
         }
@@ -1243,6 +1359,7 @@ public void addGraphAlias( long graphId, String alias, boolean ifNotExists ) {
         }
 
         synchronized ( this ) {
+            markDirty();
             graphAliases.put( alias, graph );
         }
         listeners.firePropertyChange( "graphAlias", null, alias );
@@ -1261,6 +1378,7 @@ public void removeGraphAlias( long graphId, String alias, boolean ifExists ) {
             return;
         }
         synchronized ( this ) {
+            markDirty();
             graphAliases.remove( alias );
         }
         listeners.firePropertyChange( "graphAlias", alias, null );
@@ -1610,6 +1728,7 @@ public void addGraphLogistics( long id, List<DataStore> stores, boolean onlyPlac
                     keyEdgePropertyId,
                     valueEdgePropertyId );
 
+            markDirty();
             graphMappings.put( id, mapping );
         }
 
@@ -1639,6 +1758,7 @@ public void deleteGraph( long id ) {
         removeGraphLogistics( id );
 
         synchronized ( this ) {
+            markDirty();
             old.placements.forEach( a -> graphPlacements.remove( new Object[]{ old.id, a } ) );
             graphs.remove( id );
             graphNames.remove( new Object[]{ old.databaseId, old.name } );
@@ -1684,6 +1804,7 @@ public List<CatalogGraphDatabase> getGraphs( long databaseId, Pattern graphName
     public void deleteSchema( long schemaId ) {
         CatalogSchema schema = getSchema( schemaId );
         synchronized ( this ) {
+            markDirty();
             schemaNames.remove( new Object[]{ schema.databaseId, schema.name } );
             List<Long> oldChildren = new ArrayList<>( Objects.requireNonNull( databaseChildren.get( schema.databaseId ) ) );
             oldChildren.remove( schemaId );
@@ -1775,8 +1896,9 @@ public List<CatalogTable> getTables( Pattern databaseNamePattern, Pattern schema
      */
     @Override
     public CatalogTable getTable( long tableId ) {
+        final CatalogSnapshot snapshot = currentSnapshot();
         try {
-            return Objects.requireNonNull( tables.get( tableId ) );
+            return Objects.requireNonNull( snapshot != null ? snapshot.getTable( tableId ) : tables.get( tableId ) );
         } catch ( NullPointerException e ) {
             throw new UnknownTableIdRuntimeException( tableId );
         }
@@ -2023,6 +2145,7 @@ public long addMaterializedView( String name, long namespaceId, int ownerId, Ent
      */
     private void updateEntityLogistics( String name, long namespaceId, long id, CatalogSchema schema, CatalogTable entity ) {
         synchronized ( this ) {
+            markDirty();
             tables.put( id, entity );
             tableChildren.put( id, ImmutableList.<Long>builder().build() );
             tableNames.put( new Object[]{ schema.databaseId, namespaceId, name }, entity );
@@ -2046,6 +2169,7 @@ public void addConnectedViews( Map<Long, List<Long>> underlyingTables, long view
             connectedViews.add( viewId );
             CatalogTable table = old.getConnectedViews( ImmutableList.copyOf( connectedViews ) );
             synchronized ( this ) {
+                markDirty();
                 tables.replace( id, table );
                 assert table != null;
                 tableNames.replace( new Object[]{ table.databaseId, table.namespaceId, old.name }, table );
@@ -2067,6 +2191,7 @@ public void deleteViewDependencies( CatalogView catalogView ) {
             CatalogTable table = old.getConnectedViews( ImmutableList.copyOf( connectedViews ) );
 
             synchronized ( this ) {
+                markDirty();
                 tables.replace( id, table );
                 assert table != null;
                 tableNames.replace( new Object[]{ table.databaseId, table.namespaceId, old.name }, table );
@@ -2110,6 +2235,7 @@ public void renameTable( long tableId, String name ) {
 
         CatalogTable table = old.getRenamed( name );
         synchronized ( this ) {
+            markDirty();
             tables.replace( tableId, table );
             tableNames.remove( new Object[]{ table.databaseId, table.namespaceId, old.name } );
             tableNames.put( new Object[]{ table.databaseId, table.namespaceId, name }, table );
@@ -2127,6 +2253,7 @@ public void deleteTable( long tableId ) {
         List<Long> children = new ArrayList<>( Objects.requireNonNull( schemaChildren.get( table.namespaceId ) ) );
         children.remove( tableId );
         synchronized ( this ) {
+            markDirty();
             schemaChildren.replace( table.namespaceId, ImmutableList.copyOf( children ) );
 
             if ( table.partitionProperty.reliesOnPeriodicChecks ) {
@@ -2206,6 +2333,7 @@ public void setTableOwner( long tableId, int ownerId ) {
         }
 
         synchronized ( this ) {
+            markDirty();
             tables.replace( tableId, table );
             tableNames.replace( new Object[]{ table.databaseId, table.namespaceId, table.name }, table );
         }
@@ -2259,6 +2387,7 @@ public void setPrimaryKey( long tableId, Long keyId ) {
         }
 
         synchronized ( this ) {
+            markDirty();
             tables.replace( tableId, table );
             tableNames.replace( new Object[]{ table.databaseId, table.namespaceId, table.name }, table );
 
@@ -2292,6 +2421,7 @@ public void addColumnPlacement( int adapterId, long columnId, PlacementType plac
                 physicalPositionBuilder.getAndIncrement() );
 
         synchronized ( this ) {
+            markDirty();
             columnPlacements.put( new Object[]{ adapterId, columnId }, columnPlacement );
 
             // Adds this ColumnPlacement to existing DataPlacement container
@@ -2319,6 +2449,7 @@ public void updatePartitionPlacementPhysicalNames( int adapterId, long partition
                     old.role );
 
             synchronized ( this ) {
+                markDirty();
                 partitionPlacements.replace( new Object[]{ adapterId, partitionId }, placement );
                 listeners.firePropertyChange( "partitionPlacement", old, placement );
             }
@@ -2361,6 +2492,7 @@ public void updateMaterializedViewRefreshTime( long materializedViewId ) {
                 old.isOrdered() );
 
         synchronized ( this ) {
+            markDirty();
             tables.replace( materializedViewId, catalogMaterializedView );
             tableNames.replace(
                     new Object[]{ catalogMaterializedView.databaseId, catalogMaterializedView.namespaceId, catalogMaterializedView.name },
@@ -2424,6 +2556,7 @@ public long addCollection( Long id, String name, long schemaId, int currentUserI
                 null );
 
         synchronized ( this ) {
+            markDirty();
             collections.put( collectionId, collection );
             collectionNames.put( new Object[]{ namespace.databaseId, schemaId, name }, collection );
         }
@@ -2448,6 +2581,7 @@ public long addCollectionPlacement( int adapterId, long collectionId, PlacementT
         CatalogCollection collection = old.addPlacement( adapterId );
 
         synchronized ( this ) {
+            markDirty();
             collectionPlacements.put( new Object[]{ collectionId, adapterId }, placement );
             collections.replace( collectionId, collection );
             collectionNames.replace( new Object[]{ collection.databaseId, collection.namespaceId, collection.name }, collection );
@@ -2470,6 +2604,7 @@ public void updateCollectionPartitionPhysicalNames( long collectionId, int adapt
         CatalogCollectionPlacement placement = new CatalogCollectionPlacement( adapterId, collectionId, physicalCollectionName, physicalNamespaceName, old.id );
         CatalogCollection collection = old.setPhysicalName( physicalCollectionName );
         synchronized ( this ) {
+            markDirty();
             collections.replace( collectionId, collection );
             collectionNames.replace( new Object[]{ collection.databaseId, collection.namespaceId, collection.name }, collection );
             collectionPlacements.replace( new Object[]{ collectionId, adapterId }, placement );
@@ -2546,6 +2681,7 @@ public long addCollectionLogistics( long schemaId, String name, List<DataStore>
 
         if ( !onlyPlacement ) {
             CatalogCollectionMapping mapping = new CatalogCollectionMapping( tableId, idId, dataId );
+            markDirty();
             documentMappings.put( tableId, mapping );
         }
 
@@ -2561,6 +2697,7 @@ public void deleteCollection( long id ) {
         CatalogCollection collection = getCollection( id );
 
         synchronized ( this ) {
+            markDirty();
             collections.remove( collection.namespaceId );
             collectionNames.remove( new Object[]{ collection.databaseId, collection.namespaceId, collection.name } );
             collection.placements.forEach( p -> collectionPlacements.remove( new Object[]{ collection.id, p } ) );
@@ -2578,6 +2715,7 @@ public void dropCollectionPlacement( long id, int adapterId ) {
         CatalogCollection collection = oldCollection.removePlacement( adapterId );
 
         synchronized ( this ) {
+            markDirty();
             collectionPlacements.remove( new Object[]{ id, adapterId } );
             collections.replace( id, collection );
             collectionNames.replace( new Object[]{ collection.databaseId, collection.namespaceId, collection.name }, collection );
@@ -2624,6 +2762,7 @@ public void deleteColumnPlacement( int adapterId, long columnId, boolean columnO
         CatalogTable oldTable = getTable( getColumn( columnId ).tableId );
 
         synchronized ( this ) {
+            markDirty();
             if ( log.isDebugEnabled() ) {
                 log.debug( "Is flagged for deletion {}", isTableFlaggedForDeletion( oldTable.id ) );
             }
@@ -2650,8 +2789,11 @@ public void deleteColumnPlacement( int adapterId, long columnId, boolean columnO
      */
     @Override
     public CatalogColumnPlacement getColumnPlacement( int adapterId, long columnId ) {
+        final CatalogSnapshot snapshot = currentSnapshot();
         try {
-            return Objects.requireNonNull( columnPlacements.get( new Object[]{ adapterId, columnId } ) );
+            return Objects.requireNonNull( snapshot != null
+                    ? snapshot.getColumnPlacement( adapterId, columnId )
+                    : columnPlacements.get( new Object[]{ adapterId, columnId } ) );
         } catch ( NullPointerException e ) {
             getAdapter( adapterId );
             getColumn( columnId );
@@ -2665,6 +2807,10 @@ public CatalogColumnPlacement getColumnPlacement( int adapterId, long columnId )
      */
     @Override
     public boolean checkIfExistsColumnPlacement( int adapterId, long columnId ) {
+        final CatalogSnapshot snapshot = currentSnapshot();
+        if ( snapshot != null ) {
+            return snapshot.getColumnPlacement( adapterId, columnId ) != null;
+        }
         CatalogColumnPlacement placement = columnPlacements.get( new Object[]{ adapterId, columnId } );
         return placement != null;
     }
@@ -2675,6 +2821,10 @@ public boolean checkIfExistsColumnPlacement( int adapterId, long columnId ) {
      */
     @Override
     public List<CatalogColumnPlacement> getColumnPlacementsOnAdapter( int adapterId ) {
+        final CatalogSnapshot snapshot = currentSnapshot();
+        if ( snapshot != null ) {
+            return new ArrayList<>( snapshot.getColumnPlacementsOnAdapter( adapterId ) );
+        }
         return new ArrayList<>( columnPlacements.prefixSubMap( new Object[]{ adapterId } ).values() );
     }
 
@@ -2684,6 +2834,10 @@ public List<CatalogColumnPlacement> getColumnPlacementsOnAdapter( int adapterId
      */
     @Override
     public List<CatalogColumnPlacement> getColumnPlacementsOnAdapterPerTable( int adapterId, long tableId ) {
+        final CatalogSnapshot snapshot = currentSnapshot();
+        if ( snapshot != null ) {
+            return new ArrayList<>( snapshot.getColumnPlacementsOnAdapterPerTable( adapterId, tableId ) );
+        }
         final Comparator<CatalogColumnPlacement> columnPlacementComparator = Comparator.comparingInt( p -> getColumn( p.columnId ).position );
         return getColumnPlacementsOnAdapter( adapterId )
                 .stream()
@@ -2698,6 +2852,10 @@ public List<CatalogColumnPlacement> getColumnPlacementsOnAdapterPerTable( int ad
      */
     @Override
     public List<CatalogColumnPlacement> getColumnPlacementsOnAdapterSortedByPhysicalPosition( int adapterId, long tableId ) {
+        final CatalogSnapshot snapshot = currentSnapshot();
+        if ( snapshot != null ) {
+            return new ArrayList<>( snapshot.getColumnPlacementsOnAdapterSortedByPhysicalPosition( adapterId, tableId ) );
+        }
         final Comparator<CatalogColumnPlacement> columnPlacementComparator = Comparator.comparingLong( p -> p.physicalPosition );
         return getColumnPlacementsOnAdapter( adapterId )
                 .stream()
@@ -2712,6 +2870,10 @@ public List<CatalogColumnPlacement> getColumnPlacementsOnAdapterSortedByPhysical
      */
     @Override
     public List<CatalogColumnPlacement> getColumnPlacementsByColumn( long columnId ) {
+        final CatalogSnapshot snapshot = currentSnapshot();
+        if ( snapshot != null ) {
+            return new ArrayList<>( snapshot.getColumnPlacementsByColumn( columnId ) );
+        }
         return columnPlacements.values()
                 .stream()
                 .filter( p -> p.columnId == columnId )
@@ -2780,6 +2942,10 @@ public long getPartitionGroupByPartition( long partitionId ) {
      */
     @Override
     public List<CatalogColumnPlacement> getColumnPlacement( long columnId ) {
+        final CatalogSnapshot snapshot = currentSnapshot();
+        if ( snapshot != null ) {
+            return new ArrayList<>( snapshot.getColumnPlacementsByColumn( columnId ) );
+        }
         return columnPlacements.values()
                 .stream()
                 .filter( p -> p.columnId == columnId )
@@ -2819,6 +2985,7 @@ public void updateColumnPlacementType( int adapterId, long columnId, PlacementTy
                     old.physicalColumnName,
                     old.physicalPosition );
             synchronized ( this ) {
+                markDirty();
                 columnPlacements.replace( new Object[]{ adapterId, columnId }, placement );
             }
             listeners.firePropertyChange( "columnPlacement", old, placement );
@@ -2847,6 +3014,7 @@ public void updateColumnPlacementPhysicalPosition( int adapterId, long columnId,
                     old.physicalColumnName,
                     position );
             synchronized ( this ) {
+                markDirty();
                 columnPlacements.replace( new Object[]{ adapterId, columnId }, placement );
             }
             listeners.firePropertyChange( "columnPlacement", old, placement );
@@ -2875,6 +3043,7 @@ public void updateColumnPlacementPhysicalPosition( int adapterId, long columnId
                     old.physicalColumnName,
                     physicalPositionBuilder.getAndIncrement() );
             synchronized ( this ) {
+                markDirty();
                 columnPlacements.replace( new Object[]{ adapterId, columnId }, placement );
             }
             listeners.firePropertyChange( "columnPlacement", old, placement );
@@ -2903,6 +3072,7 @@ public void updateColumnPlacementPhysicalNames( int adapterId, long columnId, St
                     physicalColumnName,
                     updatePhysicalColumnPosition ? physicalPositionBuilder.getAndIncrement() : old.physicalPosition );
             synchronized ( this ) {
+                markDirty();
                 columnPlacements.replace( new Object[]{ adapterId, columnId }, placement );
             }
             listeners.firePropertyChange( "columnPlacement", old, placement );
@@ -2953,8 +3123,9 @@ public List<CatalogColumn> getColumns( Pattern databaseNamePattern, Pattern sche
      */
     @Override
     public CatalogColumn getColumn( long columnId ) {
+        final CatalogSnapshot snapshot = currentSnapshot();
         try {
-            return Objects.requireNonNull( columns.get( columnId ) );
+            return Objects.requireNonNull( snapshot != null ? snapshot.getColumn( columnId ) : columns.get( columnId ) );
         } catch ( NullPointerException e ) {
             throw new UnknownColumnIdRuntimeException( columnId );
         }
@@ -3031,6 +3202,7 @@ public long addColumn( String name, long tableId, int position, PolyType type, P
                 null );
 
         synchronized ( this ) {
+            markDirty();
             columns.put( id, column );
             columnNames.put( new Object[]{ table.databaseId, table.namespaceId, table.id, name }, column );
             List<Long> children = new ArrayList<>( Objects.requireNonNull( tableChildren.get( tableId ) ) );
@@ -3064,6 +3236,7 @@ public void renameColumn( long columnId, String name ) {
 
         CatalogColumn column = new CatalogColumn( old.id, name, old.tableId, old.schemaId, old.databaseId, old.position, old.type, old.collectionsType, old.length, old.scale, old.dimension, old.cardinality, old.nullable, old.collation, old.defaultValue );
         synchronized ( this ) {
+            markDirty();
             columns.replace( columnId, column );
             columnNames.remove( new Object[]{ column.databaseId, column.schemaId, column.tableId, old.name } );
             columnNames.put( new Object[]{ column.databaseId, column.schemaId, column.tableId, name }, column );
@@ -3080,6 +3253,7 @@ public void setColumnPosition( long columnId, int position ) {
         CatalogColumn old = getColumn( columnId );
         CatalogColumn column = new CatalogColumn( old.id, old.name, old.tableId, old.schemaId, old.databaseId, position, old.type, old.collectionsType, old.length, old.scale, old.dimension, old.cardinality, old.nullable, old.collation, old.defaultValue );
         synchronized ( this ) {
+            markDirty();
             columns.replace( columnId, column );
             columnNames.replace( new Object[]{ column.databaseId, column.schemaId, column.tableId, column.name }, column );
         }
@@ -3122,6 +3296,7 @@ public void setColumnType( long columnId, PolyType type, PolyType collectionsTyp
                     : null;
             CatalogColumn column = new CatalogColumn( old.id, old.name, old.tableId, old.schemaId, old.databaseId, old.position, type, collectionsType, length, scale, dimension, cardinality, old.nullable, collation, old.defaultValue );
             synchronized ( this ) {
+                markDirty();
                 columns.replace( columnId, column );
                 columnNames.replace( new Object[]{ old.databaseId, old.schemaId, old.tableId, old.name }, column );
             }
@@ -3169,6 +3344,7 @@ public void setNullable( long columnId, boolean nullable ) throws GenericCatalog
                     old.collation,
                     old.defaultValue );
             synchronized ( this ) {
+                markDirty();
                 columns.replace( columnId, column );
                 columnNames.replace( new Object[]{ old.databaseId, old.schemaId, old.tableId, old.name }, column );
             }
@@ -3206,6 +3382,7 @@ public void setCollation( long columnId, Collation collation ) {
                 collation,
                 old.defaultValue );
         synchronized ( this ) {
+            markDirty();
             columns.replace( columnId, column );
             columnNames.replace( new Object[]{ old.databaseId, old.schemaId, old.tableId, old.name }, column );
         }
@@ -3277,6 +3454,7 @@ public void deleteColumn( long columnId ) {
                     old.connectedViews );
         }
         synchronized ( this ) {
+            markDirty();
             columnNames.remove( new Object[]{ column.databaseId, column.schemaId, column.tableId, column.name } );
             tableChildren.replace( column.tableId, ImmutableList.copyOf( children ) );
 
@@ -3318,6 +3496,7 @@ public void setDefaultValue( long columnId, PolyType type, String defaultValue )
                 old.collation,
                 new CatalogDefaultValue( columnId, type, defaultValue, "defaultValue" ) );
         synchronized ( this ) {
+            markDirty();
             columns.replace( columnId, column );
             columnNames.replace( new Object[]{ column.databaseId, column.schemaId, column.tableId, column.name }, column );
         }
@@ -3349,6 +3528,7 @@ public void deleteDefaultValue( long columnId ) {
                 null );
         if ( old.defaultValue != null ) {
             synchronized ( this ) {
+                markDirty();
                 columns.replace( columnId, column );
                 columnNames.replace( new Object[]{ old.databaseId, old.schemaId, old.tableId, old.name }, column );
             }
@@ -3408,6 +3588,7 @@ public void addPrimaryKey( long tableId, List<Long> columnIds ) throws GenericCa
                     throw new GenericCatalogException( "This key is referenced by at least one foreign key which requires this key to be unique. To drop this primary key, first drop the foreign keys or create a unique constraint." );
                 }
                 synchronized ( this ) {
+                    markDirty();
                     setPrimaryKey( tableId, null );
                     deleteKeyIfNoLongerUsed( table.primaryKey );
                 }
@@ -3545,6 +3726,7 @@ public void addForeignKey( long tableId, List<Long> columnIds, long referencesTa
                                 onUpdate,
                                 onDelete );
                         synchronized ( this ) {
+                            markDirty();
                             foreignKeys.put( keyId, key );
                         }
                         listeners.firePropertyChange( "foreignKey", null, key );
@@ -3575,6 +3757,7 @@ public void addUniqueConstraint( long tableId, String constraintName, List<Long>
             }
             long id = constraintIdBuilder.getAndIncrement();
             synchronized ( this ) {
+                markDirty();
                 constraints.put( id, new CatalogConstraint( id, keyId, ConstraintType.UNIQUE, constraintName, Objects.requireNonNull( keys.get( keyId ) ) ) );
             }
             listeners.firePropertyChange( "constraint", null, keyId );
@@ -3661,6 +3844,7 @@ public long addIndex( long tableId, List<Long> columnIds, boolean unique, String
         }
         long id = indexIdBuilder.getAndIncrement();
         synchronized ( this ) {
+            markDirty();
             indexes.put( id, new CatalogIndex(
                     id,
                     indexName,
@@ -3697,6 +3881,7 @@ public void setIndexPhysicalName( long indexId, String physicalName ) {
                     oldEntry.key,
                     physicalName );
             synchronized ( this ) {
+                markDirty();
                 indexes.replace( indexId, newEntry );
             }
             listeners.firePropertyChange( "index", oldEntry, newEntry );
@@ -3719,6 +3904,7 @@ public void deleteIndex( long indexId ) {
             }
         }
         synchronized ( this ) {
+            markDirty();
             indexes.remove( indexId );
         }
         listeners.firePropertyChange( "index", index.key, null );
@@ -3757,6 +3943,7 @@ public void deleteForeignKey( long foreignKeyId ) throws GenericCatalogException
         try {
             CatalogForeignKey catalogForeignKey = Objects.requireNonNull( foreignKeys.get( foreignKeyId ) );
             synchronized ( this ) {
+                markDirty();
                 foreignKeys.remove( catalogForeignKey.id );
                 deleteKeyIfNoLongerUsed( catalogForeignKey.id );
             }
@@ -3782,6 +3969,7 @@ public void deleteConstraint( long constraintId ) throws GenericCatalogException
                 }
             }
             synchronized ( this ) {
+                markDirty();
                 constraints.remove( catalogConstraint.id );
             }
             listeners.firePropertyChange( "constraint", catalogConstraint, null );
@@ -3874,6 +4062,7 @@ public int addAdapter( String uniqueName, String adapterName, AdapterType type,
         Map<String, String> temp = new HashMap<>( settings );
         CatalogAdapter adapter = new CatalogAdapter( id, uniqueName, adapterName, type, temp );
         synchronized ( this ) {
+            markDirty();
             adapters.put( id, adapter );
             adapterNames.put( uniqueName, adapter );
         }
@@ -3897,6 +4086,7 @@ public void updateAdapterSettings( int adapterId, Map<String, String> newSetting
         newSettings.forEach( temp::put );
         CatalogAdapter adapter = new CatalogAdapter( old.id, old.uniqueName, old.adapterName, old.type, temp );
         synchronized ( this ) {
+            markDirty();
             adapters.put( adapter.id, adapter );
             adapterNames.put( adapter.uniqueName, adapter );
         }
@@ -3912,6 +4102,7 @@ public void deleteAdapter( int adapterId ) {
         try {
             CatalogAdapter adapter = Objects.requireNonNull( adapters.get( adapterId ) );
             synchronized ( this ) {
+                markDirty();
                 adapters.remove( adapterId );
                 adapterNames.remove( adapter.uniqueName );
             }
@@ -3979,6 +4170,7 @@ public int addQueryInterface( String uniqueName, String clazz, Map<String, Strin
         Map<String, String> temp = new HashMap<>( settings );
         CatalogQueryInterface queryInterface = new CatalogQueryInterface( id, uniqueName, clazz, temp );
         synchronized ( this ) {
+            markDirty();
             queryInterfaces.put( id, queryInterface );
             queryInterfaceNames.put( uniqueName, queryInterface );
         }
@@ -4000,6 +4192,7 @@ public void deleteQueryInterface( int ifaceId ) {
         try {
             CatalogQueryInterface queryInterface = Objects.requireNonNull( queryInterfaces.get( ifaceId ) );
             synchronized ( this ) {
+                markDirty();
                 queryInterfaces.remove( ifaceId );
                 queryInterfaceNames.remove( queryInterface.name );
             }
@@ -4022,6 +4215,7 @@ public void updateQueryInterfaceSettings( int queryInterfaceId, Map<String, Stri
         CatalogQueryInterface old = getQueryInterface( queryInterfaceId );
         CatalogQueryInterface queryInterface = new CatalogQueryInterface( old.id, old.name, old.clazz, newSettings );
         synchronized ( this ) {
+            markDirty();
             queryInterfaces.put( queryInterface.id, queryInterface );
             queryInterfaceNames.put( queryInterface.name, queryInterface );
         }
@@ -4059,6 +4253,7 @@ public long addPartitionGroup( long tableId, String partitionGroupName, long sch
                     isUnbound );
 
             synchronized ( this ) {
+                markDirty();
                 partitionGroups.put( id, partitionGroup );
             }
             //listeners.firePropertyChange( "partitionGroups", null, partitionGroup );
@@ -4080,11 +4275,13 @@ public void deletePartitionGroup( long tableId, long schemaId, long partitionGro
         // Check whether there this partition id exists
         CatalogPartitionGroup partitionGroup = getPartitionGroup( partitionGroupId );
         synchronized ( this ) {
+            markDirty();
             for ( long partitionId : partitionGroup.partitionIds ) {
                 deletePartition( tableId, schemaId, partitionId );
             }
             partitionGroups.remove( partitionGroupId );
         }
+        listeners.firePropertyChange( "partitionGroup", partitionGroup, null );
     }
 
 
@@ -4109,6 +4306,7 @@ public void updatePartitionGroup( long partitionGroupId, List<Long> partitionIds
                 partitionGroup.isUnbound );
 
         synchronized ( this ) {
+            markDirty();
             partitionGroups.replace( partitionGroupId, updatedCatalogPartitionGroup );
             listeners.firePropertyChange( "partitionGroup", partitionGroup, updatedCatalogPartitionGroup );
         }
@@ -4178,6 +4376,7 @@ public void updatePartition( long partitionId, Long partitionGroupId ) {
             );
 
             synchronized ( this ) {
+                markDirty();
                 partitions.put( updatedPartition.id, updatedPartition );
             }
             listeners.firePropertyChange( "partition", oldPartition, updatedPartition );
@@ -4220,6 +4419,7 @@ public long addPartition( long tableId, long schemaId, long partitionGroupId, Li
                     partitionGroupId );
 
             synchronized ( this ) {
+                markDirty();
                 partitions.put( id, partition );
             }
             listeners.firePropertyChange( "partition", null, partition );
@@ -4239,13 +4439,15 @@ public void deletePartition( long tableId, long schemaId, long partitionId ) {
             log.debug( "Deleting partition with id '{}' on table with id '{}'", partitionId, tableId );
         }
         // Check whether there this partition id exists
-        getPartition( partitionId );
+        CatalogPartition partition = getPartition( partitionId );
         synchronized ( this ) {
+            markDirty();
             for ( CatalogPartitionPlacement partitionPlacement : getPartitionPlacements( partitionId ) ) {
                 deletePartitionPlacement( partitionPlacement.adapterId, partitionId );
             }
             partitions.remove( partitionId );
         }
+        listeners.firePropertyChange( "partition", partition, null );
     }
 
 
@@ -4296,6 +4498,7 @@ public void partitionTable( long tableId, PartitionType partitionType, long part
                 old.connectedViews );
 
         synchronized ( this ) {
+            markDirty();
             tables.replace( tableId, table );
             tableNames.replace( new Object[]{ table.databaseId, table.namespaceId, old.name }, table );
 
@@ -4352,6 +4555,7 @@ public void mergeTable( long tableId ) {
                 old.connectedViews );
 
         synchronized ( this ) {
+            markDirty();
             tables.replace( tableId, table );
             tableNames.replace( new Object[]{ table.databaseId, table.namespaceId, old.name }, table );
         }
@@ -4381,6 +4585,7 @@ public void updateTablePartitionProperties( long tableId, PartitionProperty part
                 old.connectedViews );
 
         synchronized ( this ) {
+            markDirty();
             tables.replace( tableId, table );
             tableNames.replace( new Object[]{ table.databaseId, table.namespaceId, old.name }, table );
         }
@@ -4779,6 +4984,7 @@ public void addPartitionPlacement( int adapterId, long tableId, long partitionId
                     role );
 
             synchronized ( this ) {
+                markDirty();
                 partitionPlacements.put( new Object[]{ adapterId, partitionId }, partitionPlacement );
 
                 // Adds this PartitionPlacement to existing DataPlacement container
@@ -4856,9 +5062,11 @@ public void updateDataPlacementsOnTable( long tableId, List<Integer> newDataPlac
         }
 
         synchronized ( this ) {
+            markDirty();
             tables.replace( tableId, newTable );
             tableNames.replace( new Object[]{ newTable.databaseId, newTable.namespaceId, newTable.name }, newTable );
         }
+        listeners.firePropertyChange( "table", old, newTable );
     }
 
 
@@ -4881,6 +5089,7 @@ public void addDataPlacement( int adapterId, long tableId ) {
                     ImmutableList.of() );
 
             synchronized ( this ) {
+                markDirty();
                 dataPlacements.put( new Object[]{ adapterId, tableId }, dataPlacement );
                 addSingleDataPlacementToTable( adapterId, tableId );
             }
@@ -4898,6 +5107,7 @@ protected void modifyDataPlacement( int adapterId, long tableId, CatalogDataPlac
         try {
             CatalogDataPlacement oldDataPlacement = getDataPlacement( adapterId, tableId );
             synchronized ( this ) {
+                markDirty();
                 dataPlacements.replace( new Object[]{ adapterId, tableId }, catalogDataPlacement );
             }
             listeners.firePropertyChange( "dataPlacement", oldDataPlacement, catalogDataPlacement );
@@ -4922,6 +5132,7 @@ public long addGraphPlacement( int adapterId, long graphId ) {
         CatalogGraphDatabase graph = old.addPlacement( adapterId );
 
         synchronized ( this ) {
+            markDirty();
             graphPlacements.put( new Object[]{ graph.id, adapterId }, placement );
             graphs.replace( graph.id, graph );
             graphNames.replace( new Object[]{ old.databaseId, graph.name }, graph );
@@ -4945,6 +5156,7 @@ public void updateGraphPlacementPhysicalNames( long graphId, int adapterId, Stri
         CatalogGraphPlacement placement = old.replacePhysicalName( physicalGraphName );
 
         synchronized ( this ) {
+            markDirty();
             graphPlacements.replace( new Object[]{ graphId, adapterId }, placement );
         }
 
@@ -4969,6 +5181,7 @@ public void deleteGraphPlacement( int adapterId, long graphId ) {
         CatalogGraphDatabase graph = old.removePlacement( adapterId );
 
         synchronized ( this ) {
+            markDirty();
             graphPlacements.remove( new Object[]{ graphId, adapterId } );
             graphs.replace( graphId, graph );
             graphNames.replace( new Object[]{ Catalog.defaultDatabaseId, graph.name }, graph );
@@ -5040,6 +5253,7 @@ public void removeDataPlacement( int adapterId, long tableId ) {
         }
 
         synchronized ( this ) {
+            markDirty();
             dataPlacements.remove( new Object[]{ adapterId, tableId } );
             removeSingleDataPlacementFromTable( adapterId, tableId );
         }
@@ -5214,10 +5428,13 @@ public void updateDataPlacement( int adapterId, long tableId, List<Long> columnI
     @Override
     public void deletePartitionPlacement( int adapterId, long partitionId ) {
         if ( checkIfExistsPartitionPlacement( adapterId, partitionId ) ) {
+            CatalogPartitionPlacement placement = getPartitionPlacement( adapterId, partitionId );
             synchronized ( this ) {
+                markDirty();
                 partitionPlacements.remove( new Object[]{ adapterId, partitionId } );
                 removePartitionsFromDataPlacement( adapterId, getTableFromPartition( partitionId ).id, Arrays.asList( partitionId ) );
             }
+            listeners.firePropertyChange( "partitionPlacement", placement, null );
         }
     }
 
@@ -5433,6 +5650,7 @@ private void deleteKeyIfNoLongerUsed( Long keyId ) {
             return;
         }
         synchronized ( this ) {
+            markDirty();
             keys.remove( keyId );
             keyColumns.remove( key.columnIds.stream().mapToLong( Long::longValue ).toArray() );
         }
@@ -5464,6 +5682,7 @@ private long addKey( long tableId, List<Long> columnIds, EnforcementTime enforce
             long id = keyIdBuilder.getAndIncrement();
             CatalogKey key = new CatalogKey( id, table.id, table.namespaceId, table.databaseId, columnIds, enforcementTime );
             synchronized ( this ) {
+                markDirty();
                 keys.put( id, key );
                 keyColumns.put( columnIds.stream().mapToLong( Long::longValue ).toArray(), id );
             }
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polypheny.db.catalog;
+
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.polypheny.db.catalog.entity.CatalogColumn;
+import org.polypheny.db.catalog.entity.CatalogColumnPlacement;
+import org.polypheny.db.catalog.entity.CatalogTable;
+
+
+/**
+ * Immutable copy of the tables, columns and column placements of the catalog, with secondary indexes for the lookups
+ * done by the router and the query processor for every statement. A snapshot is built from the MapDB maps when the
+ * catalog is committed and shared by all readers as long as the catalog does not change.
+ */
+final class CatalogSnapshot {
+
+    /**
+     * Number of changes of the catalog reflected by this snapshot.
+     */
+    final long version;
+
+    private final ImmutableMap<Long, CatalogTable> tables;
+    private final ImmutableMap<Long, CatalogColumn> columns;
+
+    private final ImmutableTable<Integer, Long, CatalogColumnPlacement> placements; // (AdapterId, ColumnId)
+    private final ImmutableListMultimap<Long, CatalogColumnPlacement> placementsByColumn;
+    private final ImmutableListMultimap<Integer, CatalogColumnPlacement> placementsByAdapter;
+    // (AdapterId, TableId), sorted by the position of the columns respectively by the physical position
+    private final ImmutableTable<Integer, Long, ImmutableList<CatalogColumnPlacement>> placementsByAdapterAndTable;
+    private final ImmutableTable<Integer, Long, ImmutableList<CatalogColumnPlacement>> physicalPlacementsByAdapterAndTable;
+
+
+    private CatalogSnapshot(
+            long version,
+            ImmutableMap<Long, CatalogTable> tables,
+            ImmutableMap<Long, CatalogColumn> columns,
+            ImmutableTable<Integer, Long, CatalogColumnPlacement> placements,
+            ImmutableListMultimap<Long, CatalogColumnPlacement> placementsByColumn,
+            ImmutableListMultimap<Integer, CatalogColumnPlacement> placementsByAdapter,
+            ImmutableTable<Integer, Long, ImmutableList<CatalogColumnPlacement>> placementsByAdapterAndTable,
+            ImmutableTable<Integer, Long, ImmutableList<CatalogColumnPlacement>> physicalPlacementsByAdapterAndTable ) {
+        this.version = version;
+        this.tables = tables;
+        this.columns = columns;
+        this.placements = placements;
+        this.placementsByColumn = placementsByColumn;
+        this.placementsByAdapter = placementsByAdapter;
+        this.placementsByAdapterAndTable = placementsByAdapterAndTable;
+        this.physicalPlacementsByAdapterAndTable = physicalPlacementsByAdapterAndTable;
+    }
+
+
+    /**
+     * Creates a snapshot of the given maps. The column placements have to be ordered by adapter and column.
+     */
+    static CatalogSnapshot of(
+            long version,
+            Map<Long, CatalogTable> tables,
+            Map<Long, CatalogColumn> columns,
+            Iterable<CatalogColumnPlacement> columnPlacements ) {
+        final ImmutableMap<Long, CatalogColumn> columnCopy = ImmutableMap.copyOf( columns );
+
+        final ImmutableTable.Builder<Integer, Long, CatalogColumnPlacement> placements = ImmutableTable.builder();
+        final ImmutableListMultimap.Builder<Long, CatalogColumnPlacement> byColumn = ImmutableListMultimap.builder();
+        final ImmutableListMultimap.Builder<Integer, CatalogColumnPlacement> byAdapter = ImmutableListMultimap.builder();
+        final Table<Integer, Long, List<CatalogColumnPlacement>> byAdapterAndTable = HashBasedTable.create();
+        for ( CatalogColumnPlacement placement : columnPlacements ) {
+            placements.put( placement.adapterId, placement.columnId, placement );
+            byColumn.put( placement.columnId, placement );
+            byAdapter.put( placement.adapterId, placement );
+            List<CatalogColumnPlacement> list = byAdapterAndTable.get( placement.adapterId, placement.tableId );
+            if ( list == null ) {
+                list = new ArrayList<>();
+                byAdapterAndTable.put( placement.adapterId, placement.tableId, list );
+            }
+            list.add( placement );
+        }
+
+        final Comparator<CatalogColumnPlacement> byPosition = Comparator.comparingInt( p -> {
+            CatalogColumn column = columnCopy.get( p.columnId );
+            return column == null ? Integer.MAX_VALUE : column.position;
+        } );
+        final Comparator<CatalogColumnPlacement> byPhysicalPosition = Comparator.comparingLong( p -> p.physicalPosition );
+        final ImmutableTable.Builder<Integer, Long, ImmutableList<CatalogColumnPlacement>> logical = ImmutableTable.builder();
+        final ImmutableTable.Builder<Integer, Long, ImmutableList<CatalogColumnPlacement>> physical = ImmutableTable.builder();
+        for ( Table.Cell<Integer, Long, List<CatalogColumnPlacement>> cell : byAdapterAndTable.cellSet() ) {
+            logical.put( cell.getRowKey(), cell.getColumnKey(), ImmutableList.sortedCopyOf( byPosition, cell.getValue() ) );
+            physical.put( cell.getRowKey(), cell.getColumnKey(), ImmutableList.sortedCopyOf( byPhysicalPosition, cell.getValue() ) );
+        }
+
+        return new CatalogSnapshot(
+                version,
+                ImmutableMap.copyOf( tables ),
+                columnCopy,
+                placements.build(),
+                byColumn.build(),
+                byAdapter.build(),
+                logical.build(),
+                physical.build() );
+    }
+
+
+    CatalogTable getTable( long tableId ) {
+        return tables.get( tableId );
+    }
+
+
+    CatalogColumn getColumn( long columnId ) {
+        return columns.get( columnId );
+    }
+
+
+    CatalogColumnPlacement getColumnPlacement( int adapterId, long columnId ) {
+        return placements.get( adapterId, columnId );
+    }
+
+
+    ImmutableList<CatalogColumnPlacement> getColumnPlacementsByColumn( long columnId ) {
+        return placementsByColumn.get( columnId );
+    }
+
+
+    ImmutableList<CatalogColumnPlacement> getColumnPlacementsOnAdapter( int adapterId ) {
+        return placementsByAdapter.get( adapterId );
+    }
+
+
+    ImmutableList<CatalogColumnPlacement> getColumnPlacementsOnAdapterPerTable( int adapterId, long tableId ) {
+        final ImmutableList<CatalogColumnPlacement> list = placementsByAdapterAndTable.get( adapterId, tableId );
+        return list == null ? ImmutableList.of() : list;
+    }
+
+
+    ImmutableList<CatalogColumnPlacement> getColumnPlacementsOnAdapterSortedByPhysicalPosition( int adapterId, long tableId ) {
+        final ImmutableList<CatalogColumnPlacement> list = physicalPlacementsByAdapterAndTable.get( adapterId, tableId );
+        return list == null ? ImmutableList.of() : list;
+    }
+
+}
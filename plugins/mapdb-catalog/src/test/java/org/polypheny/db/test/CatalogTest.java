@@ -49,6 +49,7 @@
 import org.polypheny.db.catalog.entity.CatalogTable;
 import org.polypheny.db.catalog.entity.CatalogUser;
 import org.polypheny.db.catalog.exceptions.GenericCatalogException;
+import org.polypheny.db.catalog.exceptions.NoTablePrimaryKeyException;
 import org.polypheny.db.catalog.exceptions.UnknownAdapterException;
 import org.polypheny.db.catalog.exceptions.UnknownColumnException;
 import org.polypheny.db.catalog.exceptions.UnknownDatabaseException;
@@ -338,6 +339,48 @@ public void testColumnPlacement() throws UnknownAdapterException {
     }
 
 
+    @Test
+    public void testColumnPlacementAfterCommit() throws UnknownAdapterException, GenericCatalogException, NoTablePrimaryKeyException {
+        addStores();
+
+        int userId = catalog.addUser( "tester", "" );
+        CatalogUser user = catalog.getUser( userId );
+
+        long databaseId = catalog.addDatabase( "APP", userId, user.name, 0, "" );
+        long schemaId = catalog.addNamespace( "schema1", databaseId, userId, NamespaceType.RELATIONAL );
+        long tableId = catalog.addTable( "table1", schemaId, userId, EntityType.ENTITY, true );
+
+        long columnId1 = catalog.addColumn( "column1", tableId, 1, PolyType.BIGINT, null, null, null, null, null, false, null );
+        long columnId2 = catalog.addColumn( "column2", tableId, 2, PolyType.BIGINT, null, null, null, null, null, false, null );
+        catalog.addPrimaryKey( tableId, List.of( columnId1 ) );
+
+        CatalogAdapter store1 = catalog.getAdapter( "store1" );
+        CatalogAdapter store2 = catalog.getAdapter( "store2" );
+        catalog.addColumnPlacement( store1.id, columnId2, PlacementType.AUTOMATIC, null, "table1", "column2" );
+        catalog.addColumnPlacement( store1.id, columnId1, PlacementType.AUTOMATIC, null, "table1", "column1" );
+        catalog.commit();
+
+        // Reads served by the snapshot of the committed catalog
+        assertEquals( "table1", catalog.getTable( tableId ).name );
+        assertEquals( "column2", catalog.getColumn( columnId2 ).name );
+        assertTrue( catalog.checkIfExistsColumnPlacement( store1.id, columnId1 ) );
+        assertFalse( catalog.checkIfExistsColumnPlacement( store2.id, columnId1 ) );
+        assertEquals( 2, catalog.getColumnPlacementsOnAdapter( store1.id ).size() );
+        assertEquals(
+                Arrays.asList( columnId1, columnId2 ),
+                catalog.getColumnPlacementsOnAdapterPerTable( store1.id, tableId ).stream().map( p -> p.columnId ).collect( Collectors.toList() ) );
+
+        // Uncommitted changes are visible to the changing transaction
+        catalog.addColumnPlacement( store2.id, columnId1, PlacementType.AUTOMATIC, null, "table1", "column1" );
+        assertEquals( 2, catalog.getColumnPlacementsByColumn( columnId1 ).size() );
+
+        // and discarded on rollback
+        catalog.rollback();
+        assertEquals( 1, catalog.getColumnPlacementsByColumn( columnId1 ).size() );
+        assertFalse( catalog.checkIfExistsColumnPlacement( store2.id, columnId1 ) );
+    }
+
+
     @Test
     public void testKey() throws GenericCatalogException {
         int userId = catalog.addUser( "tester", "" );
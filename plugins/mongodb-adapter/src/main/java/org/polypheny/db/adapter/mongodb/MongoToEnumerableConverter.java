@@ -44,6 +44,7 @@
 import org.polypheny.db.algebra.AbstractAlgNode;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.convert.ConverterImpl;
+import org.polypheny.db.algebra.core.Modify;
 import org.polypheny.db.algebra.core.Modify.Operation;
 import org.polypheny.db.algebra.metadata.AlgMetadataQuery;
 import org.polypheny.db.algebra.type.AlgDataType;
@@ -62,7 +63,7 @@
  * Relational expression representing a scan of a table in a Mongo data source.
  */
 @Slf4j
-public class MongoToEnumerableConverter extends ConverterImpl implements EnumerableAlg {
+public class MongoToEnumerableConverter extends ConverterImpl implements EnumerableAlg, BulkExecutable {
 
     protected MongoToEnumerableConverter( AlgOptCluster cluster, AlgTraitSet traits, AlgNode input ) {
         super( cluster, ConventionTraitDef.INSTANCE, traits, input );
@@ -81,6 +82,13 @@ public AlgOptCost computeSelfCost( AlgOptPlanner planner, AlgMetadataQuery mq )
     }
 
 
+    @Override
+    public boolean supportsBulkExecution() {
+        // prepared inserts write all parameter rows using insertMany, the other operations are executed once per row
+        return getInput() instanceof Modify && ((Modify) getInput()).isInsert();
+    }
+
+
     @Override
     public Result implement( EnumerableAlgImplementor implementor, Prefer pref ) {
         final BlockBuilder list = new BlockBuilder();
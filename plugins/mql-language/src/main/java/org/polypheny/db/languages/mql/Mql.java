@@ -26,6 +26,7 @@ public class Mql {
     static List<Type> DDL = Arrays.asList(
             Type.CREATE_COLLECTION,
             Type.CREATE_VIEW,
+            Type.CREATE_INDEX,
             Type.DROP,
             Type.USE_DATABASE,
             Type.DROP_DATABASE,
@@ -81,6 +82,7 @@ public enum Type {
         COUNT,
         CREATE_VIEW,
         CREATE_COLLECTION,
+        CREATE_INDEX,
         ADD_PLACEMENT,
         DELETE_PLACEMENT,
         DROP_DATABASE,
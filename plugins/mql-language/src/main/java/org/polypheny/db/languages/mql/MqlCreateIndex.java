@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019-2023 The Polypheny Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.polypheny.db.languages.mql;
+
+import java.util.List;
+import java.util.Map.Entry;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.polypheny.db.catalog.Catalog;
+import org.polypheny.db.catalog.Catalog.Pattern;
+import org.polypheny.db.catalog.entity.CatalogCollection;
+import org.polypheny.db.catalog.entity.CatalogSchema;
+import org.polypheny.db.catalog.exceptions.GenericCatalogException;
+import org.polypheny.db.catalog.exceptions.UnknownDatabaseException;
+import org.polypheny.db.catalog.exceptions.UnknownKeyException;
+import org.polypheny.db.catalog.exceptions.UnknownSchemaException;
+import org.polypheny.db.catalog.exceptions.UnknownTableException;
+import org.polypheny.db.catalog.exceptions.UnknownUserException;
+import org.polypheny.db.ddl.DdlManager;
+import org.polypheny.db.ddl.exception.IndexExistsException;
+import org.polypheny.db.languages.ParserPos;
+import org.polypheny.db.languages.QueryParameters;
+import org.polypheny.db.languages.mql.Mql.Type;
+import org.polypheny.db.nodes.ExecutableStatement;
+import org.polypheny.db.prepare.Context;
+import org.polypheny.db.transaction.Statement;
+import org.polypheny.db.transaction.TransactionException;
+
+
+/**
+ * Creates an index over a path of the documents of a collection, e.g. {@code db.orders.createIndex({"customer.id": 1})}.
+ * Only single paths are supported, the sort direction of the key is ignored.
+ */
+public class MqlCreateIndex extends MqlCollectionStatement implements ExecutableStatement {
+
+    private final BsonDocument keys;
+    private final BsonDocument options;
+
+
+    public MqlCreateIndex( ParserPos pos, String collection, BsonDocument keys, BsonDocument options ) {
+        super( collection, pos );
+        this.keys = keys;
+        this.options = options;
+    }
+
+
+    @Override
+    public Type getMqlKind() {
+        return Type.CREATE_INDEX;
+    }
+
+
+    @Override
+    public void execute( Context context, Statement statement, QueryParameters parameters ) {
+        if ( keys == null || keys.size() != 1 ) {
+            throw new RuntimeException( "Indexes can only be created over a single path of the documents." );
+        }
+        Entry<String, BsonValue> key = keys.entrySet().iterator().next();
+        if ( !key.getValue().isNumber() ) {
+            throw new RuntimeException( "The index type " + key.getValue() + " is not supported." );
+        }
+        String path = key.getKey();
+        String indexName = options != null && options.containsKey( "name" )
+                ? options.getString( "name" ).getValue()
+                : path.replace( '.', '_' ) + "_" + key.getValue().asNumber().intValue();
+
+        Catalog catalog = Catalog.getInstance();
+        String database = ((MqlQueryParameters) parameters).getDatabase();
+        List<CatalogSchema> namespaces = catalog.getSchemas( Catalog.defaultDatabaseId, new Pattern( database ) );
+        if ( namespaces.size() != 1 ) {
+            throw new RuntimeException( "The used document database (Polypheny Schema) is not available." );
+        }
+        List<CatalogCollection> collections = catalog.getCollections( namespaces.get( 0 ).id, new Pattern( getCollection() ) );
+        if ( collections.size() != 1 ) {
+            throw new RuntimeException( "The collection " + getCollection() + " does not exist." );
+        }
+
+        try {
+            DdlManager.getInstance().addDocumentIndex( collections.get( 0 ), path, indexName, statement );
+        } catch ( IndexExistsException e ) {
+            throw new RuntimeException( "An index with the name " + indexName + " already exists." );
+        } catch ( GenericCatalogException | UnknownUserException | UnknownSchemaException | UnknownKeyException | UnknownDatabaseException | UnknownTableException | TransactionException e ) {
+            throw new RuntimeException( e );
+        }
+    }
+
+}
@@ -126,7 +126,8 @@ protected void reloadSettings( List<String> updatedSettings ) {
 
         @Override
         protected String getConnectionUrl( final String dbHostname, final int dbPort, final String dbName ) {
-            return String.format( "jdbc:mysql://%s:%d/%s", dbHostname, dbPort, dbName );
+            // Use server-side cursors if a fetch size is set. Otherwise, Connector/J reads the whole result into memory.
+            return String.format( "jdbc:mysql://%s:%d/%s?useCursorFetch=true", dbHostname, dbPort, dbName );
         }
 
 
@@ -21,6 +21,7 @@
 import static org.polypheny.db.adapter.neo4j.util.NeoStatements.match_;
 import static org.polypheny.db.adapter.neo4j.util.NeoStatements.node_;
 import static org.polypheny.db.adapter.neo4j.util.NeoStatements.path_;
+import static org.polypheny.db.adapter.neo4j.util.NeoStatements.shortestPath_;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,6 +30,7 @@
 import org.polypheny.db.adapter.neo4j.util.NeoStatements.NeoStatement;
 import org.polypheny.db.algebra.AlgNode;
 import org.polypheny.db.algebra.core.lpg.LpgMatch;
+import org.polypheny.db.algebra.operators.OperatorName;
 import org.polypheny.db.plan.AlgOptCluster;
 import org.polypheny.db.plan.AlgTraitSet;
 import org.polypheny.db.rex.RexCall;
@@ -72,6 +74,14 @@ public void implement( NeoGraphImplementor implementor ) {
                 case CYPHER_PATH_MATCH:
                     neoMatches.add( path_( match.left, ((RexLiteral) match.right.operands.get( 1 )).getValueAs( PolyPath.class ), mappingLabel, false ) );
                     break;
+                case CYPHER_SHORTEST_PATH_MATCH:
+                case CYPHER_ALL_SHORTEST_PATHS_MATCH:
+                    neoMatches.add( shortestPath_(
+                            match.left,
+                            ((RexLiteral) match.right.operands.get( 1 )).getValueAs( PolyPath.class ),
+                            mappingLabel,
+                            match.right.op.getOperatorName() == OperatorName.CYPHER_ALL_SHORTEST_PATHS_MATCH ) );
+                    break;
             }
         }
 
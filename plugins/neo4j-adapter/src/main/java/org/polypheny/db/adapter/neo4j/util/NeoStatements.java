@@ -391,6 +391,37 @@ static PathStatement path_( @Nullable String identifier, PolyPath path, @Nullabl
     }
 
 
+    class ShortestPathStatement extends NeoStatement {
+
+        private final String identifier;
+        private final PathStatement path;
+        private final boolean all;
+
+
+        protected ShortestPathStatement( String identifier, PathStatement path, boolean all ) {
+            super( null );
+            this.identifier = identifier;
+            this.path = path;
+            this.all = all;
+        }
+
+
+        @Override
+        public String build() {
+            String namedPath = identifier == null || identifier.contains( "$" ) ? "" : String.format( "%s = ", identifier );
+            return namedPath + (all ? "allShortestPaths(" : "shortestPath(") + path.build() + ")";
+        }
+
+    }
+
+    static ShortestPathStatement shortestPath_( @Nullable String identifier, PolyPath path, @Nullable String mappingLabel, boolean all ) {
+        String name = path.getVariableName() == null ? identifier : path.getVariableName();
+        PolyPath unnamed = new PolyPath( path.getNodes(), path.getEdges(), path.getNames(), path.getPath(), null );
+
+        return new ShortestPathStatement( name, path_( null, unnamed, mappingLabel, false ), all );
+    }
+
+
     class PropertyStatement extends NeoStatement {
 
         private final String key;
@@ -794,6 +794,19 @@ public IntervalParameterStrategy getIntervalParameterStrategy() {
     }
 
 
+    /**
+     * Returns the fetch size to set on statements reading a result, given the number of rows the consumer wants to
+     * retrieve per round trip. A value of 0 leaves the default behavior of the driver, which for some drivers means
+     * buffering the whole result in memory.
+     *
+     * @param fetchSize Number of rows to fetch per round trip, greater than 0
+     * @param autoCommit Whether the connection executing the statement is in auto-commit mode
+     */
+    public int getFetchSize( int fetchSize, boolean autoCommit ) {
+        return fetchSize;
+    }
+
+
     /**
      * A few utility functions copied from org.polypheny.db.util.Util. We have copied them because we wish to keep SqlDialect's dependencies to a minimum.
      */
@@ -91,6 +91,13 @@ public IntervalParameterStrategy getIntervalParameterStrategy() {
     }
 
 
+    @Override
+    public int getFetchSize( int fetchSize, boolean autoCommit ) {
+        // The driver only uses a cursor outside of auto-commit mode and otherwise ignores the fetch size
+        return autoCommit ? 0 : fetchSize;
+    }
+
+
     @Override
     public boolean supportsNestedArrays() {
         return true;
@@ -449,9 +449,8 @@ public void testRedundantSortOnJoinPlan() throws Exception {
                 equalTo( "EnumerableProject(model=[RELATIONAL], deptno=[$1])\n"
                         + "  EnumerableLimit(model=[RELATIONAL], fetch=[10])\n"
                         + "    EnumerableJoin(model=[RELATIONAL], condition=[=($1, $5)], joinType=[left])\n"
-                        + "      EnumerableLimit(model=[RELATIONAL], fetch=[10])\n"
-                        + "        EnumerableSort(model=[RELATIONAL], sort0=[$1], dir0=[ASC])\n"
-                        + "          EnumerableScan(model=[RELATIONAL], table=[[hr, emps]])\n"
+                        + "      EnumerableLimitSort(model=[RELATIONAL], sort0=[$1], dir0=[ASC], fetch=[10])\n"
+                        + "        EnumerableScan(model=[RELATIONAL], table=[[hr, emps]])\n"
                         + "      EnumerableProject(model=[RELATIONAL], deptno=[$0], name=[$1], employees=[$2], x=[$3.x], y=[$3.y])\n"
                         + "        EnumerableScan(model=[RELATIONAL], table=[[hr, depts]])\n" ) );
     }